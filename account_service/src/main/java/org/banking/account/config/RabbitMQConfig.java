@@ -1,10 +1,23 @@
 package org.banking.account.config;
 
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.banking.messaging.retry.RetryTopology;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,6 +25,24 @@ import org.springframework.context.annotation.Configuration;
 @EnableRabbit
 public class RabbitMQConfig {
 
+    // Balance, trade and status events relayed from the outbox, routed by event type
+    public static final String ACCOUNT_EVENTS_EXCHANGE = "account.events";
+
+    public static final String USER_REGISTRATION_QUEUE = "user.registration.account.queue";
+
+    public static final String REGISTRATION_BATCH_FACTORY = "registrationBatchListenerFactory";
+
+    @Bean
+    public TopicExchange accountEventsExchange() {
+        return new TopicExchange(ACCOUNT_EVENTS_EXCHANGE);
+    }
+
+    // Reads registration events in the binary encoding and, from producers not yet switched, as JSON
+    @Bean
+    public EventMessageConverter eventMessageConverter(ObjectMapper objectMapper) {
+        return new EventMessageConverter(objectMapper);
+    }
+
     @Bean
     public FanoutExchange userRegistrationExchange() {
         return new FanoutExchange("user.registration.exchange");
@@ -19,7 +50,29 @@ public class RabbitMQConfig {
 
     @Bean
     public Queue accountRegistrationQueue() {
-        return new Queue("user.registration.account.queue", true);
+        return new Queue(USER_REGISTRATION_QUEUE, true);
+    }
+
+    // Delays grow by tier; a message still failing after the last one is parked in user.registration.account.dlq
+    @Bean
+    public RetryTopology accountRegistrationRetryTopology(
+            @Value("${rabbitmq.retry.delays-ms:1000,5000,25000,125000}") long[] delaysMillis) {
+        return new RetryTopology(USER_REGISTRATION_QUEUE, delaysMillis);
+    }
+
+    @Bean
+    public Declarables accountRegistrationRetryQueues(RetryTopology accountRegistrationRetryTopology) {
+        return accountRegistrationRetryTopology.declarables();
+    }
+
+    @Bean
+    public DelayedRetryRecoverer accountRegistrationRecoverer(
+            RetryTopology accountRegistrationRetryTopology,
+            RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.retry.confirm-timeout-ms:5000}") long confirmTimeoutMillis) {
+        return new DelayedRetryRecoverer(accountRegistrationRetryTopology, rabbitTemplate, meterRegistry,
+                confirmTimeoutMillis);
     }
 
     // Bind account queue to the exchange
@@ -29,4 +82,32 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(accountRegistrationQueue)
                 .to(userRegistrationExchange);
     }
-}
\ No newline at end of file
+
+    // Hands the listener up to batch-size messages at once; a partial batch is delivered after receive-timeout
+    @Bean(name = REGISTRATION_BATCH_FACTORY)
+    public SimpleRabbitListenerContainerFactory registrationBatchListenerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            DelayedRetryRecoverer accountRegistrationRecoverer,
+            @Value("${registration.consumer.batch-size:200}") int batchSize,
+            @Value("${registration.consumer.prefetch:500}") int prefetch,
+            @Value("${registration.consumer.concurrency:2}") int concurrency,
+            @Value("${registration.consumer.max-concurrency:4}") int maxConcurrency,
+            @Value("${registration.consumer.receive-timeout-ms:500}") long receiveTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setReceiveTimeout(receiveTimeout);
+        // A failed batch is handed to the retry queues at once instead of being redelivered in a tight loop
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(accountRegistrationRecoverer)
+                .build());
+        return factory;
+    }
+}
@@ -0,0 +1,87 @@
+package org.banking.account.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica's replay lag. Read-only transactions are routed to the replica only while the
+ * last check succeeded recently and the lag was under the threshold; until the first check, after
+ * a failed one, or when checks stop arriving, reads stay on the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Zero when the replica has replayed everything it received, so an idle primary does not read as lag
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """;
+
+    private final JdbcTemplate replica;
+    private final double maxLagSeconds;
+    private final long staleAfterNanos;
+
+    private volatile boolean reachable;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile long checkedAtNanos;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag, Duration checkInterval,
+                             MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.staleAfterNanos = checkInterval.multipliedBy(3).toNanos();
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.isUsable() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-ms:1000}")
+    public void check() {
+        boolean wasUsable = isUsable();
+        try {
+            lagSeconds = queryLagSeconds();
+            reachable = true;
+        } catch (RuntimeException e) {
+            if (reachable) {
+                log.warn("Replica lag check failed: {}", e.getMessage());
+            }
+            reachable = false;
+            lagSeconds = Double.NaN;
+        }
+        checkedAtNanos = System.nanoTime();
+
+        boolean usable = isUsable();
+        if (usable != wasUsable) {
+            log.info("Read replica {} (lag {} s, threshold {} s)",
+                    usable ? "in use" : "bypassed, reads go to the primary", lagSeconds, maxLagSeconds);
+        }
+    }
+
+    public boolean isUsable() {
+        return reachable
+                && lagSeconds <= maxLagSeconds
+                && System.nanoTime() - checkedAtNanos < staleAfterNanos;
+    }
+
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    protected double queryLagSeconds() {
+        Double lag = replica.queryForObject(LAG_SQL, Double.class);
+        return lag == null ? 0 : lag;
+    }
+}
@@ -0,0 +1,41 @@
+package org.banking.account.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica pool while the replica is within
+ * the lag threshold, and everything else to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy so the target is chosen after the transaction is marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.replicaReads = meterRegistry.counter("datasource.routing.reads", "route", "replica");
+        this.fallbackReads = meterRegistry.counter("datasource.routing.reads", "route", "primary-fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (lagMonitor.isUsable()) {
+            replicaReads.increment();
+            return Route.REPLICA;
+        }
+        fallbackReads.increment();
+        return Route.PRIMARY;
+    }
+}
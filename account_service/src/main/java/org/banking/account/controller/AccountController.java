@@ -2,16 +2,39 @@ package org.banking.account.controller;
 
 import org.banking.account.dto.AccountRequest;
 import org.banking.account.dto.AccountResponse;
+import org.banking.account.dto.AccountStatement;
+import org.banking.account.dto.AccountSummary;
+import org.banking.account.dto.CursorPage;
+import org.banking.account.dto.JournalVerification;
 import org.banking.account.dto.TransactionRequest;
 import org.banking.account.entity.Transaction;
+import org.banking.account.entity.TransactionBase;
 import org.banking.account.service.AccountService;
+import org.banking.account.service.AccountSummaryService;
+import org.banking.account.service.BulkTransferService;
+import org.banking.account.service.ExportFormat;
+import org.banking.account.service.ExportResponses;
+import org.banking.account.service.IdempotencyService;
+import org.banking.account.service.JournalService;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.banking.account.service.StatementService;
+import org.banking.account.service.TransactionExportService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,6 +44,13 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final JournalService journalService;
+    private final BulkTransferService bulkTransferService;
+    private final TransactionExportService transactionExportService;
+    private final StatementService statementService;
+    private final AccountSummaryService accountSummaryService;
 
     @PostMapping("/create-account")
     public ResponseEntity<AccountResponse> createAccount(
@@ -39,6 +69,13 @@ public class AccountController {
         return ResponseEntity.ok(accounts);
     }
 
+    // Dashboard view: accounts, crypto holdings and recent activity in one read
+    @GetMapping("/summary")
+    public ResponseEntity<AccountSummary> getSummary(HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return ResponseEntity.ok(accountSummaryService.summary(userId));
+    }
+
     @GetMapping("/{accountNumber}")
     public ResponseEntity<AccountResponse> getMyAccounts(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
         Long userId = (Long) httpRequest.getAttribute("userId");
@@ -48,11 +85,52 @@ public class AccountController {
 
     @PostMapping("/transfer")
     public ResponseEntity<AccountResponse> transfer(
-            @Valid @RequestBody TransactionRequest request, HttpServletRequest httpRequest){
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest httpRequest){
         Long userId = (Long) httpRequest.getAttribute("userId");
-        AccountResponse account = accountService.transfer(request, userId);
+        AccountResponse account = retryExecutor.execute("transfer", () ->
+                idempotencyService.execute(userId, "transfer", idempotencyKey, request,
+                        AccountResponse.class, () -> accountService.transfer(request, userId)));
         return ResponseEntity.ok(account);
     }
+    @PostMapping(value = "/transfer/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkTransfer(
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) throws IOException {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        try (InputStream input = file.getInputStream()) {
+            return bulkTransferReport(userId, idempotencyKey, input);
+        }
+    }
+
+    @PostMapping(value = "/transfer/bulk", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<StreamingResponseBody> bulkTransferStream(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) throws IOException {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return bulkTransferReport(userId, idempotencyKey, httpRequest.getInputStream());
+    }
+
+    private ResponseEntity<StreamingResponseBody> bulkTransferReport(Long userId, String idempotencyKey,
+                                                                     InputStream input) throws IOException {
+        StreamingResponseBody body;
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            BulkTransferService.Plan plan = bulkTransferService.prepare(userId, input);
+            body = output -> bulkTransferService.apply(plan, output);
+        } else {
+            // A keyed upload is buffered so a retry of the same file resumes it or replays its report
+            byte[] csv = input.readAllBytes();
+            String report = idempotencyService.executeInSteps(userId, "transfer/bulk", idempotencyKey, csv,
+                    String.class, checkpoint -> bulkTransferService.applyAll(userId, csv, checkpoint));
+            body = output -> output.write(report.getBytes(StandardCharsets.UTF_8));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
     @PostMapping("/{accountNumber}/activateAccount")
     public ResponseEntity<Void> activateAccount(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
         Long userId = (Long) httpRequest.getAttribute("userId");
@@ -62,19 +140,69 @@ public class AccountController {
 
     @PostMapping("/withdraw")
     public ResponseEntity<AccountResponse> withdraw(
-            @Valid @RequestBody TransactionRequest request, HttpServletRequest httpRequest) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
         Long userId = (Long) httpRequest.getAttribute("userId");
-        AccountResponse account = accountService.withdraw(request, userId);
+        AccountResponse account = retryExecutor.execute("withdraw", () ->
+                idempotencyService.execute(userId, "withdraw", idempotencyKey, request,
+                        AccountResponse.class, () -> accountService.withdraw(request, userId)));
         return ResponseEntity.ok(account);
     }
 
     @GetMapping("/{accountNumber}/transactions")
-    public ResponseEntity<List<Transaction>> getAccountTransactions(@PathVariable String accountNumber, Long userId) {
+    public ResponseEntity<CursorPage<TransactionBase>> getAccountTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
         AccountResponse account = accountService.getAccountByNumber(accountNumber, userId);
-        List<Transaction> transactions = accountService.getAccountTransactions(account.getId());
+        CursorPage<TransactionBase> transactions = accountService.getAccountTransactions(
+                account.getId(), type, from, to, cursor, limit);
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/{accountNumber}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long afterId,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountResponse account = accountService.getAccountByNumber(accountNumber, userId);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        TransactionExportService.Range range = new TransactionExportService.Range(from, to, afterId);
+        boolean gzip = ExportResponses.acceptsGzip(httpRequest);
+
+        StreamingResponseBody body = output -> transactionExportService.exportTransactions(
+                account.getId(), exportFormat, range, gzip, output);
+        return ExportResponses.attachment("transactions-" + accountNumber, exportFormat, gzip, body);
+    }
+
+    @GetMapping("/{accountNumber}/statement")
+    public ResponseEntity<AccountStatement> statement(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountResponse account = accountService.getAccountByNumber(accountNumber, userId);
+        return ResponseEntity.ok(statementService.statement(accountService.getAccountById(account.getId()), from, to));
+    }
+
+    @GetMapping("/{accountNumber}/journal/verify")
+    public ResponseEntity<JournalVerification> verifyJournal(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountResponse account = accountService.getAccountByNumber(accountNumber, userId);
+        return ResponseEntity.ok(journalService.verify(accountService.getAccountById(account.getId())));
+    }
+
     @DeleteMapping("/{accountNumber}/deactivateAccount")
     public ResponseEntity<Void> deactivateAccount(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
         Long userId = (Long) httpRequest.getAttribute("userId");
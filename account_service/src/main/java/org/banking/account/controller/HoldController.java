@@ -0,0 +1,47 @@
+package org.banking.account.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.banking.account.dto.HoldRequest;
+import org.banking.account.dto.HoldResponse;
+import org.banking.account.service.HoldService;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/account/holds")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+    private final OptimisticRetryExecutor retryExecutor;
+
+    @PostMapping
+    public ResponseEntity<HoldResponse> placeHold(
+            @Valid @RequestBody HoldRequest request, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return ResponseEntity.ok(retryExecutor.execute("placeHold", () -> holdService.placeHold(userId, request)));
+    }
+
+    @GetMapping("/{accountNumber}")
+    public List<HoldResponse> getActiveHolds(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return holdService.getActiveHolds(userId, accountNumber);
+    }
+
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<HoldResponse> capture(@PathVariable Long holdId, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return ResponseEntity.ok(retryExecutor.execute("captureHold", () -> holdService.capture(userId, holdId)));
+    }
+
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<HoldResponse> release(@PathVariable Long holdId, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return ResponseEntity.ok(retryExecutor.execute("releaseHold", () -> holdService.release(userId, holdId)));
+    }
+}
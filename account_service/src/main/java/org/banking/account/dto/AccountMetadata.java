@@ -0,0 +1,26 @@
+package org.banking.account.dto;
+
+import lombok.Value;
+import org.banking.account.entity.Account;
+
+/**
+ * The parts of an account that rarely change, safe to serve from cache. Balances are never cached.
+ */
+@Value
+public class AccountMetadata {
+    Long id;
+    Long userId;
+    String accountNumber;
+    Account.AccountType type;
+    Account.AccountStatus status;
+    Boolean cryptoEnabled;
+
+    public static AccountMetadata of(Account account) {
+        return new AccountMetadata(account.getId(), account.getUserId(), account.getAccountNumber(),
+                account.getType(), account.getStatus(), account.getCryptoEnabled());
+    }
+
+    public boolean isActiveTrading() {
+        return type == Account.AccountType.TRADING && status == Account.AccountStatus.ACTIVE;
+    }
+}
@@ -11,6 +11,7 @@ public class AccountResponse {
     private Long userId;
     private String accountNumber;
     private BigDecimal balance;
+    private BigDecimal availableBalance;
     private Boolean cryptoEnabled;
     private Account.AccountStatus status;
     private Account.AccountType type;
@@ -24,6 +25,7 @@ public class AccountResponse {
         response.setCryptoEnabled(account.getCryptoEnabled());
         response.setAccountNumber(account.getAccountNumber());
         response.setBalance(account.getBalance());
+        response.setAvailableBalance(account.getAvailableBalance());
         response.setStatus(account.getStatus());
         response.setType(account.getType());
         response.setCreatedAt(account.getCreatedAt());
@@ -0,0 +1,40 @@
+package org.banking.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AccountStatement {
+    private String accountNumber;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Section> sections;
+
+    // One per balance: the fiat account and each crypto holding
+    @Data
+    @AllArgsConstructor
+    public static class Section {
+        private String ledger;
+        private String currency;
+        private BigDecimal openingBalance;
+        private BigDecimal closingBalance;
+        private List<Line> lines;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Line {
+        private LocalDateTime createdAt;
+        private String entryType;
+        private String description;
+        private String reference;
+        private BigDecimal amount;
+        private BigDecimal balance;
+    }
+}
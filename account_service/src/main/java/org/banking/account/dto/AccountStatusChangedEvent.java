@@ -0,0 +1,11 @@
+package org.banking.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AccountStatusChangedEvent {
+    private Long accountId;
+    private Long userId;
+}
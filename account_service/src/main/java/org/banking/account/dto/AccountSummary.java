@@ -0,0 +1,63 @@
+package org.banking.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummary {
+    private Long userId;
+    private List<AccountItem> accounts = new ArrayList<>();
+    private List<HoldingItem> holdings = new ArrayList<>();
+    private List<ActivityItem> recentActivity = new ArrayList<>();
+    private LocalDateTime updatedAt;
+
+    // version is the entity's optimistic-lock version the item was taken at
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AccountItem {
+        private Long id;
+        private String accountNumber;
+        private String type;
+        private String status;
+        private BigDecimal balance;
+        private BigDecimal heldBalance;
+        private Long version;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HoldingItem {
+        private Long id;
+        private Long accountId;
+        private String cryptoCurrency;
+        private BigDecimal balance;
+        private Long version;
+    }
+
+    // One customer leg of a journal entry
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ActivityItem {
+        private UUID entryId;
+        private String entryType;
+        private String reference;
+        private String description;
+        private String ledger;
+        private Long accountId;
+        private String currency;
+        private BigDecimal amount;
+        private LocalDateTime createdAt;
+    }
+}
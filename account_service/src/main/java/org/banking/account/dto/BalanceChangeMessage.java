@@ -0,0 +1,28 @@
+package org.banking.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Body of account.balance.changed and trade.executed; balances are after the change
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceChangeMessage {
+    private Long userId;
+    private Long accountId;
+    private String accountNumber;
+    private BigDecimal balance;
+    private String currency;
+    private Long holdingId;
+    private String cryptoCurrency;
+    private BigDecimal cryptoBalance;
+    private UUID entryId;
+    private String entryType;
+    private String reference;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,22 @@
+package org.banking.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.banking.account.entity.Account;
+import org.banking.account.service.JournalPosting;
+import org.banking.crypto.entity.CryptoAccount;
+
+/**
+ * Published inside the transaction that changed a balance. Carries the entities themselves because
+ * their versions are only bumped at flush; listeners read them after commit.
+ */
+@Data
+@AllArgsConstructor
+public class BalanceChangedEvent {
+    private Long userId;
+    private Account account;
+    // Null when only the fiat balance changed
+    private CryptoAccount holding;
+    // Null when no money moved
+    private JournalPosting posting;
+}
@@ -0,0 +1,29 @@
+package org.banking.account.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class HoldRequest {
+
+    // Fiat hold on this account; ignored when cryptoCurrency is set
+    private String accountNumber;
+
+    // Crypto hold on the user's trading account
+    private String cryptoCurrency;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.00000001", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    @Min(value = 1, message = "Hold must last at least 1 second")
+    @Max(value = 2_592_000, message = "Hold cannot last more than 30 days")
+    private long expiresInSeconds = 900;
+
+    private String reference;
+}
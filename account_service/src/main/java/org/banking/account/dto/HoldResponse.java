@@ -0,0 +1,34 @@
+package org.banking.account.dto;
+
+import lombok.Data;
+import org.banking.account.entity.FundsHold;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class HoldResponse {
+    private Long id;
+    private Long accountId;
+    private String currency;
+    private BigDecimal amount;
+    private String status;
+    private String reference;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime resolvedAt;
+
+    public static HoldResponse fromEntity(FundsHold hold) {
+        HoldResponse response = new HoldResponse();
+        response.setId(hold.getId());
+        response.setAccountId(hold.getAccountId());
+        response.setCurrency(hold.getCurrency());
+        response.setAmount(hold.getAmount());
+        response.setStatus(hold.getStatus().name());
+        response.setReference(hold.getReference());
+        response.setExpiresAt(hold.getExpiresAt());
+        response.setCreatedAt(hold.getCreatedAt());
+        response.setResolvedAt(hold.getResolvedAt());
+        return response;
+    }
+}
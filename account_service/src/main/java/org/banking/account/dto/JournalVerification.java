@@ -0,0 +1,25 @@
+package org.banking.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class JournalVerification {
+    private String accountNumber;
+    private boolean balanced;
+    private List<Check> checks;
+
+    @Data
+    @AllArgsConstructor
+    public static class Check {
+        private String ledger;
+        private String currency;
+        private BigDecimal storedBalance;
+        private BigDecimal journalBalance;
+        private boolean matches;
+    }
+}
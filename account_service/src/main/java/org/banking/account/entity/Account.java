@@ -10,11 +10,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", uniqueConstraints = @UniqueConstraint(
+        name = "ux_accounts_user_type", columnNames = {"user_id", "type"}))
 @Data
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,6 +28,10 @@ public class Account {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    // Reserved by active holds; still part of balance until captured
+    @Column(name = "held_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal heldBalance = BigDecimal.ZERO;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private AccountStatus status = AccountStatus.ACTIVE;
@@ -42,9 +48,17 @@ public class Account {
 
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<CryptoAccount> cryptoAccounts = new ArrayList<>();
 
+    public BigDecimal getAvailableBalance() {
+        return heldBalance != null ? balance.subtract(heldBalance) : balance;
+    }
+
     public enum AccountStatus {
         ACTIVE, INACTIVE, SUSPENDED, CLOSED, FROZEN
     }
@@ -0,0 +1,22 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Serialized AccountSummary; written only by AccountSummaryService
+@Entity
+@Table(name = "account_summary")
+@Data
+public class AccountSummaryRecord {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "summary", nullable = false, columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "archive_watermarks")
+@Data
+public class ArchiveWatermark {
+    @Id
+    @Column(name = "table_name", length = 63)
+    private String tableName;
+
+    // Rows created before this instant live in the archive table, the rest in the live table
+    @Column(name = "archived_before", nullable = false)
+    private LocalDateTime archivedBefore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
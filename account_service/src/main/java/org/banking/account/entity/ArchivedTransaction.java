@@ -0,0 +1,19 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+// Read-only; rows are moved here a month at a time by TransactionArchiveService
+@Entity
+@Table(name = "transactions_archive", indexes = {
+        @Index(name = "idx_transactions_archive_account_created", columnList = "account_id, created_at, id")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ArchivedTransaction extends TransactionBase {
+    @Id
+    private Long id;
+}
@@ -0,0 +1,45 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "balance_snapshots")
+@IdClass(BalanceSnapshot.Key.class)
+@Data
+public class BalanceSnapshot {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private JournalLeg.Ledger ledger;
+
+    // Same meaning as JournalLeg.accountId
+    @Id
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Id
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false, length = 10)
+    private String currency;
+
+    @Column(name = "closing_balance", nullable = false, precision = 36, scale = 18)
+    private BigDecimal closingBalance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private JournalLeg.Ledger ledger;
+        private Long accountId;
+        private LocalDate snapshotDate;
+    }
+}
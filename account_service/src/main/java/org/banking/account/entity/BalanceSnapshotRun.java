@@ -0,0 +1,22 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "balance_snapshot_runs")
+@Data
+public class BalanceSnapshotRun {
+    @Id
+    @Column(name = "snapshot_date")
+    private LocalDate snapshotDate;
+
+    @Column(name = "rows_written", nullable = false)
+    private Integer rowsWritten;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,51 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "funds_holds")
+@Data
+public class FundsHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "funds_holds_seq")
+    @SequenceGenerator(name = "funds_holds_seq", sequenceName = "funds_holds_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    // Set for crypto holds; null means the hold is on the fiat balance
+    private Long cryptoAccountId;
+
+    @Column(nullable = false, length = 10)
+    private String currency;
+
+    @Column(nullable = false, precision = 36, scale = 18)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status = HoldStatus.ACTIVE;
+
+    private String reference;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime resolvedAt;
+
+    public boolean isCrypto() {
+        return cryptoAccountId != null;
+    }
+
+    public enum HoldStatus {
+        ACTIVE, CAPTURED, RELEASED, EXPIRED
+    }
+}
@@ -0,0 +1,39 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+public class IdempotencyRecord {
+
+    // userId:endpoint:Idempotency-Key
+    @Id
+    @Column(name = "id", length = 200)
+    private String id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    // For PENDING rows of step-wise actions this is the progress their committed steps saved
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // For PENDING rows this is the lease of the executing request
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        PENDING, COMPLETED
+    }
+}
@@ -0,0 +1,45 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "interest_accrual_partitions")
+@IdClass(InterestAccrualPartition.Key.class)
+@Data
+public class InterestAccrualPartition {
+    @Id
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate accrualDate;
+
+    @Id
+    @Column(name = "range_start", nullable = false)
+    private Long rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private Long rangeEnd;
+
+    @Column(name = "accounts_accrued", nullable = false)
+    private Integer accountsAccrued;
+
+    @Column(name = "interest_posted", nullable = false, precision = 19, scale = 2)
+    private BigDecimal interestPosted;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate accrualDate;
+        private Long rangeStart;
+    }
+}
@@ -0,0 +1,26 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "interest_accrual_runs")
+@Data
+public class InterestAccrualRun {
+    @Id
+    @Column(name = "accrual_date")
+    private LocalDate accrualDate;
+
+    @Column(name = "accounts_accrued", nullable = false)
+    private Integer accountsAccrued;
+
+    @Column(name = "interest_posted", nullable = false, precision = 19, scale = 2)
+    private BigDecimal interestPosted;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,23 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "interest_carry")
+@Data
+public class InterestCarry {
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    // Accrued interest below one cent, added to the next day's accrual
+    @Column(nullable = false, precision = 19, scale = 10)
+    private BigDecimal carry = BigDecimal.ZERO;
+
+    @Column(name = "last_accrual_date", nullable = false)
+    private LocalDate lastAccrualDate;
+}
@@ -0,0 +1,31 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Append-only; rows are written by JournalService in a single statement with their legs
+@Entity
+@Table(name = "journal_entries")
+@Data
+public class JournalEntry {
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EntryType entryType;
+
+    private String reference;
+
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum EntryType {
+        OPENING_BALANCE, DEPOSIT, WITHDRAWAL, TRANSFER, CRYPTO_BUY, CRYPTO_SELL, HOLD_CAPTURE, INTEREST
+    }
+}
@@ -0,0 +1,46 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "journal_legs", indexes = {
+        @Index(name = "idx_journal_legs_account_created", columnList = "ledger, account_id, created_at"),
+        @Index(name = "idx_journal_legs_created", columnList = "created_at"),
+        @Index(name = "idx_journal_legs_entry", columnList = "entry_id")
+})
+@Data
+public class JournalLeg {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entry_id", nullable = false)
+    private UUID entryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Ledger ledger;
+
+    // Account id for CUSTOMER_FIAT, crypto account id for CUSTOMER_CRYPTO, null for house ledgers
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(nullable = false, length = 10)
+    private String currency;
+
+    // Signed: positive increases the ledger balance. Legs of an entry sum to zero per currency.
+    @Column(nullable = false, precision = 36, scale = 18)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Ledger {
+        CUSTOMER_FIAT, CUSTOMER_CRYPTO, EXTERNAL, TRADING_DESK, FEE_INCOME, INTEREST_EXPENSE
+    }
+}
@@ -2,44 +2,21 @@ package org.banking.account.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
+// Monthly range partitions on created_at in PostgreSQL; months past retention move to transactions_archive
 @Entity
 @Table(name = "transactions")
 @Data
-public class Transaction {
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class Transaction extends TransactionBase {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    private Long accountId;
-
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
-    private TransactionType type;
-
-    @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal amount;
-
-    @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal balanceBefore;
-
-    @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal balanceAfter;
-
-    private String description;
-
-    private String reference;
-
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
-    private TransactionStatus status = TransactionStatus.COMPLETED;
-
-    @Column(nullable = false)
-    private LocalDateTime createdAt = LocalDateTime.now();
-
     public enum TransactionType {
         DEPOSIT, WITHDRAWAL, TRANSFER, FEE, INTEREST
     }
@@ -47,4 +24,4 @@ public class Transaction {
     public enum TransactionStatus {
         PENDING, COMPLETED, FAILED, CANCELLED
     }
-}
\ No newline at end of file
+}
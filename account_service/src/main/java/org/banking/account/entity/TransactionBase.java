@@ -0,0 +1,43 @@
+package org.banking.account.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns shared by live {@link Transaction} rows and their {@link ArchivedTransaction} copies.
+ */
+@MappedSuperclass
+@Data
+public abstract class TransactionBase {
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balanceBefore;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    private String description;
+
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionStatus status = Transaction.TransactionStatus.COMPLETED;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public abstract Long getId();
+}
@@ -0,0 +1,7 @@
+package org.banking.account.exception;
+
+public class HoldStateException extends RuntimeException {
+    public HoldStateException(String message) {
+        super(message);
+    }
+}
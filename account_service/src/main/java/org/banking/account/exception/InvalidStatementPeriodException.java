@@ -0,0 +1,7 @@
+package org.banking.account.exception;
+
+public class InvalidStatementPeriodException extends RuntimeException {
+    public InvalidStatementPeriodException(String message) {
+        super(message);
+    }
+}
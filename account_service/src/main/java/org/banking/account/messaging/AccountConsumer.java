@@ -1,56 +1,108 @@
 package org.banking.account.messaging;
 
-import org.banking.account.dto.UserRegistrationEvent;
-import org.banking.account.entity.Account;
-import org.banking.account.repository.AccountRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import org.banking.account.config.RabbitMQConfig;
+import org.banking.account.service.AccountProvisioningService;
+import com.banking.events.UserRegistrationEvent;
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Provisions default accounts for registered users, a batch of messages at a time. The batch is
+ * deduplicated in memory, checked against existing accounts with one query and inserted with one
+ * statement. Only messages that cannot be processed on their own go to the dead-letter queue: those
+ * that cannot be read and users whose rows violate a constraint. Any other failure, such as the
+ * database being unreachable, is thrown, and the container hands the whole batch to the delayed
+ * retry queues.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class AccountConsumer {
 
-    private final AccountRepository accountRepository;
-    private final ObjectMapper objectMapper;
+    private final AccountProvisioningService provisioningService;
+    private final EventMessageConverter messageConverter;
+    private final DelayedRetryRecoverer recoverer;
+    private final Counter created;
 
-    @RabbitListener(queues = "user.registration.account.queue")
-    public void handleUserRegistration(String message) {
-        try {
-            UserRegistrationEvent event = objectMapper.readValue(message, UserRegistrationEvent.class);
-            log.info("Received user registration event for userId: {}", event.getUserId());
+    public AccountConsumer(AccountProvisioningService provisioningService,
+                           EventMessageConverter messageConverter,
+                           DelayedRetryRecoverer recoverer,
+                           MeterRegistry meterRegistry) {
+        this.provisioningService = provisioningService;
+        this.messageConverter = messageConverter;
+        this.recoverer = recoverer;
+        this.created = meterRegistry.counter("registration.accounts.created");
+    }
 
-            if (accountRepository.countByUserId(event.getUserId()) > 0) {
-                log.info("Account already exists for userId: {}", event.getUserId());
-                return;
+    @RabbitListener(queues = RabbitMQConfig.USER_REGISTRATION_QUEUE,
+            containerFactory = RabbitMQConfig.REGISTRATION_BATCH_FACTORY)
+    public void handleUserRegistrations(List<Message> messages) {
+        List<Message> failed = new ArrayList<>();
+
+        // Redelivered or duplicated events for one user share a single insert
+        Map<Long, List<Message>> byUser = new LinkedHashMap<>();
+        for (Message message : messages) {
+            try {
+                UserRegistrationEvent event = messageConverter.fromMessage(message, UserRegistrationEvent.class);
+                if (event.getUserId() == null) {
+                    throw new IllegalArgumentException("userId is missing");
+                }
+                byUser.computeIfAbsent(event.getUserId(), userId -> new ArrayList<>()).add(message);
+            } catch (Exception e) {
+                failed.add(withCause(message, e));
             }
+        }
 
-            // Create a default account for new users
-            Account account = new Account();
-            account.setUserId(event.getUserId());
-            account.setAccountNumber(generateAccountNumber());
-            account.setBalance(BigDecimal.ZERO);
-            account.setStatus(Account.AccountStatus.ACTIVE);
-            account.setType(Account.AccountType.TRADING);
-            account.setBalance(BigDecimal.valueOf(3500));
-
-            accountRepository.save(account);
-            log.info("Created default checking account {} for userId: {}",
-                    account.getAccountNumber(), event.getUserId());
-
-        } catch (Exception e) {
-            log.error("Error processing user registration event: {}", e.getMessage(), e);
+        if (!byUser.isEmpty()) {
+            Set<Long> existing = provisioningService.usersWithAccounts(byUser.keySet());
+            List<Long> newUsers = byUser.keySet().stream()
+                    .filter(userId -> !existing.contains(userId))
+                    .toList();
+            int count = createAccounts(newUsers, byUser, failed);
+            created.increment(count);
+            log.info("Registration batch of {} messages: {} users, {} already provisioned, {} accounts created",
+                    messages.size(), byUser.size(), existing.size(), count);
+        }
+
+        if (!failed.isEmpty()) {
+            // Confirmed before the batch is acknowledged, so a dead-lettered message is never lost
+            recoverer.deadLetter(failed);
+        }
+    }
+
+    private int createAccounts(List<Long> userIds, Map<Long, List<Message>> byUser, List<Message> failed) {
+        try {
+            return provisioningService.createDefaultAccounts(userIds);
+        } catch (DataIntegrityViolationException e) {
+            // Some user in the batch cannot be inserted; find out which one
+            log.warn("Inserting {} default accounts failed, retrying one user at a time: {}", userIds.size(), e.getMessage());
+        }
+
+        int count = 0;
+        for (Long userId : userIds) {
+            try {
+                count += provisioningService.createDefaultAccounts(List.of(userId));
+            } catch (DataIntegrityViolationException e) {
+                byUser.get(userId).forEach(message -> failed.add(withCause(message, e)));
+            }
         }
+        return count;
     }
 
-    private String generateAccountNumber() {
-        Random random = new Random();
-        return String.format("ACC%010d", random.nextLong(1_000_000_000L, 10_000_000_000L));
+    private static Message withCause(Message message, Exception cause) {
+        message.getMessageProperties().setHeader(DelayedRetryRecoverer.EXCEPTION_HEADER, String.valueOf(cause.getMessage()));
+        return message;
     }
-}
\ No newline at end of file
+}
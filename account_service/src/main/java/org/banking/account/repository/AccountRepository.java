@@ -1,18 +1,28 @@
 package org.banking.account.repository;
 
+import jakarta.persistence.LockModeType;
 import org.banking.account.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
     List<Account> findByUserId(Long userId);
     boolean existsByUserIdAndType(Long userId, Account.AccountType type);
+    Optional<Account> findFirstByUserIdAndTypeAndStatus(Long userId, Account.AccountType type, Account.AccountStatus status);
+
+    // Rows are locked in id order so concurrent multi-account operations cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.id")
+    List<Account> findByAccountNumbersForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
 
     @Query("SELECT COUNT(a) FROM Account a WHERE a.userId = :userId")
     long countByUserId(@Param("userId") Long userId);
@@ -0,0 +1,20 @@
+package org.banking.account.repository;
+
+import jakarta.persistence.LockModeType;
+import org.banking.account.entity.AccountSummaryRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountSummaryRepository extends JpaRepository<AccountSummaryRecord, Long> {
+
+    // Serializes event application across instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountSummaryRecord s WHERE s.userId = :userId")
+    Optional<AccountSummaryRecord> findForUpdate(@Param("userId") Long userId);
+}
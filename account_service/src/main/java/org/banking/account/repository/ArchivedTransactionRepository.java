@@ -0,0 +1,11 @@
+package org.banking.account.repository;
+
+import org.banking.account.entity.ArchivedTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long>,
+        JpaSpecificationExecutor<ArchivedTransaction> {
+}
@@ -0,0 +1,33 @@
+package org.banking.account.repository;
+
+import jakarta.persistence.LockModeType;
+import org.banking.account.entity.FundsHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FundsHoldRepository extends JpaRepository<FundsHold, Long> {
+
+    List<FundsHold> findByAccountIdAndStatusOrderByCreatedAtDesc(Long accountId, FundsHold.HoldStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM FundsHold h WHERE h.id = :id")
+    Optional<FundsHold> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT h FROM FundsHold h WHERE h.status = org.banking.account.entity.FundsHold.HoldStatus.ACTIVE " +
+            "AND h.id > :afterId ORDER BY h.id")
+    List<FundsHold> findActiveAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT h FROM FundsHold h WHERE h.status = org.banking.account.entity.FundsHold.HoldStatus.ACTIVE " +
+            "AND h.expiresAt < :now AND h.id > :afterId ORDER BY h.id")
+    List<FundsHold> findActiveExpiredAfter(@Param("now") LocalDateTime now, @Param("afterId") Long afterId,
+                                           Pageable pageable);
+}
@@ -0,0 +1,43 @@
+package org.banking.account.repository;
+
+import org.banking.account.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Pending rows with saved progress stay until the key's ttl, so a late retry still resumes
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE (r.expiresAt < :now AND (r.status = org.banking.account.entity.IdempotencyRecord.Status.COMPLETED OR r.responseBody IS NULL)) OR r.createdAt < :abandonedBefore")
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("abandonedBefore") LocalDateTime abandonedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = org.banking.account.entity.IdempotencyRecord.Status.PENDING AND r.responseBody IS NULL AND r.expiresAt = :lease")
+    int deletePending(@Param("id") String id, @Param("lease") LocalDateTime lease);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.expiresAt = :renewed WHERE r.id = :id AND r.status = org.banking.account.entity.IdempotencyRecord.Status.PENDING AND r.expiresAt = :lease")
+    int renewLease(@Param("id") String id, @Param("lease") LocalDateTime lease, @Param("renewed") LocalDateTime renewed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :progress, r.expiresAt = :renewed WHERE r.id = :id AND r.status = org.banking.account.entity.IdempotencyRecord.Status.PENDING AND r.expiresAt = :lease")
+    int saveProgress(@Param("id") String id, @Param("lease") LocalDateTime lease,
+                     @Param("renewed") LocalDateTime renewed, @Param("progress") String progress);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = org.banking.account.entity.IdempotencyRecord.Status.COMPLETED, r.responseBody = :response, r.expiresAt = :expiresAt WHERE r.id = :id AND r.status = org.banking.account.entity.IdempotencyRecord.Status.PENDING AND r.expiresAt = :lease")
+    int complete(@Param("id") String id, @Param("lease") LocalDateTime lease,
+                 @Param("response") String response, @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -0,0 +1,33 @@
+package org.banking.account.repository;
+
+import org.banking.account.entity.Transaction;
+import org.banking.account.entity.TransactionBase;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional history filters; a null argument yields a null specification, which Spring Data ignores.
+ * Generic so the same filters apply to the live and the archive table.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static <T extends TransactionBase> Specification<T> forAccount(Long accountId) {
+        return (root, query, cb) -> cb.equal(root.get("accountId"), accountId);
+    }
+
+    public static <T extends TransactionBase> Specification<T> hasType(Transaction.TransactionType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static <T extends TransactionBase> Specification<T> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static <T extends TransactionBase> Specification<T> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+}
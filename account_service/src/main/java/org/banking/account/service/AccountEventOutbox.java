@@ -0,0 +1,66 @@
+package org.banking.account.service;
+
+import com.banking.messaging.outbox.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.banking.account.config.RabbitMQConfig;
+import org.banking.account.dto.AccountStatusChangedEvent;
+import org.banking.account.dto.BalanceChangeMessage;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.entity.JournalEntry;
+import org.banking.crypto.entity.CryptoAccount;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Turns balance and status changes into outbox messages on the account.events exchange. Runs
+ * synchronously inside the publishing transaction, keyed by account so a consumer sees one
+ * account's changes in order.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountEventOutbox {
+
+    public static final String BALANCE_CHANGED = "account.balance.changed";
+    public static final String TRADE_EXECUTED = "trade.executed";
+    public static final String STATUS_CHANGED = "account.status.changed";
+
+    private static final String AGGREGATE = "account";
+
+    private static final Set<JournalEntry.EntryType> TRADES =
+            EnumSet.of(JournalEntry.EntryType.CRYPTO_BUY, JournalEntry.EntryType.CRYPTO_SELL);
+
+    private final OutboxService outboxService;
+
+    @EventListener
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        JournalPosting posting = event.getPosting();
+        CryptoAccount holding = event.getHolding();
+        BalanceChangeMessage message = new BalanceChangeMessage(
+                event.getUserId(),
+                event.getAccount().getId(),
+                event.getAccount().getAccountNumber(),
+                event.getAccount().getBalance(),
+                AccountService.ACCOUNT_CURRENCY,
+                holding == null ? null : holding.getId(),
+                holding == null ? null : holding.getCryptoCurrency(),
+                holding == null ? null : holding.getBalance(),
+                posting == null ? null : posting.getId(),
+                posting == null ? null : posting.getEntryType().name(),
+                posting == null ? null : posting.getReference(),
+                posting == null ? LocalDateTime.now() : posting.getCreatedAt());
+
+        String routingKey = posting != null && TRADES.contains(posting.getEntryType()) ? TRADE_EXECUTED : BALANCE_CHANGED;
+        outboxService.append(AGGREGATE, event.getAccount().getId(), RabbitMQConfig.ACCOUNT_EVENTS_EXCHANGE,
+                routingKey, message);
+    }
+
+    @EventListener
+    public void onStatusChanged(AccountStatusChangedEvent event) {
+        outboxService.append(AGGREGATE, event.getAccountId(), RabbitMQConfig.ACCOUNT_EVENTS_EXCHANGE,
+                STATUS_CHANGED, event);
+    }
+}
@@ -0,0 +1,54 @@
+package org.banking.account.service;
+
+import org.banking.account.dto.AccountMetadata;
+import org.banking.account.dto.AccountStatusChangedEvent;
+import org.banking.account.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * In-process caches behind {@link AccountService}: userId to trading account id, which only
+ * changes when an account is opened or changes status, and short-lived account metadata.
+ * Entries are dropped once a status change commits; other instances catch up within the TTL.
+ */
+@Component
+public class AccountMetadataCache {
+
+    private final LruCache<Long, Long> tradingAccountIds;
+    private final LruCache<Long, AccountMetadata> metadata;
+
+    public AccountMetadataCache(@Value("${account.cache.max-size:10000}") int maxSize,
+                                @Value("${account.cache.trading-id-ttl-seconds:600}") long tradingIdTtlSeconds,
+                                @Value("${account.cache.metadata-ttl-seconds:30}") long metadataTtlSeconds) {
+        this.tradingAccountIds = new LruCache<>(maxSize, Duration.ofSeconds(tradingIdTtlSeconds));
+        this.metadata = new LruCache<>(maxSize, Duration.ofSeconds(metadataTtlSeconds));
+    }
+
+    public Long tradingAccountId(Long userId) {
+        return tradingAccountIds.get(userId);
+    }
+
+    public AccountMetadata metadata(Long accountId) {
+        return metadata.get(accountId);
+    }
+
+    public void put(AccountMetadata account) {
+        metadata.put(account.getId(), account);
+        if (account.isActiveTrading()) {
+            tradingAccountIds.put(account.getUserId(), account.getId());
+        }
+    }
+
+    public void evictUser(Long userId) {
+        tradingAccountIds.remove(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(AccountStatusChangedEvent event) {
+        metadata.remove(event.getAccountId());
+        tradingAccountIds.remove(event.getUserId());
+    }
+}
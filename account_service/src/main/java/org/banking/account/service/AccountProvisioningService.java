@@ -0,0 +1,142 @@
+package org.banking.account.service;
+
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the default trading account of newly registered users, a whole batch per statement.
+ * Ids come from accounts_id_seq, the sequence the entity allocates from; the unique (user_id, type)
+ * index makes the insert a no-op for users that already got their account, including from a
+ * concurrent consumer. Each account created gets an OPENING_BALANCE journal entry and publishes a
+ * {@link BalanceChangedEvent}, both in the same transaction.
+ */
+@Service
+public class AccountProvisioningService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO accounts (id, user_id, account_number, balance, held_balance, status, type,
+                                  crypto_enabled, created_at, version)
+            VALUES %s
+            """;
+
+    private static final String ON_CONFLICT_POSTGRES = "ON CONFLICT (user_id, type) DO NOTHING";
+
+    // H2's PostgreSQL mode only accepts the form without a conflict target
+    private static final String ON_CONFLICT_H2 = "ON CONFLICT DO NOTHING";
+
+    // Each nextval reserves a whole pooled block, so these ids never meet the ones Hibernate hands out
+    private static final String ROW = "(nextval('accounts_id_seq'), ?, ?, ?, 0, ?, ?, TRUE, ?, 0)";
+
+    private static final String ACCOUNT_CURRENCY = "USD";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+    private final JournalService journalService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BigDecimal openingBalance;
+    private final String onConflict;
+
+    public AccountProvisioningService(JdbcTemplate jdbcTemplate,
+                                      DataSource dataSource,
+                                      IdGenerator idGenerator,
+                                      JournalService journalService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${registration.opening-balance:3500}") BigDecimal openingBalance) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.journalService = journalService;
+        this.eventPublisher = eventPublisher;
+        this.openingBalance = openingBalance;
+        this.onConflict = JournalService.isPostgres(dataSource) ? ON_CONFLICT_POSTGRES : ON_CONFLICT_H2;
+    }
+
+    public Set<Long> usersWithAccounts(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        String sql = "SELECT DISTINCT user_id FROM accounts WHERE user_id IN ("
+                + String.join(", ", Collections.nCopies(userIds.size(), "?")) + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, userIds.toArray()));
+    }
+
+    // Ascending keyset page of provisioned user ids in (afterUserId, toUserId], served by the (user_id, type) index
+    public List<Long> userIdsBetween(long afterUserId, long toUserId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM accounts WHERE user_id > ? AND user_id <= ? ORDER BY user_id LIMIT ?",
+                Long.class, afterUserId, toUserId, limit);
+    }
+
+    /**
+     * Inserts one default account per user in a single statement. Returns the number of accounts
+     * created; users that already have one are skipped.
+     */
+    @Transactional
+    public int createDefaultAccounts(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<String> rows = new ArrayList<>(userIds.size());
+        List<String> accountNumbers = new ArrayList<>(userIds.size());
+        List<Object> args = new ArrayList<>(userIds.size() * 6);
+        for (Long userId : userIds) {
+            String accountNumber = idGenerator.nextAccountNumber();
+            rows.add(ROW);
+            accountNumbers.add(accountNumber);
+            args.add(userId);
+            args.add(accountNumber);
+            args.add(openingBalance);
+            args.add(Account.AccountStatus.ACTIVE.name());
+            args.add(Account.AccountType.TRADING.name());
+            args.add(now);
+        }
+        int created = jdbcTemplate.update(
+                INSERT_SQL.formatted(String.join(", ", rows)) + onConflict, args.toArray());
+        if (created > 0) {
+            journalAndPublish(accountNumbers);
+        }
+        return created;
+    }
+
+    // Account numbers are fresh, so the rows carrying them are exactly the ones this insert created
+    private void journalAndPublish(List<String> accountNumbers) {
+        String sql = "SELECT " + AccountRows.COLUMNS + " FROM accounts WHERE account_number IN ("
+                + String.join(", ", Collections.nCopies(accountNumbers.size(), "?")) + ")";
+        List<Account> accounts = jdbcTemplate.query(sql, AccountRows::map, accountNumbers.toArray());
+
+        List<JournalPosting> postings = new ArrayList<>(accounts.size());
+        List<BalanceChangedEvent> events = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            JournalPosting posting = null;
+            if (openingBalance.signum() > 0) {
+                posting = JournalPosting.of(JournalEntry.EntryType.OPENING_BALANCE, account.getAccountNumber(), "Opening balance")
+                        .leg(JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(), ACCOUNT_CURRENCY, openingBalance)
+                        .balance(JournalLeg.Ledger.EXTERNAL, null, ACCOUNT_CURRENCY);
+                postings.add(posting);
+            }
+            events.add(new BalanceChangedEvent(account.getUserId(), account, null, posting));
+        }
+        if (!postings.isEmpty()) {
+            journalService.recordAll(postings);
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
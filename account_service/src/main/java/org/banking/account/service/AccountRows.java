@@ -0,0 +1,31 @@
+package org.banking.account.service;
+
+import org.banking.account.entity.Account;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps account rows read over plain JDBC to detached {@link Account} instances, so batch writers
+ * can publish the same {@code BalanceChangedEvent} as the entity-based services.
+ */
+final class AccountRows {
+
+    static final String COLUMNS = "id, user_id, account_number, type, status, balance, held_balance, version";
+
+    private AccountRows() {
+    }
+
+    static Account map(ResultSet rs, int rowNum) throws SQLException {
+        Account account = new Account();
+        account.setId(rs.getLong("id"));
+        account.setUserId(rs.getLong("user_id"));
+        account.setAccountNumber(rs.getString("account_number"));
+        account.setType(Account.AccountType.valueOf(rs.getString("type")));
+        account.setStatus(Account.AccountStatus.valueOf(rs.getString("status")));
+        account.setBalance(rs.getBigDecimal("balance"));
+        account.setHeldBalance(rs.getBigDecimal("held_balance"));
+        account.setVersion(rs.getLong("version"));
+        return account;
+    }
+}
@@ -1,29 +1,58 @@
 package org.banking.account.service;
 
+import org.banking.account.dto.AccountMetadata;
 import org.banking.account.dto.AccountRequest;
 import org.banking.account.dto.AccountResponse;
+import org.banking.account.dto.AccountStatusChangedEvent;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.dto.CursorPage;
 import org.banking.account.dto.TransactionRequest;
 import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
 import org.banking.account.entity.Transaction;
+import org.banking.account.entity.TransactionBase;
 import org.banking.account.exception.*;
 import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.ArchivedTransactionRepository;
 import org.banking.account.repository.TransactionRepository;
+import org.banking.account.repository.TransactionSpecifications;
+import org.banking.account.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class AccountService {
 
+    public static final String ACCOUNT_CURRENCY = "USD";
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final TransactionArchiveService transactionArchive;
+    private final JournalService journalService;
+    private final AccountMetadataCache accountCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdGenerator idGenerator;
+
+    @Value("${account.locking.strategy:OPTIMISTIC}")
+    private LockingStrategy lockingStrategy;
 
     @Transactional
     public AccountResponse createAccount(Long userId, AccountRequest request) {
@@ -34,7 +63,7 @@ public class AccountService {
 
         Account account = new Account();
         account.setUserId(userId);
-        account.setAccountNumber(generateAccountNumber());
+        account.setAccountNumber(idGenerator.nextAccountNumber());
         account.setStatus(Account.AccountStatus.ACTIVE);
         account.setType(request.getType());
 
@@ -50,9 +79,18 @@ public class AccountService {
         }
 
         Account savedAccount = accountRepository.save(account);
+        JournalPosting posting = null;
+        if (savedAccount.getBalance().signum() > 0) {
+            posting = JournalPosting.of(JournalEntry.EntryType.DEPOSIT, null, "Initial deposit")
+                    .leg(JournalLeg.Ledger.CUSTOMER_FIAT, savedAccount.getId(), ACCOUNT_CURRENCY, savedAccount.getBalance())
+                    .balance(JournalLeg.Ledger.EXTERNAL, null, ACCOUNT_CURRENCY);
+            journalService.record(posting);
+        }
+        eventPublisher.publishEvent(new BalanceChangedEvent(userId, savedAccount, null, posting));
         return AccountResponse.fromEntity(savedAccount);
     }
 
+    @Transactional(readOnly = true)
     public List<AccountResponse> getUserAccounts(Long userId) {
         return accountRepository.findByUserId(userId)
                 .stream()
@@ -60,6 +98,7 @@ public class AccountService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public AccountResponse getAccountByNumber(String accountNumber, Long userId) {
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
@@ -78,21 +117,58 @@ public class AccountService {
     }
 
     public Account getTradingAccountByUserId(Long userId) {
-        return accountRepository.findByUserId(userId).stream()
-                .filter(a -> a.getType() == Account.AccountType.TRADING)
-                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
-                .findFirst()
+        Long cachedId = accountCache.tradingAccountId(userId);
+        if (cachedId != null) {
+            Optional<Account> cached = accountRepository.findById(cachedId)
+                    .filter(a -> a.getUserId().equals(userId) && AccountMetadata.of(a).isActiveTrading());
+            if (cached.isPresent()) {
+                accountCache.put(AccountMetadata.of(cached.get()));
+                return cached.get();
+            }
+            accountCache.evictUser(userId);
+        }
+
+        Account account = accountRepository
+                .findFirstByUserIdAndTypeAndStatus(userId, Account.AccountType.TRADING, Account.AccountStatus.ACTIVE)
                 .orElseThrow(() -> new AccountNotFoundException("No active trading account found for user: " + userId));
+        accountCache.put(AccountMetadata.of(account));
+        return account;
+    }
+
+    /**
+     * Id, number and status of the user's trading account, usually without touching the database.
+     * Callers that need balances must load the account itself.
+     */
+    public AccountMetadata getTradingAccountMetadata(Long userId) {
+        Long cachedId = accountCache.tradingAccountId(userId);
+        if (cachedId != null) {
+            AccountMetadata metadata = accountCache.metadata(cachedId);
+            if (metadata != null && metadata.isActiveTrading()) {
+                return metadata;
+            }
+        }
+        return AccountMetadata.of(getTradingAccountByUserId(userId));
     }
 
     @Transactional
     public AccountResponse transfer(TransactionRequest request, Long userId) {
 
-        Account fromAccount = accountRepository.findByAccountNumber(request.getFromAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + request.getFromAccountNumber()));
-
-        Account toAccount = accountRepository.findByAccountNumber(request.getToAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + request.getToAccountNumber()));
+        Account fromAccount;
+        Account toAccount;
+        if (lockingStrategy == LockingStrategy.PESSIMISTIC) {
+            Map<String, Account> locked = accountRepository
+                    .findByAccountNumbersForUpdate(Arrays.asList(request.getFromAccountNumber(), request.getToAccountNumber()))
+                    .stream()
+                    .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+            fromAccount = requireAccount(locked, request.getFromAccountNumber());
+            toAccount = requireAccount(locked, request.getToAccountNumber());
+        } else {
+            fromAccount = accountRepository.findByAccountNumber(request.getFromAccountNumber())
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + request.getFromAccountNumber()));
+
+            toAccount = accountRepository.findByAccountNumber(request.getToAccountNumber())
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + request.getToAccountNumber()));
+        }
 
         if (!fromAccount.getUserId().equals(userId)) {
             throw new UnauthorizedAccountAccessException("You are not the owner of this account");
@@ -106,7 +182,7 @@ public class AccountService {
             throw new AccountInactiveException("Cannot transfer from inactive account");
         }
 
-        if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
+        if (fromAccount.getAvailableBalance().compareTo(request.getAmount()) < 0) {
             throw new InsufficientFundsException("Insufficient funds");
         }
 
@@ -119,6 +195,7 @@ public class AccountService {
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
 
+        String reference = referenceFor(request);
         createTransaction(
                 toAccount.getId(),
                 Transaction.TransactionType.DEPOSIT,
@@ -126,9 +203,17 @@ public class AccountService {
                 toBefore,
                 toBefore.add(request.getAmount()),
                 request.getDescription(),
-                request.getReference()
+                reference
         );
 
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.TRANSFER,
+                        reference, request.getDescription())
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, fromAccount.getId(), ACCOUNT_CURRENCY, request.getAmount().negate())
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, toAccount.getId(), ACCOUNT_CURRENCY, request.getAmount());
+        journalService.record(posting);
+        eventPublisher.publishEvent(new BalanceChangedEvent(fromAccount.getUserId(), fromAccount, null, posting));
+        eventPublisher.publishEvent(new BalanceChangedEvent(toAccount.getUserId(), toAccount, null, posting));
+
         return AccountResponse.fromEntity(fromAccount);
     }
 
@@ -146,7 +231,7 @@ public class AccountService {
             throw new AccountInactiveException("Cannot withdraw from inactive account");
         }
 
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
+        if (account.getAvailableBalance().compareTo(request.getAmount()) < 0) {
             throw new InsufficientFundsException("Insufficient funds");
         }
 
@@ -156,9 +241,17 @@ public class AccountService {
         account.setBalance(after);
         accountRepository.save(account);
 
+        String reference = referenceFor(request);
         createTransaction(account.getId(), Transaction.TransactionType.WITHDRAWAL,
                 request.getAmount(), before, after,
-                request.getDescription(), request.getReference());
+                request.getDescription(), reference);
+
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.WITHDRAWAL,
+                        reference, request.getDescription())
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(), ACCOUNT_CURRENCY, request.getAmount().negate())
+                .balance(JournalLeg.Ledger.EXTERNAL, null, ACCOUNT_CURRENCY);
+        journalService.record(posting);
+        eventPublisher.publishEvent(new BalanceChangedEvent(userId, account, null, posting));
 
         return AccountResponse.fromEntity(account);
     }
@@ -174,6 +267,7 @@ public class AccountService {
 
         account.setStatus(Account.AccountStatus.INACTIVE);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountStatusChangedEvent(account.getId(), account.getUserId()));
     }
 
     @Transactional
@@ -188,11 +282,20 @@ public class AccountService {
 
         account.setStatus(Account.AccountStatus.ACTIVE);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountStatusChangedEvent(account.getId(), account.getUserId()));
     }
 
-    private String generateAccountNumber() {
-        Random random = new Random();
-        return String.format("ACC%010d", random.nextLong(1_000_000_000L, 10_000_000_000L));
+    private Account requireAccount(Map<String, Account> accounts, String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new AccountNotFoundException("Account not found: " + accountNumber);
+        }
+        return account;
+    }
+
+    private String referenceFor(TransactionRequest request) {
+        String reference = request.getReference();
+        return reference != null && !reference.isBlank() ? reference : idGenerator.nextReference();
     }
 
     private void createTransaction(Long accountId, Transaction.TransactionType type,
@@ -211,7 +314,35 @@ public class AccountService {
         transactionRepository.save(transaction);
     }
 
+    @Transactional(readOnly = true)
     public List<Transaction> getAccountTransactions(Long accountId) {
         return transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId);
     }
+
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionBase> getAccountTransactions(Long accountId, Transaction.TransactionType type,
+                                                              LocalDateTime from, LocalDateTime to,
+                                                              String cursor, int limit) {
+        int size = CursorPage.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<TransactionBase> rows = transactionArchive.newestFirst(TransactionArchiveService.Table.TRANSACTIONS,
+                from, to, after, size + 1,
+                n -> transactionRepository.findBy(historySpec(accountId, type, from, to, after),
+                        query -> query.sortBy(KeysetCursor.SORT).limit(n).all()),
+                n -> archivedTransactionRepository.findBy(historySpec(accountId, type, from, to, after),
+                        query -> query.sortBy(KeysetCursor.SORT).limit(n).all()));
+        return CursorPage.of(rows, size, TransactionBase::getCreatedAt, TransactionBase::getId);
+    }
+
+    private static <T extends TransactionBase> Specification<T> historySpec(Long accountId,
+                                                                           Transaction.TransactionType type,
+                                                                           LocalDateTime from, LocalDateTime to,
+                                                                           KeysetCursor after) {
+        return Specification.<T>where(TransactionSpecifications.forAccount(accountId))
+                .and(TransactionSpecifications.hasType(type))
+                .and(TransactionSpecifications.createdFrom(from))
+                .and(TransactionSpecifications.createdBefore(to))
+                .and(KeysetCursor.seek(after));
+    }
 }
@@ -0,0 +1,297 @@
+package org.banking.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.dto.AccountStatusChangedEvent;
+import org.banking.account.dto.AccountSummary;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.AccountSummaryRecord;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.AccountSummaryRepository;
+import org.banking.crypto.entity.CryptoAccount;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The account_summary read model: one JSON document per user with their accounts, crypto holdings
+ * and recent activity, served by a single primary-key lookup.
+ * <p>
+ * Balance-change events are applied after commit on one single-threaded stripe per user, so a
+ * user's changes are applied in the order they were published. Each account and holding carries
+ * the entity version it was taken at and is only replaced by a newer version; activity items are
+ * keyed by journal entry and leg. Applying an event twice, or an older event after a newer one,
+ * therefore changes nothing. Balances always come from the account and holding rows, both in events
+ * and in rebuilds, while recent activity comes from the journal. A missing document is rebuilt,
+ * and the admin-only {@code accountsummary} actuator endpoint rebuilds one user or all of them on
+ * demand.
+ */
+@Slf4j
+@Service
+@Endpoint(id = "accountsummary")
+public class AccountSummaryService {
+
+    private static final String ACCOUNTS_SQL = """
+            SELECT id, account_number, type, status, balance, held_balance, version
+            FROM accounts WHERE user_id = ? ORDER BY id
+            """;
+
+    private static final String HOLDINGS_SQL = """
+            SELECT c.id, c.account_id, c.crypto_currency, c.balance, c.version
+            FROM crypto_accounts c JOIN accounts a ON a.id = c.account_id
+            WHERE a.user_id = ? ORDER BY c.id
+            """;
+
+    private static final String ACTIVITY_SQL = """
+            SELECT e.id AS entry_id, e.entry_type, e.reference, e.description,
+                   l.ledger, l.account_id, l.currency, l.amount, l.created_at
+            FROM journal_legs l JOIN journal_entries e ON e.id = l.entry_id
+            WHERE (l.ledger = 'CUSTOMER_FIAT' AND l.account_id IN (SELECT id FROM accounts WHERE user_id = ?))
+               OR (l.ledger = 'CUSTOMER_CRYPTO' AND l.account_id IN (
+                       SELECT c.id FROM crypto_accounts c JOIN accounts a ON a.id = c.account_id WHERE a.user_id = ?))
+            ORDER BY l.created_at DESC, l.id DESC
+            LIMIT ?
+            """;
+
+    private static final String USERS_SQL = "SELECT DISTINCT user_id FROM accounts ORDER BY user_id";
+
+    private static final Comparator<AccountSummary.ActivityItem> NEWEST_FIRST =
+            Comparator.comparing(AccountSummary.ActivityItem::getCreatedAt).reversed();
+
+    private final AccountSummaryRepository summaryRepository;
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService[] stripes;
+
+    @Value("${summary.recent-activity:20}")
+    private int recentActivity = 20;
+
+    public AccountSummaryService(AccountSummaryRepository summaryRepository,
+                                 AccountRepository accountRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${summary.stripes:4}") int stripes) {
+        this.summaryRepository = summaryRepository;
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.stripes = new ExecutorService[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = Executors.newSingleThreadExecutor();
+        }
+    }
+
+    public AccountSummary summary(Long userId) {
+        return summaryRepository.findById(userId)
+                .map(this::read)
+                .orElseGet(() -> rebuild(userId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        // Read after commit, once the flush has bumped the versions
+        AccountSummary.AccountItem account = accountItem(event.getAccount());
+        AccountSummary.HoldingItem holding = event.getHolding() == null ? null : holdingItem(event.getHolding());
+        List<AccountSummary.ActivityItem> activity = activity(event.getPosting(), event.getAccount().getId(),
+                event.getHolding() == null ? null : event.getHolding().getId());
+
+        submit(event.getUserId(), summary -> {
+            merge(summary.getAccounts(), account, AccountSummary.AccountItem::getId, AccountSummary.AccountItem::getVersion);
+            if (holding != null) {
+                merge(summary.getHoldings(), holding, AccountSummary.HoldingItem::getId, AccountSummary.HoldingItem::getVersion);
+            }
+            addActivity(summary, activity);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(AccountStatusChangedEvent event) {
+        submit(event.getUserId(), summary -> accountRepository.findById(event.getAccountId()).ifPresent(account ->
+                merge(summary.getAccounts(), accountItem(account),
+                        AccountSummary.AccountItem::getId, AccountSummary.AccountItem::getVersion)));
+    }
+
+    /**
+     * Replaces the user's summary with one built from the current account rows and the journal.
+     */
+    @WriteOperation
+    public AccountSummary rebuild(@Selector Long userId) {
+        return update(userId, null, true);
+    }
+
+    @WriteOperation
+    public int rebuildAll() {
+        List<Long> userIds = jdbcTemplate.queryForList(USERS_SQL, Long.class);
+        for (Long userId : userIds) {
+            rebuild(userId);
+        }
+        log.info("Rebuilt account summaries for {} users", userIds.size());
+        return userIds.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    private void submit(Long userId, Consumer<AccountSummary> change) {
+        stripes[Math.floorMod(userId.hashCode(), stripes.length)].execute(() -> {
+            try {
+                update(userId, change, false);
+            } catch (RuntimeException e) {
+                // Dropping the document makes the next read or event rebuild it
+                log.warn("Could not apply balance change to summary of user {}: {}", userId, e.getMessage());
+                summaryRepository.deleteById(userId);
+            }
+        });
+    }
+
+    private AccountSummary update(Long userId, Consumer<AccountSummary> change, boolean rebuild) {
+        try {
+            return transactionTemplate.execute(status -> apply(userId, change, rebuild));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted the document first; it now exists and is locked on retry
+            return transactionTemplate.execute(status -> apply(userId, change, rebuild));
+        }
+    }
+
+    private AccountSummary apply(Long userId, Consumer<AccountSummary> change, boolean rebuild) {
+        AccountSummaryRecord record = summaryRepository.findForUpdate(userId).orElse(null);
+        AccountSummary summary = record == null || rebuild ? load(userId) : read(record);
+        if (change != null) {
+            change.accept(summary);
+        }
+        summary.setUpdatedAt(LocalDateTime.now());
+
+        if (record == null) {
+            record = new AccountSummaryRecord();
+            record.setUserId(userId);
+        }
+        record.setSummary(write(summary));
+        record.setUpdatedAt(summary.getUpdatedAt());
+        summaryRepository.saveAndFlush(record);
+        return summary;
+    }
+
+    // Each row carries its balance and the version it was taken at, so later events merge over it correctly
+    private AccountSummary load(Long userId) {
+        AccountSummary summary = new AccountSummary();
+        summary.setUserId(userId);
+        summary.setAccounts(jdbcTemplate.query(ACCOUNTS_SQL, (rs, i) -> new AccountSummary.AccountItem(
+                rs.getLong("id"), rs.getString("account_number"), rs.getString("type"), rs.getString("status"),
+                rs.getBigDecimal("balance").setScale(2, RoundingMode.HALF_UP), rs.getBigDecimal("held_balance"),
+                rs.getLong("version")), userId));
+        summary.setHoldings(jdbcTemplate.query(HOLDINGS_SQL, (rs, i) -> new AccountSummary.HoldingItem(
+                rs.getLong("id"), rs.getLong("account_id"), rs.getString("crypto_currency"),
+                rs.getBigDecimal("balance"), rs.getLong("version")), userId));
+        summary.setRecentActivity(jdbcTemplate.query(ACTIVITY_SQL, (rs, i) -> new AccountSummary.ActivityItem(
+                rs.getObject("entry_id", UUID.class), rs.getString("entry_type"), rs.getString("reference"),
+                rs.getString("description"), rs.getString("ledger"), rs.getLong("account_id"),
+                rs.getString("currency"), rs.getBigDecimal("amount"),
+                rs.getTimestamp("created_at").toLocalDateTime()), userId, userId, recentActivity));
+        return summary;
+    }
+
+    private static <T> void merge(List<T> items, T item, Function<T, Long> id, Function<T, Long> version) {
+        for (int i = 0; i < items.size(); i++) {
+            if (id.apply(items.get(i)).equals(id.apply(item))) {
+                if (version.apply(item) > version.apply(items.get(i))) {
+                    items.set(i, item);
+                }
+                return;
+            }
+        }
+        items.add(item);
+    }
+
+    private void addActivity(AccountSummary summary, List<AccountSummary.ActivityItem> activity) {
+        Set<String> seen = new HashSet<>();
+        summary.getRecentActivity().forEach(item -> seen.add(activityKey(item)));
+
+        List<AccountSummary.ActivityItem> merged = new ArrayList<>(summary.getRecentActivity());
+        for (AccountSummary.ActivityItem item : activity) {
+            if (seen.add(activityKey(item))) {
+                merged.add(item);
+            }
+        }
+        merged.sort(NEWEST_FIRST);
+        summary.setRecentActivity(new ArrayList<>(merged.subList(0, Math.min(merged.size(), recentActivity))));
+    }
+
+    private static String activityKey(AccountSummary.ActivityItem item) {
+        return item.getEntryId() + ":" + item.getLedger() + ":" + item.getAccountId();
+    }
+
+    private static List<AccountSummary.ActivityItem> activity(JournalPosting posting, Long accountId, Long holdingId) {
+        if (posting == null) {
+            return List.of();
+        }
+        List<AccountSummary.ActivityItem> items = new ArrayList<>();
+        for (JournalPosting.Leg leg : posting.getLegs()) {
+            boolean fiat = leg.ledger() == JournalLeg.Ledger.CUSTOMER_FIAT && leg.accountId().equals(accountId);
+            boolean crypto = leg.ledger() == JournalLeg.Ledger.CUSTOMER_CRYPTO && leg.accountId().equals(holdingId);
+            if (fiat || crypto) {
+                items.add(new AccountSummary.ActivityItem(posting.getId(), posting.getEntryType().name(),
+                        posting.getReference(), posting.getDescription(), leg.ledger().name(), leg.accountId(),
+                        leg.currency(), leg.amount(), posting.getCreatedAt()));
+            }
+        }
+        return items;
+    }
+
+    private static AccountSummary.AccountItem accountItem(Account account) {
+        return new AccountSummary.AccountItem(account.getId(), account.getAccountNumber(),
+                account.getType() == null ? null : account.getType().name(), account.getStatus().name(),
+                account.getBalance(), account.getHeldBalance(), account.getVersion());
+    }
+
+    private static AccountSummary.HoldingItem holdingItem(CryptoAccount holding) {
+        return new AccountSummary.HoldingItem(holding.getId(), holding.getAccount().getId(),
+                holding.getCryptoCurrency(), holding.getBalance(), holding.getVersion());
+    }
+
+    private AccountSummary read(AccountSummaryRecord record) {
+        try {
+            return objectMapper.readValue(record.getSummary(), AccountSummary.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable account summary for user " + record.getUserId(), e);
+        }
+    }
+
+    private String write(AccountSummary summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize account summary for user " + summary.getUserId(), e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.banking.account.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.entity.JournalLeg;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Nightly closing balances for every fiat account and crypto holding. A day's snapshot is the
+ * previous day's snapshot plus that day's journal legs, so each run reads one day of the journal
+ * no matter how old the accounts are. Accounts are split into id ranges that are snapshotted in
+ * parallel, each range in its own transaction with batched upserts. Missed days are caught up in
+ * order; the very first run sums the whole journal once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "snapshots.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceSnapshotJob {
+
+    private static final LocalDateTime JOURNAL_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String LAST_RUN_SQL = "SELECT MAX(snapshot_date) FROM balance_snapshot_runs";
+
+    private static final String MAX_ACCOUNT_ID_SQL = """
+            SELECT GREATEST(COALESCE((SELECT MAX(id) FROM accounts), 0),
+                            COALESCE((SELECT MAX(id) FROM crypto_accounts), 0))
+            """;
+
+    private static final String PREVIOUS_SQL = """
+            SELECT ledger, account_id, currency, closing_balance FROM balance_snapshots
+            WHERE snapshot_date = ? AND account_id >= ? AND account_id < ?
+            """;
+
+    private static final String DELTA_SQL = """
+            SELECT ledger, account_id, MAX(currency) AS currency, SUM(amount) AS delta FROM journal_legs
+            WHERE ledger IN ('CUSTOMER_FIAT', 'CUSTOMER_CRYPTO')
+              AND account_id >= ? AND account_id < ? AND created_at >= ? AND created_at < ?
+            GROUP BY ledger, account_id
+            """;
+
+    private static final String UPSERT_POSTGRES_SQL = """
+            INSERT INTO balance_snapshots (ledger, account_id, snapshot_date, currency, closing_balance)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (ledger, account_id, snapshot_date)
+            DO UPDATE SET currency = EXCLUDED.currency, closing_balance = EXCLUDED.closing_balance
+            """;
+
+    private static final String UPSERT_MERGE_SQL = """
+            MERGE INTO balance_snapshots (ledger, account_id, snapshot_date, currency, closing_balance)
+            KEY (ledger, account_id, snapshot_date) VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String RECORD_RUN_SQL =
+            "INSERT INTO balance_snapshot_runs (snapshot_date, rows_written, completed_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final String upsertSql;
+
+    @Value("${snapshots.partition-size:10000}")
+    private long partitionSize = 10_000;
+
+    @Value("${snapshots.batch-size:500}")
+    private int batchSize = 500;
+
+    public BalanceSnapshotJob(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              DataSource dataSource,
+                              @Value("${snapshots.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+        this.upsertSql = JournalService.isPostgres(dataSource) ? UPSERT_POSTGRES_SQL : UPSERT_MERGE_SQL;
+    }
+
+    @Scheduled(cron = "${snapshots.cron:0 15 0 * * *}")
+    public void run() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate last = jdbcTemplate.queryForObject(LAST_RUN_SQL, LocalDate.class);
+        LocalDate first = last == null ? yesterday : last.plusDays(1);
+
+        for (LocalDate day = first; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            snapshotDay(day, last == null && day.equals(first));
+        }
+    }
+
+    /**
+     * Writes closing balances for {@code day}. With {@code fromFullHistory} the previous snapshot
+     * is ignored and every journal leg up to the end of the day is summed.
+     */
+    public int snapshotDay(LocalDate day, boolean fromFullHistory) {
+        long started = System.currentTimeMillis();
+        Long maxAccountId = jdbcTemplate.queryForObject(MAX_ACCOUNT_ID_SQL, Long.class);
+
+        List<CompletableFuture<Integer>> partitions = new ArrayList<>();
+        for (long lo = 0; lo <= maxAccountId; lo += partitionSize) {
+            long from = lo;
+            long to = lo + partitionSize;
+            partitions.add(CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status ->
+                    snapshotPartition(day, from, to, fromFullHistory)), executor));
+        }
+        int rows = partitions.stream().mapToInt(CompletableFuture::join).sum();
+
+        jdbcTemplate.update(RECORD_RUN_SQL, Date.valueOf(day), rows, Timestamp.valueOf(LocalDateTime.now()));
+        log.info("Balance snapshot for {} wrote {} rows across {} partitions in {} ms",
+                day, rows, partitions.size(), System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    private int snapshotPartition(LocalDate day, long fromId, long toId, boolean fromFullHistory) {
+        Map<Key, Balance> closing = new HashMap<>();
+
+        if (!fromFullHistory) {
+            jdbcTemplate.query(PREVIOUS_SQL, rs -> {
+                closing.put(new Key(rs.getString("ledger"), rs.getLong("account_id")),
+                        new Balance(rs.getString("currency"), rs.getBigDecimal("closing_balance")));
+            }, Date.valueOf(day.minusDays(1)), fromId, toId);
+        }
+
+        LocalDateTime deltaFrom = fromFullHistory ? JOURNAL_START : day.atStartOfDay();
+        jdbcTemplate.query(DELTA_SQL, rs -> {
+            String ledger = rs.getString("ledger");
+            // Fiat legs in any currency count towards the single account balance, as in JournalService
+            String currency = JournalLeg.Ledger.CUSTOMER_FIAT.name().equals(ledger)
+                    ? AccountService.ACCOUNT_CURRENCY : rs.getString("currency");
+            closing.merge(new Key(ledger, rs.getLong("account_id")),
+                    new Balance(currency, rs.getBigDecimal("delta")), Balance::plus);
+        }, fromId, toId, Timestamp.valueOf(deltaFrom), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+
+        if (closing.isEmpty()) {
+            return 0;
+        }
+        Date snapshotDate = Date.valueOf(day);
+        jdbcTemplate.batchUpdate(upsertSql, closing.entrySet(), batchSize, (ps, entry) -> {
+            ps.setString(1, entry.getKey().ledger());
+            ps.setLong(2, entry.getKey().accountId());
+            ps.setDate(3, snapshotDate);
+            ps.setString(4, entry.getValue().currency());
+            ps.setBigDecimal(5, entry.getValue().amount());
+        });
+        return closing.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record Key(String ledger, long accountId) {
+    }
+
+    private record Balance(String currency, BigDecimal amount) {
+        Balance plus(Balance other) {
+            return new Balance(currency, amount.add(other.amount()));
+        }
+    }
+}
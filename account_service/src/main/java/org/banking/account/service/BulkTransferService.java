@@ -0,0 +1,372 @@
+package org.banking.account.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.entity.Transaction;
+import org.banking.account.exception.IdempotencyConflictException;
+import org.banking.account.repository.AccountRepository;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Applies many transfers from one CSV upload. Instructions are parsed and validated in one pass
+ * against accounts loaded with chunked IN queries, then applied in fixed-size transactions whose
+ * Transaction rows are flushed as JDBC batches. Results are streamed back one line per instruction
+ * as each chunk commits. Every chunk commits on its own, even when called inside a transaction, and
+ * a chunk that fails is reported line by line without stopping the rest of the upload. Each applied
+ * line publishes a {@link BalanceChangedEvent} for both accounts, as a single transfer does.
+ * <p>
+ * Under an Idempotency-Key each chunk saves the report lines it committed through an
+ * {@link IdempotencyService.Checkpoint} in its own transaction, so a retried upload skips the lines
+ * an earlier attempt already applied and reports them as they were.
+ * <p>
+ * Input lines: {@code fromAccountNumber,toAccountNumber,amount[,reference]}; an optional header
+ * row and blank lines are skipped.
+ */
+@Slf4j
+@Service
+public class BulkTransferService {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final AccountRepository accountRepository;
+    private final JournalService journalService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${bulk-transfer.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${bulk-transfer.max-instructions:50000}")
+    private int maxInstructions = 50_000;
+
+    @Value("${account.locking.strategy:OPTIMISTIC}")
+    private LockingStrategy lockingStrategy;
+
+    public BulkTransferService(AccountRepository accountRepository,
+                               JournalService journalService,
+                               OptimisticRetryExecutor retryExecutor,
+                               PlatformTransactionManager transactionManager,
+                               EntityManager entityManager,
+                               ApplicationEventPublisher eventPublisher) {
+        this.accountRepository = accountRepository;
+        this.journalService = journalService;
+        this.retryExecutor = retryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Plan prepare(Long userId, InputStream input) throws IOException {
+        List<Instruction> parsed = new ArrayList<>();
+        List<LineResult> rejected = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.toLowerCase().startsWith("from"))) {
+                    continue;
+                }
+                if (parsed.size() + rejected.size() >= maxInstructions) {
+                    rejected.add(LineResult.rejected(lineNumber, "Too many instructions, limit is " + maxInstructions));
+                    break;
+                }
+                parse(lineNumber, line, parsed, rejected);
+            }
+        }
+
+        Map<String, Account> accounts = loadAccounts(parsed);
+
+        List<Instruction> valid = new ArrayList<>();
+        for (Instruction instruction : parsed) {
+            String error = validate(instruction, accounts, userId);
+            if (error == null) {
+                valid.add(instruction);
+            } else {
+                rejected.add(LineResult.rejected(instruction.line(), error));
+            }
+        }
+        return new Plan(valid, rejected);
+    }
+
+    public void apply(Plan plan, OutputStream output) {
+        apply(plan, output, null);
+    }
+
+    private void apply(Plan plan, OutputStream output, IdempotencyService.Checkpoint checkpoint) {
+        String saved = checkpoint == null || checkpoint.saved() == null ? "" : checkpoint.saved();
+        Set<Integer> done = saved.lines().map(row -> Integer.parseInt(row.substring(0, row.indexOf(','))))
+                .collect(Collectors.toSet());
+        StringBuilder progress = new StringBuilder(saved);
+
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.println("line,status,message");
+        plan.rejected().stream().filter(result -> !done.contains(result.line())).forEach(result -> write(writer, result));
+        writer.print(saved);
+        writer.flush();
+
+        List<Instruction> pending = plan.instructions().stream()
+                .filter(instruction -> !done.contains(instruction.line()))
+                .toList();
+        int applied = 0;
+        int failed = plan.rejected().size();
+        for (int i = 0; i < pending.size(); i += chunkSize) {
+            List<Instruction> chunk = pending.subList(i, Math.min(i + chunkSize, pending.size()));
+
+            List<LineResult> results;
+            try {
+                results = retryExecutor.execute("bulkTransfer", () -> transactionTemplate.execute(status -> {
+                    List<LineResult> chunkResults = applyChunk(chunk);
+                    if (checkpoint != null) {
+                        checkpoint.save(progress + format(chunkResults));
+                    }
+                    return chunkResults;
+                }));
+                progress.append(format(results));
+            } catch (IdempotencyConflictException e) {
+                // Another attempt took over the key; it continues from the last saved chunk
+                throw e;
+            } catch (RuntimeException e) {
+                // The chunk rolled back as a whole; later chunks still run
+                log.warn("Bulk transfer chunk of lines {}..{} failed: {}",
+                        chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+                results = chunk.stream().map(instruction -> LineResult.failed(instruction.line(), e.getMessage())).toList();
+            }
+
+            for (LineResult result : results) {
+                if (result.status() == LineResult.Status.APPLIED) {
+                    applied++;
+                } else {
+                    failed++;
+                }
+                write(writer, result);
+            }
+            writer.flush();
+        }
+
+        log.info("Bulk transfer finished: {} applied, {} rejected or failed, {} lines resumed", applied, failed, done.size());
+    }
+
+    /**
+     * Prepares and applies a whole upload and returns the report instead of streaming it, for
+     * callers that keep the report to replay it under an Idempotency-Key. Must not run inside a
+     * transaction, so each chunk commits and retries its conflicts on its own.
+     */
+    public String applyAll(Long userId, byte[] csv, IdempotencyService.Checkpoint checkpoint) {
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        try {
+            apply(prepare(userId, new ByteArrayInputStream(csv)), report, checkpoint);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return report.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<LineResult> applyChunk(List<Instruction> chunk) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(chunkSize);
+
+        Set<String> numbers = new LinkedHashSet<>();
+        chunk.forEach(instruction -> {
+            numbers.add(instruction.from());
+            numbers.add(instruction.to());
+        });
+        // Pessimistic mode takes every row lock of the chunk up front, in id order
+        List<Account> rows = lockingStrategy == LockingStrategy.PESSIMISTIC
+                ? accountRepository.findByAccountNumbersForUpdate(numbers)
+                : accountRepository.findByAccountNumberIn(numbers);
+        Map<String, Account> accounts = rows.stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<LineResult> results = new ArrayList<>(chunk.size());
+        List<JournalPosting> postings = new ArrayList<>(chunk.size());
+        for (Instruction instruction : chunk) {
+            Account from = accounts.get(instruction.from());
+            Account to = accounts.get(instruction.to());
+
+            if (from == null || to == null
+                    || from.getStatus() != Account.AccountStatus.ACTIVE || to.getStatus() != Account.AccountStatus.ACTIVE) {
+                results.add(LineResult.failed(instruction.line(), "Account no longer active"));
+                continue;
+            }
+            if (from.getAvailableBalance().compareTo(instruction.amount()) < 0) {
+                results.add(LineResult.failed(instruction.line(), "Insufficient funds"));
+                continue;
+            }
+
+            BigDecimal toBefore = to.getBalance();
+            from.setBalance(from.getBalance().subtract(instruction.amount()));
+            to.setBalance(toBefore.add(instruction.amount()));
+
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(to.getId());
+            transaction.setType(Transaction.TransactionType.DEPOSIT);
+            transaction.setAmount(instruction.amount());
+            transaction.setBalanceBefore(toBefore);
+            transaction.setBalanceAfter(to.getBalance());
+            transaction.setDescription("Bulk transfer from " + from.getAccountNumber());
+            transaction.setReference(instruction.reference());
+            entityManager.persist(transaction);
+
+            JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.TRANSFER, instruction.reference(),
+                            "Bulk transfer line " + instruction.line())
+                    .leg(JournalLeg.Ledger.CUSTOMER_FIAT, from.getId(), AccountService.ACCOUNT_CURRENCY, instruction.amount().negate())
+                    .leg(JournalLeg.Ledger.CUSTOMER_FIAT, to.getId(), AccountService.ACCOUNT_CURRENCY, instruction.amount());
+            postings.add(posting);
+            eventPublisher.publishEvent(new BalanceChangedEvent(from.getUserId(), from, null, posting));
+            eventPublisher.publishEvent(new BalanceChangedEvent(to.getUserId(), to, null, posting));
+
+            results.add(LineResult.applied(instruction.line()));
+        }
+
+        if (!postings.isEmpty()) {
+            journalService.recordAll(postings);
+        }
+        // Through the repository so version conflicts surface as Spring exceptions and get retried
+        accountRepository.flush();
+        entityManager.clear();
+        return results;
+    }
+
+    private void parse(int lineNumber, String line, List<Instruction> parsed, List<LineResult> rejected) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 3 || fields.length > 4) {
+            rejected.add(LineResult.rejected(lineNumber, "Expected fromAccountNumber,toAccountNumber,amount[,reference]"));
+            return;
+        }
+
+        String from = fields[0].trim();
+        String to = fields[1].trim();
+        String reference = fields.length == 4 && !fields[3].isBlank() ? fields[3].trim() : null;
+        if (from.isEmpty() || to.isEmpty()) {
+            rejected.add(LineResult.rejected(lineNumber, "Account numbers are required"));
+            return;
+        }
+        if (from.equals(to)) {
+            rejected.add(LineResult.rejected(lineNumber, "Cannot transfer to the same account"));
+            return;
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(fields[2].trim());
+        } catch (NumberFormatException e) {
+            rejected.add(LineResult.rejected(lineNumber, "Invalid amount: " + fields[2].trim()));
+            return;
+        }
+        if (amount.signum() <= 0 || amount.scale() > 2) {
+            rejected.add(LineResult.rejected(lineNumber, "Amount must be positive with at most 2 decimals"));
+            return;
+        }
+
+        parsed.add(new Instruction(lineNumber, from, to, amount, reference));
+    }
+
+    private Map<String, Account> loadAccounts(List<Instruction> instructions) {
+        List<String> numbers = instructions.stream()
+                .flatMap(instruction -> Stream.of(instruction.from(), instruction.to()))
+                .distinct()
+                .toList();
+
+        Map<String, Account> accounts = new HashMap<>();
+        for (int i = 0; i < numbers.size(); i += LOOKUP_CHUNK_SIZE) {
+            accountRepository.findByAccountNumberIn(numbers.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, numbers.size())))
+                    .forEach(account -> accounts.put(account.getAccountNumber(), account));
+        }
+        return accounts;
+    }
+
+    private String validate(Instruction instruction, Map<String, Account> accounts, Long userId) {
+        Account from = accounts.get(instruction.from());
+        Account to = accounts.get(instruction.to());
+        if (from == null) {
+            return "Account not found: " + instruction.from();
+        }
+        if (to == null) {
+            return "Account not found: " + instruction.to();
+        }
+        if (!from.getUserId().equals(userId)) {
+            return "You are not the owner of account " + instruction.from();
+        }
+        if (from.getStatus() != Account.AccountStatus.ACTIVE) {
+            return "Cannot transfer from inactive account";
+        }
+        if (to.getStatus() != Account.AccountStatus.ACTIVE) {
+            return "Cannot deposit to inactive account";
+        }
+        return null;
+    }
+
+    private static void write(PrintWriter writer, LineResult result) {
+        writer.print(format(List.of(result)));
+    }
+
+    private static String format(List<LineResult> results) {
+        StringBuilder rows = new StringBuilder();
+        for (LineResult result : results) {
+            String message = result.message() == null ? "" : result.message().replace(',', ';');
+            rows.append(result.line()).append(',').append(result.status()).append(',').append(message)
+                    .append(System.lineSeparator());
+        }
+        return rows.toString();
+    }
+
+    public record Plan(List<Instruction> instructions, List<LineResult> rejected) {
+    }
+
+    public record Instruction(int line, String from, String to, BigDecimal amount, String reference) {
+    }
+
+    public record LineResult(int line, Status status, String message) {
+
+        public enum Status {APPLIED, REJECTED, FAILED}
+
+        static LineResult applied(int line) {
+            return new LineResult(line, Status.APPLIED, null);
+        }
+
+        static LineResult rejected(int line, String message) {
+            return new LineResult(line, Status.REJECTED, message);
+        }
+
+        static LineResult failed(int line, String message) {
+            return new LineResult(line, Status.FAILED, message);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package org.banking.account.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.dto.AccountMetadata;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.dto.HoldRequest;
+import org.banking.account.dto.HoldResponse;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.FundsHold;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.entity.Transaction;
+import org.banking.account.exception.*;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.FundsHoldRepository;
+import org.banking.account.repository.TransactionRepository;
+import org.banking.account.utils.HashedTimingWheel;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.repository.CryptoAccountRepository;
+import org.banking.crypto.repository.CryptoTransactionRepository;
+import org.banking.crypto.service.TaxLotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reserves funds by moving them from available to held (fiat) or locked (crypto) balance until
+ * they are captured, released or expire. Expiry deadlines live in an in-memory timing wheel that
+ * is rebuilt from the active holds on startup; a periodic sweep expires any hold the wheel missed,
+ * such as one placed by another instance that has since stopped.
+ * <p>
+ * A capture takes money out of the balance and publishes a {@link BalanceChangedEvent}; a crypto
+ * capture also consumes tax lots like a sale, so open lots keep adding up to the holding. Placing,
+ * releasing and expiring a hold only move funds between available and held, so they publish
+ * nothing; the held amount shows in the next published change of the account.
+ */
+@Slf4j
+@Service
+public class HoldService {
+
+    private static final int RECOVERY_PAGE_SIZE = 1000;
+
+    private final FundsHoldRepository fundsHoldRepository;
+    private final AccountRepository accountRepository;
+    private final CryptoAccountRepository cryptoAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final CryptoTransactionRepository cryptoTransactionRepository;
+    private final AccountService accountService;
+    private final JournalService journalService;
+    private final TaxLotService taxLotService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final HashedTimingWheel<Long> expiryWheel;
+    private final ExecutorService expiryExecutor;
+
+    public HoldService(FundsHoldRepository fundsHoldRepository,
+                       AccountRepository accountRepository,
+                       CryptoAccountRepository cryptoAccountRepository,
+                       TransactionRepository transactionRepository,
+                       CryptoTransactionRepository cryptoTransactionRepository,
+                       AccountService accountService,
+                       JournalService journalService,
+                       TaxLotService taxLotService,
+                       TransactionTemplate transactionTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       OptimisticRetryExecutor retryExecutor,
+                       @Value("${holds.wheel.tick-ms:100}") long tickMillis,
+                       @Value("${holds.wheel.size:4096}") int wheelSize,
+                       @Value("${holds.expiry.threads:2}") int expiryThreads) {
+        this.fundsHoldRepository = fundsHoldRepository;
+        this.accountRepository = accountRepository;
+        this.cryptoAccountRepository = cryptoAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.cryptoTransactionRepository = cryptoTransactionRepository;
+        this.accountService = accountService;
+        this.journalService = journalService;
+        this.taxLotService = taxLotService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retryExecutor = retryExecutor;
+        this.expiryExecutor = Executors.newFixedThreadPool(expiryThreads);
+        this.expiryWheel = new HashedTimingWheel<>("hold-expiry", Duration.ofMillis(tickMillis), wheelSize,
+                holdId -> expiryExecutor.execute(() -> expire(holdId)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        expiryWheel.start();
+
+        long afterId = 0;
+        int recovered = 0;
+        List<FundsHold> page;
+        do {
+            page = fundsHoldRepository.findActiveAfter(afterId, PageRequest.of(0, RECOVERY_PAGE_SIZE));
+            for (FundsHold hold : page) {
+                expiryWheel.schedule(hold.getId(), hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+                afterId = hold.getId();
+            }
+            recovered += page.size();
+        } while (page.size() == RECOVERY_PAGE_SIZE);
+
+        log.info("Scheduled expiry for {} active holds", recovered);
+    }
+
+    @Scheduled(fixedDelayString = "${holds.expiry.sweep-ms:60000}", initialDelayString = "${holds.expiry.sweep-ms:60000}")
+    public void sweepExpired() {
+        long afterId = 0;
+        int swept = 0;
+        List<FundsHold> page;
+        do {
+            page = fundsHoldRepository.findActiveExpiredAfter(LocalDateTime.now(), afterId,
+                    PageRequest.of(0, RECOVERY_PAGE_SIZE));
+            for (FundsHold hold : page) {
+                expire(hold.getId());
+                afterId = hold.getId();
+            }
+            swept += page.size();
+        } while (page.size() == RECOVERY_PAGE_SIZE);
+
+        if (swept > 0) {
+            log.info("Expiry sweep resolved {} overdue holds", swept);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        expiryWheel.stop();
+        expiryExecutor.shutdown();
+    }
+
+    @Transactional
+    public HoldResponse placeHold(Long userId, HoldRequest request) {
+        if (request.getCryptoCurrency() != null && !request.getCryptoCurrency().isBlank()) {
+            AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+            return HoldResponse.fromEntity(placeCryptoHold(account.getId(), request.getCryptoCurrency().toUpperCase(),
+                    request.getAmount(), Duration.ofSeconds(request.getExpiresInSeconds()), request.getReference()));
+        }
+
+        Account account = accountRepository.findByAccountNumber(request.getAccountNumber())
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + request.getAccountNumber()));
+        if (!account.getUserId().equals(userId)) {
+            throw new UnauthorizedAccountAccessException("You are not the owner of this account");
+        }
+        return HoldResponse.fromEntity(placeFiatHold(account, request.getAmount(),
+                Duration.ofSeconds(request.getExpiresInSeconds()), request.getReference()));
+    }
+
+    @Transactional
+    public FundsHold placeFiatHold(Account account, BigDecimal amount, Duration ttl, String reference) {
+        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Cannot place a hold on an inactive account");
+        }
+        if (account.getAvailableBalance().compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+
+        account.setHeldBalance(account.getHeldBalance().add(amount));
+        accountRepository.save(account);
+
+        FundsHold hold = new FundsHold();
+        hold.setAccountId(account.getId());
+        hold.setCurrency("USD");
+        return saveAndSchedule(hold, amount, ttl, reference);
+    }
+
+    @Transactional
+    public FundsHold placeCryptoHold(Long accountId, String cryptoCurrency, BigDecimal amount,
+                                     Duration ttl, String reference) {
+        CryptoAccount cryptoAccount = cryptoAccountRepository.findByAccountIdAndCryptoCurrency(accountId, cryptoCurrency)
+                .orElseThrow(() -> new AccountNotFoundException("No " + cryptoCurrency + " balance found"));
+        if (cryptoAccount.getAccount().getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Cannot place a hold on an inactive account");
+        }
+        if (cryptoAccount.getAvailableBalance().compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient " + cryptoCurrency + " balance");
+        }
+
+        cryptoAccount.setAvailableBalance(cryptoAccount.getAvailableBalance().subtract(amount));
+        cryptoAccount.setLockedBalance(cryptoAccount.getLockedBalance().add(amount));
+        cryptoAccountRepository.save(cryptoAccount);
+
+        FundsHold hold = new FundsHold();
+        hold.setAccountId(accountId);
+        hold.setCryptoAccountId(cryptoAccount.getId());
+        hold.setCurrency(cryptoCurrency);
+        return saveAndSchedule(hold, amount, ttl, reference);
+    }
+
+    public List<HoldResponse> getActiveHolds(Long userId, String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+        if (!account.getUserId().equals(userId)) {
+            throw new UnauthorizedAccountAccessException("You are not the owner of this account");
+        }
+        return fundsHoldRepository.findByAccountIdAndStatusOrderByCreatedAtDesc(account.getId(), FundsHold.HoldStatus.ACTIVE)
+                .stream()
+                .map(HoldResponse::fromEntity)
+                .toList();
+    }
+
+    @Transactional
+    public HoldResponse capture(Long userId, Long holdId) {
+        FundsHold hold = lockOwnedHold(userId, holdId);
+        return HoldResponse.fromEntity(resolve(hold, FundsHold.HoldStatus.CAPTURED));
+    }
+
+    @Transactional
+    public HoldResponse release(Long userId, Long holdId) {
+        FundsHold hold = lockOwnedHold(userId, holdId);
+        return HoldResponse.fromEntity(resolve(hold, FundsHold.HoldStatus.RELEASED));
+    }
+
+    /**
+     * Captures a hold on behalf of an internal flow (limit orders, settlement). The captured
+     * amount leaves the balance; the caller books where it goes.
+     */
+    @Transactional
+    public FundsHold capture(Long holdId) {
+        FundsHold hold = fundsHoldRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found: " + holdId));
+        return resolve(hold, FundsHold.HoldStatus.CAPTURED);
+    }
+
+    @Transactional
+    public FundsHold release(Long holdId) {
+        FundsHold hold = fundsHoldRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found: " + holdId));
+        return resolve(hold, FundsHold.HoldStatus.RELEASED);
+    }
+
+    void expire(Long holdId) {
+        try {
+            retryExecutor.run("expireHold", () -> transactionTemplate.executeWithoutResult(status ->
+                    fundsHoldRepository.findByIdForUpdate(holdId)
+                            .filter(hold -> hold.getStatus() == FundsHold.HoldStatus.ACTIVE)
+                            .ifPresent(hold -> resolve(hold, FundsHold.HoldStatus.EXPIRED))));
+        } catch (Exception e) {
+            log.error("Failed to expire hold {}: {}", holdId, e.getMessage());
+        }
+    }
+
+    private FundsHold lockOwnedHold(Long userId, Long holdId) {
+        FundsHold hold = fundsHoldRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found: " + holdId));
+        Account account = accountService.getAccountById(hold.getAccountId());
+        if (!account.getUserId().equals(userId)) {
+            throw new UnauthorizedAccountAccessException("You are not the owner of this hold");
+        }
+        return hold;
+    }
+
+    private FundsHold resolve(FundsHold hold, FundsHold.HoldStatus outcome) {
+        if (hold.getStatus() != FundsHold.HoldStatus.ACTIVE) {
+            throw new HoldStateException("Hold " + hold.getId() + " is already " + hold.getStatus());
+        }
+
+        BigDecimal amount = hold.getAmount();
+        boolean capture = outcome == FundsHold.HoldStatus.CAPTURED;
+
+        if (hold.isCrypto()) {
+            CryptoAccount cryptoAccount = cryptoAccountRepository.findById(hold.getCryptoAccountId())
+                    .orElseThrow(() -> new AccountNotFoundException("Crypto account not found: " + hold.getCryptoAccountId()));
+            cryptoAccount.setLockedBalance(cryptoAccount.getLockedBalance().subtract(amount));
+            if (capture) {
+                BigDecimal before = cryptoAccount.getBalance();
+                cryptoAccount.setBalance(before.subtract(amount));
+                taxLotService.consume(cryptoAccount, amount);
+                recordCryptoCapture(cryptoAccount, hold, before);
+                JournalPosting posting = journalCapture(hold, JournalLeg.Ledger.CUSTOMER_CRYPTO, cryptoAccount.getId(), amount);
+                Account account = cryptoAccount.getAccount();
+                eventPublisher.publishEvent(new BalanceChangedEvent(account.getUserId(), account, cryptoAccount, posting));
+            } else {
+                cryptoAccount.setAvailableBalance(cryptoAccount.getAvailableBalance().add(amount));
+            }
+            cryptoAccountRepository.save(cryptoAccount);
+        } else {
+            Account account = accountService.getAccountById(hold.getAccountId());
+            account.setHeldBalance(account.getHeldBalance().subtract(amount));
+            if (capture) {
+                BigDecimal before = account.getBalance();
+                account.setBalance(before.subtract(amount));
+                recordCapture(account, hold, before);
+                JournalPosting posting = journalCapture(hold, JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(),
+                        before.subtract(account.getBalance()).setScale(2, RoundingMode.HALF_UP));
+                eventPublisher.publishEvent(new BalanceChangedEvent(account.getUserId(), account, null, posting));
+            }
+            accountRepository.save(account);
+        }
+
+        hold.setStatus(outcome);
+        hold.setResolvedAt(LocalDateTime.now());
+        log.info("Hold {} on account {} {}: {} {}", hold.getId(), hold.getAccountId(), outcome,
+                amount, hold.getCurrency());
+        return fundsHoldRepository.save(hold);
+    }
+
+    private void recordCapture(Account account, FundsHold hold, BigDecimal before) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(account.getId());
+        transaction.setType(Transaction.TransactionType.WITHDRAWAL);
+        transaction.setAmount(hold.getAmount());
+        transaction.setBalanceBefore(before);
+        transaction.setBalanceAfter(account.getBalance());
+        transaction.setDescription("Captured hold " + hold.getId());
+        transaction.setReference(hold.getReference());
+        transactionRepository.save(transaction);
+    }
+
+    private void recordCryptoCapture(CryptoAccount cryptoAccount, FundsHold hold, BigDecimal before) {
+        Account account = cryptoAccount.getAccount();
+        CryptoTransaction transaction = new CryptoTransaction();
+        transaction.setAccount(account);
+        transaction.setTransactionType(CryptoTransaction.TransactionType.WITHDRAWAL);
+        transaction.setCryptoCurrency(hold.getCurrency());
+        transaction.setCryptoAmount(hold.getAmount());
+        transaction.setFiatAmount(BigDecimal.ZERO);
+        transaction.setPricePerUnit(BigDecimal.ZERO);
+        transaction.setCryptoBalanceBefore(before);
+        transaction.setCryptoBalanceAfter(cryptoAccount.getBalance());
+        transaction.setFiatBalanceBefore(account.getBalance());
+        transaction.setFiatBalanceAfter(account.getBalance());
+        transaction.setStatus(CryptoTransaction.TransactionStatus.COMPLETED);
+        transaction.setDescription("Captured hold " + hold.getId());
+        transaction.setReference(hold.getReference());
+        cryptoTransactionRepository.save(transaction);
+    }
+
+    private JournalPosting journalCapture(FundsHold hold, JournalLeg.Ledger ledger, Long ledgerAccountId, BigDecimal amount) {
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.HOLD_CAPTURE,
+                        hold.getReference(), "Captured hold " + hold.getId())
+                .leg(ledger, ledgerAccountId, hold.getCurrency(), amount.negate())
+                .balance(JournalLeg.Ledger.EXTERNAL, null, hold.getCurrency());
+        journalService.record(posting);
+        return posting;
+    }
+
+    private FundsHold saveAndSchedule(FundsHold hold, BigDecimal amount, Duration ttl, String reference) {
+        hold.setAmount(amount);
+        hold.setReference(reference);
+        hold.setExpiresAt(LocalDateTime.now().plus(ttl));
+        FundsHold saved = fundsHoldRepository.save(hold);
+
+        Runnable schedule = () -> expiryWheel.schedule(saved.getId(),
+                saved.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule.run();
+                }
+            });
+        } else {
+            schedule.run();
+        }
+        return saved;
+    }
+}
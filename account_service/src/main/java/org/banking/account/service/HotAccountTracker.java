@@ -0,0 +1,56 @@
+package org.banking.account.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts optimistic-lock conflicts per entity row. Counts are halved every minute so the
+ * ranking reflects accounts that are hot now. Exposed as the {@code hotaccounts} actuator
+ * endpoint; entity ids are kept out of metric tags to avoid unbounded cardinality.
+ */
+@Component
+@Endpoint(id = "hotaccounts")
+public class HotAccountTracker {
+
+    private static final int MAX_TRACKED = 10_000;
+
+    private final ConcurrentHashMap<String, AtomicLong> conflicts = new ConcurrentHashMap<>();
+
+    public void record(RuntimeException conflict) {
+        String key = "unknown";
+        if (conflict instanceof ObjectOptimisticLockingFailureException e && e.getPersistentClassName() != null) {
+            String entity = e.getPersistentClassName();
+            key = entity.substring(entity.lastIndexOf('.') + 1) + ":" + e.getIdentifier();
+        }
+        if (conflicts.size() < MAX_TRACKED || conflicts.containsKey(key)) {
+            conflicts.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Long> top() {
+        return top(20);
+    }
+
+    public Map<String, Long> top(int limit) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        conflicts.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                .limit(limit)
+                .forEach(e -> result.put(e.getKey(), e.getValue().get()));
+        return result;
+    }
+
+    @Scheduled(fixedRate = 60_000)
+    public void decay() {
+        conflicts.entrySet().removeIf(e -> e.getValue().updateAndGet(v -> v / 2) == 0);
+    }
+}
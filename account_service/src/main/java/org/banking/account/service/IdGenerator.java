@@ -0,0 +1,123 @@
+package org.banking.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.utils.Luhn;
+import org.banking.account.utils.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Single source of generated identifiers: account numbers, wallet addresses and references.
+ * Uniqueness across instances comes from the node id: {@code ids.node-id} when set, which must
+ * then differ per instance, otherwise one leased from the database at startup and renewed while
+ * the instance runs. A leased node id is only used until its lease could have expired, counted
+ * locally from when the last acquire or renew was sent; after that, e.g. following a long pause,
+ * ids are generated only once the lease has been renewed or replaced.
+ */
+@Slf4j
+@Component
+public class IdGenerator {
+
+    private final NodeIdLease lease;
+    private final LongSupplier nanoTime;
+    private volatile int nodeId;
+    private volatile SnowflakeIdGenerator snowflake;
+    // System.nanoTime() after which another instance may hold the leased node id
+    private volatile long leaseExpiresAt;
+
+    public IdGenerator(int nodeId) {
+        this(nodeId, null);
+    }
+
+    @Autowired
+    public IdGenerator(@Value("${ids.node-id:-1}") int nodeId, NodeIdLease lease) {
+        this(nodeId, lease, System::nanoTime);
+    }
+
+    public IdGenerator(int nodeId, NodeIdLease lease, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        if (nodeId >= 0) {
+            this.lease = null;
+            use(nodeId);
+            log.info("Id generator using configured node id {}", nodeId);
+        } else {
+            this.lease = lease;
+            acquire();
+            log.info("Id generator using leased node id {} as {}", this.nodeId, lease.owner());
+        }
+    }
+
+    /**
+     * Renews the node id lease. If it expired, e.g. after a pause longer than the TTL, and another
+     * instance took the node id, switches to a newly leased one.
+     */
+    @Scheduled(fixedDelayString = "${ids.lease-renew-ms:30000}", initialDelayString = "${ids.lease-renew-ms:30000}")
+    public synchronized void renewLease() {
+        if (lease == null) {
+            return;
+        }
+        long sentAt = nanoTime.getAsLong();
+        if (lease.renew(nodeId)) {
+            leaseExpiresAt = sentAt + lease.ttl().toNanos();
+            return;
+        }
+        int lost = nodeId;
+        acquire();
+        log.warn("Lease on node id {} was lost, now using node id {}", lost, nodeId);
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    public long nextId() {
+        return snowflake().nextId();
+    }
+
+    /**
+     * {@code ACC} followed by the 19-digit id and a Luhn check digit.
+     */
+    public String nextAccountNumber() {
+        String digits = String.format("%019d", snowflake().nextId());
+        return "ACC" + digits + Luhn.checkDigit(digits);
+    }
+
+    public String nextWalletAddress(String cryptoCurrency) {
+        return cryptoCurrency.toLowerCase() + "_wallet_" + Long.toString(snowflake().nextId(), 36);
+    }
+
+    public String nextReference() {
+        return "REF" + Long.toString(snowflake().nextId(), 36).toUpperCase();
+    }
+
+    private SnowflakeIdGenerator snowflake() {
+        if (lease != null && nanoTime.getAsLong() - leaseExpiresAt >= 0) {
+            synchronized (this) {
+                if (nanoTime.getAsLong() - leaseExpiresAt >= 0) {
+                    try {
+                        renewLease();
+                    } catch (RuntimeException e) {
+                        throw new IllegalStateException(
+                                "Lease on node id " + nodeId + " expired and could not be renewed", e);
+                    }
+                }
+            }
+        }
+        return snowflake;
+    }
+
+    private void acquire() {
+        long sentAt = nanoTime.getAsLong();
+        use(lease.acquire());
+        leaseExpiresAt = sentAt + lease.ttl().toNanos();
+    }
+
+    private void use(int nodeId) {
+        this.snowflake = new SnowflakeIdGenerator(nodeId);
+        this.nodeId = nodeId;
+    }
+}
@@ -0,0 +1,335 @@
+package org.banking.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.entity.IdempotencyRecord;
+import org.banking.account.exception.IdempotencyConflictException;
+import org.banking.account.repository.IdempotencyRecordRepository;
+import org.banking.account.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes money-moving endpoints safe to retry. The first execution for a key runs the action and
+ * stores its JSON response in the same transaction; retries replay that response. Duplicates that
+ * arrive on this node while the first is still running wait for it, and duplicates on another node
+ * are rejected with a conflict until the first one finishes.
+ * <p>
+ * Actions that commit their own work in steps, such as a bulk upload, run through
+ * {@link #executeInSteps}: every step saves its progress under the key in the step's own
+ * transaction, which also renews the lease, so a retry after a crash or an expired lease resumes
+ * after the last committed step instead of running it again. A key is only released while none of
+ * its steps has committed.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate claimTemplate;
+    private final LruCache<String, IdempotencyRecord> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    private final long ttlHours;
+    private final long leaseSeconds;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.lease-seconds:60}") long leaseSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimTemplate = new TransactionTemplate(transactionManager);
+        this.claimTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cache = new LruCache<>(cacheSize, Duration.ofHours(ttlHours));
+        this.ttlHours = ttlHours;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public <T> T execute(Long userId, String endpoint, String idempotencyKey, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        return executeOnce(userId, endpoint, idempotencyKey, request, responseType,
+                (id, requestHash) -> runOnce(id, requestHash, action));
+    }
+
+    /**
+     * Like {@link #execute}, for an action that commits in steps outside any surrounding
+     * transaction. The action gets a {@link Checkpoint} with the progress of earlier attempts and
+     * must save its progress through it inside each step's transaction.
+     */
+    public <T> T executeInSteps(Long userId, String endpoint, String idempotencyKey, Object request,
+                                Class<T> responseType, Function<Checkpoint, T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.apply(null);
+        }
+        return executeOnce(userId, endpoint, idempotencyKey, request, responseType,
+                (id, requestHash) -> runInSteps(id, requestHash, action));
+    }
+
+    private <T> T executeOnce(Long userId, String endpoint, String idempotencyKey, Object request,
+                              Class<T> responseType, BiFunction<String, String, IdempotencyRecord> runner) {
+        // Keys are client supplied, so store a fixed-length digest of them
+        String id = userId + ":" + endpoint + ":" + sha256(idempotencyKey);
+        String requestHash = sha256(toJson(request));
+
+        while (true) {
+            IdempotencyRecord cached = cache.get(id);
+            if (cached != null) {
+                return replay(cached, requestHash, responseType);
+            }
+
+            CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> first = inFlight.putIfAbsent(id, mine);
+            if (first != null) {
+                IdempotencyRecord completed = await(first);
+                if (completed != null) {
+                    return replay(completed, requestHash, responseType);
+                }
+                // The first attempt failed and stored nothing, so this one may run
+                continue;
+            }
+
+            try {
+                IdempotencyRecord completed = runner.apply(id, requestHash);
+                cache.put(id, completed);
+                mine.complete(completed);
+                return replay(completed, requestHash, responseType);
+            } catch (RuntimeException e) {
+                mine.complete(null);
+                throw e;
+            } finally {
+                inFlight.remove(id, mine);
+            }
+        }
+    }
+
+    private IdempotencyRecord runOnce(String id, String requestHash, Supplier<?> action) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(id).orElse(null);
+        if (existing != null && existing.getExpiresAt().isAfter(LocalDateTime.now())) {
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return existing;
+            }
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+        }
+
+        LocalDateTime lease = claim(id, requestHash, existing);
+
+        try {
+            return transactionTemplate.execute(status -> {
+                Object response = action.get();
+
+                IdempotencyRecord record = idempotencyRecordRepository.findById(id)
+                        .orElseThrow(() -> new IdempotencyConflictException("Idempotency claim was lost"));
+                record.setStatus(IdempotencyRecord.Status.COMPLETED);
+                record.setResponseBody(toJson(response));
+                record.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+                return idempotencyRecordRepository.save(record);
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed, so release the key for a genuine retry
+            idempotencyRecordRepository.deletePending(id, lease);
+            throw e;
+        }
+    }
+
+    private IdempotencyRecord runInSteps(String id, String requestHash, Function<Checkpoint, ?> action) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(id).orElse(null);
+        if (existing != null && existing.getExpiresAt().isAfter(LocalDateTime.now())) {
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return existing;
+            }
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+        }
+
+        Checkpoint checkpoint;
+        if (existing != null && existing.getStatus() == IdempotencyRecord.Status.PENDING
+                && existing.getResponseBody() != null) {
+            // An earlier attempt committed some steps and then stopped; pick up after them
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+            }
+            checkpoint = new Checkpoint(id, existing.getResponseBody(), takeOver(existing));
+        } else {
+            checkpoint = new Checkpoint(id, null, claim(id, requestHash, existing));
+        }
+
+        try {
+            String response = toJson(action.apply(checkpoint));
+            LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+            if (idempotencyRecordRepository.complete(id, checkpoint.lease, response, expiresAt) == 0) {
+                throw new IdempotencyConflictException("Idempotency claim was lost");
+            }
+
+            IdempotencyRecord completed = new IdempotencyRecord();
+            completed.setId(id);
+            completed.setRequestHash(requestHash);
+            completed.setStatus(IdempotencyRecord.Status.COMPLETED);
+            completed.setResponseBody(response);
+            completed.setExpiresAt(expiresAt);
+            return completed;
+        } catch (RuntimeException e) {
+            // Only removes a key none of whose steps committed; otherwise a retry resumes from it
+            idempotencyRecordRepository.deletePending(id, checkpoint.lease);
+            throw e;
+        }
+    }
+
+    private LocalDateTime takeOver(IdempotencyRecord expired) {
+        LocalDateTime lease = newLease();
+        Integer renewed = claimTemplate.execute(status ->
+                idempotencyRecordRepository.renewLease(expired.getId(), expired.getExpiresAt(), lease));
+        if (renewed == null || renewed == 0) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+        }
+        return lease;
+    }
+
+    private LocalDateTime claim(String id, String requestHash, IdempotencyRecord expired) {
+        LocalDateTime lease = newLease();
+        try {
+            claimTemplate.executeWithoutResult(status -> {
+                if (expired != null) {
+                    idempotencyRecordRepository.deleteById(expired.getId());
+                    idempotencyRecordRepository.flush();
+                }
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setId(id);
+                record.setRequestHash(requestHash);
+                record.setExpiresAt(lease);
+                idempotencyRecordRepository.saveAndFlush(record);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+        }
+        return lease;
+    }
+
+    // Leases double as claim tokens, so keep them at a precision every database stores exactly
+    private LocalDateTime newLease() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+        }
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> first) {
+        try {
+            return first.get(leaseSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored for idempotent replay", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = idempotencyRecordRepository.deleteExpired(now, now.minusHours(ttlHours));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    /**
+     * Progress of an {@link #executeInSteps} action under its key. Each save renews the lease and
+     * only takes effect if the step's transaction commits; a save after the lease was taken over
+     * by another attempt fails, which rolls the step back.
+     */
+    public final class Checkpoint {
+
+        private final String id;
+        private final String saved;
+        private volatile LocalDateTime lease;
+
+        private Checkpoint(String id, String saved, LocalDateTime lease) {
+            this.id = id;
+            this.saved = saved;
+            this.lease = lease;
+        }
+
+        /**
+         * The progress saved by earlier attempts, or null if none of their steps committed.
+         */
+        public String saved() {
+            return saved;
+        }
+
+        /**
+         * Replaces the saved progress. Must be called inside the transaction of the step it records.
+         */
+        public void save(String progress) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw new IllegalStateException("Progress must be saved in the transaction of its step");
+            }
+            LocalDateTime renewed = newLease();
+            if (idempotencyRecordRepository.saveProgress(id, lease, renewed, progress) == 0) {
+                throw new IdempotencyConflictException("Idempotency claim was lost");
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lease = renewed;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.banking.account.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.entity.Transaction;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Daily interest on active SAVINGS accounts. The account id space is split into fixed ranges that
+ * a fork-join pool accrues in parallel; each range locks its accounts in id order, posts INTEREST
+ * transactions, balance updates and journal entries as JDBC batches, and checkpoints itself in the
+ * same transaction, so a crashed run resumes with the ranges that had not committed. Interest is
+ * computed on the balance at run time; amounts below a cent are carried to the next day. Every
+ * account credited publishes a {@link BalanceChangedEvent} inside its range's transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "interest.enabled", havingValue = "true", matchIfMissing = true)
+public class InterestAccrualJob {
+
+    private static final String LAST_RUN_SQL = "SELECT MAX(accrual_date) FROM interest_accrual_runs";
+
+    private static final String MAX_ACCOUNT_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM accounts WHERE type = 'SAVINGS'";
+
+    private static final String DONE_PARTITIONS_SQL =
+            "SELECT range_start FROM interest_accrual_partitions WHERE accrual_date = ?";
+
+    private static final String LOCK_ACCOUNTS_SQL = """
+            SELECT %s FROM accounts
+            WHERE type = 'SAVINGS' AND status = 'ACTIVE' AND balance > 0 AND id >= ? AND id < ?
+            ORDER BY id FOR UPDATE
+            """.formatted(AccountRows.COLUMNS);
+
+    private static final String CARRY_SQL =
+            "SELECT account_id, carry, last_accrual_date FROM interest_carry WHERE account_id >= ? AND account_id < ?";
+
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE accounts SET balance = ?, version = version + 1, updated_at = ? WHERE id = ?";
+
+    private static final String UPSERT_CARRY_POSTGRES_SQL = """
+            INSERT INTO interest_carry (account_id, carry, last_accrual_date) VALUES (?, ?, ?)
+            ON CONFLICT (account_id) DO UPDATE SET carry = EXCLUDED.carry, last_accrual_date = EXCLUDED.last_accrual_date
+            """;
+
+    private static final String UPSERT_CARRY_MERGE_SQL =
+            "MERGE INTO interest_carry (account_id, carry, last_accrual_date) KEY (account_id) VALUES (?, ?, ?)";
+
+    private static final String CHECKPOINT_SQL = """
+            INSERT INTO interest_accrual_partitions
+                (accrual_date, range_start, range_end, accounts_accrued, interest_posted, completed_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String DAY_TOTALS_SQL = """
+            SELECT COALESCE(SUM(accounts_accrued), 0) AS accounts, COALESCE(SUM(interest_posted), 0) AS interest
+            FROM interest_accrual_partitions WHERE accrual_date = ?
+            """;
+
+    private static final String UPDATE_RUN_SQL =
+            "UPDATE interest_accrual_runs SET accounts_accrued = ?, interest_posted = ?, completed_at = ? WHERE accrual_date = ?";
+
+    private static final String INSERT_RUN_SQL =
+            "INSERT INTO interest_accrual_runs (accounts_accrued, interest_posted, completed_at, accrual_date) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalService journalService;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ForkJoinPool pool;
+    private final String upsertCarrySql;
+
+    @Value("${interest.annual-rate:0.02}")
+    private BigDecimal annualRate = new BigDecimal("0.02");
+
+    @Value("${interest.day-count:365}")
+    private int dayCount = 365;
+
+    @Value("${interest.partition-size:5000}")
+    private long partitionSize = 5_000;
+
+    @Value("${interest.batch-size:500}")
+    private int batchSize = 500;
+
+    public InterestAccrualJob(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              JournalService journalService,
+                              EntityManager entityManager,
+                              ApplicationEventPublisher eventPublisher,
+                              DataSource dataSource,
+                              @Value("${interest.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journalService = journalService;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.pool = new ForkJoinPool(parallelism);
+        this.upsertCarrySql = JournalService.isPostgres(dataSource) ? UPSERT_CARRY_POSTGRES_SQL : UPSERT_CARRY_MERGE_SQL;
+    }
+
+    @Scheduled(cron = "${interest.cron:0 30 0 * * *}")
+    public void run() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate last = jdbcTemplate.queryForObject(LAST_RUN_SQL, LocalDate.class);
+        LocalDate first = last == null ? yesterday : last.plusDays(1);
+
+        for (LocalDate day = first; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            accrueDay(day);
+        }
+    }
+
+    /**
+     * Accrues one day of interest, skipping ranges already checkpointed for {@code day}.
+     * Returns the number of accounts accrued by this call.
+     */
+    public int accrueDay(LocalDate day) {
+        long started = System.nanoTime();
+        long maxAccountId = jdbcTemplate.queryForObject(MAX_ACCOUNT_ID_SQL, Long.class);
+        long end = (maxAccountId / partitionSize + 1) * partitionSize;
+        Set<Long> done = new HashSet<>(jdbcTemplate.queryForList(DONE_PARTITIONS_SQL, Long.class, Date.valueOf(day)));
+
+        Result result = pool.invoke(new RangeTask(day, 0, end, done));
+
+        Map<String, Object> totals = jdbcTemplate.queryForMap(DAY_TOTALS_SQL, Date.valueOf(day));
+        Object[] run = {((Number) totals.get("accounts")).intValue(), totals.get("interest"),
+                Timestamp.valueOf(LocalDateTime.now()), Date.valueOf(day)};
+        if (jdbcTemplate.update(UPDATE_RUN_SQL, run) == 0) {
+            jdbcTemplate.update(INSERT_RUN_SQL, run);
+        }
+
+        double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+        log.info("Interest accrual for {}: {} accounts, {} posted, {} ranges ({} resumed) in {} ms, {} accounts/s",
+                day, result.accounts(), result.interest(), result.partitions(), done.size(),
+                Math.round(seconds * 1000), Math.round(result.accounts() / seconds));
+        return result.accounts();
+    }
+
+    private Result accruePartition(LocalDate day, long fromId, long toId) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+
+        Map<Long, BigDecimal> carries = new HashMap<>();
+        Set<Long> alreadyAccrued = new HashSet<>();
+        List<Object[]> balances = new ArrayList<>();
+        List<Object[]> carryRows = new ArrayList<>();
+        List<JournalPosting> postings = new ArrayList<>();
+        List<BalanceChangedEvent> events = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        String reference = "INTEREST-" + day;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // Row locks first, so the carry read below sees any concurrent run's committed progress
+        List<Account> accounts = jdbcTemplate.query(LOCK_ACCOUNTS_SQL, AccountRows::map, fromId, toId);
+        jdbcTemplate.query(CARRY_SQL, rs -> {
+            if (!rs.getDate("last_accrual_date").toLocalDate().isBefore(day)) {
+                alreadyAccrued.add(rs.getLong("account_id"));
+            }
+            carries.put(rs.getLong("account_id"), rs.getBigDecimal("carry"));
+        }, fromId, toId);
+
+        for (Account account : accounts) {
+            Long accountId = account.getId();
+            BigDecimal balance = account.getBalance();
+            if (alreadyAccrued.contains(accountId)) {
+                continue;
+            }
+
+            BigDecimal accrued = balance.multiply(annualRate)
+                    .divide(BigDecimal.valueOf(dayCount), 10, RoundingMode.HALF_EVEN)
+                    .add(carries.getOrDefault(accountId, BigDecimal.ZERO));
+            BigDecimal posted = accrued.setScale(2, RoundingMode.DOWN);
+            carryRows.add(new Object[]{accountId, accrued.subtract(posted), Date.valueOf(day)});
+            if (posted.signum() == 0) {
+                continue;
+            }
+
+            BigDecimal after = balance.add(posted);
+            balances.add(new Object[]{after, now, accountId});
+
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(accountId);
+            transaction.setType(Transaction.TransactionType.INTEREST);
+            transaction.setAmount(posted);
+            transaction.setBalanceBefore(balance);
+            transaction.setBalanceAfter(after);
+            transaction.setDescription("Interest for " + day);
+            transaction.setReference(reference);
+            entityManager.persist(transaction);
+
+            JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.INTEREST, reference, "Interest for " + day)
+                    .leg(JournalLeg.Ledger.CUSTOMER_FIAT, accountId, AccountService.ACCOUNT_CURRENCY, posted)
+                    .balance(JournalLeg.Ledger.INTEREST_EXPENSE, null, AccountService.ACCOUNT_CURRENCY);
+            postings.add(posting);
+            total = total.add(posted);
+
+            // The row as UPDATE_BALANCE_SQL leaves it
+            account.setBalance(after);
+            account.setVersion(account.getVersion() + 1);
+            events.add(new BalanceChangedEvent(account.getUserId(), account, null, posting));
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, balances, batchSize, (ps, args) -> {
+            ps.setBigDecimal(1, (BigDecimal) args[0]);
+            ps.setTimestamp(2, (Timestamp) args[1]);
+            ps.setLong(3, (Long) args[2]);
+        });
+        jdbcTemplate.batchUpdate(upsertCarrySql, carryRows, batchSize, (ps, args) -> {
+            ps.setLong(1, (Long) args[0]);
+            ps.setBigDecimal(2, (BigDecimal) args[1]);
+            ps.setDate(3, (Date) args[2]);
+        });
+        if (!postings.isEmpty()) {
+            journalService.recordAll(postings);
+        }
+        events.forEach(eventPublisher::publishEvent);
+        entityManager.flush();
+        entityManager.clear();
+
+        jdbcTemplate.update(CHECKPOINT_SQL, Date.valueOf(day), fromId, toId, carryRows.size(), total, now);
+        return new Result(carryRows.size(), total, 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private record Result(int accounts, BigDecimal interest, int partitions) {
+        Result plus(Result other) {
+            return new Result(accounts + other.accounts(), interest.add(other.interest()), partitions + other.partitions());
+        }
+    }
+
+    /**
+     * Splits [from, to) at partition boundaries until one partition is left, so ranges and their
+     * checkpoints are the same on every run regardless of how the pool schedules them.
+     */
+    private class RangeTask extends RecursiveTask<Result> {
+
+        private final LocalDate day;
+        private final long from;
+        private final long to;
+        private final Set<Long> done;
+
+        RangeTask(LocalDate day, long from, long to, Set<Long> done) {
+            this.day = day;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+        }
+
+        @Override
+        protected Result compute() {
+            long partitions = (to - from) / partitionSize;
+            if (partitions <= 1) {
+                if (done.contains(from)) {
+                    return new Result(0, BigDecimal.ZERO, 0);
+                }
+                return transactionTemplate.execute(status -> accruePartition(day, from, to));
+            }
+
+            long mid = from + (partitions / 2) * partitionSize;
+            RangeTask left = new RangeTask(day, from, mid, done);
+            left.fork();
+            Result right = new RangeTask(day, mid, to, done).compute();
+            return left.join().plus(right);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.banking.account.service;
+
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A journal entry under construction: header fields plus signed legs. {@link #balance} adds the
+ * offsetting leg so callers only spell out the customer side of a movement.
+ */
+public final class JournalPosting {
+
+    private final UUID id = UUID.randomUUID();
+    private final JournalEntry.EntryType entryType;
+    private final String reference;
+    private final String description;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final List<Leg> legs = new ArrayList<>();
+
+    private JournalPosting(JournalEntry.EntryType entryType, String reference, String description) {
+        this.entryType = entryType;
+        this.reference = reference;
+        this.description = description;
+    }
+
+    public static JournalPosting of(JournalEntry.EntryType entryType, String reference, String description) {
+        return new JournalPosting(entryType, reference, description);
+    }
+
+    public JournalPosting leg(JournalLeg.Ledger ledger, Long accountId, String currency, BigDecimal amount) {
+        if (amount.signum() != 0) {
+            legs.add(new Leg(ledger, accountId, currency.toUpperCase(), amount));
+        }
+        return this;
+    }
+
+    public JournalPosting balance(JournalLeg.Ledger ledger, Long accountId, String currency) {
+        return leg(ledger, accountId, currency, sum(currency.toUpperCase()).negate());
+    }
+
+    void validate() {
+        if (legs.isEmpty()) {
+            throw new IllegalStateException("Journal entry " + entryType + " has no legs");
+        }
+        Map<String, BigDecimal> totals = new LinkedHashMap<>();
+        for (Leg leg : legs) {
+            totals.merge(leg.currency(), leg.amount(), BigDecimal::add);
+        }
+        totals.forEach((currency, total) -> {
+            if (total.signum() != 0) {
+                throw new IllegalStateException("Journal entry " + entryType + " is unbalanced in "
+                        + currency + " by " + total);
+            }
+        });
+    }
+
+    private BigDecimal sum(String currency) {
+        return legs.stream()
+                .filter(leg -> leg.currency().equals(currency))
+                .map(Leg::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public JournalEntry.EntryType getEntryType() {
+        return entryType;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<Leg> getLegs() {
+        return Collections.unmodifiableList(legs);
+    }
+
+    public record Leg(JournalLeg.Ledger ledger, Long accountId, String currency, BigDecimal amount) {
+    }
+}
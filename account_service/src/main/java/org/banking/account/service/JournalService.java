@@ -0,0 +1,158 @@
+package org.banking.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.dto.JournalVerification;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalLeg;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.repository.CryptoAccountRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the append-only double-entry journal. Each posting is written in the caller's
+ * transaction; on PostgreSQL the header and all legs go in one statement (a data-modifying CTE),
+ * elsewhere as two JDBC batches.
+ */
+@Slf4j
+@Service
+public class JournalService {
+
+    private static final int MAX_POSTINGS_PER_STATEMENT = 500;
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO journal_entries (id, entry_type, reference, description, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LEG_SQL =
+            "INSERT INTO journal_legs (entry_id, ledger, account_id, currency, amount, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SUM_SQL =
+            "SELECT COALESCE(SUM(amount), 0) FROM journal_legs WHERE ledger = ? AND account_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CryptoAccountRepository cryptoAccountRepository;
+    private final boolean singleStatement;
+
+    public JournalService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                          CryptoAccountRepository cryptoAccountRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cryptoAccountRepository = cryptoAccountRepository;
+        this.singleStatement = isPostgres(dataSource);
+    }
+
+    public void record(JournalPosting posting) {
+        recordAll(List.of(posting));
+    }
+
+    public void recordAll(List<JournalPosting> postings) {
+        postings.forEach(JournalPosting::validate);
+
+        for (int i = 0; i < postings.size(); i += MAX_POSTINGS_PER_STATEMENT) {
+            List<JournalPosting> chunk = postings.subList(i, Math.min(i + MAX_POSTINGS_PER_STATEMENT, postings.size()));
+            if (singleStatement) {
+                insertWithCte(chunk);
+            } else {
+                insertWithBatches(chunk);
+            }
+        }
+    }
+
+    /**
+     * Fiat balance of an account as reconstructed from the journal. Accounts hold a single
+     * balance, so legs in every fiat currency count towards it, as they do in the trade path.
+     */
+    public BigDecimal deriveBalance(Long accountId) {
+        return jdbcTemplate.queryForObject(SUM_SQL, BigDecimal.class, JournalLeg.Ledger.CUSTOMER_FIAT.name(), accountId);
+    }
+
+    public BigDecimal deriveCryptoBalance(Long cryptoAccountId) {
+        return jdbcTemplate.queryForObject(SUM_SQL, BigDecimal.class, JournalLeg.Ledger.CUSTOMER_CRYPTO.name(), cryptoAccountId);
+    }
+
+    public JournalVerification verify(Account account) {
+        List<JournalVerification.Check> checks = new ArrayList<>();
+        checks.add(check(JournalLeg.Ledger.CUSTOMER_FIAT, "USD", account.getBalance(), deriveBalance(account.getId())));
+
+        for (CryptoAccount cryptoAccount : cryptoAccountRepository.findByAccountId(account.getId())) {
+            checks.add(check(JournalLeg.Ledger.CUSTOMER_CRYPTO, cryptoAccount.getCryptoCurrency(),
+                    cryptoAccount.getBalance(), deriveCryptoBalance(cryptoAccount.getId())));
+        }
+
+        boolean balanced = checks.stream().allMatch(JournalVerification.Check::isMatches);
+        if (!balanced) {
+            log.warn("Journal mismatch for account {}: {}", account.getAccountNumber(), checks);
+        }
+        return new JournalVerification(account.getAccountNumber(), balanced, checks);
+    }
+
+    private JournalVerification.Check check(JournalLeg.Ledger ledger, String currency,
+                                            BigDecimal stored, BigDecimal derived) {
+        return new JournalVerification.Check(ledger.name(), currency, stored, derived, stored.compareTo(derived) == 0);
+    }
+
+    private void insertWithCte(List<JournalPosting> postings) {
+        StringBuilder sql = new StringBuilder(
+                "WITH entries AS (INSERT INTO journal_entries (id, entry_type, reference, description, created_at) VALUES ");
+        List<Object> args = new ArrayList<>();
+
+        for (int i = 0; i < postings.size(); i++) {
+            JournalPosting posting = postings.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?)");
+            args.add(posting.getId());
+            args.add(posting.getEntryType().name());
+            args.add(posting.getReference());
+            args.add(posting.getDescription());
+            args.add(Timestamp.valueOf(posting.getCreatedAt()));
+        }
+
+        sql.append(") INSERT INTO journal_legs (entry_id, ledger, account_id, currency, amount, created_at) VALUES ");
+        boolean first = true;
+        for (JournalPosting posting : postings) {
+            for (JournalPosting.Leg leg : posting.getLegs()) {
+                sql.append(first ? "" : ", ").append("(?, ?, ?, ?, ?, ?)");
+                first = false;
+                args.add(posting.getId());
+                args.add(leg.ledger().name());
+                args.add(leg.accountId());
+                args.add(leg.currency());
+                args.add(leg.amount());
+                args.add(Timestamp.valueOf(posting.getCreatedAt()));
+            }
+        }
+
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private void insertWithBatches(List<JournalPosting> postings) {
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> legs = new ArrayList<>();
+        for (JournalPosting posting : postings) {
+            Timestamp createdAt = Timestamp.valueOf(posting.getCreatedAt());
+            entries.add(new Object[]{posting.getId(), posting.getEntryType().name(),
+                    posting.getReference(), posting.getDescription(), createdAt});
+            for (JournalPosting.Leg leg : posting.getLegs()) {
+                legs.add(new Object[]{posting.getId(), leg.ledger().name(), leg.accountId(),
+                        leg.currency(), leg.amount(), createdAt});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entries);
+        jdbcTemplate.batchUpdate(INSERT_LEG_SQL, legs);
+    }
+
+    static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase().contains("postgres");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.banking.account.service;
+
+/**
+ * How balance-changing operations protect account rows from concurrent updates.
+ */
+public enum LockingStrategy {
+    // @Version check at commit, retried by OptimisticRetryExecutor
+    OPTIMISTIC,
+    // SELECT ... FOR UPDATE, rows always locked in id order
+    PESSIMISTIC
+}
@@ -0,0 +1,78 @@
+package org.banking.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leases a Snowflake node id from {@code id_node_leases} for instances started without
+ * {@code ids.node-id}. A lease is free once its holder has not renewed it for
+ * {@code ids.lease-ttl-seconds}; expiry and renewal use the database clock, so instance clocks
+ * never decide who holds a node id. Leases are not released on shutdown: a node id is reused only
+ * after the TTL, well after the last id its previous holder could have generated.
+ */
+@Component
+public class NodeIdLease {
+
+    private static final String ACQUIRE_SQL = """
+            UPDATE id_node_leases SET owner = ?, renewed_at = now()
+            WHERE node_id = (
+                SELECT node_id FROM id_node_leases
+                WHERE renewed_at < now() - (? * INTERVAL '1 second')
+                ORDER BY node_id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING node_id
+            """;
+
+    private static final String RENEW_SQL =
+            "UPDATE id_node_leases SET renewed_at = now() WHERE node_id = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int ttlSeconds;
+    private final String owner;
+
+    public NodeIdLease(JdbcTemplate jdbcTemplate,
+                       @Value("${ids.lease-ttl-seconds:120}") int ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlSeconds = ttlSeconds;
+        this.owner = hostName() + "/" + UUID.randomUUID();
+    }
+
+    public int acquire() {
+        List<Integer> leased = jdbcTemplate.queryForList(ACQUIRE_SQL, Integer.class, owner, ttlSeconds);
+        if (leased.isEmpty()) {
+            throw new IllegalStateException("No free node id in id_node_leases; set ids.node-id explicitly");
+        }
+        return leased.get(0);
+    }
+
+    /**
+     * Extends the lease; false when it expired and another instance took the node id.
+     */
+    public boolean renew(int nodeId) {
+        return jdbcTemplate.update(RENEW_SQL, nodeId, owner) == 1;
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    public Duration ttl() {
+        return Duration.ofSeconds(ttlSeconds);
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        try {
+            return host != null ? host : InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.banking.account.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.exception.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a transactional operation when it loses an optimistic-lock race on Account or
+ * CryptoAccount. Backoff is exponential with full jitter so colliding requests spread out.
+ * Must wrap the transaction boundary: inside an active transaction the failed transaction is
+ * already rollback-only, so the call runs once and the conflict propagates to the outer retry.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final MeterRegistry meterRegistry;
+    private final HotAccountTracker hotAccountTracker;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryExecutor(MeterRegistry meterRegistry,
+                                   HotAccountTracker hotAccountTracker,
+                                   @Value("${account.optimistic.max-attempts:5}") int maxAttempts,
+                                   @Value("${account.optimistic.base-backoff-ms:10}") long baseBackoffMillis,
+                                   @Value("${account.optimistic.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.meterRegistry = meterRegistry;
+        this.hotAccountTracker = hotAccountTracker;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = action.get();
+                if (attempt > 1) {
+                    meterRegistry.counter("account.optimistic.recovered", "operation", operation).increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                hotAccountTracker.record(e);
+                counter("account.optimistic.conflicts", operation, entityOf(e)).increment();
+
+                if (attempt >= maxAttempts) {
+                    counter("account.optimistic.exhausted", operation, entityOf(e)).increment();
+                    log.warn("{} gave up after {} optimistic-lock conflicts: {}", operation, attempt, e.getMessage());
+                    throw new ConcurrentUpdateException("The account is busy, please retry");
+                }
+
+                counter("account.optimistic.retries", operation, entityOf(e)).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a concurrent update");
+        }
+    }
+
+    private Counter counter(String name, String operation, String entity) {
+        return meterRegistry.counter(name, "operation", operation, "entity", entity);
+    }
+
+    private static String entityOf(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException o && o.getPersistentClassName() != null) {
+            String name = o.getPersistentClassName();
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,32 @@
+package org.banking.account.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The {@code provisionedusers} actuator endpoint: ids of users that have an account, ascending,
+ * one keyset page per call. auth-service pages through it to find registrations that never
+ * reached this service.
+ */
+@Component
+@Endpoint(id = "provisionedusers")
+public class ProvisionedUsersEndpoint {
+
+    private static final int MAX_LIMIT = 10_000;
+
+    private final AccountProvisioningService provisioningService;
+
+    public ProvisionedUsersEndpoint(AccountProvisioningService provisioningService) {
+        this.provisioningService = provisioningService;
+    }
+
+    @ReadOperation
+    public List<Long> userIds(long afterId, @Nullable Long toId, @Nullable Integer limit) {
+        return provisioningService.userIdsBetween(afterId, toId == null ? Long.MAX_VALUE : toId,
+                limit == null ? 1000 : Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,124 @@
+package org.banking.account.service;
+
+import lombok.RequiredArgsConstructor;
+import org.banking.account.dto.AccountStatement;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.exception.InvalidStatementPeriodException;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.repository.CryptoAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statements built from the nearest balance snapshot before the period plus the journal legs
+ * from that snapshot to the end of the period, so the cost follows the period length rather than
+ * the age of the account.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementService {
+
+    private static final String NEAREST_SNAPSHOT_SQL = """
+            SELECT snapshot_date, closing_balance FROM balance_snapshots
+            WHERE ledger = ? AND account_id = ? AND snapshot_date < ?
+            ORDER BY snapshot_date DESC
+            LIMIT 1
+            """;
+
+    private static final String SUM_SQL = """
+            SELECT COALESCE(SUM(amount), 0) FROM journal_legs
+            WHERE ledger = ? AND account_id = ? AND created_at >= ? AND created_at < ?
+            """;
+
+    private static final String SUM_BEFORE_SQL = """
+            SELECT COALESCE(SUM(amount), 0) FROM journal_legs
+            WHERE ledger = ? AND account_id = ? AND created_at < ?
+            """;
+
+    private static final String LINES_SQL = """
+            SELECT l.created_at, e.entry_type, e.description, e.reference, l.amount
+            FROM journal_legs l JOIN journal_entries e ON e.id = l.entry_id
+            WHERE l.ledger = ? AND l.account_id = ? AND l.created_at >= ? AND l.created_at < ?
+            ORDER BY l.created_at, l.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CryptoAccountRepository cryptoAccountRepository;
+
+    @Value("${statements.max-days:366}")
+    private int maxDays = 366;
+
+    /**
+     * Statement for {@code from} through {@code to}, both inclusive.
+     */
+    @Transactional(readOnly = true)
+    public AccountStatement statement(Account account, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new InvalidStatementPeriodException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new InvalidStatementPeriodException("Statement period cannot exceed " + maxDays + " days");
+        }
+
+        List<AccountStatement.Section> sections = new ArrayList<>();
+        sections.add(section(JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(), AccountService.ACCOUNT_CURRENCY, from, to));
+        for (CryptoAccount cryptoAccount : cryptoAccountRepository.findByAccountId(account.getId())) {
+            sections.add(section(JournalLeg.Ledger.CUSTOMER_CRYPTO, cryptoAccount.getId(),
+                    cryptoAccount.getCryptoCurrency(), from, to));
+        }
+        return new AccountStatement(account.getAccountNumber(), from, to, sections);
+    }
+
+    private AccountStatement.Section section(JournalLeg.Ledger ledger, Long accountId, String currency,
+                                             LocalDate from, LocalDate to) {
+        BigDecimal opening = balanceAtStartOf(ledger, accountId, from);
+
+        BigDecimal[] running = {opening};
+        List<AccountStatement.Line> lines = jdbcTemplate.query(LINES_SQL, (rs, i) -> {
+            BigDecimal amount = rs.getBigDecimal("amount");
+            running[0] = running[0].add(amount);
+            return new AccountStatement.Line(
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getString("entry_type"),
+                    rs.getString("description"),
+                    rs.getString("reference"),
+                    amount,
+                    running[0]);
+        }, ledger.name(), accountId, startOf(from), startOf(to.plusDays(1)));
+
+        return new AccountStatement.Section(ledger.name(), currency, opening, running[0], lines);
+    }
+
+    private BigDecimal balanceAtStartOf(JournalLeg.Ledger ledger, Long accountId, LocalDate day) {
+        List<Snapshot> nearest = jdbcTemplate.query(NEAREST_SNAPSHOT_SQL,
+                (rs, i) -> new Snapshot(rs.getDate("snapshot_date").toLocalDate(), rs.getBigDecimal("closing_balance")),
+                ledger.name(), accountId, Date.valueOf(day));
+
+        if (nearest.isEmpty()) {
+            // Only until the first snapshot run has covered this account
+            return jdbcTemplate.queryForObject(SUM_BEFORE_SQL, BigDecimal.class, ledger.name(), accountId, startOf(day));
+        }
+        Snapshot snapshot = nearest.get(0);
+        BigDecimal delta = jdbcTemplate.queryForObject(SUM_SQL, BigDecimal.class,
+                ledger.name(), accountId, startOf(snapshot.date().plusDays(1)), startOf(day));
+        return snapshot.closingBalance().add(delta);
+    }
+
+    private static Timestamp startOf(LocalDate day) {
+        return Timestamp.valueOf(day.atStartOfDay());
+    }
+
+    private record Snapshot(LocalDate date, BigDecimal closingBalance) {
+    }
+}
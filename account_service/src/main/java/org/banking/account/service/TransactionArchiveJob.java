@@ -0,0 +1,51 @@
+package org.banking.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Keeps upcoming monthly partitions created and archives months older than the retention period,
+ * one month per transaction, oldest first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionArchiveJob {
+
+    private final TransactionArchiveService archiveService;
+
+    @Value("${archive.retain-months:12}")
+    private int retainMonths = 12;
+
+    @Value("${archive.partitions-ahead:3}")
+    private int partitionsAhead = 3;
+
+    public TransactionArchiveJob(TransactionArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @Scheduled(cron = "${archive.cron:0 0 2 * * *}")
+    public void run() {
+        YearMonth current = YearMonth.now();
+        // Full months older than the retention period; the current month never counts
+        YearMonth lastArchived = current.minusMonths(retainMonths + 1L);
+
+        for (TransactionArchiveService.Table table : TransactionArchiveService.Table.values()) {
+            archiveService.ensurePartitions(table, current, current.plusMonths(partitionsAhead));
+
+            YearMonth oldest = archiveService.oldestLiveMonth(table);
+            long moved = 0;
+            for (YearMonth month = oldest; month != null && !month.isAfter(lastArchived); month = month.plusMonths(1)) {
+                moved += archiveService.archiveThrough(table, month);
+            }
+            if (moved > 0) {
+                log.info("Archived {} rows of {} through {}", moved, table.live(), lastArchived);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.banking.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.utils.KeysetCursor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Moves old transactions and crypto_transactions rows into their archive tables, oldest month
+ * first, and keeps one watermark per table: rows created before it are in the archive table,
+ * newer rows in the live table. Readers use the watermark to decide whether a date range needs
+ * the archive at all. On partitioned PostgreSQL tables an archived month's partition is detached
+ * and dropped rather than deleted row by row.
+ */
+@Slf4j
+@Service
+public class TransactionArchiveService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String WATERMARK_SQL = "SELECT archived_before FROM archive_watermarks WHERE table_name = ?";
+
+    private static final String UPDATE_WATERMARK_SQL =
+            "UPDATE archive_watermarks SET archived_before = ?, updated_at = ? WHERE table_name = ?";
+
+    private static final String INSERT_WATERMARK_SQL =
+            "INSERT INTO archive_watermarks (archived_before, updated_at, table_name) VALUES (?, ?, ?)";
+
+    private static final String PARTITIONED_SQL = """
+            SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+            WHERE c.relname = ?
+            """;
+
+    private static final String PARTITION_EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+
+    private static final String CREATE_PARTITIONS_SQL = "SELECT create_monthly_partitions(?, ?, ?)";
+
+    public enum Table {
+        TRANSACTIONS("transactions", "transactions_archive"),
+        CRYPTO_TRANSACTIONS("crypto_transactions", "crypto_transactions_archive");
+
+        private final String live;
+        private final String archive;
+
+        Table(String live, String archive) {
+            this.live = live;
+            this.archive = archive;
+        }
+
+        public String live() {
+            return live;
+        }
+
+        public String archive() {
+            return archive;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean postgres;
+    private final Map<Table, String> columnLists = new ConcurrentHashMap<>();
+
+    public TransactionArchiveService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.postgres = JournalService.isPostgres(dataSource);
+    }
+
+    /**
+     * Start of the live table's range, or null when nothing has been archived yet.
+     */
+    public LocalDateTime archivedBefore(Table table) {
+        List<Timestamp> rows = jdbcTemplate.queryForList(WATERMARK_SQL, Timestamp.class, table.live());
+        return rows.isEmpty() ? null : rows.get(0).toLocalDateTime();
+    }
+
+    /**
+     * Up to {@code limit} history rows newest first. Every live row is newer than every archived
+     * one, so a page is live rows followed by archived rows, and each table is only queried when
+     * the requested range and cursor reach into it. The functions run a query for at most the
+     * given number of rows.
+     */
+    public <T> List<T> newestFirst(Table table, LocalDateTime from, LocalDateTime to, KeysetCursor after, int limit,
+                                   IntFunction<List<? extends T>> live, IntFunction<List<? extends T>> archived) {
+        LocalDateTime archivedBefore = archivedBefore(table);
+        List<T> rows = new ArrayList<>(limit);
+
+        boolean liveInRange = archivedBefore == null
+                || ((after == null || !after.createdAt().isBefore(archivedBefore))
+                && (to == null || to.isAfter(archivedBefore)));
+        if (liveInRange) {
+            rows.addAll(live.apply(limit));
+        }
+        boolean archiveInRange = archivedBefore != null && (from == null || from.isBefore(archivedBefore));
+        if (archiveInRange && rows.size() < limit) {
+            rows.addAll(archived.apply(limit - rows.size()));
+        }
+        return rows;
+    }
+
+    /**
+     * Month of the oldest live row, or null when the live table is empty.
+     */
+    public YearMonth oldestLiveMonth(Table table) {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM " + table.live(), Timestamp.class);
+        return oldest == null ? null : YearMonth.from(oldest.toLocalDateTime());
+    }
+
+    /**
+     * Moves every live row created before the end of {@code month} to the archive and advances the
+     * watermark, in one transaction. Returns the number of rows moved.
+     */
+    public int archiveThrough(Table table, YearMonth month) {
+        LocalDateTime before = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime watermark = archivedBefore(table);
+        if (watermark != null && !before.isAfter(watermark)) {
+            return 0;
+        }
+
+        int moved = transactionTemplate.execute(status -> {
+            String columns = columns(table);
+            int rows = jdbcTemplate.update("INSERT INTO " + table.archive() + " (" + columns + ") SELECT " + columns
+                    + " FROM " + table.live() + " WHERE created_at < ?", Timestamp.valueOf(before));
+
+            String partition = table.live() + "_p" + month.format(PARTITION_SUFFIX);
+            if (isPartitioned(table) && Boolean.TRUE.equals(
+                    jdbcTemplate.queryForObject(PARTITION_EXISTS_SQL, Boolean.class, partition))) {
+                jdbcTemplate.execute("ALTER TABLE " + table.live() + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            }
+            // The whole range on an unpartitioned table, otherwise only rows that fell into the default partition
+            jdbcTemplate.update("DELETE FROM " + table.live() + " WHERE created_at < ?", Timestamp.valueOf(before));
+
+            Object[] args = {Timestamp.valueOf(before), Timestamp.valueOf(LocalDateTime.now()), table.live()};
+            if (jdbcTemplate.update(UPDATE_WATERMARK_SQL, args) == 0) {
+                jdbcTemplate.update(INSERT_WATERMARK_SQL, args);
+            }
+            return rows;
+        });
+        log.info("Archived {} rows of {} created before {}", moved, table.live(), before);
+        return moved;
+    }
+
+    /**
+     * Creates monthly partitions from {@code first} through {@code last} that do not exist yet, so
+     * new rows never land in the default partition. No-op unless the table is partitioned.
+     */
+    public int ensurePartitions(Table table, YearMonth first, YearMonth last) {
+        if (!isPartitioned(table)) {
+            return 0;
+        }
+        Integer created = jdbcTemplate.queryForObject(CREATE_PARTITIONS_SQL, Integer.class,
+                table.live(), Date.valueOf(first.atDay(1)), Date.valueOf(last.atDay(1)));
+        if (created != null && created > 0) {
+            log.info("Created {} monthly partitions of {} through {}", created, table.live(), last);
+        }
+        return created == null ? 0 : created;
+    }
+
+    private boolean isPartitioned(Table table) {
+        if (!postgres) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(PARTITIONED_SQL, Integer.class, table.live());
+        return count != null && count > 0;
+    }
+
+    // Copied by name so the live and archive tables may differ in column order
+    private String columns(Table table) {
+        return columnLists.computeIfAbsent(table, t -> jdbcTemplate.query(
+                "SELECT * FROM " + t.archive() + " WHERE 1 = 0", rs -> {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    List<String> names = new ArrayList<>();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        names.add(metaData.getColumnName(i));
+                    }
+                    return String.join(", ", names);
+                }));
+    }
+}
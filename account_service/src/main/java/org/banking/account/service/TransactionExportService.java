@@ -0,0 +1,250 @@
+package org.banking.account.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.exception.InvalidExportRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams transaction history straight from a JDBC cursor to the response, one row at a time, so
+ * memory use does not depend on the size of the export. Rows come out in (created_at, id) order;
+ * a broken download resumes by passing the last received row's created_at as {@code from} and its
+ * id as {@code afterId}. Archived months come first, read from the archive table.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    private static final String[] FIAT_COLUMNS = {
+            "id", "type", "amount", "balance_before", "balance_after", "status",
+            "description", "reference", "created_at"};
+
+    private static final String[] CRYPTO_COLUMNS = {
+            "id", "transaction_type", "crypto_currency", "crypto_amount", "fiat_currency", "fiat_amount",
+            "price_per_unit", "network_fee", "trading_fee", "status", "description", "reference", "created_at"};
+
+    private static final JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+            .setRootValueSeparator(null);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionArchiveService transactionArchive;
+
+    public TransactionExportService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    TransactionArchiveService transactionArchive,
+                                    @Value("${export.fetch-size:1000}") int fetchSize) {
+        // PostgreSQL only honours the fetch size inside a transaction; otherwise it buffers the whole result
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionArchive = transactionArchive;
+    }
+
+    public void exportTransactions(Long accountId, ExportFormat format, Range range,
+                                   boolean gzip, OutputStream output) throws IOException {
+        List<String> conditions = new ArrayList<>(List.of("account_id = ?"));
+        List<Object> args = new ArrayList<>(List.of(accountId));
+        export(TransactionArchiveService.Table.TRANSACTIONS, FIAT_COLUMNS, conditions, args, format, range, gzip, output);
+    }
+
+    public void exportCryptoTransactions(Long accountId, String cryptoCurrency, ExportFormat format, Range range,
+                                         boolean gzip, OutputStream output) throws IOException {
+        List<String> conditions = new ArrayList<>(List.of("account_id = ?"));
+        List<Object> args = new ArrayList<>(List.of(accountId));
+        if (cryptoCurrency != null && !cryptoCurrency.isBlank()) {
+            conditions.add("UPPER(crypto_currency) = ?");
+            args.add(cryptoCurrency.toUpperCase());
+        }
+        export(TransactionArchiveService.Table.CRYPTO_TRANSACTIONS, CRYPTO_COLUMNS, conditions, args, format, range, gzip, output);
+    }
+
+    private void export(TransactionArchiveService.Table table, String[] columns,
+                        List<String> conditions, List<Object> args,
+                        ExportFormat format, Range range, boolean gzip, OutputStream output) throws IOException {
+        if (range.from() != null && range.afterId() != null) {
+            conditions.add("(created_at > ? OR (created_at = ? AND id > ?))");
+            args.add(Timestamp.valueOf(range.from()));
+            args.add(Timestamp.valueOf(range.from()));
+            args.add(range.afterId());
+        } else if (range.from() != null) {
+            conditions.add("created_at >= ?");
+            args.add(Timestamp.valueOf(range.from()));
+        }
+        if (range.to() != null) {
+            conditions.add("created_at < ?");
+            args.add(Timestamp.valueOf(range.to()));
+        }
+        // Every archived row is older than every live one, so reading the tables in turn keeps the order
+        LocalDateTime archivedBefore = transactionArchive.archivedBefore(table);
+        List<String> tables = new ArrayList<>(2);
+        if (archivedBefore != null && (range.from() == null || range.from().isBefore(archivedBefore))) {
+            tables.add(table.archive());
+        }
+        if (archivedBefore == null || range.to() == null || range.to().isAfter(archivedBefore)) {
+            tables.add(table.live());
+        }
+
+        OutputStream target = gzip ? new GZIPOutputStream(output, 64 * 1024) : output;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == ExportFormat.CSV ? new CsvRowWriter(writer, columns) : new NdjsonRowWriter(writer, columns);
+
+        long[] count = {0};
+        rows.start();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (String source : tables) {
+                String sql = "SELECT " + String.join(", ", columns) + " FROM " + source
+                        + " WHERE " + String.join(" AND ", conditions)
+                        + " ORDER BY created_at, id";
+                jdbcTemplate.query(sql, rs -> {
+                    try {
+                        rows.write(rs);
+                        count[0]++;
+                    } catch (IOException e) {
+                        // Client went away; abort the cursor instead of reading the rest of the range
+                        throw new UncheckedIOException(e);
+                    }
+                }, args.toArray());
+            }
+        });
+        rows.finish();
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        output.flush();
+        log.info("Exported {} rows from {}", count[0], tables);
+    }
+
+    public record Range(LocalDateTime from, LocalDateTime to, Long afterId) {
+        public Range {
+            if (afterId != null && from == null) {
+                throw new InvalidExportRequestException("afterId requires from");
+            }
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new InvalidExportRequestException("from must be before to");
+            }
+        }
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final String[] columns;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, String[] columns) throws IOException {
+            this.columns = columns;
+            this.generator = JSON.createGenerator(writer);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(columns[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private final String[] columns;
+
+        CsvRowWriter(Writer writer, String[] columns) {
+            this.writer = writer;
+            this.columns = columns;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value instanceof BigDecimal decimal) {
+                    writer.write(decimal.toPlainString());
+                } else if (value instanceof Timestamp timestamp) {
+                    writer.write(timestamp.toLocalDateTime().toString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
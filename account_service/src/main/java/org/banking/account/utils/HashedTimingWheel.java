@@ -0,0 +1,149 @@
+package org.banking.account.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of deadlines. Scheduling and cancelling are O(1) and the
+ * worker only looks at one bucket per tick, so millions of pending timeouts cost no polling.
+ * Deadlines fire at most one tick late. Expiry callbacks run on the worker thread and should hand
+ * off slow work.
+ */
+@Slf4j
+public class HashedTimingWheel<T> {
+
+    private final long tickNanos;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private final Consumer<T> onExpiry;
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+
+    private volatile boolean running;
+    private long startNanos;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize, Consumer<T> onExpiry) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.onExpiry = onExpiry;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            startNanos = System.nanoTime();
+            worker.start();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    public Timeout<T> schedule(T item, Instant deadline) {
+        long delayNanos = Math.max(0, Duration.between(Instant.now(), deadline).toNanos());
+        Timeout<T> timeout = new Timeout<>(item, System.nanoTime() + delayNanos);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                continue;
+            }
+
+            transferPending();
+            expireBucket(buckets[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        // Bounded so a burst of schedules cannot starve the current tick
+        for (int i = 0; i < 100_000; i++) {
+            Timeout<T> timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.cancelled) {
+                continue;
+            }
+            long ticksAway = Math.max(0, (timeout.deadlineNanos - startNanos) / tickNanos);
+            long targetTick = Math.max(ticksAway, tick);
+            timeout.remainingRounds = (targetTick - tick) / buckets.length;
+            buckets[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(Queue<Timeout<T>> bucket, long tickDeadlineNanos) {
+        Iterator<Timeout<T>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout<T> timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0 && timeout.deadlineNanos <= tickDeadlineNanos) {
+                it.remove();
+                try {
+                    onExpiry.accept(timeout.item);
+                } catch (RuntimeException e) {
+                    log.warn("Timing wheel expiry callback failed: {}", e.getMessage());
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        private Timeout(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
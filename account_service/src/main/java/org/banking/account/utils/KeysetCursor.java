@@ -0,0 +1,58 @@
+package org.banking.account.utils;
+
+import org.banking.account.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position in a {@code (createdAt DESC, id DESC)} listing. Clients only ever see the encoded form,
+ * so the key layout can change without breaking them.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    public static final Sort SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    public String encode() {
+        Instant instant = createdAt.toInstant(ZoneOffset.UTC);
+        String raw = instant.getEpochSecond() + "." + instant.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            long seconds = Long.parseLong(raw.substring(0, dot));
+            int nanos = Integer.parseInt(raw.substring(dot + 1, colon));
+            long id = Long.parseLong(raw.substring(colon + 1));
+            return new KeysetCursor(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Rows strictly after the cursor in {@link #SORT} order. The redundant {@code createdAt <= c}
+     * bound keeps the predicate a plain range scan on the {@code (account_id, created_at DESC)} index.
+     */
+    public static <T> Specification<T> seek(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("createdAt"), cursor.createdAt()),
+                cb.or(
+                        cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+}
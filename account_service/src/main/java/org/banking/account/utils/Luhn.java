@@ -0,0 +1,38 @@
+package org.banking.account.utils;
+
+/**
+ * Luhn (mod 10) check digits, which catch every single-digit typo and most adjacent swaps.
+ */
+public final class Luhn {
+
+    private Luhn() {
+    }
+
+    public static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Not a digit string: " + digits);
+            }
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    public static boolean isValid(String digitsWithCheck) {
+        if (digitsWithCheck == null || digitsWithCheck.length() < 2 || !digitsWithCheck.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        int last = digitsWithCheck.length() - 1;
+        return checkDigit(digitsWithCheck.substring(0, last)) == digitsWithCheck.charAt(last) - '0';
+    }
+}
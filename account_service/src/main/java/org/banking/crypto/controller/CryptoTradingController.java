@@ -2,8 +2,14 @@ package org.banking.crypto.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.banking.account.entity.Account;
+import org.banking.account.dto.AccountMetadata;
+import org.banking.account.dto.CursorPage;
 import org.banking.account.service.AccountService;
+import org.banking.account.service.ExportFormat;
+import org.banking.account.service.ExportResponses;
+import org.banking.account.service.IdempotencyService;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.banking.account.service.TransactionExportService;
 import org.banking.crypto.dto.CryptoPortfolioDTO;
 import org.banking.crypto.dto.CryptoRequest;
 import org.banking.crypto.dto.CryptoTransactionDTO;
@@ -12,10 +18,13 @@ import org.banking.crypto.entity.CryptoTransaction;
 import org.banking.crypto.entity.OrderSide;
 import org.banking.crypto.service.CryptoTradingService;
 import org.banking.crypto.service.CryptoTransactionService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -27,35 +36,72 @@ public class CryptoTradingController {
     private final CryptoTradingService cryptoTradingService;
     private final AccountService accountService;
     private final CryptoTransactionService cryptoTransactionService;
+    private final IdempotencyService idempotencyService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final TransactionExportService transactionExportService;
 
 
 
     @PostMapping("/buy")
     public ResponseEntity<CryptoTransactionResponse> buyCrypto(
             HttpServletRequest httpRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody CryptoRequest request) {
 
         Long userId = (Long) httpRequest.getAttribute("userId");
-        Account account = accountService.getTradingAccountByUserId(userId);
 
-        CryptoTransaction transaction = cryptoTradingService.executeBuyOrder(
-                account.getId(), request.getCryptoCurrency(), request.getFiatAmount(), request.getFiatCurrency());
-
-        return ResponseEntity.ok(CryptoTransactionResponse.toResponse(transaction));
+        CryptoTransactionResponse response = retryExecutor.execute("buy", () ->
+                idempotencyService.execute(userId, "buy", idempotencyKey, request,
+                        CryptoTransactionResponse.class, () -> {
+                            AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+                            CryptoTransaction transaction = cryptoTradingService.executeBuyOrder(
+                                    account.getId(), request.getCryptoCurrency(), request.getFiatAmount(),
+                                    request.getFiatCurrency());
+                            return CryptoTransactionResponse.toResponse(transaction);
+                        }));
+
+        return ResponseEntity.ok(response);
     }
     @GetMapping("/transactions")
-    public List<CryptoTransactionDTO> transactions(HttpServletRequest httpRequest) {
+    public CursorPage<CryptoTransactionDTO> transactions(
+            @RequestParam(required = false) CryptoTransaction.TransactionType type,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            HttpServletRequest httpRequest) {
 
         Long userId = (Long) httpRequest.getAttribute("userId");
-        Account account = accountService.getTradingAccountByUserId(userId);
+        AccountMetadata account = accountService.getTradingAccountMetadata(userId);
 
-        return cryptoTransactionService.getTransactions(account.getId());
+        return cryptoTransactionService.getTransactions(account.getId(), type, currency, from, to, cursor, limit);
+    }
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long afterId,
+            HttpServletRequest httpRequest) {
+
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        TransactionExportService.Range range = new TransactionExportService.Range(from, to, afterId);
+        boolean gzip = ExportResponses.acceptsGzip(httpRequest);
+
+        StreamingResponseBody body = output -> transactionExportService.exportCryptoTransactions(
+                account.getId(), currency, exportFormat, range, gzip, output);
+        return ExportResponses.attachment("crypto-transactions-" + account.getAccountNumber(),
+                exportFormat, gzip, body);
     }
     @GetMapping("/portfolio")
     public List<CryptoPortfolioDTO> getPortfolio(HttpServletRequest request) {
 
         Long userId = (Long) request.getAttribute("userId");
-        Account account = accountService.getTradingAccountByUserId(userId);
+        AccountMetadata account = accountService.getTradingAccountMetadata(userId);
 
         return cryptoTradingService.getCryptoAccounts(account.getId());
 
@@ -76,15 +122,22 @@ public class CryptoTradingController {
     @PostMapping("/sell")
     public ResponseEntity<CryptoTransactionResponse> sellCrypto(
             HttpServletRequest httpRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody CryptoRequest request) {
 
         Long userId = (Long) httpRequest.getAttribute("userId");
-        Account account = accountService.getTradingAccountByUserId(userId);
-
-        CryptoTransaction transaction = cryptoTradingService.executeSellOrder(
-                account.getId(), request.getCryptoCurrency(), request.getCryptoAmount(), request.getFiatCurrency());
 
-        return ResponseEntity.ok(CryptoTransactionResponse.toResponse(transaction));
+        CryptoTransactionResponse response = retryExecutor.execute("sell", () ->
+                idempotencyService.execute(userId, "sell", idempotencyKey, request,
+                        CryptoTransactionResponse.class, () -> {
+                            AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+                            CryptoTransaction transaction = cryptoTradingService.executeSellOrder(
+                                    account.getId(), request.getCryptoCurrency(), request.getCryptoAmount(),
+                                    request.getFiatCurrency(), request.getLotIds());
+                            return CryptoTransactionResponse.toResponse(transaction);
+                        }));
+
+        return ResponseEntity.ok(response);
     }
 
 }
\ No newline at end of file
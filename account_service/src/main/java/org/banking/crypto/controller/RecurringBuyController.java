@@ -0,0 +1,51 @@
+package org.banking.crypto.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.banking.account.dto.AccountMetadata;
+import org.banking.account.service.AccountService;
+import org.banking.crypto.dto.RecurringBuyPlanDTO;
+import org.banking.crypto.dto.RecurringBuyRequest;
+import org.banking.crypto.service.RecurringBuyService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/account/crypto/recurring")
+@RequiredArgsConstructor
+public class RecurringBuyController {
+
+    private final RecurringBuyService recurringBuyService;
+    private final AccountService accountService;
+
+    @PostMapping
+    public ResponseEntity<RecurringBuyPlanDTO> createPlan(
+            HttpServletRequest httpRequest,
+            @Valid @RequestBody RecurringBuyRequest request) {
+
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+
+        return ResponseEntity.ok(recurringBuyService.createPlan(account.getId(), request));
+    }
+
+    @GetMapping
+    public List<RecurringBuyPlanDTO> getPlans(HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+
+        return recurringBuyService.getPlans(account.getId());
+    }
+
+    @DeleteMapping("/{planId}")
+    public ResponseEntity<Void> cancelPlan(@PathVariable Long planId, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        AccountMetadata account = accountService.getTradingAccountMetadata(userId);
+
+        recurringBuyService.cancelPlan(account.getId(), planId);
+        return ResponseEntity.noContent().build();
+    }
+}
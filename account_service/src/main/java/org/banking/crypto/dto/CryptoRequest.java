@@ -3,6 +3,7 @@ package org.banking.crypto.dto;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 public class CryptoRequest {
@@ -10,4 +11,6 @@ public class CryptoRequest {
     private BigDecimal fiatAmount;
     private BigDecimal cryptoAmount;
     private String fiatCurrency;
+    // Optional lot selection for specific-lot cost basis on SELL
+    private List<Long> lotIds;
 }
\ No newline at end of file
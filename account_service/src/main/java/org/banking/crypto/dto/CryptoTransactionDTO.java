@@ -1,7 +1,7 @@
 package org.banking.crypto.dto;
 
 import lombok.Data;
-import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.entity.CryptoTransactionBase;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,7 +24,7 @@ public class CryptoTransactionDTO {
     private String description;
     private LocalDateTime createdAt;
 
-    public CryptoTransactionDTO(CryptoTransaction transaction) {
+    public CryptoTransactionDTO(CryptoTransactionBase transaction) {
         this.id = transaction.getId();
         this.accountId = transaction.getAccount().getId();
         this.transactionType = transaction.getTransactionType().name();
@@ -0,0 +1,20 @@
+package org.banking.crypto.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class FeeQuote {
+    private BigDecimal networkFee;
+    private BigDecimal tradingFee;
+    private BigDecimal tradingRate;
+    private String tier;
+    private String promotion;
+
+    public BigDecimal getTotal() {
+        return networkFee.add(tradingFee);
+    }
+}
@@ -0,0 +1,16 @@
+package org.banking.crypto.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class LotConsumption {
+    private BigDecimal costBasis;
+    private BigDecimal consumedQuantity;
+    // Quantity not covered by any lot (holdings bought before lot tracking)
+    private BigDecimal uncoveredQuantity;
+    private int lotsTouched;
+}
@@ -0,0 +1,34 @@
+package org.banking.crypto.dto;
+
+import lombok.Data;
+import org.banking.crypto.entity.RecurringBuyPlan;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class RecurringBuyPlanDTO {
+    private Long id;
+    private Long accountId;
+    private String cryptoCurrency;
+    private BigDecimal fiatAmount;
+    private String fiatCurrency;
+    private String frequency;
+    private String status;
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastRunAt;
+    private LocalDateTime createdAt;
+
+    public RecurringBuyPlanDTO(RecurringBuyPlan plan) {
+        this.id = plan.getId();
+        this.accountId = plan.getAccountId();
+        this.cryptoCurrency = plan.getCryptoCurrency();
+        this.fiatAmount = plan.getFiatAmount();
+        this.fiatCurrency = plan.getFiatCurrency();
+        this.frequency = plan.getFrequency().name();
+        this.status = plan.getStatus().name();
+        this.nextRunAt = plan.getNextRunAt();
+        this.lastRunAt = plan.getLastRunAt();
+        this.createdAt = plan.getCreatedAt();
+    }
+}
@@ -0,0 +1,29 @@
+package org.banking.crypto.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.banking.crypto.entity.RecurringBuyPlan;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class RecurringBuyRequest {
+
+    @NotBlank(message = "Crypto currency is required")
+    private String cryptoCurrency;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "1.00", message = "Amount must be at least 1.00")
+    private BigDecimal fiatAmount;
+
+    private String fiatCurrency = "USD";
+
+    @NotNull(message = "Frequency is required")
+    private RecurringBuyPlan.Frequency frequency;
+
+    // First execution; defaults to now
+    private LocalDateTime startAt;
+}
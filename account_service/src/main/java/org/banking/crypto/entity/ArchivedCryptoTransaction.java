@@ -0,0 +1,19 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+// Read-only; rows are moved here a month at a time by TransactionArchiveService
+@Entity
+@Table(name = "crypto_transactions_archive", indexes = {
+        @Index(name = "idx_crypto_transactions_archive_account_created", columnList = "account_id, created_at, id")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ArchivedCryptoTransaction extends CryptoTransactionBase {
+    @Id
+    private Long id;
+}
@@ -15,7 +15,8 @@ uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "crypto_curre
 @Data
 public class CryptoAccount {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "crypto_accounts_seq")
+    @SequenceGenerator(name = "crypto_accounts_seq", sequenceName = "crypto_accounts_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,6 +44,10 @@ public class CryptoAccount {
     @Column(name = "total_invested", precision = 19, scale = 2)
     private BigDecimal totalInvested = BigDecimal.ZERO;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,43 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "crypto_lots")
+@Data
+public class CryptoLot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "crypto_lots_seq")
+    @SequenceGenerator(name = "crypto_lots_seq", sequenceName = "crypto_lots_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "crypto_account_id", nullable = false)
+    private Long cryptoAccountId;
+
+    // BUY transaction that opened the lot
+    @Column(name = "source_transaction_id")
+    private Long sourceTransactionId;
+
+    @Column(name = "original_quantity", precision = 36, scale = 18, nullable = false)
+    private BigDecimal originalQuantity;
+
+    @Column(name = "remaining_quantity", precision = 36, scale = 18, nullable = false)
+    private BigDecimal remainingQuantity;
+
+    @Column(name = "cost_per_unit", precision = 36, scale = 18, nullable = false)
+    private BigDecimal costPerUnit;
+
+    @Column(name = "acquired_at", nullable = false)
+    private LocalDateTime acquiredAt = LocalDateTime.now();
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    public boolean isOpen() {
+        return remainingQuantity.compareTo(BigDecimal.ZERO) > 0;
+    }
+}
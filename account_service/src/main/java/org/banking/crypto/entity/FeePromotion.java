@@ -0,0 +1,42 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fee_promotions")
+@Data
+public class FeePromotion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    // Null matches every coin / side
+    @Column(name = "crypto_currency", length = 10)
+    private String cryptoCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "side")
+    private OrderSide side;
+
+    @Column(name = "rate_override", precision = 10, scale = 6)
+    private BigDecimal rateOverride;
+
+    @Column(name = "network_fee_override", precision = 19, scale = 2)
+    private BigDecimal networkFeeOverride;
+
+    @Column(name = "priority", nullable = false)
+    private Integer priority = 0;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+}
@@ -0,0 +1,28 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "fee_tiers")
+@Data
+public class FeeTier {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, length = 50)
+    private String name;
+
+    // Rolling 30-day traded volume (fiat) needed to enter the tier
+    @Column(name = "min_volume", precision = 19, scale = 2, nullable = false)
+    private BigDecimal minVolume;
+
+    @Column(name = "maker_rate", precision = 10, scale = 6, nullable = false)
+    private BigDecimal makerRate;
+
+    @Column(name = "taker_rate", precision = 10, scale = 6, nullable = false)
+    private BigDecimal takerRate;
+}
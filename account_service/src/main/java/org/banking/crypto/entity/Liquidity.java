@@ -0,0 +1,5 @@
+package org.banking.crypto.entity;
+
+public enum Liquidity {
+    MAKER, TAKER
+}
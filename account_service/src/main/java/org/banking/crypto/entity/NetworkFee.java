@@ -0,0 +1,19 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "fee_network_fees")
+@Data
+public class NetworkFee {
+    @Id
+    @Column(name = "crypto_currency", length = 10)
+    private String cryptoCurrency;
+
+    // Flat fee charged in fiat per order
+    @Column(name = "fee_fiat", precision = 19, scale = 2, nullable = false)
+    private BigDecimal feeFiat;
+}
@@ -0,0 +1,43 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurring_buy_executions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"plan_id", "scheduled_for"}))
+@Data
+public class RecurringBuyExecution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "plan_id", nullable = false)
+    private Long planId;
+
+    @Column(name = "scheduled_for", nullable = false)
+    private LocalDateTime scheduledFor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ExecutionStatus status;
+
+    @Column(name = "crypto_transaction_id")
+    private Long cryptoTransactionId;
+
+    @Column(name = "price_per_unit", precision = 36, scale = 18)
+    private BigDecimal pricePerUnit;
+
+    @Column(name = "message")
+    private String message;
+
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt = LocalDateTime.now();
+
+    public enum ExecutionStatus {
+        COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,78 @@
+package org.banking.crypto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurring_buy_plans")
+@Data
+public class RecurringBuyPlan {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "crypto_currency", nullable = false, length = 10)
+    private String cryptoCurrency;
+
+    @Column(name = "fiat_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal fiatAmount;
+
+    @Column(name = "fiat_currency", nullable = false, length = 3)
+    private String fiatCurrency = "USD";
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false)
+    private Frequency frequency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private PlanStatus status = PlanStatus.ACTIVE;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    // Lease taken by the scheduler instance currently executing the plan
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Frequency {
+        DAILY(Duration.ofDays(1)), WEEKLY(Duration.ofDays(7));
+
+        private final Duration period;
+
+        Frequency(Duration period) {
+            this.period = period;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+    }
+
+    public enum PlanStatus {
+        ACTIVE, PAUSED, CANCELLED
+    }
+}
@@ -1,6 +1,10 @@
 package org.banking.crypto.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.banking.account.exception.ConcurrentUpdateException;
+import org.banking.account.exception.IdempotencyConflictException;
+import org.banking.account.exception.InvalidCursorException;
+import org.banking.account.exception.InvalidExportRequestException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -51,6 +55,16 @@ public class CryptoGlobalExceptionHandler {
         return buildResponse(ex.getMessage(), status);
     }
 
+    @ExceptionHandler({IdempotencyConflictException.class, ConcurrentUpdateException.class})
+    public ResponseEntity<Map<String, String>> handleConflict(RuntimeException ex) {
+        return buildResponse(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler({InvalidCursorException.class, InvalidExportRequestException.class})
+    public ResponseEntity<Map<String, String>> handleInvalidListingRequest(RuntimeException ex) {
+        return buildResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
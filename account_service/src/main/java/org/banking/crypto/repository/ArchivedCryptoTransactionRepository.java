@@ -0,0 +1,9 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.ArchivedCryptoTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+public interface ArchivedCryptoTransactionRepository extends JpaRepository<ArchivedCryptoTransaction, Long>,
+        JpaSpecificationExecutor<ArchivedCryptoTransaction> {
+}
@@ -0,0 +1,35 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.CryptoLot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CryptoLotRepository extends JpaRepository<CryptoLot, Long> {
+
+    @Query("SELECT l FROM CryptoLot l WHERE l.cryptoAccountId = :cryptoAccountId AND l.remainingQuantity > 0 " +
+            "AND (l.acquiredAt > :afterAcquiredAt OR (l.acquiredAt = :afterAcquiredAt AND l.id > :afterId)) " +
+            "ORDER BY l.acquiredAt ASC, l.id ASC")
+    List<CryptoLot> findOpenLotsOldestFirst(@Param("cryptoAccountId") Long cryptoAccountId,
+                                            @Param("afterAcquiredAt") LocalDateTime afterAcquiredAt,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    @Query("SELECT l FROM CryptoLot l WHERE l.cryptoAccountId = :cryptoAccountId AND l.remainingQuantity > 0 " +
+            "AND (l.acquiredAt < :beforeAcquiredAt OR (l.acquiredAt = :beforeAcquiredAt AND l.id < :beforeId)) " +
+            "ORDER BY l.acquiredAt DESC, l.id DESC")
+    List<CryptoLot> findOpenLotsNewestFirst(@Param("cryptoAccountId") Long cryptoAccountId,
+                                            @Param("beforeAcquiredAt") LocalDateTime beforeAcquiredAt,
+                                            @Param("beforeId") Long beforeId,
+                                            Pageable pageable);
+
+    @Query("SELECT l FROM CryptoLot l WHERE l.cryptoAccountId = :cryptoAccountId AND l.id IN :ids " +
+            "AND l.remainingQuantity > 0 ORDER BY l.acquiredAt ASC, l.id ASC")
+    List<CryptoLot> findOpenLotsByIds(@Param("cryptoAccountId") Long cryptoAccountId,
+                                      @Param("ids") Collection<Long> ids);
+}
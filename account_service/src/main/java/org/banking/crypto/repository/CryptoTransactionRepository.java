@@ -4,13 +4,14 @@ import org.banking.crypto.entity.CryptoTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
-public interface CryptoTransactionRepository extends JpaRepository<CryptoTransaction, Long> {
+public interface CryptoTransactionRepository extends JpaRepository<CryptoTransaction, Long>, JpaSpecificationExecutor<CryptoTransaction> {
 
     List<CryptoTransaction> findByAccountId(Long accountId);
 
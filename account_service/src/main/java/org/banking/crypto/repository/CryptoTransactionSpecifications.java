@@ -0,0 +1,38 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.entity.CryptoTransactionBase;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional history filters; a null argument yields a null specification, which Spring Data ignores.
+ * Generic so the same filters apply to the live and the archive table.
+ */
+public final class CryptoTransactionSpecifications {
+
+    private CryptoTransactionSpecifications() {
+    }
+
+    public static <T extends CryptoTransactionBase> Specification<T> forAccount(Long accountId) {
+        return (root, query, cb) -> cb.equal(root.get("account").get("id"), accountId);
+    }
+
+    public static <T extends CryptoTransactionBase> Specification<T> hasType(CryptoTransaction.TransactionType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("transactionType"), type);
+    }
+
+    public static <T extends CryptoTransactionBase> Specification<T> hasCurrency(String cryptoCurrency) {
+        return cryptoCurrency == null || cryptoCurrency.isBlank() ? null
+                : (root, query, cb) -> cb.equal(cb.upper(root.get("cryptoCurrency")), cryptoCurrency.toUpperCase());
+    }
+
+    public static <T extends CryptoTransactionBase> Specification<T> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static <T extends CryptoTransactionBase> Specification<T> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+}
@@ -0,0 +1,7 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.FeePromotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FeePromotionRepository extends JpaRepository<FeePromotion, Long> {
+}
@@ -0,0 +1,7 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.FeeTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FeeTierRepository extends JpaRepository<FeeTier, Long> {
+}
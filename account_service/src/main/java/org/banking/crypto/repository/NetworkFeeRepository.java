@@ -0,0 +1,7 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.NetworkFee;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface NetworkFeeRepository extends JpaRepository<NetworkFee, String> {
+}
@@ -0,0 +1,12 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.RecurringBuyExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RecurringBuyExecutionRepository extends JpaRepository<RecurringBuyExecution, Long> {
+
+    List<RecurringBuyExecution> findByPlanIdOrderByScheduledForDesc(Long planId, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package org.banking.crypto.repository;
+
+import org.banking.crypto.entity.RecurringBuyPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RecurringBuyPlanRepository extends JpaRepository<RecurringBuyPlan, Long> {
+
+    List<RecurringBuyPlan> findByAccountIdOrderByCreatedAtDesc(Long accountId);
+
+    Optional<RecurringBuyPlan> findByIdAndAccountId(Long id, Long accountId);
+}
@@ -3,20 +3,33 @@ package org.banking.crypto.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.banking.account.dto.AccountResponse;
+import org.banking.account.dto.BalanceChangedEvent;
 import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
 import org.banking.account.service.AccountService;
+import org.banking.account.service.IdGenerator;
+import org.banking.account.service.JournalPosting;
+import org.banking.account.service.JournalService;
 import org.banking.crypto.dto.CryptoPortfolioDTO;
+import org.banking.crypto.dto.FeeQuote;
+import org.banking.crypto.dto.LotConsumption;
+import org.banking.crypto.entity.CostBasisMethod;
 import org.banking.crypto.entity.CryptoAccount;
 import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.entity.Liquidity;
+import org.banking.crypto.entity.OrderSide;
 import org.banking.crypto.exception.*;
 import org.banking.crypto.repository.CryptoAccountRepository;
 import org.banking.crypto.repository.CryptoTransactionRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,10 +44,22 @@ public class CryptoTradingService {
     private final CryptoAccountRepository cryptoAccountRepository;
     private final AccountService accountService;
     private final CoinGeckoService coinGeckoService;
+    private final TaxLotService taxLotService;
+    private final FeeScheduleService feeScheduleService;
+    private final JournalService journalService;
+    private final IdGenerator idGenerator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CryptoTransaction executeBuyOrder(Long accountId, String cryptoCurrency,
                                              BigDecimal fiatAmount, String fiatCurrency) {
+        return executeBuyOrder(accountId, cryptoCurrency, fiatAmount, fiatCurrency, null);
+    }
+
+    @Transactional
+    public CryptoTransaction executeBuyOrder(Long accountId, String cryptoCurrency,
+                                             BigDecimal fiatAmount, String fiatCurrency,
+                                             BigDecimal quotedPrice) {
 
         log.info("Executing BUY order: account={}, crypto={}, amount={} {}",
                 accountId, cryptoCurrency, fiatAmount, fiatCurrency);
@@ -42,36 +67,55 @@ public class CryptoTradingService {
         Account account = accountService.getAccountById(accountId);
         validateAccountForTrading(AccountResponse.fromEntity(account));
 
-        BigDecimal currentPrice = getCurrentCryptoPrice(cryptoCurrency, fiatCurrency);
-        BigDecimal networkFee = calculateNetworkFee(cryptoCurrency, "BUY");
+        BigDecimal currentPrice = quotedPrice != null
+                ? quotedPrice
+                : getCurrentCryptoPrice(cryptoCurrency, fiatCurrency);
+        FeeQuote fees = feeScheduleService.quote(accountId, cryptoCurrency, OrderSide.BUY,
+                fiatAmount, Liquidity.TAKER);
 
-        BigDecimal totalCost = fiatAmount.add(networkFee);
+        BigDecimal totalCost = fiatAmount.add(fees.getTotal());
         BigDecimal cryptoAmount = fiatAmount.divide(currentPrice, 18, RoundingMode.HALF_UP);
 
-        if (account.getBalance().compareTo(totalCost) < 0) {
+        if (account.getAvailableBalance().compareTo(totalCost) < 0) {
             throw new InsufficientFiatBalanceException(
                     String.format("Insufficient fiat balance. Available: %s %s, Required: %s %s",
-                            account.getBalance(), fiatCurrency, totalCost, fiatCurrency));
+                            account.getAvailableBalance(), fiatCurrency, totalCost, fiatCurrency));
         }
 
         BigDecimal fiatBalanceBefore = account.getBalance();
         account.setBalance(fiatBalanceBefore.subtract(totalCost));
 
-        CryptoAccount cryptoAccount = getOrCreateCryptoAccount(account, cryptoCurrency);
+        // A first buy inserts the wallet once, with its opening balance, instead of insert then update
+        CryptoAccount cryptoAccount = cryptoAccountRepository
+                .findByAccountIdAndCryptoCurrency(accountId, cryptoCurrency)
+                .orElseGet(() -> newCryptoAccount(account, cryptoCurrency));
 
         BigDecimal cryptoBalanceBefore = cryptoAccount.getBalance();
         cryptoAccount.setBalance(cryptoBalanceBefore.add(cryptoAmount));
         cryptoAccount.setAvailableBalance(cryptoAccount.getAvailableBalance().add(cryptoAmount));
 
         updateCryptoAccountStatistics(cryptoAccount, cryptoAmount, currentPrice, fiatAmount);
+        cryptoAccount = cryptoAccountRepository.save(cryptoAccount);
 
         CryptoTransaction transaction = buildBuyTransaction(account, cryptoCurrency, cryptoAmount,
-                currentPrice, fiatAmount, networkFee,
+                currentPrice, fiatAmount, fees,
                 cryptoBalanceBefore, cryptoAccount.getBalance(),
                 fiatBalanceBefore, account.getBalance());
 
 
         CryptoTransaction savedTransaction = cryptoTransactionRepository.save(transaction);
+        taxLotService.recordLot(cryptoAccount, savedTransaction.getId(), cryptoAmount, currentPrice);
+        feeScheduleService.recordTrade(accountId, fiatAmount);
+
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.CRYPTO_BUY,
+                        String.valueOf(savedTransaction.getId()), transaction.getDescription())
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, accountId, fiatCurrency, fiatLeg(fiatBalanceBefore, account.getBalance()))
+                .leg(JournalLeg.Ledger.FEE_INCOME, null, fiatCurrency, fees.getTotal())
+                .balance(JournalLeg.Ledger.TRADING_DESK, null, fiatCurrency)
+                .leg(JournalLeg.Ledger.CUSTOMER_CRYPTO, cryptoAccount.getId(), cryptoCurrency, cryptoAmount)
+                .balance(JournalLeg.Ledger.TRADING_DESK, null, cryptoCurrency);
+        journalService.record(posting);
+        eventPublisher.publishEvent(new BalanceChangedEvent(account.getUserId(), account, cryptoAccount, posting));
 
         log.info("BUY order completed: {} {} bought for {} {}",
                 cryptoAmount, cryptoCurrency, fiatAmount, fiatCurrency);
@@ -82,6 +126,13 @@ public class CryptoTradingService {
     @Transactional
     public CryptoTransaction executeSellOrder(Long accountId, String cryptoCurrency,
                                               BigDecimal cryptoAmount, String fiatCurrency) {
+        return executeSellOrder(accountId, cryptoCurrency, cryptoAmount, fiatCurrency, List.of());
+    }
+
+    @Transactional
+    public CryptoTransaction executeSellOrder(Long accountId, String cryptoCurrency,
+                                              BigDecimal cryptoAmount, String fiatCurrency,
+                                              List<Long> lotIds) {
 
         log.info("Executing SELL order: account={}, crypto={}, amount={}",
                 accountId, cryptoCurrency, cryptoAmount);
@@ -90,7 +141,6 @@ public class CryptoTradingService {
         validateAccountForTrading(AccountResponse.fromEntity(account));
 
         BigDecimal currentPrice = getCurrentCryptoPrice(cryptoCurrency, fiatCurrency);
-        BigDecimal networkFee = calculateNetworkFee(cryptoCurrency, "SELL");
 
         CryptoAccount cryptoAccount = cryptoAccountRepository
                 .findByAccountIdAndCryptoCurrency(accountId, cryptoCurrency)
@@ -109,10 +159,12 @@ public class CryptoTradingService {
 
         BigDecimal fiatBalanceBefore = account.getBalance();
         BigDecimal grossProceeds = cryptoAmount.multiply(currentPrice);
-        BigDecimal netProceeds = grossProceeds.subtract(networkFee);
+        FeeQuote fees = feeScheduleService.quote(accountId, cryptoCurrency, OrderSide.SELL,
+                grossProceeds, Liquidity.TAKER);
+        BigDecimal netProceeds = grossProceeds.subtract(fees.getTotal());
         account.setBalance(fiatBalanceBefore.add(netProceeds));
 
-        BigDecimal costBasis = calculateCostBasis(cryptoAccount, cryptoAmount);
+        BigDecimal costBasis = calculateCostBasis(cryptoAccount, cryptoAmount, lotIds);
         BigDecimal profitLoss = netProceeds.subtract(costBasis);
 
         CryptoTransaction transaction = buildSellTransaction(
@@ -121,7 +173,7 @@ public class CryptoTradingService {
                 cryptoAmount,
                 currentPrice,
                 netProceeds,
-                networkFee,
+                fees,
                 cryptoBalanceBefore,
                 cryptoAccount.getBalance(),
                 fiatBalanceBefore,
@@ -132,6 +184,17 @@ public class CryptoTradingService {
 
         cryptoAccountRepository.save(cryptoAccount);
         CryptoTransaction savedTransaction = cryptoTransactionRepository.save(transaction);
+        feeScheduleService.recordTrade(accountId, grossProceeds);
+
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.CRYPTO_SELL,
+                        String.valueOf(savedTransaction.getId()), transaction.getDescription())
+                .leg(JournalLeg.Ledger.CUSTOMER_CRYPTO, cryptoAccount.getId(), cryptoCurrency, cryptoAmount.negate())
+                .balance(JournalLeg.Ledger.TRADING_DESK, null, cryptoCurrency)
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, accountId, fiatCurrency, fiatLeg(fiatBalanceBefore, account.getBalance()))
+                .leg(JournalLeg.Ledger.FEE_INCOME, null, fiatCurrency, fees.getTotal())
+                .balance(JournalLeg.Ledger.TRADING_DESK, null, fiatCurrency);
+        journalService.record(posting);
+        eventPublisher.publishEvent(new BalanceChangedEvent(account.getUserId(), account, cryptoAccount, posting));
 
         log.info("SELL order completed: {} {} sold for {} {} (P/L: {})",
                 cryptoAmount, cryptoCurrency, netProceeds, fiatCurrency, profitLoss);
@@ -139,6 +202,11 @@ public class CryptoTradingService {
         return savedTransaction;
     }
 
+    // accounts.balance is NUMERIC(19,2); the journal leg must match what the database stores
+    private static BigDecimal fiatLeg(BigDecimal balanceBefore, BigDecimal balanceAfter) {
+        return balanceAfter.subtract(balanceBefore).setScale(2, RoundingMode.HALF_UP);
+    }
+
     private void validateAccountForTrading(AccountResponse account) {
         if (account.getStatus() != Account.AccountStatus.ACTIVE) {
             throw new TradingNotAllowedException("Account is not active for trading");
@@ -174,6 +242,23 @@ public class CryptoTradingService {
         return prices;
     }
 
+    public Map<String, BigDecimal> getCryptoPrices(Collection<String> cryptoCurrencies, String fiatCurrency) {
+        Map<String, String> symbolsById = new HashMap<>();
+        for (String crypto : cryptoCurrencies) {
+            symbolsById.put(convertToCoinGeckoId(crypto), crypto);
+        }
+
+        Map<String, BigDecimal> prices = new HashMap<>();
+        try {
+            coinGeckoService.getPrices(List.copyOf(symbolsById.keySet()), fiatCurrency.toLowerCase())
+                    .forEach((id, price) -> prices.put(symbolsById.get(id), price));
+        } catch (Exception e) {
+            log.error("Failed to fetch prices for {}: {}", cryptoCurrencies, e.getMessage());
+            throw new CryptoPriceException("Unable to fetch current prices for " + cryptoCurrencies);
+        }
+        return prices;
+    }
+
     private String convertToCoinGeckoId(String symbol) {
         Map<String, String> mapping = Map.of(
                 "BTC", "bitcoin",
@@ -184,10 +269,7 @@ public class CryptoTradingService {
         return mapping.getOrDefault(symbol.toUpperCase(), symbol.toLowerCase());
     }
 
-    private BigDecimal calculateNetworkFee(String cryptoCurrency, String transactionType) {
-        return BigDecimal.valueOf(0.50);
-    }
-
+    @Transactional(readOnly = true)
     public List<CryptoPortfolioDTO> getCryptoAccounts(Long accountId) {
         return cryptoAccountRepository.findByAccountId(accountId).stream()
                 .map(CryptoPortfolioDTO::new)
@@ -197,13 +279,15 @@ public class CryptoTradingService {
     public CryptoAccount getOrCreateCryptoAccount(Account account, String cryptoCurrency) {
         return cryptoAccountRepository
                 .findByAccountIdAndCryptoCurrency(account.getId(), cryptoCurrency)
-                .orElseGet(() -> {
-                    CryptoAccount newAccount = new CryptoAccount();
-                    newAccount.setAccount(account);
-                    newAccount.setCryptoCurrency(cryptoCurrency);
-                    newAccount.setWalletAddress(generateWalletAddress(cryptoCurrency));
-                    return     cryptoAccountRepository.save(newAccount);
-                });
+                .orElseGet(() -> cryptoAccountRepository.save(newCryptoAccount(account, cryptoCurrency)));
+    }
+
+    private CryptoAccount newCryptoAccount(Account account, String cryptoCurrency) {
+        CryptoAccount newAccount = new CryptoAccount();
+        newAccount.setAccount(account);
+        newAccount.setCryptoCurrency(cryptoCurrency);
+        newAccount.setWalletAddress(idGenerator.nextWalletAddress(cryptoCurrency));
+        return newAccount;
     }
 
     private void updateCryptoAccountStatistics(CryptoAccount cryptoAccount, BigDecimal cryptoAmount,
@@ -226,16 +310,25 @@ public class CryptoTradingService {
         cryptoAccount.setTotalInvested(currentTotalInvested.add(fiatAmount));
     }
 
-    private BigDecimal calculateCostBasis(CryptoAccount cryptoAccount, BigDecimal cryptoAmount) {
-        if (cryptoAccount.getAverageBuyPrice() == null) {
-            return BigDecimal.ZERO;
+    private BigDecimal calculateCostBasis(CryptoAccount cryptoAccount, BigDecimal cryptoAmount, List<Long> lotIds) {
+        LotConsumption consumption = lotIds == null || lotIds.isEmpty()
+                ? taxLotService.consume(cryptoAccount, cryptoAmount)
+                : taxLotService.consume(cryptoAccount, cryptoAmount, CostBasisMethod.SPECIFIC, lotIds);
+
+        BigDecimal costBasis = consumption.getCostBasis();
+
+        // Holdings bought before lot tracking fall back to the average buy price; a specific-lot sale is
+        // rejected by the lot service instead when its lots do not cover the quantity
+        if (consumption.getUncoveredQuantity().compareTo(BigDecimal.ZERO) > 0
+                && cryptoAccount.getAverageBuyPrice() != null) {
+            costBasis = costBasis.add(consumption.getUncoveredQuantity().multiply(cryptoAccount.getAverageBuyPrice()));
         }
-        return cryptoAmount.multiply(cryptoAccount.getAverageBuyPrice());
+        return costBasis;
     }
 
     private CryptoTransaction buildBuyTransaction(Account account, String cryptoCurrency,
                                                   BigDecimal cryptoAmount, BigDecimal pricePerUnit,
-                                                  BigDecimal fiatAmount, BigDecimal networkFee,
+                                                  BigDecimal fiatAmount, FeeQuote fees,
                                                   BigDecimal cryptoBalanceBefore, BigDecimal cryptoBalanceAfter,
                                                   BigDecimal fiatBalanceBefore, BigDecimal fiatBalanceAfter) {
 
@@ -246,13 +339,15 @@ public class CryptoTradingService {
         transaction.setCryptoAmount(cryptoAmount);
         transaction.setFiatAmount(fiatAmount);
         transaction.setPricePerUnit(pricePerUnit);
-        transaction.setNetworkFee(networkFee);
-        transaction.setNetworkFeeFiat(networkFee);
+        transaction.setNetworkFee(fees.getNetworkFee());
+        transaction.setNetworkFeeFiat(fees.getNetworkFee());
+        transaction.setTradingFee(fees.getTradingFee());
         transaction.setCryptoBalanceBefore(cryptoBalanceBefore);
         transaction.setCryptoBalanceAfter(cryptoBalanceAfter);
         transaction.setFiatBalanceBefore(fiatBalanceBefore);
         transaction.setFiatBalanceAfter(fiatBalanceAfter);
         transaction.setStatus(CryptoTransaction.TransactionStatus.COMPLETED);
+        transaction.setReference(idGenerator.nextReference());
         transaction.setDescription(String.format("Buy %s %s @ %s %s",
                 cryptoAmount, cryptoCurrency,
                 pricePerUnit, "USD"));
@@ -263,7 +358,7 @@ public class CryptoTradingService {
 
     private CryptoTransaction buildSellTransaction(Account account, String cryptoCurrency,
                                                    BigDecimal cryptoAmount, BigDecimal pricePerUnit,
-                                                   BigDecimal netProceeds, BigDecimal networkFee,
+                                                   BigDecimal netProceeds, FeeQuote fees,
                                                    BigDecimal cryptoBalanceBefore, BigDecimal cryptoBalanceAfter,
                                                    BigDecimal fiatBalanceBefore, BigDecimal fiatBalanceAfter,
                                                    BigDecimal costBasis, BigDecimal profitLoss) {
@@ -275,8 +370,9 @@ public class CryptoTradingService {
         transaction.setCryptoAmount(cryptoAmount);
         transaction.setFiatAmount(netProceeds);
         transaction.setPricePerUnit(pricePerUnit);
-        transaction.setNetworkFee(networkFee);
-        transaction.setNetworkFeeFiat(networkFee);
+        transaction.setNetworkFee(fees.getNetworkFee());
+        transaction.setNetworkFeeFiat(fees.getNetworkFee());
+        transaction.setTradingFee(fees.getTradingFee());
         transaction.setCryptoBalanceBefore(cryptoBalanceBefore);
         transaction.setCryptoBalanceAfter(cryptoBalanceAfter);
         transaction.setFiatBalanceBefore(fiatBalanceBefore);
@@ -292,14 +388,11 @@ public class CryptoTradingService {
             description += String.format(" (Loss: %s)", profitLoss.abs());
         }
 
+        transaction.setReference(idGenerator.nextReference());
         transaction.setDescription(description);
         transaction.setConfirmedAt(LocalDateTime.now());
 
         return transaction;
     }
 
-    private String generateWalletAddress(String cryptoCurrency) {
-        return String.format("%s_wallet_%s", cryptoCurrency.toLowerCase(), System.currentTimeMillis());
-    }
-
 }
@@ -4,12 +4,19 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.banking.account.entity.*;
 import org.banking.account.repository.AccountRepository;
+import org.banking.account.dto.CursorPage;
 import org.banking.account.service.AccountService;
+import org.banking.account.service.TransactionArchiveService;
+import org.banking.account.utils.KeysetCursor;
 import org.banking.crypto.dto.CryptoTransactionDTO;
 import org.banking.crypto.entity.CryptoAccount;
 import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.entity.CryptoTransactionBase;
+import org.banking.crypto.repository.ArchivedCryptoTransactionRepository;
 import org.banking.crypto.repository.CryptoAccountRepository;
 import org.banking.crypto.repository.CryptoTransactionRepository;
+import org.banking.crypto.repository.CryptoTransactionSpecifications;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,8 +34,11 @@ public class CryptoTransactionService {
     private final CryptoTransactionRepository cryptoTransactionRepository;
     private final CryptoAccountRepository cryptoAccountRepository;
     private final AccountRepository accountRepository;
+    private final ArchivedCryptoTransactionRepository archivedCryptoTransactionRepository;
+    private final TransactionArchiveService transactionArchive;
 
 
+    @Transactional(readOnly = true)
     public List<CryptoTransactionDTO> getTransactions(Long accountId) {
         return cryptoTransactionRepository.findByAccountId(accountId)
                 .stream()
@@ -36,6 +46,36 @@ public class CryptoTransactionService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<CryptoTransactionDTO> getTransactions(Long accountId, CryptoTransaction.TransactionType type,
+                                                            String cryptoCurrency, LocalDateTime from,
+                                                            LocalDateTime to, String cursor, int limit) {
+        int size = CursorPage.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<CryptoTransactionBase> rows = transactionArchive.newestFirst(
+                TransactionArchiveService.Table.CRYPTO_TRANSACTIONS, from, to, after, size + 1,
+                n -> cryptoTransactionRepository.findBy(historySpec(accountId, type, cryptoCurrency, from, to, after),
+                        query -> query.sortBy(KeysetCursor.SORT).limit(n).all()),
+                n -> archivedCryptoTransactionRepository.findBy(historySpec(accountId, type, cryptoCurrency, from, to, after),
+                        query -> query.sortBy(KeysetCursor.SORT).limit(n).all()));
+        return CursorPage.of(rows, size, CryptoTransactionBase::getCreatedAt, CryptoTransactionBase::getId)
+                .map(CryptoTransactionDTO::new);
+    }
+
+    private static <T extends CryptoTransactionBase> Specification<T> historySpec(Long accountId,
+                                                                                 CryptoTransaction.TransactionType type,
+                                                                                 String cryptoCurrency,
+                                                                                 LocalDateTime from, LocalDateTime to,
+                                                                                 KeysetCursor after) {
+        return Specification.<T>where(CryptoTransactionSpecifications.forAccount(accountId))
+                .and(CryptoTransactionSpecifications.hasType(type))
+                .and(CryptoTransactionSpecifications.hasCurrency(cryptoCurrency))
+                .and(CryptoTransactionSpecifications.createdFrom(from))
+                .and(CryptoTransactionSpecifications.createdBefore(to))
+                .and(KeysetCursor.seek(after));
+    }
+
     @Transactional
     public CryptoTransaction createBuyTransaction(Long accountId, String cryptoCurrency,
                                                   BigDecimal cryptoAmount, BigDecimal pricePerUnit,
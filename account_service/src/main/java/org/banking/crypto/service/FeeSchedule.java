@@ -0,0 +1,109 @@
+package org.banking.crypto.service;
+
+import org.banking.crypto.entity.FeePromotion;
+import org.banking.crypto.entity.FeeTier;
+import org.banking.crypto.entity.Liquidity;
+import org.banking.crypto.entity.NetworkFee;
+import org.banking.crypto.entity.OrderSide;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the fee configuration. A reload builds a new instance and swaps it in,
+ * so the trade path reads a consistent schedule without locking or touching the database.
+ */
+final class FeeSchedule {
+
+    private final Map<String, BigDecimal> networkFees;
+    private final BigDecimal defaultNetworkFee;
+    // Sorted by min volume, highest first
+    private final List<Tier> tiers;
+    // Sorted by priority, highest first
+    private final List<Promotion> promotions;
+
+    private FeeSchedule(Map<String, BigDecimal> networkFees, BigDecimal defaultNetworkFee,
+                        List<Tier> tiers, List<Promotion> promotions) {
+        this.networkFees = networkFees;
+        this.defaultNetworkFee = defaultNetworkFee;
+        this.tiers = tiers;
+        this.promotions = promotions;
+    }
+
+    static FeeSchedule of(List<NetworkFee> networkFees, List<FeeTier> tiers,
+                          List<FeePromotion> promotions, BigDecimal defaultNetworkFee) {
+        return new FeeSchedule(
+                networkFees.stream().collect(Collectors.toUnmodifiableMap(
+                        f -> f.getCryptoCurrency().toUpperCase(), NetworkFee::getFeeFiat)),
+                defaultNetworkFee,
+                tiers.stream()
+                        .map(t -> new Tier(t.getName(), t.getMinVolume(), t.getMakerRate(), t.getTakerRate()))
+                        .sorted(Comparator.comparing(Tier::minVolume).reversed())
+                        .toList(),
+                promotions.stream()
+                        .map(p -> new Promotion(p.getName(),
+                                p.getCryptoCurrency() != null ? p.getCryptoCurrency().toUpperCase() : null,
+                                p.getSide(), p.getRateOverride(), p.getNetworkFeeOverride(),
+                                p.getPriority() != null ? p.getPriority() : 0, p.getStartsAt(), p.getEndsAt()))
+                        .sorted(Comparator.comparingInt(Promotion::priority).reversed())
+                        .toList());
+    }
+
+    static FeeSchedule defaults(BigDecimal defaultNetworkFee) {
+        return new FeeSchedule(Map.of(), defaultNetworkFee, List.of(), List.of());
+    }
+
+    BigDecimal networkFee(String cryptoCurrency) {
+        return networkFees.getOrDefault(cryptoCurrency.toUpperCase(), defaultNetworkFee);
+    }
+
+    Tier tierFor(BigDecimal rollingVolume) {
+        for (Tier tier : tiers) {
+            if (rollingVolume.compareTo(tier.minVolume()) >= 0) {
+                return tier;
+            }
+        }
+        return Tier.NONE;
+    }
+
+    Promotion promotionFor(String cryptoCurrency, OrderSide side, LocalDateTime now) {
+        for (Promotion promotion : promotions) {
+            if (promotion.matches(cryptoCurrency.toUpperCase(), side, now)) {
+                return promotion;
+            }
+        }
+        return null;
+    }
+
+    int tierCount() {
+        return tiers.size();
+    }
+
+    int promotionCount() {
+        return promotions.size();
+    }
+
+    record Tier(String name, BigDecimal minVolume, BigDecimal makerRate, BigDecimal takerRate) {
+
+        static final Tier NONE = new Tier("DEFAULT", BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        BigDecimal rate(Liquidity liquidity) {
+            return liquidity == Liquidity.MAKER ? makerRate : takerRate;
+        }
+    }
+
+    record Promotion(String name, String cryptoCurrency, OrderSide side, BigDecimal rateOverride,
+                     BigDecimal networkFeeOverride, int priority, LocalDateTime startsAt, LocalDateTime endsAt) {
+
+        boolean matches(String symbol, OrderSide orderSide, LocalDateTime now) {
+            return (cryptoCurrency == null || cryptoCurrency.equals(symbol))
+                    && (side == null || side == orderSide)
+                    && !now.isBefore(startsAt)
+                    && now.isBefore(endsAt);
+        }
+    }
+}
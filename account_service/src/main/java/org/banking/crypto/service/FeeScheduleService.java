@@ -0,0 +1,83 @@
+package org.banking.crypto.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.crypto.dto.FeeQuote;
+import org.banking.crypto.entity.Liquidity;
+import org.banking.crypto.entity.OrderSide;
+import org.banking.crypto.repository.FeePromotionRepository;
+import org.banking.crypto.repository.FeeTierRepository;
+import org.banking.crypto.repository.NetworkFeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeeScheduleService {
+
+    private final NetworkFeeRepository networkFeeRepository;
+    private final FeeTierRepository feeTierRepository;
+    private final FeePromotionRepository feePromotionRepository;
+    private final RollingVolumeTracker rollingVolumeTracker;
+
+    @Value("${crypto.fees.default-network-fee:0.50}")
+    private BigDecimal defaultNetworkFee = new BigDecimal("0.50");
+
+    private volatile FeeSchedule schedule;
+
+    @PostConstruct
+    public void init() {
+        schedule = FeeSchedule.defaults(defaultNetworkFee);
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${crypto.fees.reload-ms:60000}", initialDelayString = "${crypto.fees.reload-ms:60000}")
+    public void reload() {
+        try {
+            FeeSchedule loaded = FeeSchedule.of(
+                    networkFeeRepository.findAll(),
+                    feeTierRepository.findAll(),
+                    feePromotionRepository.findAll(),
+                    defaultNetworkFee);
+            schedule = loaded;
+            log.debug("Fee schedule loaded: {} tiers, {} promotions", loaded.tierCount(), loaded.promotionCount());
+        } catch (Exception e) {
+            // Keep trading on the last good schedule
+            log.warn("Fee schedule reload failed, keeping previous schedule: {}", e.getMessage());
+        }
+    }
+
+    public FeeQuote quote(Long accountId, String cryptoCurrency, OrderSide side,
+                          BigDecimal notional, Liquidity liquidity) {
+        FeeSchedule current = schedule;
+
+        FeeSchedule.Tier tier = current.tierFor(rollingVolumeTracker.volume(accountId));
+        BigDecimal rate = tier.rate(liquidity);
+        BigDecimal networkFee = current.networkFee(cryptoCurrency);
+
+        FeeSchedule.Promotion promotion = current.promotionFor(cryptoCurrency, side, LocalDateTime.now());
+        if (promotion != null) {
+            if (promotion.rateOverride() != null) {
+                rate = promotion.rateOverride();
+            }
+            if (promotion.networkFeeOverride() != null) {
+                networkFee = promotion.networkFeeOverride();
+            }
+        }
+
+        BigDecimal tradingFee = notional.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        return new FeeQuote(networkFee, tradingFee, rate, tier.name(),
+                promotion != null ? promotion.name() : null);
+    }
+
+    public void recordTrade(Long accountId, BigDecimal notional) {
+        rollingVolumeTracker.recordAfterCommit(accountId, notional);
+    }
+}
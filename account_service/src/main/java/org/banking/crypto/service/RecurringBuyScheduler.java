@@ -0,0 +1,239 @@
+package org.banking.crypto.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.entity.RecurringBuyPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Executes due recurring buy plans. Each tick claims a window of due plans under a lease,
+ * prices every symbol once, then runs the plans in parallel batches. The unique
+ * (plan_id, scheduled_for) execution row is written in the same transaction as the buy,
+ * so a slot can never be executed twice, even across instances or after a crash.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "crypto.dca.enabled", havingValue = "true", matchIfMissing = true)
+public class RecurringBuyScheduler {
+
+    private static final String CLAIM_SQL = """
+            UPDATE recurring_buy_plans SET claimed_by = ?, claimed_until = ?
+            WHERE id IN (
+                SELECT id FROM recurring_buy_plans
+                WHERE status = 'ACTIVE' AND next_run_at <= ?
+                  AND (claimed_until IS NULL OR claimed_until < ?)
+                ORDER BY next_run_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, account_id, crypto_currency, fiat_amount, fiat_currency, frequency, next_run_at
+            """;
+
+    private static final String INSERT_EXECUTION_SQL = """
+            INSERT INTO recurring_buy_executions
+                (plan_id, scheduled_for, status, crypto_transaction_id, price_per_unit, message, executed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (plan_id, scheduled_for) DO NOTHING
+            """;
+
+    private static final String ADVANCE_PLAN_SQL = """
+            UPDATE recurring_buy_plans
+            SET next_run_at = ?, last_run_at = ?, claimed_by = NULL, claimed_until = NULL, updated_at = ?
+            WHERE id = ? AND claimed_by = ?
+            """;
+
+    private final CryptoTradingService cryptoTradingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final ExecutorService executor;
+
+    @Value("${crypto.dca.node-id:${spring.application.name}-${random.uuid}}")
+    private String nodeId;
+
+    @Value("${crypto.dca.claim-size:1000}")
+    private int claimSize;
+
+    @Value("${crypto.dca.batch-size:50}")
+    private int batchSize;
+
+    @Value("${crypto.dca.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public RecurringBuyScheduler(CryptoTradingService cryptoTradingService,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 OptimisticRetryExecutor retryExecutor,
+                                 @Value("${crypto.dca.parallelism:4}") int parallelism) {
+        this.cryptoTradingService = cryptoTradingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retryExecutor = retryExecutor;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @Scheduled(fixedDelayString = "${crypto.dca.tick-ms:60000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        List<DuePlan> due = claimDuePlans(now);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        List<Outcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+
+        Map<String, List<DuePlan>> byFiat = due.stream().collect(Collectors.groupingBy(DuePlan::fiatCurrency));
+        for (Map.Entry<String, List<DuePlan>> group : byFiat.entrySet()) {
+            Map<String, BigDecimal> prices = fetchPrices(group.getKey(), group.getValue(), outcomes);
+            if (prices == null) {
+                continue;
+            }
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (List<DuePlan> batch : partition(group.getValue(), batchSize)) {
+                futures.add(CompletableFuture.runAsync(() -> batch.forEach(plan ->
+                        outcomes.add(execute(plan, prices.get(plan.cryptoCurrency())))), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+
+        recordOutcomes(outcomes, now);
+
+        long failed = outcomes.stream().filter(o -> o.status() == Outcome.Status.FAILED).count();
+        log.info("DCA tick executed {} plans ({} failed) across {} fiat groups in {} ms",
+                outcomes.size(), failed, byFiat.size(), System.currentTimeMillis() - started);
+    }
+
+    private List<DuePlan> claimDuePlans(LocalDateTime now) {
+        Timestamp nowTs = Timestamp.valueOf(now);
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, i) -> new DuePlan(
+                        rs.getLong("id"),
+                        rs.getLong("account_id"),
+                        rs.getString("crypto_currency"),
+                        rs.getBigDecimal("fiat_amount"),
+                        rs.getString("fiat_currency"),
+                        RecurringBuyPlan.Frequency.valueOf(rs.getString("frequency")),
+                        rs.getTimestamp("next_run_at").toLocalDateTime()),
+                nodeId, Timestamp.valueOf(now.plusSeconds(leaseSeconds)), nowTs, nowTs, claimSize);
+    }
+
+    private Map<String, BigDecimal> fetchPrices(String fiatCurrency, List<DuePlan> plans, List<Outcome> outcomes) {
+        List<String> symbols = plans.stream().map(DuePlan::cryptoCurrency).distinct().toList();
+        try {
+            return cryptoTradingService.getCryptoPrices(symbols, fiatCurrency);
+        } catch (Exception e) {
+            // Leave the plans claimed-but-unexecuted; the lease expires and the next tick retries
+            log.warn("Skipping {} DCA plans in {}: {}", plans.size(), fiatCurrency, e.getMessage());
+            return null;
+        }
+    }
+
+    private Outcome execute(DuePlan plan, BigDecimal price) {
+        if (price == null) {
+            return Outcome.failed(plan, "No price available for " + plan.cryptoCurrency());
+        }
+        try {
+            Long transactionId = retryExecutor.execute("recurringBuy", () -> transactionTemplate.execute(status -> {
+                CryptoTransaction transaction = cryptoTradingService.executeBuyOrder(
+                        plan.accountId(), plan.cryptoCurrency(), plan.fiatAmount(), plan.fiatCurrency(), price);
+
+                int inserted = jdbcTemplate.update(INSERT_EXECUTION_SQL,
+                        plan.id(), Timestamp.valueOf(plan.scheduledFor()), "COMPLETED",
+                        transaction.getId(), price, null, Timestamp.valueOf(LocalDateTime.now()));
+                if (inserted == 0) {
+                    throw new DataIntegrityViolationException("Slot already executed");
+                }
+                return transaction.getId();
+            }));
+            return Outcome.completed(plan, transactionId);
+        } catch (DataIntegrityViolationException e) {
+            log.info("DCA plan {} slot {} already executed, skipping", plan.id(), plan.scheduledFor());
+            return Outcome.alreadyExecuted(plan);
+        } catch (Exception e) {
+            log.warn("DCA plan {} failed: {}", plan.id(), e.getMessage());
+            return Outcome.failed(plan, e.getMessage());
+        }
+    }
+
+    private void recordOutcomes(List<Outcome> outcomes, LocalDateTime now) {
+        Timestamp nowTs = Timestamp.valueOf(now);
+
+        List<Object[]> failures = outcomes.stream()
+                .filter(o -> o.status() == Outcome.Status.FAILED)
+                .map(o -> new Object[]{o.plan().id(), Timestamp.valueOf(o.plan().scheduledFor()), "FAILED",
+                        null, null, truncate(o.message()), nowTs})
+                .toList();
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EXECUTION_SQL, failures);
+        }
+
+        List<Object[]> advances = outcomes.stream()
+                .map(o -> new Object[]{
+                        Timestamp.valueOf(RecurringBuyService.nextRunAfter(
+                                o.plan().scheduledFor(), o.plan().frequency(), now)),
+                        nowTs, nowTs, o.plan().id(), nodeId})
+                .toList();
+        if (!advances.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADVANCE_PLAN_SQL, advances);
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            batches.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return batches;
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 255 ? message.substring(0, 255) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    record DuePlan(Long id, Long accountId, String cryptoCurrency, BigDecimal fiatAmount,
+                   String fiatCurrency, RecurringBuyPlan.Frequency frequency, LocalDateTime scheduledFor) {
+    }
+
+    record Outcome(DuePlan plan, Status status, Long transactionId, String message) {
+
+        enum Status {COMPLETED, ALREADY_EXECUTED, FAILED}
+
+        static Outcome completed(DuePlan plan, Long transactionId) {
+            return new Outcome(plan, Status.COMPLETED, transactionId, null);
+        }
+
+        static Outcome alreadyExecuted(DuePlan plan) {
+            return new Outcome(plan, Status.ALREADY_EXECUTED, null, null);
+        }
+
+        static Outcome failed(DuePlan plan, String message) {
+            return new Outcome(plan, Status.FAILED, null, message);
+        }
+    }
+}
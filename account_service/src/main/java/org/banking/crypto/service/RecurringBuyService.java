@@ -0,0 +1,64 @@
+package org.banking.crypto.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.crypto.dto.RecurringBuyPlanDTO;
+import org.banking.crypto.dto.RecurringBuyRequest;
+import org.banking.crypto.entity.RecurringBuyPlan;
+import org.banking.crypto.exception.CryptoNotFoundException;
+import org.banking.crypto.repository.RecurringBuyPlanRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecurringBuyService {
+
+    private final RecurringBuyPlanRepository recurringBuyPlanRepository;
+
+    @Transactional
+    public RecurringBuyPlanDTO createPlan(Long accountId, RecurringBuyRequest request) {
+        RecurringBuyPlan plan = new RecurringBuyPlan();
+        plan.setAccountId(accountId);
+        plan.setCryptoCurrency(request.getCryptoCurrency().toUpperCase());
+        plan.setFiatAmount(request.getFiatAmount());
+        plan.setFiatCurrency(request.getFiatCurrency() != null ? request.getFiatCurrency().toUpperCase() : "USD");
+        plan.setFrequency(request.getFrequency());
+        plan.setNextRunAt(request.getStartAt() != null ? request.getStartAt() : LocalDateTime.now());
+
+        RecurringBuyPlan saved = recurringBuyPlanRepository.save(plan);
+        log.info("Created {} recurring buy plan {} for account {}: {} {} of {}",
+                saved.getFrequency(), saved.getId(), accountId,
+                saved.getFiatAmount(), saved.getFiatCurrency(), saved.getCryptoCurrency());
+        return new RecurringBuyPlanDTO(saved);
+    }
+
+    public List<RecurringBuyPlanDTO> getPlans(Long accountId) {
+        return recurringBuyPlanRepository.findByAccountIdOrderByCreatedAtDesc(accountId).stream()
+                .map(RecurringBuyPlanDTO::new)
+                .toList();
+    }
+
+    @Transactional
+    public void cancelPlan(Long accountId, Long planId) {
+        RecurringBuyPlan plan = recurringBuyPlanRepository.findByIdAndAccountId(planId, accountId)
+                .orElseThrow(() -> new CryptoNotFoundException("Recurring buy plan not found: " + planId));
+
+        plan.setStatus(RecurringBuyPlan.PlanStatus.CANCELLED);
+        recurringBuyPlanRepository.save(plan);
+    }
+
+    public static LocalDateTime nextRunAfter(LocalDateTime scheduledFor, RecurringBuyPlan.Frequency frequency,
+                                             LocalDateTime now) {
+        LocalDateTime next = scheduledFor.plus(frequency.getPeriod());
+        // Missed slots (downtime) are skipped rather than executed in a burst
+        while (!next.isAfter(now)) {
+            next = next.plus(frequency.getPeriod());
+        }
+        return next;
+    }
+}
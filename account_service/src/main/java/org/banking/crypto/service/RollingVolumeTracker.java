@@ -0,0 +1,159 @@
+package org.banking.crypto.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling 30-day traded volume per account, kept as a fixed ring of daily buckets so memory
+ * per account is constant and a lookup never hits the database. Volume is gross notional (the
+ * fiat spent on a buy, the proceeds before fees on a sell) bucketed by UTC day, both on the live
+ * path and when warming up from {@code crypto_transactions}.
+ */
+@Slf4j
+@Component
+public class RollingVolumeTracker {
+
+    static final int WINDOW_DAYS = 30;
+
+    // fiat_amount is net of fees on a SELL, so rebuild the gross proceeds the live path recorded
+    private static final String WARM_UP_SQL = """
+            SELECT account_id, created_at,
+                   CASE WHEN transaction_type = 'SELL' THEN crypto_amount * price_per_unit
+                        ELSE fiat_amount END AS notional
+            FROM crypto_transactions
+            WHERE status = 'COMPLETED' AND transaction_type IN ('BUY', 'SELL') AND created_at >= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RollingVolumeTracker(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemUTC());
+    }
+
+    public RollingVolumeTracker(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDate from = today().minusDays(WINDOW_DAYS - 1);
+        // created_at holds JVM-local time; bucket each trade by the UTC day the live path used
+        ZoneId local = ZoneId.systemDefault();
+        try {
+            jdbcTemplate.query(WARM_UP_SQL, rs -> {
+                long tradeDay = rs.getTimestamp("created_at").toLocalDateTime()
+                        .atZone(local).withZoneSameInstant(ZoneOffset.UTC).toLocalDate().toEpochDay();
+                record(rs.getLong("account_id"), rs.getBigDecimal("notional"), tradeDay);
+            }, Timestamp.from(from.atStartOfDay(ZoneOffset.UTC).toInstant()));
+            log.info("Loaded rolling trade volume for {} accounts", windows.size());
+        } catch (Exception e) {
+            log.warn("Could not warm up rolling trade volume: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records volume once the surrounding transaction commits, so rolled back trades never count.
+     */
+    public void recordAfterCommit(Long accountId, BigDecimal notional) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(accountId, notional, today().toEpochDay());
+                }
+            });
+        } else {
+            record(accountId, notional, today().toEpochDay());
+        }
+    }
+
+    public BigDecimal volume(Long accountId) {
+        Window window = windows.get(accountId);
+        if (window == null) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(window.sum(today().toEpochDay()), 2);
+    }
+
+    /**
+     * Drops the windows of accounts with no trade in the last 30 days, so the map tracks active
+     * traders rather than every account that ever traded.
+     */
+    @Scheduled(fixedDelayString = "${crypto.fees.volume-evict-ms:3600000}",
+            initialDelayString = "${crypto.fees.volume-evict-ms:3600000}")
+    public void evictIdle() {
+        long today = today().toEpochDay();
+        int before = windows.size();
+        // computeIfPresent serialises with record, so a trade never lands in a dropped window
+        windows.keySet().forEach(accountId ->
+                windows.computeIfPresent(accountId, (id, window) -> window.sum(today) == 0 ? null : window));
+        log.debug("Evicted {} idle trade volume windows", before - windows.size());
+    }
+
+    public int trackedAccounts() {
+        return windows.size();
+    }
+
+    void record(Long accountId, BigDecimal notional, long epochDay) {
+        long cents = notional.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        windows.compute(accountId, (id, window) -> {
+            Window target = window != null ? window : new Window();
+            target.add(epochDay, cents);
+            return target;
+        });
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock.withZone(ZoneOffset.UTC));
+    }
+
+    static final class Window {
+
+        private final long[] days = new long[WINDOW_DAYS];
+        private final long[] cents = new long[WINDOW_DAYS];
+
+        synchronized void add(long epochDay, long amount) {
+            int slot = (int) Math.floorMod(epochDay, (long) WINDOW_DAYS);
+            if (epochDay < days[slot]) {
+                // A day that already rolled out of the window
+                return;
+            }
+            if (days[slot] != epochDay) {
+                days[slot] = epochDay;
+                cents[slot] = 0;
+            }
+            cents[slot] += amount;
+        }
+
+        synchronized long sum(long today) {
+            long total = 0;
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                long age = today - days[i];
+                if (age >= 0 && age < WINDOW_DAYS) {
+                    total += cents[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.banking.crypto.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.banking.crypto.dto.LotConsumption;
+import org.banking.crypto.entity.CostBasisMethod;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.entity.CryptoLot;
+import org.banking.crypto.exception.InsufficientCryptoBalanceException;
+import org.banking.crypto.repository.CryptoLotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaxLotService {
+
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    private final CryptoLotRepository cryptoLotRepository;
+
+    @Value("${crypto.tax-lots.method:FIFO}")
+    private CostBasisMethod defaultMethod = CostBasisMethod.FIFO;
+
+    @Value("${crypto.tax-lots.page-size:200}")
+    private int pageSize = 200;
+
+    @Transactional
+    public CryptoLot recordLot(CryptoAccount cryptoAccount, Long sourceTransactionId,
+                               BigDecimal quantity, BigDecimal costPerUnit) {
+        CryptoLot lot = new CryptoLot();
+        lot.setCryptoAccountId(cryptoAccount.getId());
+        lot.setSourceTransactionId(sourceTransactionId);
+        lot.setOriginalQuantity(quantity);
+        lot.setRemainingQuantity(quantity);
+        lot.setCostPerUnit(costPerUnit);
+        return cryptoLotRepository.save(lot);
+    }
+
+    @Transactional
+    public LotConsumption consume(CryptoAccount cryptoAccount, BigDecimal quantity) {
+        return consume(cryptoAccount, quantity, defaultMethod, List.of());
+    }
+
+    /**
+     * Consumes open lots of a holding until {@code quantity} is covered. Lots are streamed
+     * page by page into a deque so holdings with many small lots are never loaded in full.
+     * With {@link CostBasisMethod#SPECIFIC} the selected lots must cover the whole quantity,
+     * otherwise nothing is consumed and the sale is rejected.
+     */
+    @Transactional
+    public LotConsumption consume(CryptoAccount cryptoAccount, BigDecimal quantity,
+                                  CostBasisMethod method, Collection<Long> lotIds) {
+
+        LotQueue queue;
+        if (method == CostBasisMethod.SPECIFIC) {
+            List<CryptoLot> selected = cryptoLotRepository.findOpenLotsByIds(cryptoAccount.getId(), lotIds);
+            BigDecimal available = selected.stream()
+                    .map(CryptoLot::getRemainingQuantity)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (available.compareTo(quantity) < 0) {
+                throw new InsufficientCryptoBalanceException(String.format(
+                        "Selected lots hold %s %s, requested %s", available, cryptoAccount.getCryptoCurrency(), quantity));
+            }
+            queue = LotQueue.of(selected);
+        } else {
+            queue = new LotQueue(cryptoLotRepository, cryptoAccount.getId(), method == CostBasisMethod.LIFO, pageSize);
+        }
+
+        BigDecimal remaining = quantity;
+        BigDecimal costBasis = BigDecimal.ZERO;
+        List<CryptoLot> touched = new ArrayList<>();
+
+        while (remaining.compareTo(BigDecimal.ZERO) > 0) {
+            CryptoLot lot = queue.poll();
+            if (lot == null) {
+                break;
+            }
+
+            BigDecimal taken = lot.getRemainingQuantity().min(remaining);
+            lot.setRemainingQuantity(lot.getRemainingQuantity().subtract(taken));
+            if (!lot.isOpen()) {
+                lot.setClosedAt(LocalDateTime.now());
+            }
+
+            costBasis = costBasis.add(taken.multiply(lot.getCostPerUnit()));
+            remaining = remaining.subtract(taken);
+            touched.add(lot);
+        }
+
+        if (!touched.isEmpty()) {
+            cryptoLotRepository.saveAll(touched);
+        }
+
+        if (remaining.compareTo(BigDecimal.ZERO) > 0) {
+            log.debug("{} {} of crypto account {} not covered by tax lots",
+                    remaining, cryptoAccount.getCryptoCurrency(), cryptoAccount.getId());
+        }
+
+        return new LotConsumption(costBasis, quantity.subtract(remaining), remaining, touched.size());
+    }
+
+    static class LotQueue {
+
+        private final Deque<CryptoLot> buffer = new ArrayDeque<>();
+        private final CryptoLotRepository repository;
+        private final Long cryptoAccountId;
+        private final boolean newestFirst;
+        private final int pageSize;
+
+        private LocalDateTime cursorTime;
+        private Long cursorId;
+        private boolean exhausted;
+
+        LotQueue(CryptoLotRepository repository, Long cryptoAccountId, boolean newestFirst, int pageSize) {
+            this.repository = repository;
+            this.cryptoAccountId = cryptoAccountId;
+            this.newestFirst = newestFirst;
+            this.pageSize = pageSize;
+            this.cursorTime = newestFirst ? MAX_TIME : MIN_TIME;
+            this.cursorId = newestFirst ? Long.MAX_VALUE : 0L;
+        }
+
+        static LotQueue of(List<CryptoLot> lots) {
+            LotQueue queue = new LotQueue(null, null, false, 0);
+            queue.buffer.addAll(lots);
+            queue.exhausted = true;
+            return queue;
+        }
+
+        CryptoLot poll() {
+            if (buffer.isEmpty() && !exhausted) {
+                fetchNextPage();
+            }
+            return buffer.pollFirst();
+        }
+
+        private void fetchNextPage() {
+            PageRequest page = PageRequest.of(0, pageSize);
+            List<CryptoLot> lots = newestFirst
+                    ? repository.findOpenLotsNewestFirst(cryptoAccountId, cursorTime, cursorId, page)
+                    : repository.findOpenLotsOldestFirst(cryptoAccountId, cursorTime, cursorId, page);
+
+            if (lots.size() < pageSize) {
+                exhausted = true;
+            }
+            if (!lots.isEmpty()) {
+                CryptoLot last = lots.get(lots.size() - 1);
+                cursorTime = last.getAcquiredAt();
+                cursorId = last.getId();
+                buffer.addAll(lots);
+            }
+        }
+    }
+}
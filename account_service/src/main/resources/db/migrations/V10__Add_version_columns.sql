@@ -0,0 +1,2 @@
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE crypto_accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
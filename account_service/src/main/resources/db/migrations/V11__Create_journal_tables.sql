@@ -0,0 +1,50 @@
+CREATE TABLE journal_entries (
+    id UUID PRIMARY KEY,
+    entry_type VARCHAR(30) NOT NULL,
+    reference VARCHAR(255),
+    description VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE journal_legs (
+    id BIGSERIAL PRIMARY KEY,
+    entry_id UUID NOT NULL REFERENCES journal_entries(id),
+    ledger VARCHAR(30) NOT NULL,
+    account_id BIGINT,
+    currency VARCHAR(10) NOT NULL,
+    amount NUMERIC(36,18) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_journal_legs_ledger_account ON journal_legs(ledger, account_id);
+CREATE INDEX idx_journal_legs_entry ON journal_legs(entry_id);
+
+-- The journal is append-only
+CREATE OR REPLACE FUNCTION reject_journal_change() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'journal rows are append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_journal_entries_append_only BEFORE UPDATE OR DELETE ON journal_entries
+    FOR EACH ROW EXECUTE FUNCTION reject_journal_change();
+CREATE TRIGGER trg_journal_legs_append_only BEFORE UPDATE OR DELETE ON journal_legs
+    FOR EACH ROW EXECUTE FUNCTION reject_journal_change();
+
+-- Opening balances so existing accounts reconcile against the journal
+CREATE TEMPORARY TABLE opening_balances AS
+SELECT gen_random_uuid() AS entry_id, 'CUSTOMER_FIAT' AS ledger, id AS account_id, 'USD' AS currency, balance AS amount
+FROM accounts WHERE balance <> 0
+UNION ALL
+SELECT gen_random_uuid(), 'CUSTOMER_CRYPTO', id, crypto_currency, balance
+FROM crypto_accounts WHERE balance <> 0;
+
+INSERT INTO journal_entries (id, entry_type, description)
+SELECT entry_id, 'OPENING_BALANCE', 'Balance before journal was introduced' FROM opening_balances;
+
+INSERT INTO journal_legs (entry_id, ledger, account_id, currency, amount)
+SELECT entry_id, ledger, account_id, currency, amount FROM opening_balances
+UNION ALL
+SELECT entry_id, 'EXTERNAL', NULL, currency, -amount FROM opening_balances;
+
+DROP TABLE opening_balances;
@@ -0,0 +1,20 @@
+-- Hibernate now takes ids from these sequences in blocks of 50 (pooled-lo) instead of per-row
+-- IDENTITY inserts, so inserts can be sent as JDBC batches. Each sequence is restarted just above
+-- the current max id; the column defaults stay for plain SQL inserts.
+ALTER SEQUENCE accounts_id_seq INCREMENT BY 50;
+SELECT setval('accounts_id_seq', COALESCE((SELECT MAX(id) FROM accounts), 0) + 1, false);
+
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+SELECT setval('transactions_id_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 1, false);
+
+ALTER SEQUENCE crypto_accounts_id_seq INCREMENT BY 50;
+SELECT setval('crypto_accounts_id_seq', COALESCE((SELECT MAX(id) FROM crypto_accounts), 0) + 1, false);
+
+ALTER SEQUENCE crypto_transactions_id_seq INCREMENT BY 50;
+SELECT setval('crypto_transactions_id_seq', COALESCE((SELECT MAX(id) FROM crypto_transactions), 0) + 1, false);
+
+ALTER SEQUENCE crypto_lots_id_seq INCREMENT BY 50;
+SELECT setval('crypto_lots_id_seq', COALESCE((SELECT MAX(id) FROM crypto_lots), 0) + 1, false);
+
+ALTER SEQUENCE funds_holds_id_seq INCREMENT BY 50;
+SELECT setval('funds_holds_id_seq', COALESCE((SELECT MAX(id) FROM funds_holds), 0) + 1, false);
@@ -0,0 +1,21 @@
+-- Closing balance per customer ledger account per day, derived from the journal
+CREATE TABLE balance_snapshots (
+    ledger VARCHAR(30) NOT NULL,
+    account_id BIGINT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    closing_balance NUMERIC(36,18) NOT NULL,
+    PRIMARY KEY (ledger, account_id, snapshot_date)
+);
+
+-- One row per fully snapshotted day; the job resumes after the latest one
+CREATE TABLE balance_snapshot_runs (
+    snapshot_date DATE PRIMARY KEY,
+    rows_written INTEGER NOT NULL,
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Statement deltas scan one account's legs by time; the nightly job scans one day across accounts
+CREATE INDEX idx_journal_legs_account_created ON journal_legs(ledger, account_id, created_at);
+CREATE INDEX idx_journal_legs_created ON journal_legs(created_at);
+DROP INDEX idx_journal_legs_ledger_account;
@@ -0,0 +1,2 @@
+-- Trading account lookup by owner (findFirstByUserIdAndTypeAndStatus)
+CREATE INDEX idx_accounts_user_type ON accounts(user_id, type);
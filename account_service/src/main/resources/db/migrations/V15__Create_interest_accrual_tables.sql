@@ -0,0 +1,25 @@
+-- Sub-cent interest not yet posted, and the last day each savings account accrued for
+CREATE TABLE interest_carry (
+    account_id BIGINT PRIMARY KEY REFERENCES accounts(id),
+    carry NUMERIC(19,10) NOT NULL DEFAULT 0,
+    last_accrual_date DATE NOT NULL
+);
+
+-- Per-partition checkpoints, written in the same transaction as the partition's postings
+CREATE TABLE interest_accrual_partitions (
+    accrual_date DATE NOT NULL,
+    range_start BIGINT NOT NULL,
+    range_end BIGINT NOT NULL,
+    accounts_accrued INTEGER NOT NULL,
+    interest_posted NUMERIC(19,2) NOT NULL,
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (accrual_date, range_start)
+);
+
+-- One row per fully accrued day; the job resumes after the latest one
+CREATE TABLE interest_accrual_runs (
+    accrual_date DATE PRIMARY KEY,
+    accounts_accrued INTEGER NOT NULL,
+    interest_posted NUMERIC(19,2) NOT NULL,
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
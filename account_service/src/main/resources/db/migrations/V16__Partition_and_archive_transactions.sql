@@ -0,0 +1,110 @@
+-- Monthly range partitions on created_at for transactions and crypto_transactions, plus archive
+-- tables for months past retention (moved by TransactionArchiveService).
+--
+-- Primary keys and unique constraints on a partitioned table must include the partition key, so
+-- the keys become (id, created_at); ids stay unique through the sequences. The global UNIQUE on
+-- crypto_transactions.transaction_hash cannot be kept and becomes a plain index.
+
+-- Creates the missing monthly partitions <parent>_pYYYY_MM from first_month through last_month
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, first_month DATE, last_month DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    cur_month DATE := date_trunc('month', first_month)::date;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE cur_month <= last_month LOOP
+        partition_name := parent || '_p' || to_char(cur_month, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, cur_month, (cur_month + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        cur_month := (cur_month + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- transactions
+ALTER SEQUENCE transactions_id_seq OWNED BY NONE;
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER INDEX transactions_pkey RENAME TO transactions_unpartitioned_pkey;
+
+CREATE TABLE transactions (
+    LIKE transactions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts(id)
+) PARTITION BY RANGE (created_at);
+
+SELECT create_monthly_partitions('transactions',
+    COALESCE((SELECT MIN(created_at) FROM transactions_unpartitioned), CURRENT_DATE)::date,
+    (CURRENT_DATE + INTERVAL '3 months')::date);
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+INSERT INTO transactions SELECT * FROM transactions_unpartitioned;
+DROP TABLE transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+-- Keyset history and exports; type and status filters ride on this scan, created_at is the partition key
+CREATE INDEX idx_transactions_account_created ON transactions(account_id, created_at DESC, id DESC);
+
+-- crypto_transactions
+ALTER SEQUENCE crypto_transactions_id_seq OWNED BY NONE;
+ALTER TABLE crypto_transactions RENAME TO crypto_transactions_unpartitioned;
+ALTER INDEX crypto_transactions_pkey RENAME TO crypto_transactions_unpartitioned_pkey;
+-- Hibernate-created databases never had this constraint
+ALTER TABLE crypto_transactions_unpartitioned DROP CONSTRAINT IF EXISTS uq_transaction_hash;
+
+CREATE TABLE crypto_transactions (
+    LIKE crypto_transactions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_crypto_transactions_account FOREIGN KEY (account_id) REFERENCES accounts(id)
+) PARTITION BY RANGE (created_at);
+
+SELECT create_monthly_partitions('crypto_transactions',
+    COALESCE((SELECT MIN(created_at) FROM crypto_transactions_unpartitioned), CURRENT_DATE)::date,
+    (CURRENT_DATE + INTERVAL '3 months')::date);
+CREATE TABLE crypto_transactions_default PARTITION OF crypto_transactions DEFAULT;
+
+INSERT INTO crypto_transactions SELECT * FROM crypto_transactions_unpartitioned;
+DROP TABLE crypto_transactions_unpartitioned;
+ALTER SEQUENCE crypto_transactions_id_seq OWNED BY crypto_transactions.id;
+
+-- Down from eleven indexes: keyset history, hash lookups and the pending-confirmation sweep
+CREATE INDEX idx_crypto_transactions_account_created_desc ON crypto_transactions(account_id, created_at DESC, id DESC);
+CREATE INDEX idx_crypto_transactions_hash ON crypto_transactions(transaction_hash);
+CREATE INDEX idx_crypto_transactions_pending ON crypto_transactions(status) WHERE status IN ('PENDING', 'CONFIRMING');
+
+CREATE TRIGGER update_crypto_transactions_updated_at
+    BEFORE UPDATE ON crypto_transactions
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+-- Archive tables: never updated, so packed full, with a single index for account history
+CREATE TABLE transactions_archive (
+    LIKE transactions INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id)
+) WITH (fillfactor = 100);
+CREATE INDEX idx_transactions_archive_account_created ON transactions_archive(account_id, created_at, id);
+
+CREATE TABLE crypto_transactions_archive (
+    LIKE crypto_transactions INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id)
+) WITH (fillfactor = 100);
+CREATE INDEX idx_crypto_transactions_archive_account_created ON crypto_transactions_archive(account_id, created_at, id);
+
+-- lz4 TOAST compression needs PostgreSQL 14+ built with lz4; elsewhere the archives keep pglz
+DO $$
+BEGIN
+    EXECUTE 'ALTER TABLE transactions_archive ALTER COLUMN description SET COMPRESSION lz4';
+    EXECUTE 'ALTER TABLE crypto_transactions_archive ALTER COLUMN description SET COMPRESSION lz4';
+EXCEPTION WHEN feature_not_supported OR syntax_error THEN
+    RAISE NOTICE 'lz4 compression is not available, archive tables keep the default';
+END $$;
+
+-- Rows created before archived_before live in the table's archive
+CREATE TABLE archive_watermarks (
+    table_name VARCHAR(63) PRIMARY KEY,
+    archived_before TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
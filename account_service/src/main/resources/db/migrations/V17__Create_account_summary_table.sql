@@ -0,0 +1,7 @@
+-- Dashboard read model: one denormalized JSON document per user, maintained by
+-- AccountSummaryService from balance-change events and rebuildable from the journal
+CREATE TABLE account_summary (
+    user_id BIGINT PRIMARY KEY,
+    summary TEXT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
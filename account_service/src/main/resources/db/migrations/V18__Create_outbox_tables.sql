@@ -0,0 +1,24 @@
+-- Transactional outbox: rows are inserted in the same transaction as the balance change and
+-- removed by OutboxRelay once RabbitMQ has confirmed them. An aggregate always hashes to the same
+-- partition and a partition is drained by one relay at a time, in id order.
+CREATE TABLE outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id VARCHAR(64) NOT NULL,
+    partition_no INTEGER NOT NULL,
+    exchange_name VARCHAR(100) NOT NULL,
+    routing_key VARCHAR(100) NOT NULL,
+    payload_type VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_outbox_partition ON outbox(partition_no, id);
+
+-- One row per partition; a relay holds the row lock (FOR UPDATE SKIP LOCKED) while draining it
+CREATE TABLE outbox_partitions (
+    partition_no INTEGER PRIMARY KEY,
+    drained_at TIMESTAMP
+);
+
+INSERT INTO outbox_partitions (partition_no) SELECT generate_series(0, 15);
@@ -0,0 +1,27 @@
+-- One account per user and type, as AccountService.createAccount already checks. The registration
+-- consumer relies on it to insert default accounts with ON CONFLICT DO NOTHING.
+--
+-- Duplicates can only come from races the old check-then-insert allowed. They hold balances and
+-- history, so they are not merged here: the migration stops and names them, and they have to be
+-- merged or closed by hand before it is run again.
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(format('user %s %s (account ids %s)', user_id, type, ids), '; ')
+    INTO duplicates
+    FROM (SELECT user_id, type, string_agg(id::text, ', ' ORDER BY id) AS ids
+          FROM accounts
+          GROUP BY user_id, type
+          HAVING COUNT(*) > 1
+          ORDER BY user_id, type
+          LIMIT 20) d;
+
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'accounts has more than one account per user and type, merge them before V19: %', duplicates
+            USING HINT = 'SELECT user_id, type, COUNT(*) FROM accounts GROUP BY user_id, type HAVING COUNT(*) > 1';
+    END IF;
+END $$;
+
+DROP INDEX IF EXISTS idx_accounts_user_type;
+CREATE UNIQUE INDEX ux_accounts_user_type ON accounts(user_id, type);
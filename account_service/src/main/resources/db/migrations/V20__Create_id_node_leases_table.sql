@@ -0,0 +1,9 @@
+-- One row per Snowflake node id (0-1023). An instance without ids.node-id leases the lowest row
+-- whose heartbeat has expired and keeps renewing it while it runs.
+CREATE TABLE id_node_leases (
+    node_id    INTEGER PRIMARY KEY,
+    owner      VARCHAR(100),
+    renewed_at TIMESTAMP NOT NULL DEFAULT TIMESTAMP '1970-01-01 00:00:00'
+);
+
+INSERT INTO id_node_leases (node_id) SELECT generate_series(0, 1023);
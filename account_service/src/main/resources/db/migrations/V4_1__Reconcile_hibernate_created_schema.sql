@@ -0,0 +1,41 @@
+-- Databases whose tables Hibernate created (ddl-auto) before Flyway ran are baselined at V4 but do
+-- not match V1-V4: their ids are identity columns instead of BIGSERIAL sequences, and they have no
+-- update_updated_at_column() function or triggers. This brings them to the V4 shape so V5+ apply.
+-- On databases built by V1-V4 every step finds nothing to change.
+
+CREATE OR REPLACE FUNCTION update_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    target_table TEXT;
+    sequence_name TEXT;
+BEGIN
+    -- Identity ids become <table>_id_seq defaults, which V12 and V16 alter
+    FOREACH target_table IN ARRAY ARRAY['accounts', 'transactions', 'crypto_accounts', 'crypto_transactions'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns c
+                   WHERE c.table_schema = current_schema() AND c.table_name = target_table
+                     AND c.column_name = 'id' AND c.is_identity = 'YES') THEN
+            sequence_name := target_table || '_id_seq';
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', target_table);
+            EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', sequence_name, target_table);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', target_table, sequence_name);
+            EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)',
+                           sequence_name, target_table);
+        END IF;
+    END LOOP;
+
+    FOREACH target_table IN ARRAY ARRAY['accounts', 'crypto_transactions', 'crypto_accounts'] LOOP
+        IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                       WHERE tgname = 'update_' || target_table || '_updated_at'
+                         AND tgrelid = to_regclass(target_table)) THEN
+            EXECUTE format('CREATE TRIGGER %I BEFORE UPDATE ON %I FOR EACH ROW EXECUTE FUNCTION update_updated_at_column()',
+                           'update_' || target_table || '_updated_at', target_table);
+        END IF;
+    END LOOP;
+END $$;
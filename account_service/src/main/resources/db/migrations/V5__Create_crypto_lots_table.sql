@@ -0,0 +1,18 @@
+CREATE TABLE crypto_lots (
+    id BIGSERIAL PRIMARY KEY,
+    crypto_account_id BIGINT NOT NULL,
+    source_transaction_id BIGINT,
+    original_quantity NUMERIC(36,18) NOT NULL,
+    remaining_quantity NUMERIC(36,18) NOT NULL,
+    cost_per_unit NUMERIC(36,18) NOT NULL,
+    acquired_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    closed_at TIMESTAMP,
+
+    CONSTRAINT fk_crypto_lots_crypto_account FOREIGN KEY (crypto_account_id) REFERENCES crypto_accounts(id),
+    CONSTRAINT chk_crypto_lots_quantity CHECK (original_quantity > 0 AND remaining_quantity >= 0
+        AND remaining_quantity <= original_quantity)
+);
+
+-- Only open lots are ever scanned when consuming; closed lots stay out of the index
+CREATE INDEX idx_crypto_lots_open ON crypto_lots(crypto_account_id, acquired_at, id) WHERE remaining_quantity > 0;
+CREATE INDEX idx_crypto_lots_source_transaction ON crypto_lots(source_transaction_id);
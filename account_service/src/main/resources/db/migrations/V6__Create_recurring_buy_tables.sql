@@ -0,0 +1,40 @@
+CREATE TABLE recurring_buy_plans (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    crypto_currency VARCHAR(10) NOT NULL,
+    fiat_amount NUMERIC(19,2) NOT NULL,
+    fiat_currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    frequency VARCHAR(20) NOT NULL CHECK (frequency IN ('DAILY', 'WEEKLY')),
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' CHECK (status IN ('ACTIVE', 'PAUSED', 'CANCELLED')),
+    next_run_at TIMESTAMP NOT NULL,
+    last_run_at TIMESTAMP,
+    claimed_by VARCHAR(100),
+    claimed_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_recurring_buy_plans_account FOREIGN KEY (account_id) REFERENCES accounts(id),
+    CONSTRAINT chk_recurring_buy_amount_positive CHECK (fiat_amount > 0)
+);
+
+CREATE INDEX idx_recurring_buy_plans_account ON recurring_buy_plans(account_id);
+CREATE INDEX idx_recurring_buy_plans_due ON recurring_buy_plans(next_run_at) WHERE status = 'ACTIVE';
+
+CREATE TABLE recurring_buy_executions (
+    id BIGSERIAL PRIMARY KEY,
+    plan_id BIGINT NOT NULL,
+    scheduled_for TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('COMPLETED', 'FAILED')),
+    crypto_transaction_id BIGINT,
+    price_per_unit NUMERIC(36,18),
+    message VARCHAR(255),
+    executed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_recurring_buy_executions_plan FOREIGN KEY (plan_id) REFERENCES recurring_buy_plans(id),
+    -- One execution per plan slot: the guard against double execution
+    CONSTRAINT uq_recurring_buy_execution_slot UNIQUE (plan_id, scheduled_for)
+);
+
+CREATE TRIGGER update_recurring_buy_plans_updated_at
+    BEFORE UPDATE ON recurring_buy_plans
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
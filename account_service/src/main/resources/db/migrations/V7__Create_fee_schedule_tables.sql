@@ -0,0 +1,37 @@
+CREATE TABLE fee_network_fees (
+    crypto_currency VARCHAR(10) PRIMARY KEY,
+    fee_fiat NUMERIC(19,2) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE fee_tiers (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    min_volume NUMERIC(19,2) NOT NULL UNIQUE,
+    maker_rate NUMERIC(10,6) NOT NULL,
+    taker_rate NUMERIC(10,6) NOT NULL,
+
+    CONSTRAINT chk_fee_tiers_rates CHECK (maker_rate >= 0 AND taker_rate >= 0)
+);
+
+CREATE TABLE fee_promotions (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    crypto_currency VARCHAR(10),
+    side VARCHAR(10) CHECK (side IN ('BUY', 'SELL')),
+    rate_override NUMERIC(10,6),
+    network_fee_override NUMERIC(19,2),
+    priority INTEGER NOT NULL DEFAULT 0,
+    starts_at TIMESTAMP NOT NULL,
+    ends_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT chk_fee_promotions_window CHECK (ends_at > starts_at)
+);
+
+ALTER TABLE crypto_transactions ADD COLUMN trading_fee NUMERIC(19,2);
+
+INSERT INTO fee_network_fees (crypto_currency, fee_fiat) VALUES
+    ('BTC', 0.50),
+    ('ETH', 0.50),
+    ('ADA', 0.50),
+    ('USDT', 0.50);
@@ -0,0 +1,22 @@
+ALTER TABLE accounts ADD COLUMN held_balance NUMERIC(19,2) NOT NULL DEFAULT 0;
+ALTER TABLE accounts ADD CONSTRAINT chk_accounts_held_balance CHECK (held_balance >= 0 AND held_balance <= balance);
+
+CREATE TABLE funds_holds (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    crypto_account_id BIGINT,
+    currency VARCHAR(10) NOT NULL,
+    amount NUMERIC(36,18) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' CHECK (status IN ('ACTIVE', 'CAPTURED', 'RELEASED', 'EXPIRED')),
+    reference VARCHAR(255),
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    resolved_at TIMESTAMP,
+
+    CONSTRAINT fk_funds_holds_account FOREIGN KEY (account_id) REFERENCES accounts(id),
+    CONSTRAINT fk_funds_holds_crypto_account FOREIGN KEY (crypto_account_id) REFERENCES crypto_accounts(id),
+    CONSTRAINT chk_funds_holds_amount_positive CHECK (amount > 0)
+);
+
+CREATE INDEX idx_funds_holds_account_status ON funds_holds(account_id, status);
+CREATE INDEX idx_funds_holds_active ON funds_holds(id) WHERE status = 'ACTIVE';
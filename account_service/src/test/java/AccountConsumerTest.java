@@ -0,0 +1,191 @@
+import com.banking.events.UserRegistrationEvent;
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.banking.messaging.retry.RetryTopology;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.messaging.AccountConsumer;
+import org.banking.account.service.AccountProvisioningService;
+import org.banking.account.service.IdGenerator;
+import org.banking.account.service.JournalService;
+import org.banking.crypto.repository.CryptoAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountConsumerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RabbitTemplate rabbitTemplate;
+    private AccountProvisioningService provisioningService;
+    private AccountConsumer consumer;
+    private SimpleMeterRegistry meterRegistry;
+    private DelayedRetryRecoverer recoverer;
+    private final List<Message> deadLettered = new ArrayList<>();
+    private final List<Object> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:registration_batch;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS journal_legs");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS journal_entries");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS accounts");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS accounts_id_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE accounts_id_seq INCREMENT BY 50");
+        jdbcTemplate.execute("""
+                CREATE TABLE accounts (id BIGINT PRIMARY KEY,
+                    user_id BIGINT NOT NULL, account_number VARCHAR(50) NOT NULL UNIQUE,
+                    balance NUMERIC(19,2) NOT NULL, held_balance NUMERIC(19,2) NOT NULL,
+                    status VARCHAR(20) NOT NULL, type VARCHAR(20) NOT NULL, crypto_enabled BOOLEAN,
+                    created_at TIMESTAMP NOT NULL, version BIGINT NOT NULL,
+                    CONSTRAINT ux_accounts_user_type UNIQUE (user_id, type))
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE journal_entries (id UUID PRIMARY KEY, entry_type VARCHAR(30) NOT NULL,
+                    reference VARCHAR(255), description VARCHAR(255), created_at TIMESTAMP NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE journal_legs (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    entry_id UUID NOT NULL REFERENCES journal_entries(id), ledger VARCHAR(30) NOT NULL,
+                    account_id BIGINT, currency VARCHAR(10) NOT NULL, amount NUMERIC(36,18) NOT NULL,
+                    created_at TIMESTAMP NOT NULL)
+                """);
+
+        RabbitOperations channel = mock(RabbitOperations.class);
+        doAnswer(invocation -> deadLettered.add(invocation.getArgument(2)))
+                .when(channel).send(eq(""), eq("user.registration.account.dlq"), any(Message.class));
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(channel));
+
+        JournalService journalService = new JournalService(jdbcTemplate, dataSource, mock(CryptoAccountRepository.class));
+        provisioningService = new AccountProvisioningService(jdbcTemplate, dataSource, new IdGenerator(1), journalService,
+                published::add, new BigDecimal("3500"));
+        meterRegistry = new SimpleMeterRegistry();
+        recoverer = new DelayedRetryRecoverer(
+                new RetryTopology("user.registration.account.queue", 1000), rabbitTemplate, meterRegistry, 5000);
+        consumer = new AccountConsumer(provisioningService,
+                new EventMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule())), recoverer, meterRegistry);
+    }
+
+    @Test
+    void handleUserRegistrations_CreatesOneAccountPerNewUser() {
+        consumer.handleUserRegistrations(List.of(event(1L)));
+
+        // User 3 comes from a producer already sending the binary encoding
+        Message binary = new EventMessageConverter(new ObjectMapper())
+                .toMessage(new UserRegistrationEvent(3L, "user3", "user3@example.com"), new MessageProperties());
+        consumer.handleUserRegistrations(List.of(event(1L), event(2L), event(2L), binary));
+
+        assertEquals(List.of(1L, 2L, 3L),
+                jdbcTemplate.queryForList("SELECT user_id FROM accounts ORDER BY user_id", Long.class));
+        assertEquals(0, new BigDecimal("3500").compareTo(jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE user_id = 2", BigDecimal.class)));
+        assertEquals(3.0, meterRegistry.get("registration.accounts.created").counter().count());
+        verify(rabbitTemplate, never()).invoke(any());
+    }
+
+    @Test
+    void handleUserRegistrations_JournalsTheOpeningBalanceOfEachCreatedAccount() {
+        consumer.handleUserRegistrations(List.of(event(1L), event(2L)));
+        consumer.handleUserRegistrations(List.of(event(2L), event(3L)));
+
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM journal_entries WHERE entry_type = 'OPENING_BALANCE'", Integer.class));
+        assertEquals(0, new BigDecimal("3500").compareTo(jdbcTemplate.queryForObject("""
+                SELECT l.amount FROM journal_legs l JOIN accounts a ON a.id = l.account_id
+                WHERE l.ledger = 'CUSTOMER_FIAT' AND a.user_id = 2
+                """, BigDecimal.class)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(jdbcTemplate.queryForObject(
+                "SELECT SUM(amount) FROM journal_legs", BigDecimal.class)));
+
+        // One balance change per created account, carrying its opening-balance posting
+        assertEquals(List.of(1L, 2L, 3L), published.stream()
+                .map(event -> ((BalanceChangedEvent) event).getUserId()).sorted().toList());
+        BalanceChangedEvent event = (BalanceChangedEvent) published.get(0);
+        assertEquals(0, new BigDecimal("3500").compareTo(event.getAccount().getBalance()));
+        assertEquals(JournalEntry.EntryType.OPENING_BALANCE, event.getPosting().getEntryType());
+    }
+
+    @Test
+    void handleUserRegistrations_DeadLettersOnlyUnprocessableMessages() {
+        Message broken = message("{\"userId\":");
+        Message anonymous = message("{\"username\":\"nobody\"}");
+
+        consumer.handleUserRegistrations(List.of(event(4L), broken, anonymous, event(5L)));
+
+        assertEquals(List.of(4L, 5L),
+                jdbcTemplate.queryForList("SELECT user_id FROM accounts ORDER BY user_id", Long.class));
+        assertEquals(List.of(broken, anonymous), deadLettered);
+        assertNotNull(anonymous.getMessageProperties().getHeaders().get("x-exception-message"));
+        assertEquals(2.0, meterRegistry.get("listener.dead.lettered")
+                .tag("queue", "user.registration.account.queue").counter().count());
+    }
+
+    @Test
+    void handleUserRegistrations_UserViolatingAConstraint_IsDeadLetteredAlone() {
+        jdbcTemplate.execute("ALTER TABLE accounts ADD CONSTRAINT chk_user_not_blocked CHECK (user_id <> 11)");
+        Message blocked = event(11L);
+
+        consumer.handleUserRegistrations(List.of(event(10L), blocked, event(12L)));
+
+        assertEquals(List.of(10L, 12L),
+                jdbcTemplate.queryForList("SELECT user_id FROM accounts ORDER BY user_id", Long.class));
+        assertEquals(List.of(blocked), deadLettered);
+        assertEquals(2.0, meterRegistry.get("registration.accounts.created").counter().count());
+    }
+
+    @Test
+    void handleUserRegistrations_DatabaseUnavailable_ThrowsSoTheBatchIsRetried() {
+        AccountProvisioningService unavailable = spy(provisioningService);
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .when(unavailable).createDefaultAccounts(anyList());
+        AccountConsumer consumer = new AccountConsumer(unavailable,
+                new EventMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule())), recoverer, meterRegistry);
+
+        assertThrows(CannotGetJdbcConnectionException.class,
+                () -> consumer.handleUserRegistrations(List.of(event(13L), event(14L))));
+
+        assertTrue(deadLettered.isEmpty());
+        verify(unavailable, times(1)).createDefaultAccounts(anyList());
+    }
+
+    @Test
+    void userIdsBetween_PagesProvisionedUsersInOrder() {
+        consumer.handleUserRegistrations(List.of(event(9L), event(6L), event(7L), event(8L)));
+
+        assertEquals(List.of(7L, 8L), provisioningService.userIdsBetween(6L, 9L, 2));
+        assertEquals(List.of(9L), provisioningService.userIdsBetween(8L, 9L, 2));
+    }
+
+    private static Message event(long userId) {
+        return message("{\"userId\":" + userId + ",\"username\":\"user" + userId + "\",\"email\":\"user"
+                + userId + "@example.com\"}");
+    }
+
+    private static Message message(String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -1,19 +1,29 @@
 
+import org.banking.account.dto.AccountMetadata;
 import org.banking.account.dto.AccountRequest;
 import org.banking.account.dto.AccountResponse;
+import org.banking.account.dto.AccountStatusChangedEvent;
 import org.banking.account.dto.TransactionRequest;
 import org.banking.account.entity.Account;
 import org.banking.account.entity.Transaction;
 import org.banking.account.exception.*;
 import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.ArchivedTransactionRepository;
 import org.banking.account.repository.TransactionRepository;
+import org.banking.account.service.AccountMetadataCache;
 import org.banking.account.service.AccountService;
+import org.banking.account.service.IdGenerator;
+import org.banking.account.service.JournalService;
+import org.banking.account.service.LockingStrategy;
+import org.banking.account.service.TransactionArchiveService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -32,6 +42,24 @@ class AccountServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private ArchivedTransactionRepository archivedTransactionRepository;
+
+    @Mock
+    private TransactionArchiveService transactionArchive;
+
+    @Mock
+    private JournalService journalService;
+
+    @Mock
+    private AccountMetadataCache accountCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IdGenerator idGenerator;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -247,8 +275,8 @@ class AccountServiceTest {
     @Test
     void getTradingAccountByUserId_ActiveTradingAccountExists_ReturnsAccount() {
         // Arrange
-        List<Account> accounts = List.of(account, tradingAccount);
-        when(accountRepository.findByUserId(100L)).thenReturn(accounts);
+        when(accountRepository.findFirstByUserIdAndTypeAndStatus(100L, Account.AccountType.TRADING, Account.AccountStatus.ACTIVE))
+                .thenReturn(Optional.of(tradingAccount));
 
         // Act
         Account result = accountService.getTradingAccountByUserId(100L);
@@ -257,34 +285,53 @@ class AccountServiceTest {
         assertNotNull(result);
         assertEquals(Account.AccountType.TRADING, result.getType());
         assertEquals(Account.AccountStatus.ACTIVE, result.getStatus());
-        verify(accountRepository).findByUserId(100L);
+        verify(accountRepository, never()).findByUserId(any());
+        verify(accountCache).put(AccountMetadata.of(tradingAccount));
     }
 
     @Test
     void getTradingAccountByUserId_NoTradingAccount_ThrowsAccountNotFoundException() {
         // Arrange
-        when(accountRepository.findByUserId(100L)).thenReturn(List.of(account)); // Only savings account
+        when(accountRepository.findFirstByUserIdAndTypeAndStatus(100L, Account.AccountType.TRADING, Account.AccountStatus.ACTIVE))
+                .thenReturn(Optional.empty());
 
         // Act & Assert
         AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
                 () -> accountService.getTradingAccountByUserId(100L));
 
         assertEquals("No active trading account found for user: 100", exception.getMessage());
-        verify(accountRepository).findByUserId(100L);
     }
 
     @Test
-    void getTradingAccountByUserId_TradingAccountInactive_ThrowsAccountNotFoundException() {
+    void getTradingAccountByUserId_CachedAccountNowInactive_FallsBackToQuery() {
         // Arrange
         tradingAccount.setStatus(Account.AccountStatus.INACTIVE);
-        List<Account> accounts = List.of(account, tradingAccount);
-        when(accountRepository.findByUserId(100L)).thenReturn(accounts);
+        when(accountCache.tradingAccountId(100L)).thenReturn(2L);
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(tradingAccount));
+        when(accountRepository.findFirstByUserIdAndTypeAndStatus(100L, Account.AccountType.TRADING, Account.AccountStatus.ACTIVE))
+                .thenReturn(Optional.empty());
 
         // Act & Assert
         AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
                 () -> accountService.getTradingAccountByUserId(100L));
 
         assertEquals("No active trading account found for user: 100", exception.getMessage());
+        verify(accountCache).evictUser(100L);
+    }
+
+    @Test
+    void getTradingAccountMetadata_CacheHit_SkipsDatabase() {
+        // Arrange
+        AccountMetadata metadata = AccountMetadata.of(tradingAccount);
+        when(accountCache.tradingAccountId(100L)).thenReturn(2L);
+        when(accountCache.metadata(2L)).thenReturn(metadata);
+
+        // Act
+        AccountMetadata result = accountService.getTradingAccountMetadata(100L);
+
+        // Assert
+        assertEquals(metadata, result);
+        verifyNoInteractions(accountRepository);
     }
 
     // ========== TRANSFER TESTS ==========
@@ -327,6 +374,42 @@ class AccountServiceTest {
         verify(transactionRepository).save(any(Transaction.class));
     }
 
+    @Test
+    void transfer_PessimisticStrategy_LocksBothAccountsInOneQuery() {
+        // Arrange
+        ReflectionTestUtils.setField(accountService, "lockingStrategy", LockingStrategy.PESSIMISTIC);
+
+        Account fromAccount = new Account();
+        fromAccount.setId(2L);
+        fromAccount.setUserId(100L);
+        fromAccount.setAccountNumber("ACC22222222");
+        fromAccount.setBalance(new BigDecimal("1000.00"));
+        fromAccount.setStatus(Account.AccountStatus.ACTIVE);
+
+        Account toAccount = new Account();
+        toAccount.setId(1L);
+        toAccount.setUserId(200L);
+        toAccount.setAccountNumber("ACC11111111");
+        toAccount.setBalance(new BigDecimal("500.00"));
+        toAccount.setStatus(Account.AccountStatus.ACTIVE);
+
+        transactionRequest.setFromAccountNumber("ACC22222222");
+        transactionRequest.setToAccountNumber("ACC11111111");
+        transactionRequest.setAmount(new BigDecimal("300.00"));
+
+        when(accountRepository.findByAccountNumbersForUpdate(List.of("ACC22222222", "ACC11111111")))
+                .thenReturn(List.of(toAccount, fromAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
+
+        // Act
+        accountService.transfer(transactionRequest, 100L);
+
+        // Assert
+        assertEquals(new BigDecimal("700.00"), fromAccount.getBalance());
+        assertEquals(new BigDecimal("800.00"), toAccount.getBalance());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+    }
+
     @Test
     void transfer_InsufficientFunds_ThrowsInsufficientFundsException() {
         // Arrange
@@ -456,6 +539,7 @@ class AccountServiceTest {
         // Assert
         assertEquals(Account.AccountStatus.INACTIVE, account.getStatus());
         verify(accountRepository).save(account);
+        verify(eventPublisher).publishEvent(new AccountStatusChangedEvent(1L, 100L));
     }
 
     @Test
@@ -0,0 +1,148 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.dto.AccountRequest;
+import org.banking.account.dto.AccountResponse;
+import org.banking.account.dto.AccountSummary;
+import org.banking.account.dto.BalanceChangedEvent;
+import org.banking.account.dto.TransactionRequest;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.AccountSummaryRepository;
+import org.banking.account.service.AccountService;
+import org.banking.account.service.AccountSummaryService;
+import org.banking.account.service.JournalPosting;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+public class AccountSummaryServiceTest {
+
+    @Autowired
+    private AccountSummaryService summaryService;
+
+    @Autowired
+    private AccountSummaryRepository summaryRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void balanceEventsKeepSummaryInStepWithTheJournal() throws InterruptedException {
+        long userId = 9001L;
+        AccountResponse checking = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "100.00"));
+        AccountResponse savings = accountService.createAccount(userId, request(Account.AccountType.SAVINGS, null));
+
+        TransactionRequest transfer = new TransactionRequest();
+        transfer.setFromAccountNumber(checking.getAccountNumber());
+        transfer.setToAccountNumber(savings.getAccountNumber());
+        transfer.setAmount(new BigDecimal("30.00"));
+        accountService.transfer(transfer, userId);
+
+        AccountSummary applied = await(userId, summary -> summary.getRecentActivity().size() == 3);
+        assertThat(balances(applied)).containsEntry(checking.getAccountNumber(), new BigDecimal("70.00"))
+                .containsEntry(savings.getAccountNumber(), new BigDecimal("30.00"));
+        assertThat(applied.getRecentActivity().get(0).getEntryType()).isEqualTo("TRANSFER");
+
+        AccountSummary rebuilt = summaryService.rebuild(userId);
+        assertThat(balances(rebuilt)).isEqualTo(balances(applied));
+        assertThat(rebuilt.getRecentActivity()).hasSize(3);
+        assertThat(summaryService.summary(userId).getAccounts()).hasSize(2);
+    }
+
+    @Test
+    void replayedAndStaleEventsAreIgnored() throws InterruptedException {
+        long userId = 9002L;
+        AccountResponse created = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "50.00"));
+        await(userId, summary -> summary.getRecentActivity().size() == 1);
+
+        Account account = accountRepository.findByAccountNumber(created.getAccountNumber()).orElseThrow();
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.DEPOSIT, "REPLAY", "Replayed deposit")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(), "USD", new BigDecimal("5.00"))
+                .balance(JournalLeg.Ledger.EXTERNAL, null, "USD");
+        publish(new BalanceChangedEvent(userId, account, null, posting));
+        publish(new BalanceChangedEvent(userId, account, null, posting));
+
+        Account stale = accountRepository.findByAccountNumber(created.getAccountNumber()).orElseThrow();
+        stale.setVersion(stale.getVersion() - 1);
+        stale.setBalance(new BigDecimal("1.00"));
+        JournalPosting marker = JournalPosting.of(JournalEntry.EntryType.DEPOSIT, "MARKER", "After the replays")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(), "USD", new BigDecimal("1.00"))
+                .balance(JournalLeg.Ledger.EXTERNAL, null, "USD");
+        publish(new BalanceChangedEvent(userId, stale, null, marker));
+
+        // Events for one user are applied in order, so the replays are done once the marker shows up
+        AccountSummary summary = await(userId, s -> s.getRecentActivity().stream()
+                .anyMatch(item -> "MARKER".equals(item.getReference())));
+        assertThat(summary.getRecentActivity()).filteredOn(item -> "REPLAY".equals(item.getReference())).hasSize(1);
+        assertThat(balances(summary)).containsEntry(created.getAccountNumber(), new BigDecimal("50.00"));
+    }
+
+    @Test
+    void rebuildTakesBalancesFromTheAccountRows() throws InterruptedException {
+        long userId = 9003L;
+        AccountResponse created = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "80.00"));
+        await(userId, summary -> summary.getRecentActivity().size() == 1);
+
+        // A balance change that never reached the journal still shows, as it does in events
+        Account account = accountRepository.findByAccountNumber(created.getAccountNumber()).orElseThrow();
+        account.setBalance(new BigDecimal("95.00"));
+        accountRepository.save(account);
+
+        assertThat(balances(summaryService.rebuild(userId)))
+                .containsEntry(created.getAccountNumber(), new BigDecimal("95.00"));
+    }
+
+    // Events are published inside the changing transaction, as the services do
+    private void publish(BalanceChangedEvent event) {
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(event));
+    }
+
+    private AccountSummary await(long userId, Predicate<AccountSummary> condition) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (summaryRepository.existsById(userId)) {
+                AccountSummary summary = summaryService.summary(userId);
+                if (condition.test(summary)) {
+                    return summary;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Summary of user " + userId + " was not updated in time");
+    }
+
+    private static Map<String, BigDecimal> balances(AccountSummary summary) {
+        return summary.getAccounts().stream().collect(Collectors.toMap(
+                AccountSummary.AccountItem::getAccountNumber, item -> item.getBalance().setScale(2)));
+    }
+
+    private static AccountRequest request(Account.AccountType type, String initialDeposit) {
+        AccountRequest request = new AccountRequest();
+        request.setType(type);
+        request.setInitialDeposit(initialDeposit);
+        return request;
+    }
+}
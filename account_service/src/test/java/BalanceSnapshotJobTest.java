@@ -0,0 +1,148 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.dto.AccountRequest;
+import org.banking.account.dto.AccountStatement;
+import org.banking.account.dto.TransactionRequest;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.exception.InvalidStatementPeriodException;
+import org.banking.account.service.AccountService;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.service.BalanceSnapshotJob;
+import org.banking.account.service.JournalPosting;
+import org.banking.account.service.JournalService;
+import org.banking.account.service.StatementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+public class BalanceSnapshotJobTest {
+
+    @Autowired
+    private BalanceSnapshotJob snapshotJob;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void snapshotsCarryForwardAndStatementsStartFromThem() {
+        AccountRequest request = new AccountRequest();
+        request.setType(Account.AccountType.CHECKING);
+        request.setInitialDeposit("100.00");
+        Account account = accountService.getAccountById(accountService.createAccount(31L, request).getId());
+        LocalDate today = LocalDate.now();
+
+        assertThat(snapshotJob.snapshotDay(today, true)).isPositive();
+        snapshotJob.snapshotDay(today.plusDays(1), false);
+
+        BigDecimal carried = jdbcTemplate.queryForObject(
+                "SELECT closing_balance FROM balance_snapshots WHERE ledger = 'CUSTOMER_FIAT' AND account_id = ? AND snapshot_date = ?",
+                BigDecimal.class, account.getId(), java.sql.Date.valueOf(today.plusDays(1)));
+        assertThat(carried).isEqualByComparingTo("100.00");
+
+        AccountStatement later = statementService.statement(account, today.plusDays(2), today.plusDays(2));
+        AccountStatement.Section fiat = later.getSections().get(0);
+        assertThat(fiat.getOpeningBalance()).isEqualByComparingTo("100.00");
+        assertThat(fiat.getClosingBalance()).isEqualByComparingTo("100.00");
+        assertThat(fiat.getLines()).isEmpty();
+
+        AccountStatement opening = statementService.statement(account, today, today);
+        fiat = opening.getSections().get(0);
+        assertThat(fiat.getOpeningBalance()).isEqualByComparingTo("0");
+        assertThat(fiat.getLines()).hasSize(1);
+        assertThat(fiat.getClosingBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void statement_AccountOpenedBeforeItsFirstMovement_StartsFromTheOpeningBalance() {
+        LocalDate opened = LocalDate.now().minusDays(5);
+        LocalDate today = LocalDate.now();
+
+        // Provisioned on registration: the account row and its OPENING_BALANCE entry, five days ago
+        Account account = new Account();
+        account.setUserId(32L);
+        account.setAccountNumber("REG-32");
+        account.setType(Account.AccountType.TRADING);
+        account.setStatus(Account.AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("3500.00"));
+        account = accountRepository.save(account);
+        JournalPosting openingBalance = JournalPosting.of(JournalEntry.EntryType.OPENING_BALANCE,
+                        account.getAccountNumber(), "Opening balance")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, account.getId(), "USD", new BigDecimal("3500"))
+                .balance(JournalLeg.Ledger.EXTERNAL, null, "USD");
+        journalService.record(openingBalance);
+        Timestamp openedAt = Timestamp.valueOf(opened.atTime(9, 0));
+        jdbcTemplate.update("UPDATE journal_entries SET created_at = ? WHERE id = ?", openedAt, openingBalance.getId());
+        jdbcTemplate.update("UPDATE journal_legs SET created_at = ? WHERE entry_id = ?", openedAt, openingBalance.getId());
+
+        // The first movement after it comes today
+        TransactionRequest withdrawal = new TransactionRequest();
+        withdrawal.setFromAccountNumber(account.getAccountNumber());
+        withdrawal.setAmount(new BigDecimal("500.00"));
+        accountService.withdraw(withdrawal, 32L);
+
+        AccountStatement.Section quiet = statementService.statement(account, opened.plusDays(1), opened.plusDays(2))
+                .getSections().get(0);
+        assertThat(quiet.getOpeningBalance()).isEqualByComparingTo("3500.00");
+        assertThat(quiet.getClosingBalance()).isEqualByComparingTo("3500.00");
+        assertThat(quiet.getLines()).isEmpty();
+
+        AccountStatement.Section first = statementService.statement(account, opened, opened).getSections().get(0);
+        assertThat(first.getOpeningBalance()).isEqualByComparingTo("0");
+        assertThat(first.getLines()).singleElement()
+                .satisfies(line -> assertThat(line.getEntryType()).isEqualTo("OPENING_BALANCE"));
+
+        // Before any snapshot covers the account, and again once the nightly runs have caught up
+        assertTodayMatchesTheAccount(account);
+        snapshotJob.snapshotDay(opened, true);
+        for (LocalDate day = opened.plusDays(1); day.isBefore(today); day = day.plusDays(1)) {
+            snapshotJob.snapshotDay(day, false);
+        }
+        assertTodayMatchesTheAccount(account);
+    }
+
+    private void assertTodayMatchesTheAccount(Account account) {
+        LocalDate today = LocalDate.now();
+        AccountStatement.Section fiat = statementService.statement(account, today, today).getSections().get(0);
+        assertThat(fiat.getOpeningBalance()).isEqualByComparingTo("3500.00");
+        assertThat(fiat.getLines()).singleElement()
+                .satisfies(line -> assertThat(line.getAmount()).isEqualByComparingTo("-500.00"));
+        assertThat(fiat.getClosingBalance())
+                .isEqualByComparingTo(accountRepository.findById(account.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void statement_PeriodTooLong_IsRejected() {
+        Account account = new Account();
+        LocalDate from = LocalDate.of(2020, 1, 1);
+
+        assertThatThrownBy(() -> statementService.statement(account, from, from.plusYears(2)))
+                .isInstanceOf(InvalidStatementPeriodException.class);
+    }
+}
@@ -0,0 +1,219 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.entity.Account;
+import org.banking.account.exception.IdempotencyConflictException;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.service.BulkTransferService;
+import org.banking.account.service.IdempotencyService;
+import org.banking.account.service.JournalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+class BulkTransferServiceTest {
+
+    private static final AtomicLong USER_IDS = new AtomicLong(7300);
+
+    @Autowired
+    private BulkTransferService bulkTransferService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private JournalService journalService;
+
+    private long userId;
+    private String source;
+    private String target;
+    private String otherUsers;
+
+    @BeforeEach
+    void setUp() {
+        userId = USER_IDS.incrementAndGet();
+        source = account(userId, "1000.00", Account.AccountStatus.ACTIVE);
+        target = account(userId + 1000, "0.00", Account.AccountStatus.ACTIVE);
+        otherUsers = account(userId + 2000, "500.00", Account.AccountStatus.ACTIVE);
+        ReflectionTestUtils.setField(bulkTransferService, "chunkSize", 2);
+    }
+
+    @Test
+    void prepare_RejectsMalformedAndInvalidLines() throws Exception {
+        String inactive = account(userId, Account.AccountType.SAVINGS, "100.00", Account.AccountStatus.FROZEN);
+
+        BulkTransferService.Plan plan = bulkTransferService.prepare(userId, csv(
+                "fromAccountNumber,toAccountNumber,amount,reference",
+                source + "," + target + ",10.00,rent",
+                "",
+                source + "," + target,
+                source + "," + source + ",1.00",
+                source + "," + target + ",abc",
+                source + "," + target + ",1.001",
+                source + "," + target + ",-5",
+                "NOPE," + target + ",1.00",
+                otherUsers + "," + target + ",1.00",
+                inactive + "," + target + ",1.00",
+                source + "," + target + ",2.50"));
+
+        assertThat(plan.instructions()).extracting(BulkTransferService.Instruction::line).containsExactly(2, 12);
+        assertThat(plan.instructions().get(0).reference()).isEqualTo("rent");
+        assertThat(plan.rejected()).extracting(BulkTransferService.LineResult::line)
+                .containsExactlyInAnyOrder(4, 5, 6, 7, 8, 9, 10, 11);
+        assertThat(plan.rejected()).allMatch(r -> r.status() == BulkTransferService.LineResult.Status.REJECTED);
+        assertThat(messageFor(plan, 9)).isEqualTo("Account not found: NOPE");
+        assertThat(messageFor(plan, 10)).startsWith("You are not the owner");
+        assertThat(messageFor(plan, 11)).isEqualTo("Cannot transfer from inactive account");
+    }
+
+    @Test
+    void apply_RunsInChunksAndReportsEveryLine() throws Exception {
+        BulkTransferService.Plan plan = bulkTransferService.prepare(userId, csv(
+                source + "," + target + ",100.00",
+                source + "," + target + ",200.00",
+                source + "," + target + ",900.00",
+                "NOPE," + target + ",1.00",
+                source + "," + target + ",50.00"));
+
+        List<String> report = apply(plan);
+
+        assertThat(report).containsExactly(
+                "line,status,message",
+                "4,REJECTED,Account not found: NOPE",
+                "1,APPLIED,",
+                "2,APPLIED,",
+                "3,FAILED,Insufficient funds",
+                "5,APPLIED,");
+        assertThat(balance(source)).isEqualByComparingTo("650.00");
+        assertThat(balance(target)).isEqualByComparingTo("350.00");
+        // One balance change per applied line and account, as for single transfers
+        assertThat(balanceChanges(source)).isEqualTo(3);
+        assertThat(balanceChanges(target)).isEqualTo(3);
+    }
+
+    @Test
+    void apply_FailedChunk_IsReportedAndLaterChunksStillRun() throws Exception {
+        doThrow(new IllegalStateException("journal unavailable")).doCallRealMethod()
+                .when(journalService).recordAll(anyList());
+        BulkTransferService.Plan plan = bulkTransferService.prepare(userId, csv(
+                source + "," + target + ",100.00",
+                source + "," + target + ",200.00",
+                source + "," + target + ",300.00"));
+
+        List<String> report = apply(plan);
+
+        assertThat(report).containsExactly(
+                "line,status,message",
+                "1,FAILED,journal unavailable",
+                "2,FAILED,journal unavailable",
+                "3,APPLIED,");
+        // The failed chunk rolled back as a whole
+        assertThat(balance(source)).isEqualByComparingTo("700.00");
+        assertThat(balance(target)).isEqualByComparingTo("300.00");
+        assertThat(balanceChanges(source)).isEqualTo(1);
+    }
+
+    @Test
+    void applyAll_UnderAnIdempotencyKey_AppliesOnceAndReplaysTheReport() {
+        byte[] upload = String.join("\n", source + "," + target + ",100.00", source + "," + target + ",5.00")
+                .getBytes(StandardCharsets.UTF_8);
+
+        String first = idempotencyService.executeInSteps(userId, "transfer/bulk", "bulk-1", upload, String.class,
+                checkpoint -> bulkTransferService.applyAll(userId, upload, checkpoint));
+        String replayed = idempotencyService.executeInSteps(userId, "transfer/bulk", "bulk-1", upload, String.class,
+                checkpoint -> bulkTransferService.applyAll(userId, upload, checkpoint));
+
+        assertThat(replayed).isEqualTo(first);
+        assertThat(first.lines().toList()).containsExactly("line,status,message", "1,APPLIED,", "2,APPLIED,");
+        assertThat(balance(source)).isEqualByComparingTo("895.00");
+    }
+
+    @Test
+    void applyAll_RetryAfterAnAbortedUpload_ResumesAfterTheCommittedChunks() {
+        byte[] upload = String.join("\n", source + "," + target + ",100.00", "NOPE," + target + ",1.00",
+                source + "," + target + ",200.00", source + "," + target + ",300.00").getBytes(StandardCharsets.UTF_8);
+        doCallRealMethod().doThrow(new IdempotencyConflictException("Idempotency claim was lost"))
+                .when(journalService).recordAll(anyList());
+
+        assertThatThrownBy(() -> idempotencyService.executeInSteps(userId, "transfer/bulk", "bulk-2", upload,
+                String.class, checkpoint -> bulkTransferService.applyAll(userId, upload, checkpoint)))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(balance(source)).isEqualByComparingTo("700.00");
+
+        // The lease of the aborted attempt runs out, but its committed chunk keeps the key
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = ? WHERE id LIKE ?",
+                LocalDateTime.now().minusMinutes(1), userId + ":transfer/bulk:%");
+        doCallRealMethod().when(journalService).recordAll(anyList());
+        String report = idempotencyService.executeInSteps(userId, "transfer/bulk", "bulk-2", upload, String.class,
+                checkpoint -> bulkTransferService.applyAll(userId, upload, checkpoint));
+
+        assertThat(report.lines().toList()).containsExactly(
+                "line,status,message", "2,REJECTED,Account not found: NOPE", "1,APPLIED,", "3,APPLIED,", "4,APPLIED,");
+        assertThat(balance(source)).isEqualByComparingTo("400.00");
+        assertThat(balance(target)).isEqualByComparingTo("600.00");
+    }
+
+    private List<String> apply(BulkTransferService.Plan plan) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bulkTransferService.apply(plan, output);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private String account(long owner, String balance, Account.AccountStatus status) {
+        return account(owner, Account.AccountType.CHECKING, balance, status);
+    }
+
+    private String account(long owner, Account.AccountType type, String balance, Account.AccountStatus status) {
+        Account account = new Account();
+        account.setUserId(owner);
+        account.setAccountNumber("BULK" + USER_IDS.incrementAndGet());
+        account.setType(type);
+        account.setStatus(status);
+        account.setBalance(new BigDecimal(balance));
+        return accountRepository.save(account).getAccountNumber();
+    }
+
+    private int balanceChanges(String accountNumber) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox WHERE payload LIKE ? AND payload LIKE ?",
+                Integer.class, "%\"" + accountNumber + "\"%", "%\"TRANSFER\"%");
+    }
+
+    private BigDecimal balance(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance();
+    }
+
+    private static String messageFor(BulkTransferService.Plan plan, int line) {
+        return plan.rejected().stream().filter(r -> r.line() == line).findFirst().orElseThrow().message();
+    }
+
+    private static ByteArrayInputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
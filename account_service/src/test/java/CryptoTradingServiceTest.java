@@ -2,6 +2,10 @@
 
 import org.banking.account.entity.Account;
 import org.banking.account.service.AccountService;
+import org.banking.account.service.IdGenerator;
+import org.banking.account.service.JournalService;
+import org.banking.crypto.dto.FeeQuote;
+import org.banking.crypto.dto.LotConsumption;
 import org.banking.crypto.entity.CryptoAccount;
 import org.banking.crypto.entity.CryptoTransaction;
 import org.banking.crypto.exception.*;
@@ -9,12 +13,15 @@ import org.banking.crypto.repository.CryptoAccountRepository;
 import org.banking.crypto.repository.CryptoTransactionRepository;
 import org.banking.crypto.service.CoinGeckoService;
 import org.banking.crypto.service.CryptoTradingService;
+import org.banking.crypto.service.FeeScheduleService;
+import org.banking.crypto.service.TaxLotService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -40,6 +47,21 @@ class CryptoTradingServiceTest {
     @Mock
     private CoinGeckoService coinGeckoService;
 
+    @Mock
+    private TaxLotService taxLotService;
+
+    @Mock
+    private FeeScheduleService feeScheduleService;
+
+    @Mock
+    private JournalService journalService;
+
+    @Mock
+    private IdGenerator idGenerator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CryptoTradingService cryptoTradingService;
 
@@ -62,6 +84,9 @@ class CryptoTradingServiceTest {
         cryptoAccount.setAvailableBalance(new BigDecimal("1.5"));
         cryptoAccount.setAverageBuyPrice(new BigDecimal("45000.00"));
         cryptoAccount.setTotalInvested(new BigDecimal("67500.00"));
+
+        lenient().when(feeScheduleService.quote(anyLong(), anyString(), any(), any(), any()))
+                .thenReturn(new FeeQuote(new BigDecimal("0.50"), BigDecimal.ZERO, BigDecimal.ZERO, "DEFAULT", null));
     }
 
     // ========== EXECUTE BUY ORDER TESTS ==========
@@ -164,6 +189,8 @@ class CryptoTradingServiceTest {
                 .thenReturn(Optional.of(cryptoAccount));
         when(cryptoAccountRepository.save(any(CryptoAccount.class))).thenReturn(cryptoAccount);
         when(cryptoTransactionRepository.save(any(CryptoTransaction.class))).thenReturn(new CryptoTransaction());
+        when(taxLotService.consume(cryptoAccount, new BigDecimal("0.5")))
+                .thenReturn(new LotConsumption(new BigDecimal("20000.00"), new BigDecimal("0.5"), BigDecimal.ZERO, 1));
 
         // Act
         CryptoTransaction result = cryptoTradingService.executeSellOrder(1L, "BTC",
@@ -173,6 +200,26 @@ class CryptoTradingServiceTest {
         assertNotNull(result);
         verify(cryptoAccountRepository, times(1)).save(cryptoAccount);
         verify(cryptoTransactionRepository).save(any(CryptoTransaction.class));
+        verify(taxLotService).consume(cryptoAccount, new BigDecimal("0.5"));
+    }
+
+    @Test
+    void executeSellOrder_HoldingWithoutLots_FallsBackToAverageBuyPrice() {
+        // Arrange
+        when(accountService.getAccountById(1L)).thenReturn(account);
+        when(coinGeckoService.getSinglePrice("bitcoin", "usd")).thenReturn(new BigDecimal("50000.00"));
+        when(cryptoAccountRepository.findByAccountIdAndCryptoCurrency(1L, "BTC"))
+                .thenReturn(Optional.of(cryptoAccount));
+        when(cryptoTransactionRepository.save(any(CryptoTransaction.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(taxLotService.consume(cryptoAccount, new BigDecimal("0.5")))
+                .thenReturn(new LotConsumption(BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("0.5"), 0));
+
+        // Act
+        CryptoTransaction result = cryptoTradingService.executeSellOrder(1L, "BTC",
+                new BigDecimal("0.5"), "USD");
+
+        // Assert: 0.5 * 50000 - 0.50 fee - 0.5 * 45000 average cost = 2499.50
+        assertTrue(result.getDescription().contains("Profit: 2499.5"));
     }
 
     @Test
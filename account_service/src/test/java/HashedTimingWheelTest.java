@@ -0,0 +1,74 @@
+import org.banking.account.utils.HashedTimingWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private final List<Integer> expired = new CopyOnWriteArrayList<>();
+    private HashedTimingWheel<Integer> wheel;
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void schedule_ExpiresInDeadlineOrder() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        wheel = new HashedTimingWheel<>("test-wheel", Duration.ofMillis(10), 8, item -> {
+            expired.add(item);
+            latch.countDown();
+        });
+        wheel.start();
+
+        Instant now = Instant.now();
+        // 300ms is more than one full rotation of an 8 x 10ms wheel
+        wheel.schedule(3, now.plusMillis(300));
+        wheel.schedule(1, now.plusMillis(20));
+        wheel.schedule(2, now.plusMillis(120));
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), expired);
+    }
+
+    @Test
+    void cancel_PreventsExpiry() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel = new HashedTimingWheel<>("test-wheel", Duration.ofMillis(10), 8, item -> {
+            expired.add(item);
+            latch.countDown();
+        });
+        wheel.start();
+
+        Instant now = Instant.now();
+        wheel.schedule(1, now.plusMillis(50)).cancel();
+        wheel.schedule(2, now.plusMillis(100));
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(2), expired);
+    }
+
+    @Test
+    void schedule_PastDeadline_ExpiresOnNextTick() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel = new HashedTimingWheel<>("test-wheel", Duration.ofMillis(10), 8, item -> {
+            expired.add(item);
+            latch.countDown();
+        });
+        wheel.start();
+
+        wheel.schedule(7, Instant.now().minusSeconds(60));
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of(7), expired);
+    }
+}
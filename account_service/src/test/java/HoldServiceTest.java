@@ -0,0 +1,236 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.dto.AccountRequest;
+import org.banking.account.dto.AccountResponse;
+import org.banking.account.dto.HoldRequest;
+import org.banking.account.dto.HoldResponse;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.FundsHold;
+import org.banking.account.entity.Transaction;
+import org.banking.account.exception.AccountInactiveException;
+import org.banking.account.exception.HoldStateException;
+import org.banking.account.exception.InsufficientFundsException;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.FundsHoldRepository;
+import org.banking.account.repository.TransactionRepository;
+import org.banking.account.service.AccountService;
+import org.banking.account.service.HoldService;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.repository.CryptoAccountRepository;
+import org.banking.crypto.repository.CryptoTransactionRepository;
+import org.banking.crypto.service.TaxLotService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+class HoldServiceTest {
+
+    private static final AtomicLong USER_IDS = new AtomicLong(7100);
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private FundsHoldRepository fundsHoldRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CryptoAccountRepository cryptoAccountRepository;
+
+    @Autowired
+    private CryptoTransactionRepository cryptoTransactionRepository;
+
+    @Autowired
+    private TaxLotService taxLotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void placeHold_MovesFundsFromAvailableToHeld() {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "500.00"));
+
+        HoldResponse hold = holdService.placeHold(userId, holdRequest(account.getAccountNumber(), "200.00"));
+
+        assertThat(hold.getStatus()).isEqualTo("ACTIVE");
+        Account reloaded = reload(account);
+        assertThat(reloaded.getBalance()).isEqualByComparingTo("500.00");
+        assertThat(reloaded.getHeldBalance()).isEqualByComparingTo("200.00");
+        assertThat(reloaded.getAvailableBalance()).isEqualByComparingTo("300.00");
+
+        assertThrows(InsufficientFundsException.class,
+                () -> holdService.placeHold(userId, holdRequest(account.getAccountNumber(), "300.01")));
+    }
+
+    @Test
+    void capture_TakesTheHeldAmountAndRecordsAWithdrawal() {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "500.00"));
+        HoldResponse hold = holdService.placeHold(userId, holdRequest(account.getAccountNumber(), "200.00"));
+
+        HoldResponse captured = holdService.capture(userId, hold.getId());
+
+        assertThat(captured.getStatus()).isEqualTo("CAPTURED");
+        assertThat(captured.getResolvedAt()).isNotNull();
+        Account reloaded = reload(account);
+        assertThat(reloaded.getBalance()).isEqualByComparingTo("300.00");
+        assertThat(reloaded.getHeldBalance()).isEqualByComparingTo("0.00");
+        List<Transaction> withdrawals = transactionRepository.findByAccountIdOrderByCreatedAtDesc(reloaded.getId()).stream()
+                .filter(t -> t.getType() == Transaction.TransactionType.WITHDRAWAL)
+                .toList();
+        assertThat(withdrawals).singleElement()
+                .satisfies(t -> assertThat(t.getAmount()).isEqualByComparingTo("200.00"));
+        assertThat(balanceChanges(reloaded.getId(), "HOLD_CAPTURE")).isEqualTo(1);
+    }
+
+    @Test
+    void capture_CryptoHold_RecordsACryptoWithdrawal() {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.TRADING, "100.00"));
+        CryptoAccount wallet = wallet(account, "2.0");
+        taxLotService.recordLot(wallet, null, new BigDecimal("1.0"), new BigDecimal("40000"));
+        taxLotService.recordLot(wallet, null, new BigDecimal("1.0"), new BigDecimal("50000"));
+
+        HoldRequest request = holdRequest(null, "0.5");
+        request.setCryptoCurrency("btc");
+        HoldResponse hold = holdService.placeHold(userId, request);
+        CryptoAccount locked = cryptoAccountRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(locked.getAvailableBalance()).isEqualByComparingTo("1.5");
+        assertThat(locked.getLockedBalance()).isEqualByComparingTo("0.5");
+
+        holdService.capture(hold.getId());
+
+        CryptoAccount captured = cryptoAccountRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(captured.getBalance()).isEqualByComparingTo("1.5");
+        assertThat(captured.getLockedBalance()).isEqualByComparingTo("0");
+        List<CryptoTransaction> transactions = cryptoTransactionRepository.findByAccountIdAndCryptoCurrency(
+                account.getId(), "BTC");
+        assertThat(transactions).singleElement().satisfies(t -> {
+            assertThat(t.getTransactionType()).isEqualTo(CryptoTransaction.TransactionType.WITHDRAWAL);
+            assertThat(t.getCryptoAmount()).isEqualByComparingTo("0.5");
+            assertThat(t.getCryptoBalanceBefore()).isEqualByComparingTo("2.0");
+            assertThat(t.getCryptoBalanceAfter()).isEqualByComparingTo("1.5");
+            assertThat(t.getReference()).isEqualTo("order-1");
+        });
+        assertThat(balanceChanges(account.getId(), "HOLD_CAPTURE")).isEqualTo(1);
+        // The captured coins close lots like a sale, so the open lots still add up to the holding
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(remaining_quantity) FROM crypto_lots WHERE crypto_account_id = ?",
+                BigDecimal.class, wallet.getId())).isEqualByComparingTo("1.5");
+    }
+
+    @Test
+    void placeHold_CryptoOnInactiveAccount_IsRejected() {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.TRADING, "100.00"));
+        CryptoAccount wallet = wallet(account, "2.0");
+        Account frozen = reload(account);
+        frozen.setStatus(Account.AccountStatus.FROZEN);
+        accountRepository.save(frozen);
+
+        assertThrows(AccountInactiveException.class, () -> holdService.placeCryptoHold(frozen.getId(), "BTC",
+                new BigDecimal("0.5"), Duration.ofMinutes(15), "order-1"));
+        assertThat(cryptoAccountRepository.findById(wallet.getId()).orElseThrow().getLockedBalance())
+                .isEqualByComparingTo("0");
+    }
+
+    @Test
+    void release_ReturnsTheHeldAmountToAvailable() {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "500.00"));
+        HoldResponse hold = holdService.placeHold(userId, holdRequest(account.getAccountNumber(), "200.00"));
+
+        HoldResponse released = holdService.release(userId, hold.getId());
+
+        assertThat(released.getStatus()).isEqualTo("RELEASED");
+        assertThat(balanceChanges(account.getId(), "HOLD_CAPTURE")).isZero();
+        Account reloaded = reload(account);
+        assertThat(reloaded.getBalance()).isEqualByComparingTo("500.00");
+        assertThat(reloaded.getAvailableBalance()).isEqualByComparingTo("500.00");
+    }
+
+    @Test
+    void sweepExpired_ReleasesOverdueHolds() throws InterruptedException {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "500.00"));
+        FundsHold hold = holdService.placeFiatHold(reload(account), new BigDecimal("200.00"),
+                Duration.ofMillis(1), "order-1");
+        Thread.sleep(20);
+
+        holdService.sweepExpired();
+
+        assertThat(fundsHoldRepository.findById(hold.getId()).orElseThrow().getStatus())
+                .isEqualTo(FundsHold.HoldStatus.EXPIRED);
+        assertThat(reload(account).getAvailableBalance()).isEqualByComparingTo("500.00");
+    }
+
+    @Test
+    void resolve_AlreadyResolvedHold_IsRejected() {
+        long userId = USER_IDS.incrementAndGet();
+        AccountResponse account = accountService.createAccount(userId, request(Account.AccountType.CHECKING, "500.00"));
+        HoldResponse hold = holdService.placeHold(userId, holdRequest(account.getAccountNumber(), "200.00"));
+        holdService.capture(userId, hold.getId());
+
+        assertThrows(HoldStateException.class, () -> holdService.capture(userId, hold.getId()));
+        assertThrows(HoldStateException.class, () -> holdService.release(userId, hold.getId()));
+        assertThat(reload(account).getBalance()).isEqualByComparingTo("300.00");
+    }
+
+    // Balance changes reach the outbox synchronously, inside the changing transaction
+    private int balanceChanges(Long accountId, String entryType) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox WHERE aggregate_id = ? AND payload LIKE ?",
+                Integer.class, String.valueOf(accountId), "%\"" + entryType + "\"%");
+    }
+
+    private CryptoAccount wallet(AccountResponse account, String balance) {
+        CryptoAccount wallet = new CryptoAccount();
+        wallet.setAccount(reload(account));
+        wallet.setCryptoCurrency("BTC");
+        wallet.setBalance(new BigDecimal(balance));
+        wallet.setAvailableBalance(new BigDecimal(balance));
+        return cryptoAccountRepository.save(wallet);
+    }
+
+    private Account reload(AccountResponse account) {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow();
+    }
+
+    private static HoldRequest holdRequest(String accountNumber, String amount) {
+        HoldRequest request = new HoldRequest();
+        request.setAccountNumber(accountNumber);
+        request.setAmount(new BigDecimal(amount));
+        request.setExpiresInSeconds(900);
+        request.setReference("order-1");
+        return request;
+    }
+
+    private static AccountRequest request(Account.AccountType type, String initialDeposit) {
+        AccountRequest request = new AccountRequest();
+        request.setType(type);
+        request.setInitialDeposit(initialDeposit);
+        return request;
+    }
+}
@@ -0,0 +1,183 @@
+import org.banking.account.service.IdGenerator;
+import org.banking.account.service.NodeIdLease;
+import org.banking.account.utils.Luhn;
+import org.banking.account.utils.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class IdGeneratorTest {
+
+    @Test
+    void nextId_ConcurrentCallers_NeverRepeat() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void nextId_FrozenOrBackwardsClock_StaysIncreasing() {
+        long[] now = {SnowflakeIdGenerator.EPOCH_MILLIS + 1000};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () -> now[0]);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5000) {
+                now[0] -= 500;
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(3, SnowflakeIdGenerator.nodeId(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_DifferentNodes_DoNotCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1, () -> SnowflakeIdGenerator.EPOCH_MILLIS);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2, () -> SnowflakeIdGenerator.EPOCH_MILLIS);
+
+        assertNotEquals(first.nextId(), second.nextId());
+    }
+
+    @Test
+    void constructor_NodeIdOutOfRange_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    void luhn_KnownValues() {
+        assertEquals(3, Luhn.checkDigit("7992739871"));
+        assertTrue(Luhn.isValid("79927398713"));
+        assertFalse(Luhn.isValid("79927398710"));
+    }
+
+    @Test
+    void nextAccountNumber_HasValidCheckDigit() {
+        IdGenerator generator = new IdGenerator(5);
+
+        String accountNumber = generator.nextAccountNumber();
+
+        assertTrue(accountNumber.matches("ACC\\d{20}"));
+        assertTrue(Luhn.isValid(accountNumber.substring(3)));
+        assertNotEquals(accountNumber, generator.nextAccountNumber());
+    }
+
+    @Test
+    void constructor_ConfiguredNodeId_NeverLeases() {
+        NodeIdLease lease = mock(NodeIdLease.class);
+
+        IdGenerator generator = new IdGenerator(9, lease);
+        generator.renewLease();
+
+        assertEquals(9, generator.nodeId());
+        verifyNoInteractions(lease);
+    }
+
+    @Test
+    void constructor_WithoutNodeId_LeasesOneAndRenewsIt() {
+        NodeIdLease lease = lease();
+        when(lease.acquire()).thenReturn(17);
+        when(lease.renew(17)).thenReturn(true);
+
+        IdGenerator generator = new IdGenerator(-1, lease);
+        generator.renewLease();
+
+        assertEquals(17, generator.nodeId());
+        assertEquals(17, (generator.nextId() >> 12) & SnowflakeIdGenerator.MAX_NODE_ID);
+        verify(lease).acquire();
+        verify(lease).renew(17);
+    }
+
+    @Test
+    void renewLease_LostLease_SwitchesToANewNodeId() {
+        NodeIdLease lease = lease();
+        when(lease.acquire()).thenReturn(17, 40);
+        when(lease.renew(anyInt())).thenReturn(false);
+
+        IdGenerator generator = new IdGenerator(-1, lease);
+        generator.renewLease();
+
+        assertEquals(40, generator.nodeId());
+        assertEquals(40, (generator.nextId() >> 12) & SnowflakeIdGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    void nextId_AfterTheLeaseCouldHaveExpired_RenewsBeforeGenerating() {
+        long[] now = {0};
+        NodeIdLease lease = lease();
+        when(lease.acquire()).thenReturn(17);
+        when(lease.renew(17)).thenReturn(true);
+        IdGenerator generator = new IdGenerator(-1, lease, () -> now[0]);
+
+        now[0] = Duration.ofSeconds(119).toNanos();
+        generator.nextId();
+        verify(lease, never()).renew(anyInt());
+
+        // A pause longer than the TTL: the scheduled renewal never ran
+        now[0] = Duration.ofSeconds(121).toNanos();
+        long id = generator.nextId();
+
+        verify(lease).renew(17);
+        assertEquals(17, SnowflakeIdGenerator.nodeId(id));
+    }
+
+    @Test
+    void nextId_ExpiredLeaseTakenByAnotherInstance_SwitchesNodeIdFirst() {
+        long[] now = {0};
+        NodeIdLease lease = lease();
+        when(lease.acquire()).thenReturn(17, 40);
+        when(lease.renew(17)).thenReturn(false);
+        IdGenerator generator = new IdGenerator(-1, lease, () -> now[0]);
+
+        now[0] = Duration.ofMinutes(5).toNanos();
+
+        assertEquals(40, SnowflakeIdGenerator.nodeId(generator.nextId()));
+    }
+
+    @Test
+    void nextId_ExpiredLeaseThatCannotBeRenewed_RefusesToGenerate() {
+        long[] now = {0};
+        NodeIdLease lease = lease();
+        when(lease.acquire()).thenReturn(17);
+        when(lease.renew(17)).thenThrow(new DataAccessResourceFailureException("database unavailable"))
+                .thenReturn(true);
+        IdGenerator generator = new IdGenerator(-1, lease, () -> now[0]);
+
+        now[0] = Duration.ofMinutes(5).toNanos();
+
+        assertThrows(IllegalStateException.class, generator::nextAccountNumber);
+        // Once the database is back the lease is renewed and generation resumes
+        assertEquals(17, SnowflakeIdGenerator.nodeId(generator.nextId()));
+    }
+
+    private static NodeIdLease lease() {
+        NodeIdLease lease = mock(NodeIdLease.class);
+        when(lease.ttl()).thenReturn(Duration.ofSeconds(120));
+        return lease;
+    }
+}
@@ -0,0 +1,218 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.banking.AccountServiceApplication;
+import org.banking.account.entity.IdempotencyRecord;
+import org.banking.account.exception.IdempotencyConflictException;
+import org.banking.account.repository.IdempotencyRecordRepository;
+import org.banking.account.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+class IdempotencyServiceTest {
+
+    private static final Long USER_ID = 42L;
+    private static final String ENDPOINT = "transfer";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String key;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void execute_ReplayedKey_ReturnsStoredResponseWithoutRunningAgain() {
+        Receipt first = idempotencyService.execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class,
+                () -> receipt("TX-1"));
+        Receipt replayed = idempotencyService.execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class,
+                () -> receipt("TX-2"));
+
+        assertEquals(first, replayed);
+        assertEquals("TX-1", replayed.reference());
+        assertEquals(1, executions.get());
+
+        // Another node has an empty cache and replays from the table
+        Receipt fromTable = otherNode().execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class,
+                () -> receipt("TX-3"));
+        assertEquals("TX-1", fromTable.reference());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_SameKeyWithDifferentBody_Conflicts() {
+        idempotencyService.execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class, () -> receipt("TX-1"));
+
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(
+                USER_ID, ENDPOINT, key, request("99.00"), Receipt.class, () -> receipt("TX-2")));
+        assertThrows(IdempotencyConflictException.class, () -> otherNode().execute(
+                USER_ID, ENDPOINT, key, request("99.00"), Receipt.class, () -> receipt("TX-2")));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicate_WaitsOnThisNodeAndConflictsOnAnother() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Receipt> original = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return receipt("TX-1");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Receipt> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class,
+                        () -> receipt("TX-2")));
+        assertThrows(IdempotencyConflictException.class, () -> otherNode().execute(
+                USER_ID, ENDPOINT, key, request("25.00"), Receipt.class, () -> receipt("TX-3")));
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+
+        assertEquals("TX-1", original.get(5, TimeUnit.SECONDS).reference());
+        assertEquals("TX-1", duplicate.get(5, TimeUnit.SECONDS).reference());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_FailedFirstAttempt_ReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(
+                USER_ID, ENDPOINT, key, request("25.00"), Receipt.class, () -> {
+                    executions.incrementAndGet();
+                    throw new IllegalStateException("Insufficient funds");
+                }));
+        assertTrue(idempotencyRecordRepository.findAll().stream()
+                .noneMatch(r -> r.getStatus() == IdempotencyRecord.Status.PENDING));
+
+        Receipt retried = idempotencyService.execute(USER_ID, ENDPOINT, key, request("25.00"), Receipt.class,
+                () -> receipt("TX-2"));
+
+        assertEquals("TX-2", retried.reference());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_WithoutKey_AlwaysRuns() {
+        idempotencyService.execute(USER_ID, ENDPOINT, null, request("25.00"), Receipt.class, () -> receipt("TX-1"));
+        idempotencyService.execute(USER_ID, ENDPOINT, " ", request("25.00"), Receipt.class, () -> receipt("TX-2"));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void executeInSteps_StoppedAfterACommittedStep_KeepsTheKeyAndResumesFromIt() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.executeInSteps(
+                USER_ID, ENDPOINT, key, request("25.00"), String.class, checkpoint -> {
+                    assertNull(checkpoint.saved());
+                    step(checkpoint, "step 1");
+                    throw new IllegalStateException("node stopped");
+                }));
+        IdempotencyRecord pending = pendingRecord();
+        assertEquals("step 1", pending.getResponseBody());
+
+        // Still leased by the stopped attempt
+        assertThrows(IdempotencyConflictException.class, () -> otherNode().executeInSteps(
+                USER_ID, ENDPOINT, key, request("25.00"), String.class, checkpoint -> "too early"));
+
+        expireLease(pending);
+        String resumed = otherNode().executeInSteps(USER_ID, ENDPOINT, key, request("25.00"), String.class,
+                checkpoint -> checkpoint.saved() + ", step 2");
+
+        assertEquals("step 1, step 2", resumed);
+        assertEquals("step 1, step 2", idempotencyService.executeInSteps(USER_ID, ENDPOINT, key, request("25.00"),
+                String.class, checkpoint -> "ran again"));
+    }
+
+    @Test
+    void executeInSteps_LeaseTakenOver_RollsBackTheStaleAttemptsNextStep() {
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.executeInSteps(
+                USER_ID, ENDPOINT, key, request("25.00"), String.class, checkpoint -> {
+                    step(checkpoint, "step 1");
+                    // This attempt stalls past its lease and a retry on another node finishes the work
+                    expireLease(pendingRecord());
+                    assertEquals("step 1, step 2", otherNode().executeInSteps(USER_ID, ENDPOINT, key,
+                            request("25.00"), String.class, resumed -> resumed.saved() + ", step 2"));
+
+                    assertThrows(IdempotencyConflictException.class, () -> step(checkpoint, "step 1, stale step 2"));
+                    return "stale";
+                }));
+
+        assertEquals("step 1, step 2", idempotencyService.executeInSteps(USER_ID, ENDPOINT, key, request("25.00"),
+                String.class, checkpoint -> "ran again"));
+    }
+
+    private IdempotencyService otherNode() {
+        return new IdempotencyService(idempotencyRecordRepository, objectMapper, transactionManager, 100, 24, 60);
+    }
+
+    private void step(IdempotencyService.Checkpoint checkpoint, String progress) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> checkpoint.save(progress));
+    }
+
+    private IdempotencyRecord pendingRecord() {
+        return idempotencyRecordRepository.findAll().stream()
+                .filter(r -> r.getStatus() == IdempotencyRecord.Status.PENDING)
+                .findFirst().orElseThrow();
+    }
+
+    private void expireLease(IdempotencyRecord record) {
+        record.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyRecordRepository.save(record);
+    }
+
+    private Receipt receipt(String reference) {
+        executions.incrementAndGet();
+        return new Receipt(reference, new BigDecimal("25.00"));
+    }
+
+    private static Transfer request(String amount) {
+        return new Transfer("ACC-1", "ACC-2", new BigDecimal(amount));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    record Transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+    }
+
+    record Receipt(String reference, BigDecimal amount) {
+    }
+}
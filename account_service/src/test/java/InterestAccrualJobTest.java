@@ -0,0 +1,67 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.dto.AccountRequest;
+import org.banking.account.entity.Account;
+import org.banking.account.service.AccountService;
+import org.banking.account.service.InterestAccrualJob;
+import org.banking.account.service.JournalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = AccountServiceApplication.class, properties = "interest.annual-rate=0.02")
+@ActiveProfiles("test")
+@DirtiesContext
+public class InterestAccrualJobTest {
+
+    @Autowired
+    private InterestAccrualJob interestJob;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void accruesOncePerDayAndCarriesFractionsOfACent() {
+        AccountRequest request = new AccountRequest();
+        request.setType(Account.AccountType.SAVINGS);
+        request.setInitialDeposit("1000.00");
+        Long accountId = accountService.createAccount(41L, request).getId();
+        LocalDate day = LocalDate.now().minusDays(2);
+
+        // 1000.00 * 0.02 / 365 = 0.0547945..., 0.05 posted and the rest carried
+        assertThat(interestJob.accrueDay(day)).isEqualTo(1);
+        assertThat(interestJob.accrueDay(day)).isZero();
+        assertThat(accountService.getAccountById(accountId).getBalance()).isEqualByComparingTo("1000.05");
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT payload FROM outbox
+                WHERE aggregate_id = ? AND routing_key = 'account.balance.changed' AND payload LIKE '%"INTEREST"%'
+                """, String.class, String.valueOf(accountId)))
+                .singleElement().asString().contains("\"balance\":1000.05");
+
+        // 1000.05 * 0.02 / 365 + carry = 0.0595917..., still 0.05
+        interestJob.accrueDay(day.plusDays(1));
+        Account account = accountService.getAccountById(accountId);
+        assertThat(account.getBalance()).isEqualByComparingTo("1000.10");
+
+        Integer interestRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE account_id = ? AND type = 'INTEREST'", Integer.class, accountId);
+        assertThat(interestRows).isEqualTo(2);
+        BigDecimal carry = jdbcTemplate.queryForObject(
+                "SELECT carry FROM interest_carry WHERE account_id = ?", BigDecimal.class, accountId);
+        assertThat(carry).isBetween(new BigDecimal("0.009"), new BigDecimal("0.01"));
+        assertThat(journalService.verify(account).isBalanced()).isTrue();
+    }
+}
@@ -0,0 +1,152 @@
+import org.banking.account.dto.JournalVerification;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.JournalEntry;
+import org.banking.account.entity.JournalLeg;
+import org.banking.account.service.JournalPosting;
+import org.banking.account.service.JournalService;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.repository.CryptoAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JournalServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CryptoAccountRepository cryptoAccountRepository;
+    private JournalService journalService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        cryptoAccountRepository = mock(CryptoAccountRepository.class);
+        // A data source without metadata is treated as non-PostgreSQL, so postings go as two batches
+        journalService = new JournalService(jdbcTemplate, mock(DataSource.class), cryptoAccountRepository);
+    }
+
+    // ========== POSTING TESTS ==========
+
+    @Test
+    void balance_AddsTheOffsettingLegPerCurrency() {
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.CRYPTO_BUY, "42", "Buy")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, 1L, "usd", new BigDecimal("-101.50"))
+                .leg(JournalLeg.Ledger.FEE_INCOME, null, "USD", new BigDecimal("1.50"))
+                .balance(JournalLeg.Ledger.TRADING_DESK, null, "USD")
+                .leg(JournalLeg.Ledger.CUSTOMER_CRYPTO, 7L, "BTC", new BigDecimal("0.002"))
+                .balance(JournalLeg.Ledger.TRADING_DESK, null, "BTC");
+
+        List<JournalPosting.Leg> legs = posting.getLegs();
+        assertEquals(5, legs.size());
+        assertEquals("USD", legs.get(0).currency());
+        assertEquals(new BigDecimal("100.00"), legs.get(2).amount());
+        assertEquals(new BigDecimal("-0.002"), legs.get(4).amount());
+    }
+
+    @Test
+    void leg_ZeroAmount_IsDropped() {
+        JournalPosting posting = JournalPosting.of(JournalEntry.EntryType.DEPOSIT, null, "Deposit")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, 1L, "USD", new BigDecimal("25.00"))
+                .leg(JournalLeg.Ledger.FEE_INCOME, null, "USD", BigDecimal.ZERO)
+                .balance(JournalLeg.Ledger.EXTERNAL, null, "USD");
+
+        assertEquals(2, posting.getLegs().size());
+    }
+
+    @Test
+    void record_UnbalancedPosting_IsRejectedBeforeAnyWrite() {
+        JournalPosting unbalanced = JournalPosting.of(JournalEntry.EntryType.TRANSFER, null, "Transfer")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, 1L, "USD", new BigDecimal("-10.00"))
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, 2L, "USD", new BigDecimal("9.99"));
+        JournalPosting empty = JournalPosting.of(JournalEntry.EntryType.DEPOSIT, null, "Nothing");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> journalService.record(unbalanced));
+        assertTrue(e.getMessage().contains("unbalanced in USD"));
+        assertThrows(IllegalStateException.class, () -> journalService.recordAll(List.of(deposit(1L), empty)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // ========== RECORD TESTS ==========
+
+    @Test
+    void record_WritesTheEntryAndItsLegs() {
+        JournalPosting posting = deposit(1L);
+
+        journalService.record(posting);
+
+        List<Object[]> entries = batch("journal_entries").get(0);
+        assertEquals(1, entries.size());
+        assertEquals(posting.getId(), entries.get(0)[0]);
+        assertEquals("DEPOSIT", entries.get(0)[1]);
+
+        List<Object[]> legs = batch("journal_legs").get(0);
+        assertEquals(2, legs.size());
+        assertEquals("CUSTOMER_FIAT", legs.get(0)[1]);
+        assertEquals(1L, legs.get(0)[2]);
+        assertEquals("EXTERNAL", legs.get(1)[1]);
+        assertEquals(new BigDecimal("-25.00"), legs.get(1)[4]);
+    }
+
+    @Test
+    void recordAll_SplitsLargeBatchesIntoStatementsOfFiveHundred() {
+        List<JournalPosting> postings = new ArrayList<>();
+        for (long i = 0; i < 1001; i++) {
+            postings.add(deposit(i));
+        }
+
+        journalService.recordAll(postings);
+
+        assertEquals(List.of(500, 500, 1), batch("journal_entries").stream().map(List::size).toList());
+        assertEquals(List.of(1000, 1000, 2), batch("journal_legs").stream().map(List::size).toList());
+    }
+
+    // ========== VERIFY TESTS ==========
+
+    @Test
+    void verify_ComparesStoredBalancesWithTheJournal() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber("ACC-1");
+        account.setBalance(new BigDecimal("125.00"));
+        CryptoAccount wallet = new CryptoAccount();
+        wallet.setId(7L);
+        wallet.setCryptoCurrency("BTC");
+        wallet.setBalance(new BigDecimal("0.5"));
+        when(cryptoAccountRepository.findByAccountId(1L)).thenReturn(List.of(wallet));
+        when(jdbcTemplate.queryForObject(anyString(), eq(BigDecimal.class), eq("CUSTOMER_FIAT"), eq(1L)))
+                .thenReturn(new BigDecimal("125.000000000000000000"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(BigDecimal.class), eq("CUSTOMER_CRYPTO"), eq(7L)))
+                .thenReturn(new BigDecimal("0.4"));
+
+        JournalVerification verification = journalService.verify(account);
+
+        assertFalse(verification.isBalanced());
+        assertEquals(2, verification.getChecks().size());
+        assertTrue(verification.getChecks().get(0).isMatches());
+        JournalVerification.Check crypto = verification.getChecks().get(1);
+        assertEquals("BTC", crypto.getCurrency());
+        assertFalse(crypto.isMatches());
+    }
+
+    private static JournalPosting deposit(Long accountId) {
+        return JournalPosting.of(JournalEntry.EntryType.DEPOSIT, null, "Deposit")
+                .leg(JournalLeg.Ledger.CUSTOMER_FIAT, accountId, "USD", new BigDecimal("25.00"))
+                .balance(JournalLeg.Ledger.EXTERNAL, null, "USD");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> batch(String table) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(contains("INTO " + table), rows.capture());
+        return rows.getAllValues();
+    }
+}
@@ -0,0 +1,57 @@
+import org.banking.account.dto.CursorPage;
+import org.banking.account.exception.InvalidCursorException;
+import org.banking.account.utils.KeysetCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_RoundTripsTimestampAndId() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000), 42L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_BlankCursor_ReturnsNull() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+    }
+
+    @Test
+    void decode_Garbage_ThrowsInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void cursorPage_ExtraRow_SetsNextCursorFromLastItem() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+        List<Row> rows = List.of(new Row(3L, now), new Row(2L, now), new Row(1L, now.minusMinutes(1)));
+
+        CursorPage<Row> page = CursorPage.of(rows, 2, Row::createdAt, Row::id);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(new KeysetCursor(now, 2L), KeysetCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void cursorPage_LastPage_HasNoCursor() {
+        List<Row> rows = List.of(new Row(1L, LocalDateTime.now()));
+
+        CursorPage<Row> page = CursorPage.of(rows, 2, Row::createdAt, Row::id);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    private record Row(Long id, LocalDateTime createdAt) {
+    }
+}
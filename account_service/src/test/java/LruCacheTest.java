@@ -0,0 +1,62 @@
+import org.banking.account.utils.LruCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    @Test
+    void put_OverCapacity_EvictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    void get_AfterTtl_ReturnsNull() {
+        MutableClock clock = new MutableClock();
+        LruCache<String, Integer> cache = new LruCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put("a", 1);
+
+        clock.advance(Duration.ofSeconds(29));
+        assertEquals(1, cache.get("a"));
+
+        clock.advance(Duration.ofSeconds(1));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
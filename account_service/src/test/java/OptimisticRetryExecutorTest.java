@@ -0,0 +1,68 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.banking.account.entity.Account;
+import org.banking.account.exception.ConcurrentUpdateException;
+import org.banking.account.service.HotAccountTracker;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private HotAccountTracker hotAccountTracker;
+    private OptimisticRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hotAccountTracker = new HotAccountTracker();
+        retryExecutor = new OptimisticRetryExecutor(meterRegistry, hotAccountTracker, 3, 1, 5);
+    }
+
+    @Test
+    void execute_ConflictThenSuccess_RetriesAndReturnsResult() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retryExecutor.execute("transfer", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, 7L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("account.optimistic.retries").counter().count());
+        assertEquals(2L, hotAccountTracker.top(1).get("Account:7"));
+    }
+
+    @Test
+    void execute_ConflictEveryAttempt_ThrowsConcurrentUpdateException() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () -> retryExecutor.execute("withdraw", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Account.class, 7L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.get("account.optimistic.exhausted").counter().count());
+    }
+
+    @Test
+    void execute_OtherException_IsNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retryExecutor.execute("withdraw", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,209 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.banking.account.service.HotAccountTracker;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.banking.crypto.entity.CryptoTransaction;
+import org.banking.crypto.entity.RecurringBuyPlan;
+import org.banking.crypto.exception.InsufficientFiatBalanceException;
+import org.banking.crypto.service.CryptoTradingService;
+import org.banking.crypto.service.RecurringBuyScheduler;
+import org.banking.crypto.service.RecurringBuyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecurringBuySchedulerTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2024, 1, 31, 9, 0);
+
+    private CryptoTradingService cryptoTradingService;
+    private JdbcTemplate jdbcTemplate;
+    private RecurringBuyScheduler scheduler;
+    private final List<Object[]> duePlans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cryptoTradingService = mock(CryptoTradingService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+
+        // The claim query returns whatever the test put in duePlans, mapped by the scheduler's own row mapper
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> plans = new ArrayList<>();
+            for (Object[] row : duePlans) {
+                plans.add(mapper.mapRow(resultSet(row), plans.size()));
+            }
+            return plans;
+        });
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        OptimisticRetryExecutor retryExecutor =
+                new OptimisticRetryExecutor(new SimpleMeterRegistry(), new HotAccountTracker(), 3, 1, 5);
+        scheduler = new RecurringBuyScheduler(cryptoTradingService, jdbcTemplate, transactionTemplate, retryExecutor, 2);
+        ReflectionTestUtils.setField(scheduler, "nodeId", "node-1");
+        ReflectionTestUtils.setField(scheduler, "claimSize", 100);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 2);
+        ReflectionTestUtils.setField(scheduler, "leaseSeconds", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    // ========== SCHEDULE TESTS ==========
+
+    @Test
+    void nextRunAfter_AdvancesOnePeriodAcrossMonthEnds() {
+        assertEquals(LocalDateTime.of(2024, 2, 1, 9, 0),
+                RecurringBuyService.nextRunAfter(SLOT, RecurringBuyPlan.Frequency.DAILY, SLOT));
+        assertEquals(LocalDateTime.of(2024, 3, 1, 9, 0),
+                RecurringBuyService.nextRunAfter(LocalDateTime.of(2024, 2, 29, 9, 0),
+                        RecurringBuyPlan.Frequency.DAILY, LocalDateTime.of(2024, 2, 29, 9, 0)));
+        assertEquals(LocalDateTime.of(2024, 2, 7, 9, 0),
+                RecurringBuyService.nextRunAfter(SLOT, RecurringBuyPlan.Frequency.WEEKLY, SLOT));
+        assertEquals(LocalDateTime.of(2025, 1, 2, 9, 0),
+                RecurringBuyService.nextRunAfter(LocalDateTime.of(2024, 12, 26, 9, 0),
+                        RecurringBuyPlan.Frequency.WEEKLY, LocalDateTime.of(2024, 12, 26, 9, 0)));
+    }
+
+    @Test
+    void nextRunAfter_SkipsSlotsMissedDuringDowntime() {
+        LocalDateTime now = SLOT.plusDays(3).plusHours(2);
+
+        assertEquals(LocalDateTime.of(2024, 2, 4, 9, 0),
+                RecurringBuyService.nextRunAfter(SLOT, RecurringBuyPlan.Frequency.DAILY, now));
+        assertEquals(LocalDateTime.of(2024, 2, 7, 9, 0),
+                RecurringBuyService.nextRunAfter(SLOT, RecurringBuyPlan.Frequency.WEEKLY, now));
+        // A slot falling exactly on now is already due, so the next one is a full period later
+        assertEquals(LocalDateTime.of(2024, 2, 3, 9, 0),
+                RecurringBuyService.nextRunAfter(SLOT, RecurringBuyPlan.Frequency.DAILY, SLOT.plusDays(2)));
+    }
+
+    // ========== TICK TESTS ==========
+
+    @Test
+    void tick_ExecutesDuePlansAndAdvancesThem() {
+        duePlans.add(plan(1L, "BTC"));
+        duePlans.add(plan(2L, "ETH"));
+        when(cryptoTradingService.getCryptoPrices(anyCollection(), eq("USD")))
+                .thenReturn(Map.of("BTC", new BigDecimal("50000"), "ETH", new BigDecimal("3000")));
+        when(cryptoTradingService.executeBuyOrder(anyLong(), anyString(), any(), eq("USD"), any()))
+                .thenAnswer(invocation -> transaction(invocation.getArgument(0)));
+
+        scheduler.tick();
+
+        verify(cryptoTradingService).executeBuyOrder(1L, "BTC", new BigDecimal("25.00"), "USD", new BigDecimal("50000"));
+        verify(cryptoTradingService).executeBuyOrder(2L, "ETH", new BigDecimal("25.00"), "USD", new BigDecimal("3000"));
+        assertTrue(failureRows().isEmpty());
+        List<Object[]> advances = advanceRows();
+        assertEquals(2, advances.size());
+        assertTrue(((Timestamp) advances.get(0)[0]).toLocalDateTime().isAfter(SLOT));
+    }
+
+    @Test
+    void tick_SlotAlreadyExecuted_IsSkippedWithoutAFailureRow() {
+        duePlans.add(plan(1L, "BTC"));
+        when(cryptoTradingService.getCryptoPrices(anyCollection(), eq("USD")))
+                .thenReturn(Map.of("BTC", new BigDecimal("50000")));
+        when(cryptoTradingService.executeBuyOrder(anyLong(), anyString(), any(), eq("USD"), any()))
+                .thenAnswer(invocation -> transaction(1L));
+        // Another instance already wrote the (plan_id, scheduled_for) row
+        when(jdbcTemplate.update(contains("recurring_buy_executions"), any(Object[].class))).thenReturn(0);
+
+        scheduler.tick();
+
+        assertTrue(failureRows().isEmpty());
+        assertEquals(1, advanceRows().size());
+    }
+
+    @Test
+    void tick_InsufficientFundsAndMissingPrice_AreRecordedAsFailed() {
+        duePlans.add(plan(1L, "BTC"));
+        duePlans.add(plan(2L, "DOGE"));
+        when(cryptoTradingService.getCryptoPrices(anyCollection(), eq("USD")))
+                .thenReturn(Map.of("BTC", new BigDecimal("50000")));
+        when(cryptoTradingService.executeBuyOrder(anyLong(), anyString(), any(), eq("USD"), any()))
+                .thenThrow(new InsufficientFiatBalanceException("Insufficient fiat balance"));
+
+        scheduler.tick();
+
+        List<Object[]> failures = failureRows();
+        assertEquals(2, failures.size());
+        assertTrue(failures.stream().allMatch(row -> "FAILED".equals(row[2])));
+        assertTrue(failures.stream().anyMatch(row -> row[0].equals(1L) && "Insufficient fiat balance".equals(row[5])));
+        assertTrue(failures.stream().anyMatch(row -> row[0].equals(2L) && ((String) row[5]).contains("DOGE")));
+        // Failed slots still move on, so a plan without funds is not retried in a tight loop
+        assertEquals(2, advanceRows().size());
+    }
+
+    @Test
+    void tick_PriceFeedDown_LeavesPlansClaimedForTheNextTick() {
+        duePlans.add(plan(1L, "BTC"));
+        when(cryptoTradingService.getCryptoPrices(anyCollection(), eq("USD")))
+                .thenThrow(new RuntimeException("API unavailable"));
+
+        scheduler.tick();
+
+        verify(cryptoTradingService, never()).executeBuyOrder(anyLong(), anyString(), any(), anyString(), any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private List<Object[]> failureRows() {
+        return batchRows("recurring_buy_executions");
+    }
+
+    private List<Object[]> advanceRows() {
+        return batchRows("SET next_run_at");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> batchRows(String sqlFragment) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(contains(sqlFragment), rows.capture());
+        return rows.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private static Object[] plan(Long id, String cryptoCurrency) {
+        return new Object[]{id, cryptoCurrency};
+    }
+
+    private static ResultSet resultSet(Object[] row) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn((Long) row[0]);
+        when(rs.getLong("account_id")).thenReturn((Long) row[0]);
+        when(rs.getString("crypto_currency")).thenReturn((String) row[1]);
+        when(rs.getBigDecimal("fiat_amount")).thenReturn(new BigDecimal("25.00"));
+        when(rs.getString("fiat_currency")).thenReturn("USD");
+        when(rs.getString("frequency")).thenReturn("DAILY");
+        when(rs.getTimestamp("next_run_at")).thenReturn(Timestamp.valueOf(SLOT));
+        return rs;
+    }
+
+    private static CryptoTransaction transaction(Long id) {
+        CryptoTransaction transaction = new CryptoTransaction();
+        transaction.setId(id);
+        return transaction;
+    }
+}
@@ -0,0 +1,96 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.banking.account.config.ReplicaLagMonitor;
+import org.banking.account.config.ReplicaRoutingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor lagMonitor;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private volatile double replicaLag;
+    private volatile boolean replicaDown;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+        lagMonitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), Duration.ofSeconds(10), meterRegistry) {
+            @Override
+            protected double queryLagSeconds() {
+                if (replicaDown) {
+                    throw new IllegalStateException("replica down");
+                }
+                return replicaLag;
+            }
+        };
+
+        DataSource routed = ReplicaRoutingConfig.routingDataSource(primary, replica, lagMonitor, meterRegistry);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routed));
+        jdbcTemplate = new JdbcTemplate(routed);
+    }
+
+    @Test
+    void readOnlyTransaction_HealthyReplica_UsesReplica() {
+        lagMonitor.check();
+
+        assertEquals("ROUTING_REPLICA", database(true));
+        assertEquals(1.0, meterRegistry.get("datasource.routing.reads").tag("route", "replica").counter().count());
+    }
+
+    @Test
+    void readWriteTransaction_UsesPrimary() {
+        lagMonitor.check();
+
+        assertEquals("ROUTING_PRIMARY", database(false));
+        assertEquals(0.0, meterRegistry.get("datasource.routing.reads").tag("route", "replica").counter().count());
+    }
+
+    @Test
+    void readOnlyTransaction_ReplicaLagging_FallsBackToPrimary() {
+        replicaLag = 5;
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.isUsable());
+        assertEquals("ROUTING_PRIMARY", database(true));
+        assertEquals(1.0, meterRegistry.get("datasource.routing.reads").tag("route", "primary-fallback").counter().count());
+    }
+
+    @Test
+    void readOnlyTransaction_ReplicaUnreachableOrUnchecked_FallsBackToPrimary() {
+        assertEquals("ROUTING_PRIMARY", database(true));
+
+        replicaDown = true;
+        lagMonitor.check();
+        assertEquals("ROUTING_PRIMARY", database(true));
+
+        replicaDown = false;
+        lagMonitor.check();
+        assertEquals("ROUTING_REPLICA", database(true));
+    }
+
+    private String database(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+            return connection.getCatalog();
+        }));
+    }
+}
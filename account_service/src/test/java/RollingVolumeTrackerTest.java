@@ -0,0 +1,215 @@
+import org.banking.crypto.dto.FeeQuote;
+import org.banking.crypto.entity.FeePromotion;
+import org.banking.crypto.entity.FeeTier;
+import org.banking.crypto.entity.Liquidity;
+import org.banking.crypto.entity.OrderSide;
+import org.banking.crypto.repository.FeePromotionRepository;
+import org.banking.crypto.repository.FeeTierRepository;
+import org.banking.crypto.repository.NetworkFeeRepository;
+import org.banking.crypto.service.FeeScheduleService;
+import org.banking.crypto.service.RollingVolumeTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RollingVolumeTrackerTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+
+    private MutableClock clock;
+    private JdbcTemplate jdbcTemplate;
+    private RollingVolumeTracker tracker;
+    private FeePromotionRepository promotionRepository;
+    private FeeScheduleService feeScheduleService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        tracker = new RollingVolumeTracker(jdbcTemplate, clock);
+
+        NetworkFeeRepository networkFeeRepository = mock(NetworkFeeRepository.class);
+        FeeTierRepository tierRepository = mock(FeeTierRepository.class);
+        promotionRepository = mock(FeePromotionRepository.class);
+        when(tierRepository.findAll()).thenReturn(List.of(
+                tier("BRONZE", "0", "0.0040", "0.0060"),
+                tier("SILVER", "10000", "0.0020", "0.0040"),
+                tier("GOLD", "100000", "0.0010", "0.0020")));
+        feeScheduleService = new FeeScheduleService(networkFeeRepository, tierRepository, promotionRepository, tracker);
+        feeScheduleService.init();
+    }
+
+    // ========== TIER TESTS ==========
+
+    @Test
+    void quote_PicksTheHighestTierTheRollingVolumeReaches() {
+        assertEquals("BRONZE", quote(OrderSide.BUY).getTier());
+
+        feeScheduleService.recordTrade(ACCOUNT_ID, new BigDecimal("9999.99"));
+        assertEquals("BRONZE", quote(OrderSide.BUY).getTier());
+
+        feeScheduleService.recordTrade(ACCOUNT_ID, new BigDecimal("0.01"));
+        FeeQuote silver = quote(OrderSide.BUY);
+        assertEquals("SILVER", silver.getTier());
+        assertEquals(0, new BigDecimal("0.0040").compareTo(silver.getTradingRate()));
+        assertEquals(0, new BigDecimal("4.00").compareTo(silver.getTradingFee()));
+        assertEquals(0, new BigDecimal("0.0020").compareTo(feeScheduleService.quote(ACCOUNT_ID, "BTC",
+                OrderSide.BUY, new BigDecimal("1000"), Liquidity.MAKER).getTradingRate()));
+
+        feeScheduleService.recordTrade(ACCOUNT_ID, new BigDecimal("90000"));
+        assertEquals("GOLD", quote(OrderSide.SELL).getTier());
+    }
+
+    // ========== PROMOTION TESTS ==========
+
+    @Test
+    void quote_AppliesTheHighestPriorityActivePromotion() {
+        LocalDateTime now = LocalDateTime.now();
+        when(promotionRepository.findAll()).thenReturn(List.of(
+                promotion("ZERO_FEE_BTC_BUYS", "BTC", OrderSide.BUY, "0", 10, now.minusDays(1), now.plusDays(1)),
+                promotion("HALF_FEE_EVERYTHING", null, null, "0.0030", 1, now.minusDays(1), now.plusDays(1)),
+                promotion("EXPIRED", null, null, "0.0001", 99, now.minusDays(2), now.minusDays(1))));
+        feeScheduleService.reload();
+
+        FeeQuote btcBuy = quote(OrderSide.BUY);
+        assertEquals("ZERO_FEE_BTC_BUYS", btcBuy.getPromotion());
+        assertEquals(0, BigDecimal.ZERO.compareTo(btcBuy.getTradingFee()));
+
+        FeeQuote btcSell = quote(OrderSide.SELL);
+        assertEquals("HALF_FEE_EVERYTHING", btcSell.getPromotion());
+        assertEquals(0, new BigDecimal("3.00").compareTo(btcSell.getTradingFee()));
+        // A promotion overrides the rate but the tier is still reported
+        assertEquals("BRONZE", btcSell.getTier());
+    }
+
+    // ========== WINDOW TESTS ==========
+
+    @Test
+    void volume_DropsTradesOnceTheyRollOutOfThirtyUtcDays() {
+        tracker.recordAfterCommit(ACCOUNT_ID, new BigDecimal("100.00"));
+        clock.advance(Duration.ofDays(10));
+        tracker.recordAfterCommit(ACCOUNT_ID, new BigDecimal("50.00"));
+
+        clock.advance(Duration.ofDays(19));
+        assertEquals(0, new BigDecimal("150.00").compareTo(tracker.volume(ACCOUNT_ID)));
+
+        clock.advance(Duration.ofDays(1));
+        assertEquals(0, new BigDecimal("50.00").compareTo(tracker.volume(ACCOUNT_ID)));
+
+        // Reusing the first trade's ring slot starts it from zero
+        tracker.recordAfterCommit(ACCOUNT_ID, new BigDecimal("7.00"));
+        assertEquals(0, new BigDecimal("57.00").compareTo(tracker.volume(ACCOUNT_ID)));
+    }
+
+    @Test
+    void evictIdle_DropsOnlyAccountsWithNoVolumeInTheWindow() {
+        tracker.recordAfterCommit(1L, new BigDecimal("100.00"));
+        clock.advance(Duration.ofDays(20));
+        tracker.recordAfterCommit(2L, new BigDecimal("100.00"));
+        clock.advance(Duration.ofDays(10));
+
+        tracker.evictIdle();
+
+        assertEquals(1, tracker.trackedAccounts());
+        assertEquals(0, BigDecimal.ZERO.compareTo(tracker.volume(1L)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(tracker.volume(2L)));
+    }
+
+    @Test
+    void warmUp_CountsSellsAtGrossNotionalAndBucketsByUtcDay() throws Exception {
+        Instant now = clock.instant();
+        List<ResultSet> rows = new ArrayList<>();
+        rows.add(row(ACCOUNT_ID, now.minus(Duration.ofDays(2)), "1000.00"));
+        // A sell of 0.5 @ 2000 netted 995.00 after fees; it counts as 1000.00 as it did when traded
+        rows.add(row(ACCOUNT_ID, now.minus(Duration.ofDays(29)), "1000.000000000000000000"));
+        // Just past the window in UTC, whatever the JVM zone made of created_at
+        rows.add(row(ACCOUNT_ID, now.minus(Duration.ofDays(30)), "5000.00"));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        tracker.warmUp();
+
+        assertEquals(0, new BigDecimal("2000.00").compareTo(tracker.volume(ACCOUNT_ID)));
+    }
+
+    private FeeQuote quote(OrderSide side) {
+        return feeScheduleService.quote(ACCOUNT_ID, "BTC", side, new BigDecimal("1000"), Liquidity.TAKER);
+    }
+
+    private static ResultSet row(Long accountId, Instant createdAt, String notional) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("account_id")).thenReturn(accountId);
+        when(rs.getTimestamp("created_at")).thenReturn(
+                Timestamp.valueOf(LocalDateTime.ofInstant(createdAt, ZoneId.systemDefault())));
+        when(rs.getBigDecimal("notional")).thenReturn(new BigDecimal(notional));
+        return rs;
+    }
+
+    private static FeeTier tier(String name, String minVolume, String makerRate, String takerRate) {
+        FeeTier tier = new FeeTier();
+        tier.setName(name);
+        tier.setMinVolume(new BigDecimal(minVolume));
+        tier.setMakerRate(new BigDecimal(makerRate));
+        tier.setTakerRate(new BigDecimal(takerRate));
+        return tier;
+    }
+
+    private static FeePromotion promotion(String name, String cryptoCurrency, OrderSide side, String rate,
+                                          int priority, LocalDateTime startsAt, LocalDateTime endsAt) {
+        FeePromotion promotion = new FeePromotion();
+        promotion.setName(name);
+        promotion.setCryptoCurrency(cryptoCurrency);
+        promotion.setSide(side);
+        promotion.setRateOverride(new BigDecimal(rate));
+        promotion.setPriority(priority);
+        promotion.setStartsAt(startsAt);
+        promotion.setEndsAt(endsAt);
+        return promotion;
+    }
+
+    private static class MutableClock extends Clock {
+        // Late in the UTC day, so a JVM zone east of UTC already sees tomorrow
+        private Instant now = Instant.parse("2024-03-15T23:30:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
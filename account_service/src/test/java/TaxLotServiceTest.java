@@ -0,0 +1,161 @@
+
+import org.banking.crypto.dto.LotConsumption;
+import org.banking.crypto.entity.CostBasisMethod;
+import org.banking.crypto.entity.CryptoAccount;
+import org.banking.crypto.entity.CryptoLot;
+import org.banking.crypto.exception.InsufficientCryptoBalanceException;
+import org.banking.crypto.repository.CryptoLotRepository;
+import org.banking.crypto.service.TaxLotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaxLotServiceTest {
+
+    @Mock
+    private CryptoLotRepository cryptoLotRepository;
+
+    @InjectMocks
+    private TaxLotService taxLotService;
+
+    private CryptoAccount cryptoAccount;
+    private CryptoLot first;
+    private CryptoLot second;
+    private CryptoLot third;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taxLotService, "pageSize", 2);
+
+        cryptoAccount = new CryptoAccount();
+        cryptoAccount.setId(7L);
+        cryptoAccount.setCryptoCurrency("BTC");
+
+        LocalDateTime now = LocalDateTime.now();
+        first = lot(1L, "0.5", "40000", now.minusDays(3));
+        second = lot(2L, "0.5", "45000", now.minusDays(2));
+        third = lot(3L, "1.0", "50000", now.minusDays(1));
+    }
+
+    // ========== FIFO TESTS ==========
+
+    @Test
+    void consume_Fifo_ConsumesOldestLotsFirstAcrossPages() {
+        // Arrange
+        when(cryptoLotRepository.findOpenLotsOldestFirst(eq(7L), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        // Act
+        LotConsumption result = taxLotService.consume(cryptoAccount, new BigDecimal("1.25"));
+
+        // Assert: 0.5 * 40000 + 0.5 * 45000 + 0.25 * 50000
+        assertEquals(0, new BigDecimal("55000").compareTo(result.getCostBasis()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.getUncoveredQuantity()));
+        assertEquals(3, result.getLotsTouched());
+        assertFalse(first.isOpen());
+        assertNotNull(first.getClosedAt());
+        assertEquals(0, new BigDecimal("0.75").compareTo(third.getRemainingQuantity()));
+        verify(cryptoLotRepository, times(2))
+                .findOpenLotsOldestFirst(eq(7L), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void consume_Fifo_StopsFetchingOnceQuantityIsCovered() {
+        // Arrange
+        when(cryptoLotRepository.findOpenLotsOldestFirst(eq(7L), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        LotConsumption result = taxLotService.consume(cryptoAccount, new BigDecimal("0.2"));
+
+        // Assert
+        assertEquals(0, new BigDecimal("8000").compareTo(result.getCostBasis()));
+        assertEquals(1, result.getLotsTouched());
+        verify(cryptoLotRepository, times(1))
+                .findOpenLotsOldestFirst(eq(7L), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void consume_NotEnoughLots_ReportsUncoveredQuantity() {
+        // Arrange
+        when(cryptoLotRepository.findOpenLotsOldestFirst(eq(7L), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first));
+
+        // Act
+        LotConsumption result = taxLotService.consume(cryptoAccount, new BigDecimal("0.8"));
+
+        // Assert
+        assertEquals(0, new BigDecimal("0.3").compareTo(result.getUncoveredQuantity()));
+        assertEquals(0, new BigDecimal("0.5").compareTo(result.getConsumedQuantity()));
+    }
+
+    // ========== LIFO / SPECIFIC LOT TESTS ==========
+
+    @Test
+    void consume_Lifo_ConsumesNewestLotsFirst() {
+        // Arrange
+        when(cryptoLotRepository.findOpenLotsNewestFirst(eq(7L), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(third, second));
+
+        // Act
+        LotConsumption result = taxLotService.consume(cryptoAccount, new BigDecimal("1.0"),
+                CostBasisMethod.LIFO, List.of());
+
+        // Assert
+        assertEquals(0, new BigDecimal("50000").compareTo(result.getCostBasis()));
+        assertFalse(third.isOpen());
+        assertTrue(second.isOpen());
+    }
+
+    @Test
+    void consume_SpecificLots_UsesOnlySelectedLots() {
+        // Arrange
+        when(cryptoLotRepository.findOpenLotsByIds(7L, List.of(2L))).thenReturn(List.of(second));
+
+        // Act
+        LotConsumption result = taxLotService.consume(cryptoAccount, new BigDecimal("0.5"),
+                CostBasisMethod.SPECIFIC, List.of(2L));
+
+        // Assert
+        assertEquals(0, new BigDecimal("22500").compareTo(result.getCostBasis()));
+        verify(cryptoLotRepository, never()).findOpenLotsOldestFirst(any(), any(), any(), any());
+    }
+
+    @Test
+    void consume_SpecificLotsNotCoveringTheQuantity_RejectsTheSaleWithoutTouchingLots() {
+        // Arrange
+        when(cryptoLotRepository.findOpenLotsByIds(7L, List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        // Act & Assert
+        assertThrows(InsufficientCryptoBalanceException.class, () -> taxLotService.consume(cryptoAccount,
+                new BigDecimal("1.2"), CostBasisMethod.SPECIFIC, List.of(1L, 2L)));
+        assertEquals(0, new BigDecimal("0.5").compareTo(first.getRemainingQuantity()));
+        verify(cryptoLotRepository, never()).saveAll(any());
+    }
+
+    private CryptoLot lot(Long id, String quantity, String cost, LocalDateTime acquiredAt) {
+        CryptoLot lot = new CryptoLot();
+        lot.setId(id);
+        lot.setCryptoAccountId(7L);
+        lot.setOriginalQuantity(new BigDecimal(quantity));
+        lot.setRemainingQuantity(new BigDecimal(quantity));
+        lot.setCostPerUnit(new BigDecimal(cost));
+        lot.setAcquiredAt(acquiredAt);
+        return lot;
+    }
+}
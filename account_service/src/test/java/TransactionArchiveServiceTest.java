@@ -0,0 +1,94 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.dto.CursorPage;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.Transaction;
+import org.banking.account.entity.TransactionBase;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.ArchivedTransactionRepository;
+import org.banking.account.repository.TransactionRepository;
+import org.banking.account.service.AccountService;
+import org.banking.account.service.TransactionArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+public class TransactionArchiveServiceTest {
+
+    @Autowired
+    private TransactionArchiveService archiveService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ArchivedTransactionRepository archivedTransactionRepository;
+
+    @Test
+    void archivedMonthsMoveOutAndHistoryStillPagesThroughThem() {
+        Account account = new Account();
+        account.setUserId(42L);
+        account.setAccountNumber("ARCHIVE" + System.nanoTime());
+        account.setType(Account.AccountType.CHECKING);
+        Long accountId = accountRepository.save(account).getId();
+
+        LocalDateTime old = LocalDateTime.now().minusYears(2).withDayOfMonth(10);
+        LocalDateTime recent = LocalDateTime.now().minusHours(1);
+        transactionRepository.saveAll(List.of(
+                transaction(accountId, old, "Old 1"),
+                transaction(accountId, old.plusDays(1), "Old 2"),
+                transaction(accountId, recent, "Recent 1"),
+                transaction(accountId, recent.plusMinutes(1), "Recent 2")));
+
+        YearMonth month = YearMonth.from(old.plusDays(1));
+        assertThat(archiveService.archiveThrough(TransactionArchiveService.Table.TRANSACTIONS, month)).isEqualTo(2);
+        assertThat(archiveService.archiveThrough(TransactionArchiveService.Table.TRANSACTIONS, month)).isZero();
+        assertThat(transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId)).hasSize(2);
+        assertThat(archivedTransactionRepository.count()).isEqualTo(2);
+        assertThat(archiveService.archivedBefore(TransactionArchiveService.Table.TRANSACTIONS))
+                .isEqualTo(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        CursorPage<TransactionBase> first = accountService.getAccountTransactions(accountId, null, null, null, null, 3);
+        assertThat(first.getItems()).extracting(TransactionBase::getDescription)
+                .containsExactly("Recent 2", "Recent 1", "Old 2");
+        assertThat(first.isHasMore()).isTrue();
+
+        CursorPage<TransactionBase> second = accountService.getAccountTransactions(
+                accountId, null, null, null, first.getNextCursor(), 3);
+        assertThat(second.getItems()).extracting(TransactionBase::getDescription).containsExactly("Old 1");
+        assertThat(second.isHasMore()).isFalse();
+
+        CursorPage<TransactionBase> liveOnly = accountService.getAccountTransactions(
+                accountId, null, recent.minusDays(1), null, null, 10);
+        assertThat(liveOnly.getItems()).hasSize(2);
+    }
+
+    private Transaction transaction(Long accountId, LocalDateTime createdAt, String description) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setBalanceBefore(BigDecimal.ZERO);
+        transaction.setBalanceAfter(new BigDecimal("10.00"));
+        transaction.setDescription(description);
+        transaction.setCreatedAt(createdAt);
+        return transaction;
+    }
+}
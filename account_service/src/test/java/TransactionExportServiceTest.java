@@ -0,0 +1,123 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.Transaction;
+import org.banking.account.exception.InvalidExportRequestException;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.TransactionRepository;
+import org.banking.account.service.ExportFormat;
+import org.banking.account.service.TransactionExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+public class TransactionExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 9, 0);
+    private static final AtomicLong USER_IDS = new AtomicLong(21);
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Long accountId;
+    private List<Transaction> saved;
+
+    @BeforeEach
+    void setUp() {
+        Account account = new Account();
+        // One CHECKING account per user, so every test gets its own owner
+        account.setUserId(USER_IDS.incrementAndGet());
+        account.setAccountNumber("EXPORT" + System.nanoTime());
+        account.setType(Account.AccountType.CHECKING);
+        accountId = accountRepository.save(account).getId();
+
+        saved = transactionRepository.saveAll(List.of(
+                transaction(START, "Rent, January"),
+                transaction(START.plusDays(1), "Say \"hi\""),
+                transaction(START.plusDays(2), "Salary")));
+    }
+
+    @Test
+    void exportTransactions_Csv_WritesHeaderAndEscapedRowsInOrder() throws Exception {
+        String csv = export(ExportFormat.CSV, new TransactionExportService.Range(null, null, null), false);
+
+        List<String> lines = csv.lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("id,type,amount");
+        assertThat(lines.get(1)).contains("\"Rent, January\"");
+        assertThat(lines.get(2)).contains("\"Say \"\"hi\"\"\"");
+        assertThat(lines.get(3)).contains("Salary");
+    }
+
+    @Test
+    void exportTransactions_ResumeFromLastRow_SkipsRowsAlreadyReceived() throws Exception {
+        Transaction last = saved.get(0);
+        String ndjson = export(ExportFormat.NDJSON,
+                new TransactionExportService.Range(last.getCreatedAt(), null, last.getId()), false);
+
+        List<String> lines = ndjson.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{\"id\":" + saved.get(1).getId() + ",");
+        assertThat(lines.get(1)).contains("\"description\":\"Salary\"");
+    }
+
+    @Test
+    void exportTransactions_Gzip_ProducesCompressedNdjson() throws Exception {
+        String ndjson = export(ExportFormat.NDJSON, new TransactionExportService.Range(null, null, null), true);
+
+        assertThat(ndjson.lines()).hasSize(3);
+    }
+
+    @Test
+    void range_AfterIdWithoutFrom_IsRejected() {
+        assertThatThrownBy(() -> new TransactionExportService.Range(null, null, 5L))
+                .isInstanceOf(InvalidExportRequestException.class);
+    }
+
+    private String export(ExportFormat format, TransactionExportService.Range range, boolean gzip) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportTransactions(accountId, format, range, gzip, output);
+        byte[] bytes = output.toByteArray();
+        if (gzip) {
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                bytes = input.readAllBytes();
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Transaction transaction(LocalDateTime createdAt, String description) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setBalanceBefore(BigDecimal.ZERO);
+        transaction.setBalanceAfter(new BigDecimal("10.00"));
+        transaction.setDescription(description);
+        transaction.setCreatedAt(createdAt);
+        return transaction;
+    }
+}
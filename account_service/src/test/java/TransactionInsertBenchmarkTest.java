@@ -0,0 +1,84 @@
+import jakarta.persistence.EntityManager;
+import org.banking.AccountServiceApplication;
+import org.banking.account.entity.Account;
+import org.banking.account.entity.Transaction;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.repository.TransactionRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk Transaction inserts with one statement per round trip (what IDENTITY ids forced) against
+ * JDBC batches. Run with -Dbenchmark=true; the row count can be overridden with -Dbenchmark.rows.
+ * Point spring.datasource.* at PostgreSQL for numbers that include real network round trips.
+ */
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TransactionInsertBenchmarkTest {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50})
+    void bulkTransactionInserts(int batchSize) {
+        int rows = Integer.getInteger("benchmark.rows", 20_000);
+
+        Account account = new Account();
+        account.setUserId(11L);
+        account.setAccountNumber("INSERTBENCH" + batchSize);
+        account.setType(Account.AccountType.CHECKING);
+        Long accountId = accountRepository.save(account).getId();
+        long before = transactionRepository.count();
+
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (int i = 0; i < rows; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setAccountId(accountId);
+                transaction.setType(Transaction.TransactionType.DEPOSIT);
+                transaction.setAmount(BigDecimal.ONE);
+                transaction.setBalanceBefore(BigDecimal.valueOf(i));
+                transaction.setBalanceAfter(BigDecimal.valueOf(i + 1));
+                transaction.setDescription("Insert benchmark");
+                entityManager.persist(transaction);
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        System.out.printf("batch_size=%d: %d rows in %d ms (%.0f rows/s)%n",
+                batchSize, rows, elapsedMillis, rows * 1000.0 / Math.max(elapsedMillis, 1));
+
+        assertThat(transactionRepository.count() - before).isEqualTo(rows);
+    }
+}
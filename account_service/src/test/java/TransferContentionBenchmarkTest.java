@@ -0,0 +1,126 @@
+import org.banking.AccountServiceApplication;
+import org.banking.account.dto.TransactionRequest;
+import org.banking.account.entity.Account;
+import org.banking.account.exception.ConcurrentUpdateException;
+import org.banking.account.repository.AccountRepository;
+import org.banking.account.service.AccountService;
+import org.banking.account.service.LockingStrategy;
+import org.banking.account.service.OptimisticRetryExecutor;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Random transfers across a small hot set of accounts, once per locking strategy.
+ * Run with -Dbenchmark=true; thread and transfer counts can be overridden with
+ * -Dbenchmark.threads and -Dbenchmark.transfers.
+ */
+@SpringBootTest(classes = AccountServiceApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TransferContentionBenchmarkTest {
+
+    private static final int HOT_ACCOUNTS = 4;
+    private static final long USER_ID = 9L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+
+    @ParameterizedTest
+    @EnumSource(LockingStrategy.class)
+    void randomTransfersAcrossHotAccounts(LockingStrategy strategy) throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 16);
+        int transfersPerThread = Integer.getInteger("benchmark.transfers", 200);
+
+        AccountService target = AopTestUtils.getTargetObject(accountService);
+        ReflectionTestUtils.setField(target, "lockingStrategy", strategy);
+        // Only this benchmark's accounts; the context is shared with other tests' data
+        accountRepository.deleteAll(accountRepository.findByUserId(USER_ID));
+
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setUserId(USER_ID);
+            account.setAccountNumber("BENCH" + strategy.ordinal() + i);
+            account.setType(Account.AccountType.CHECKING);
+            account.setBalance(new BigDecimal("1000000.00"));
+            accountNumbers.add(accountRepository.save(account).getAccountNumber());
+        }
+        BigDecimal totalBefore = totalBalance();
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger gaveUp = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    int from = random.nextInt(HOT_ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+
+                    TransactionRequest request = new TransactionRequest();
+                    request.setFromAccountNumber(accountNumbers.get(from));
+                    request.setToAccountNumber(accountNumbers.get(to));
+                    request.setAmount(BigDecimal.valueOf(random.nextInt(1, 100)));
+                    try {
+                        retryExecutor.execute("benchmark", () -> accountService.transfer(request, USER_ID));
+                        completed.incrementAndGet();
+                    } catch (ConcurrentUpdateException e) {
+                        gaveUp.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        executor.shutdown();
+
+        int total = threads * transfersPerThread;
+        System.out.printf("%s: %d transfers on %d threads in %d ms (%.0f/s), completed=%d gaveUp=%d failed=%d%n",
+                strategy, total, threads, elapsedMillis, total * 1000.0 / Math.max(elapsedMillis, 1),
+                completed.get(), gaveUp.get(), failed.get());
+
+        assertThat(failed.get()).isZero();
+        assertThat(totalBalance()).isEqualByComparingTo(totalBefore);
+    }
+
+    private BigDecimal totalBalance() {
+        return accountRepository.findByUserId(USER_ID).stream()
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -1,9 +1,11 @@
 package com.banking.auth.config;
 
+import com.banking.events.codec.EventMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,14 +17,18 @@ public class RabbitMQConfig {
         return new FanoutExchange("user.registration.exchange");
     }
 
+    // Binary for events with a codec; events.binary-encoding=false keeps sending JSON while consumers are upgraded
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public EventMessageConverter messageConverter(ObjectMapper objectMapper,
+                                                  @Value("${events.binary-encoding:true}") boolean binaryEncoding) {
+        EventMessageConverter converter = new EventMessageConverter(objectMapper);
+        converter.setBinaryEncoding(binaryEncoding);
+        return converter;
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter messageConverter) {
+                                         EventMessageConverter messageConverter) {
 
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
@@ -0,0 +1,18 @@
+package com.banking.auth.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of comparing the user ids of auth-service with those provisioned by one downstream service
+@Data
+public class UserIdDiff {
+    private long matched;
+    private long missingCount;
+    private long unexpectedCount;
+    // Registered here but not provisioned downstream; the first ids only
+    private List<Long> missing = new ArrayList<>();
+    // Provisioned downstream for a user unknown here
+    private List<Long> unexpected = new ArrayList<>();
+}
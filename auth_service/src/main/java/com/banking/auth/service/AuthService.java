@@ -3,14 +3,14 @@ package com.banking.auth.service;
 import com.banking.auth.dto.AuthResponse;
 import com.banking.auth.dto.LoginRequest;
 import com.banking.auth.dto.RegisterRequest;
-import com.banking.auth.dto.UserRegistrationEvent;
 import com.banking.auth.entity.User;
 import com.banking.auth.repository.UserRepository;
 import com.banking.auth.utils.JwtUtil;
+import com.banking.events.UserRegistrationEvent;
+import com.banking.messaging.outbox.OutboxService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -29,7 +29,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
     private final CustomUserDetailsService userDetailsService;
 
@@ -52,8 +52,8 @@ public class AuthService {
         User savedUser = userRepository.save(user);
         log.info("User registered successfully: {}", user.getUsername());
 
-        // Publish registration event
-        publishUserRegistrationEvent(savedUser);
+        // Recorded with the user, published by OutboxRelay after commit
+        recordUserRegistrationEvent(savedUser);
 
         // Generate token
         UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getUsername());
@@ -105,21 +105,16 @@ public class AuthService {
                 .orElse(null);
     }
 
-    private void publishUserRegistrationEvent(User user) {
-        try {
-            UserRegistrationEvent event = new UserRegistrationEvent(
-                    user.getId(),
-                    user.getUsername(),
-                    user.getEmail()
-            );
-
-            rabbitTemplate.convertAndSend("user.registration.exchange", "", event);
+    private void recordUserRegistrationEvent(User user) {
+        UserRegistrationEvent event = new UserRegistrationEvent(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail()
+        );
 
-            log.info("Published user registration event for userId: {}", user.getId());
+        outboxService.append("user", user.getId(), "user.registration.exchange", "", event);
 
-        } catch (Exception e) {
-            log.error("Failed to publish user registration event: {}", e.getMessage(), e);
-        }
+        log.info("Recorded user registration event for userId: {}", user.getId());
     }
 
 }
\ No newline at end of file
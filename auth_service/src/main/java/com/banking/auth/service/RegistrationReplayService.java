@@ -0,0 +1,216 @@
+package com.banking.auth.service;
+
+import com.banking.auth.dto.UserIdDiff;
+import com.banking.auth.utils.PagedIdIterator;
+import com.banking.auth.utils.JwtUtil;
+import com.banking.auth.utils.SortedIdMerge;
+import com.banking.events.UserRegistrationEvent;
+import com.banking.messaging.outbox.OutboxService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code registrationreplay} actuator endpoint. Republishes {@link UserRegistrationEvent} for
+ * a range of users, read from {@code users} by id in keyset batches and appended to the outbox
+ * one batch per transaction; account-service and client-service skip users they already
+ * provisioned. The rate is capped, and the replay waits while the outbox backlog is above
+ * {@code registration.replay.max-outbox-depth} so new registrations are not queued behind it.
+ * A dry run republishes nothing and instead merges the id stream of this service with the
+ * provisioned user ids of each consumer, page by page.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "registrationreplay")
+public class RegistrationReplayService {
+
+    private static final String EXCHANGE = "user.registration.exchange";
+
+    private static final String USERS_SQL = """
+            SELECT id, username, email, created_at FROM users
+            WHERE id > ? AND id <= ? ORDER BY id LIMIT ?
+            """;
+
+    private static final String USER_IDS_SQL = "SELECT id FROM users WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+    private static final String MAX_ID_SQL = "SELECT MAX(id) FROM users";
+
+    private static final String OUTBOX_DEPTH_SQL = "SELECT COUNT(*) FROM outbox";
+
+    private static final long OUTBOX_POLL_MS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final RestClient restClient;
+    private final JwtUtil jwtUtil;
+    private final Counter republished;
+
+    @Value("${registration.replay.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${registration.replay.max-per-second:2000}")
+    private int maxPerSecond = 2000;
+
+    @Value("${registration.replay.max-outbox-depth:10000}")
+    private long maxOutboxDepth = 10000;
+
+    @Value("${registration.replay.outbox-wait-ms:60000}")
+    private long outboxWaitMillis = 60000;
+
+    @Value("${registration.replay.diff-page-size:5000}")
+    private int diffPageSize = 5000;
+
+    @Value("${registration.replay.diff-sample-size:100}")
+    private int diffSampleSize = 100;
+
+    @Value("${registration.replay.account-service-url:http://account-service}")
+    private String accountServiceUrl = "http://account-service";
+
+    @Value("${registration.replay.client-service-url:http://client-service}")
+    private String clientServiceUrl = "http://client-service";
+
+    public RegistrationReplayService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     OutboxService outboxService,
+                                     RestClient.Builder restClientBuilder,
+                                     JwtUtil jwtUtil,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxService = outboxService;
+        this.restClient = restClientBuilder.build();
+        this.jwtUtil = jwtUtil;
+        this.republished = meterRegistry.counter("registration.replay.republished");
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable Long fromId, @Nullable Long toId, @Nullable Boolean dryRun) {
+        long from = fromId == null ? 1 : fromId;
+        long to = toId != null ? toId : maxUserId();
+        if (from > to && toId != null) {
+            throw new InvalidEndpointRequestException("fromId " + from + " is after toId " + to, "Invalid id range");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fromId", from);
+        result.put("toId", to);
+        result.put("dryRun", Boolean.TRUE.equals(dryRun));
+        if (Boolean.TRUE.equals(dryRun)) {
+            result.put("account-service", diff(accountServiceUrl, from, to));
+            result.put("client-service", diff(clientServiceUrl, from, to));
+        } else {
+            result.putAll(republish(from, to));
+        }
+        return result;
+    }
+
+    private Map<String, Object> republish(long from, long to) {
+        long started = System.nanoTime();
+        long afterId = from - 1;
+        long count = 0;
+        boolean completed = true;
+        while (true) {
+            if (!awaitOutboxCapacity()) {
+                completed = false;
+                break;
+            }
+            List<UserRegistrationEvent> batch = jdbcTemplate.query(USERS_SQL, (rs, i) -> {
+                UserRegistrationEvent event = new UserRegistrationEvent(
+                        rs.getLong("id"), rs.getString("username"), rs.getString("email"));
+                event.setRegisteredAt(rs.getTimestamp("created_at").toLocalDateTime());
+                return event;
+            }, afterId, to, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(event ->
+                    outboxService.append("user", event.getUserId(), EXCHANGE, "", event)));
+            afterId = batch.get(batch.size() - 1).getUserId();
+            count += batch.size();
+            republished.increment(batch.size());
+
+            if (batch.size() < batchSize || !throttle(started, count)) {
+                completed = batch.size() < batchSize;
+                break;
+            }
+        }
+
+        log.info("Republished {} registration events for users {}..{}, last user {}", count, from, to, afterId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("republished", count);
+        // An incomplete replay resumes with fromId = lastUserId + 1
+        result.put("lastUserId", afterId);
+        result.put("completed", completed);
+        return result;
+    }
+
+    private UserIdDiff diff(String serviceUrl, long from, long to) {
+        PagedIdIterator registered = new PagedIdIterator(from - 1, diffPageSize,
+                (afterId, limit) -> jdbcTemplate.queryForList(USER_IDS_SQL, Long.class, afterId, to, limit));
+        PagedIdIterator provisioned = new PagedIdIterator(from - 1, diffPageSize,
+                (afterId, limit) -> restClient.get()
+                        .uri(serviceUrl + "/actuator/provisionedusers?afterId={afterId}&toId={toId}&limit={limit}",
+                                afterId, to, limit)
+                        // The consumers' JWT filters guard every actuator endpoint but health
+                        .headers(headers -> headers.setBearerAuth(jwtUtil.generateServiceToken("auth-service")))
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<List<Long>>() {}));
+        UserIdDiff diff = SortedIdMerge.diff(registered, provisioned, diffSampleSize);
+        log.info("Compared users {}..{} with {}: {} matched, {} missing, {} unexpected",
+                from, to, serviceUrl, diff.getMatched(), diff.getMissingCount(), diff.getUnexpectedCount());
+        return diff;
+    }
+
+    private long maxUserId() {
+        Long max = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    // False when the relay did not bring the backlog down in time
+    private boolean awaitOutboxCapacity() {
+        long deadline = System.currentTimeMillis() + outboxWaitMillis;
+        while (jdbcTemplate.queryForObject(OUTBOX_DEPTH_SQL, Long.class) >= maxOutboxDepth) {
+            if (System.currentTimeMillis() >= deadline) {
+                log.warn("Outbox above {} rows for {} ms, stopping the replay", maxOutboxDepth, outboxWaitMillis);
+                return false;
+            }
+            if (!sleep(OUTBOX_POLL_MS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sleeps until count events are due at maxPerSecond since started; false if interrupted
+    private boolean throttle(long started, long count) {
+        long dueNanos = started + count * 1_000_000_000L / maxPerSecond;
+        long waitMillis = (dueNanos - System.nanoTime()) / 1_000_000;
+        return waitMillis <= 0 || sleep(waitMillis);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -17,6 +17,8 @@ import java.util.function.Function;
 @Slf4j
 public class JwtUtil {
 
+    private static final long SERVICE_TOKEN_TTL_MS = 60_000;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -64,12 +66,24 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    // Short-lived admin token this service presents when it calls the other services itself
+    public String generateServiceToken(String serviceName) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", 0L);
+        claims.put("role", "ROLE_ADMIN");
+        return createToken(claims, serviceName, SERVICE_TOKEN_TTL_MS);
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        return createToken(claims, subject, expiration);
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, long ttlMillis) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -0,0 +1,59 @@
+package com.banking.auth.utils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates an ascending id sequence one keyset page at a time: each page is requested with the
+ * last id seen, so only one page is held in memory however long the sequence is. The sequence
+ * ends at the first empty page: a source may cap the limit it serves, so a short page is no sign
+ * that nothing follows.
+ */
+public class PagedIdIterator implements Iterator<Long> {
+
+    @FunctionalInterface
+    public interface PageFetcher {
+        // Up to limit ids greater than afterId, ascending
+        List<Long> fetch(long afterId, int limit);
+    }
+
+    private final PageFetcher fetcher;
+    private final int pageSize;
+    private long afterId;
+    private List<Long> page = List.of();
+    private int position;
+    private boolean exhausted;
+
+    public PagedIdIterator(long afterId, int pageSize, PageFetcher fetcher) {
+        this.afterId = afterId;
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < page.size()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        List<Long> fetched = fetcher.fetch(afterId, pageSize);
+        page = fetched == null ? List.of() : fetched;
+        position = 0;
+        exhausted = page.isEmpty();
+        if (!exhausted) {
+            afterId = page.get(page.size() - 1);
+        }
+        return !exhausted;
+    }
+
+    @Override
+    public Long next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.get(position++);
+    }
+}
@@ -0,0 +1,45 @@
+package com.banking.auth.utils;
+
+import com.banking.auth.dto.UserIdDiff;
+
+import java.util.Iterator;
+
+/**
+ * Compares two ascending, duplicate-free id streams in one pass, like the merge step of a merge
+ * sort. Neither stream is materialised, so ranges of any size are compared in constant memory.
+ */
+public final class SortedIdMerge {
+
+    private SortedIdMerge() {
+    }
+
+    public static UserIdDiff diff(Iterator<Long> expected, Iterator<Long> actual, int sampleSize) {
+        UserIdDiff diff = new UserIdDiff();
+        Long e = nextOrNull(expected);
+        Long a = nextOrNull(actual);
+        while (e != null || a != null) {
+            if (a == null || (e != null && e < a)) {
+                diff.setMissingCount(diff.getMissingCount() + 1);
+                if (diff.getMissing().size() < sampleSize) {
+                    diff.getMissing().add(e);
+                }
+                e = nextOrNull(expected);
+            } else if (e == null || a < e) {
+                diff.setUnexpectedCount(diff.getUnexpectedCount() + 1);
+                if (diff.getUnexpected().size() < sampleSize) {
+                    diff.getUnexpected().add(a);
+                }
+                a = nextOrNull(actual);
+            } else {
+                diff.setMatched(diff.getMatched() + 1);
+                e = nextOrNull(expected);
+                a = nextOrNull(actual);
+            }
+        }
+        return diff;
+    }
+
+    private static Long nextOrNull(Iterator<Long> ids) {
+        return ids.hasNext() ? ids.next() : null;
+    }
+}
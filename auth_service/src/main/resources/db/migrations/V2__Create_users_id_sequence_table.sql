@@ -0,0 +1,9 @@
+-- MySQL has no sequences, so Hibernate emulates users_id_seq with a one-row table and hands out
+-- ids in blocks of 50 (pooled-lo). The counter starts just above the current max id, also when
+-- ddl-auto already created the table with a counter of 1.
+CREATE TABLE IF NOT EXISTS users_id_seq (
+    next_val BIGINT NOT NULL
+);
+
+DELETE FROM users_id_seq;
+INSERT INTO users_id_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM users;
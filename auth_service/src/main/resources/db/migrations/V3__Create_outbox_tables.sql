@@ -0,0 +1,23 @@
+-- Transactional outbox: the registration event is inserted with the user and removed by
+-- OutboxRelay once RabbitMQ has confirmed it
+CREATE TABLE outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id VARCHAR(64) NOT NULL,
+    partition_no INT NOT NULL,
+    exchange_name VARCHAR(100) NOT NULL,
+    routing_key VARCHAR(100) NOT NULL,
+    payload_type VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    INDEX idx_outbox_partition (partition_no, id)
+);
+
+-- One row per partition; a relay holds the row lock (FOR UPDATE SKIP LOCKED) while draining it
+CREATE TABLE outbox_partitions (
+    partition_no INT PRIMARY KEY,
+    drained_at TIMESTAMP(6) NULL
+);
+
+INSERT INTO outbox_partitions (partition_no)
+VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15);
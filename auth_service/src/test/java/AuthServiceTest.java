@@ -2,12 +2,13 @@
 import com.banking.auth.dto.AuthResponse;
 import com.banking.auth.dto.LoginRequest;
 import com.banking.auth.dto.RegisterRequest;
-import com.banking.auth.dto.UserRegistrationEvent;
 import com.banking.auth.entity.User;
 import com.banking.auth.repository.UserRepository;
 import com.banking.auth.service.AuthService;
 import com.banking.auth.service.CustomUserDetailsService;
 import com.banking.auth.utils.JwtUtil;
+import com.banking.events.UserRegistrationEvent;
+import com.banking.messaging.outbox.OutboxService;
 import org.mockito.quality.Strictness;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,7 +49,7 @@ class AuthServiceTest {
     private JwtUtil jwtUtil;
 
     @Mock
-    private org.springframework.amqp.rabbit.core.RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
 
     @Mock
     private CustomUserDetailsService userDetailsService;
@@ -119,8 +120,8 @@ class AuthServiceTest {
         verify(userDetailsService).loadUserByUsername("testuser");
         verify(jwtUtil).generateToken(userDetails, user.getId(), user.getEmail(), user.getRole().name());
 
-        // KEEP THIS - register method DOES call RabbitTemplate
-        verify(rabbitTemplate).convertAndSend(eq("user.registration.exchange"), eq(""), any(UserRegistrationEvent.class));
+        verify(outboxService).append(eq("user"), eq(1L), eq("user.registration.exchange"), eq(""),
+                any(UserRegistrationEvent.class));
     }
 
     @Test
@@ -155,27 +156,22 @@ class AuthServiceTest {
     }
 
     @Test
-    void register_EventPublishingFails_StillReturnsResponse() {
+    void register_OutboxWriteFails_ThrowsException() {
         // Arrange
         when(userRepository.existsByUsername("testuser")).thenReturn(false);
         when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.generateToken(any(UserDetails.class), any(Long.class), anyString(), anyString()))
-                .thenReturn("jwt-token");
 
-        // FIX: Use the exact 3-parameter method signature (exchange, routingKey, message)
-        doThrow(new RuntimeException("RabbitMQ error")).when(rabbitTemplate)
-                .convertAndSend(eq("user.registration.exchange"), eq(""), any(UserRegistrationEvent.class));
+        doThrow(new RuntimeException("Outbox unavailable")).when(outboxService)
+                .append(eq("user"), eq(1L), eq("user.registration.exchange"), eq(""), any(UserRegistrationEvent.class));
 
-        // Act - Should not throw exception
-        AuthResponse response = authService.register(registerRequest);
+        // Act & Assert - the registration rolls back instead of losing its event
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authService.register(registerRequest));
 
-        // Assert
-        assertNotNull(response);
-        assertEquals("jwt-token", response.getToken());
-        verify(rabbitTemplate).convertAndSend(eq("user.registration.exchange"), eq(""), any(UserRegistrationEvent.class));
+        assertEquals("Outbox unavailable", exception.getMessage());
+        verify(jwtUtil, never()).generateToken(any(UserDetails.class), any(Long.class), anyString(), anyString());
     }
 
     @Test
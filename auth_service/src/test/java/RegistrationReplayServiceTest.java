@@ -0,0 +1,135 @@
+import com.banking.auth.dto.UserIdDiff;
+import com.banking.auth.service.RegistrationReplayService;
+import com.banking.auth.utils.JwtUtil;
+import com.banking.messaging.outbox.OutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RegistrationReplayServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MockRestServiceServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private RegistrationReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:registration_replay;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS outbox");
+        jdbcTemplate.execute("""
+                CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL,
+                    email VARCHAR(100) NOT NULL, created_at TIMESTAMP NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE outbox (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    aggregate_type VARCHAR(30) NOT NULL, aggregate_id VARCHAR(64) NOT NULL,
+                    partition_no INTEGER NOT NULL, exchange_name VARCHAR(100) NOT NULL,
+                    routing_key VARCHAR(100) NOT NULL, payload_type VARCHAR(255), payload TEXT NOT NULL,
+                    created_at TIMESTAMP NOT NULL)
+                """);
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO users (id, username, email, created_at) VALUES (?, ?, ?, ?)",
+                    id, "user" + id, "user" + id + "@example.com", Timestamp.valueOf(LocalDateTime.now()));
+        }
+
+        RestClient.Builder restClientBuilder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(restClientBuilder).ignoreExpectOrder(true).build();
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.generateServiceToken("auth-service")).thenReturn("service-token");
+        meterRegistry = new SimpleMeterRegistry();
+        OutboxService outboxService = new OutboxService(jdbcTemplate,
+                new ObjectMapper().registerModule(new JavaTimeModule()), 4);
+        replayService = new RegistrationReplayService(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), outboxService,
+                restClientBuilder, jwtUtil, meterRegistry);
+        ReflectionTestUtils.setField(replayService, "batchSize", 2);
+        ReflectionTestUtils.setField(replayService, "diffPageSize", 2);
+    }
+
+    @Test
+    void replay_AppendsOneEventPerUserInTheRange() {
+        Map<String, Object> result = replayService.replay(2L, 4L, null);
+
+        assertEquals(3L, result.get("republished"));
+        assertEquals(4L, result.get("lastUserId"));
+        assertEquals(true, result.get("completed"));
+        assertEquals(List.of("2", "3", "4"), jdbcTemplate.queryForList(
+                "SELECT aggregate_id FROM outbox WHERE aggregate_type = 'user' ORDER BY id", String.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT payload FROM outbox WHERE aggregate_id = '3'", String.class)
+                .contains("\"email\":\"user3@example.com\""));
+        assertEquals(3.0, meterRegistry.get("registration.replay.republished").counter().count());
+    }
+
+    @Test
+    void replay_BackedUpOutbox_StopsWithAResumePoint() {
+        ReflectionTestUtils.setField(replayService, "maxOutboxDepth", 1L);
+        ReflectionTestUtils.setField(replayService, "outboxWaitMillis", 0L);
+        jdbcTemplate.update("""
+                INSERT INTO outbox (aggregate_type, aggregate_id, partition_no, exchange_name, routing_key, payload, created_at)
+                VALUES ('account', '9', 0, 'banking.events', 'account.status', '{}', CURRENT_TIMESTAMP)
+                """);
+
+        Map<String, Object> result = replayService.replay(2L, null, false);
+
+        assertEquals(0L, result.get("republished"));
+        assertEquals(1L, result.get("lastUserId"));
+        assertEquals(false, result.get("completed"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+    }
+
+    @Test
+    void replay_DryRun_ComparesEveryConsumerPageByPageWithoutPublishing() {
+        // account-service caps its pages below the requested size and never provisioned user 4
+        expectPage("http://account-service", 0, "[1]");
+        expectPage("http://account-service", 1, "[2,3]");
+        expectPage("http://account-service", 3, "[5]");
+        expectPage("http://account-service", 5, "[]");
+        expectPage("http://client-service", 0, "[1,2]");
+        expectPage("http://client-service", 2, "[3,4]");
+        expectPage("http://client-service", 4, "[5]");
+        expectPage("http://client-service", 5, "[]");
+
+        Map<String, Object> result = replayService.replay(null, null, true);
+
+        server.verify();
+        UserIdDiff accounts = (UserIdDiff) result.get("account-service");
+        assertEquals(4, accounts.getMatched());
+        assertEquals(List.of(4L), accounts.getMissing());
+        assertEquals(0, accounts.getUnexpectedCount());
+        UserIdDiff clients = (UserIdDiff) result.get("client-service");
+        assertEquals(5, clients.getMatched());
+        assertEquals(0, clients.getMissingCount());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+    }
+
+    private void expectPage(String serviceUrl, long afterId, String ids) {
+        server.expect(requestTo(serviceUrl + "/actuator/provisionedusers?afterId=" + afterId + "&toId=5&limit=2"))
+                .andExpect(header("Authorization", "Bearer service-token"))
+                .andRespond(withSuccess(ids, MediaType.APPLICATION_JSON));
+    }
+}
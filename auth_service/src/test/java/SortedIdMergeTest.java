@@ -0,0 +1,59 @@
+import com.banking.auth.dto.UserIdDiff;
+import com.banking.auth.utils.PagedIdIterator;
+import com.banking.auth.utils.SortedIdMerge;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIdMergeTest {
+
+    @Test
+    void diff_ReportsIdsMissingOnEitherSide() {
+        UserIdDiff diff = SortedIdMerge.diff(List.of(1L, 2L, 3L, 5L, 8L).iterator(),
+                List.of(2L, 3L, 4L, 8L, 9L).iterator(), 10);
+
+        assertEquals(3, diff.getMatched());
+        assertEquals(List.of(1L, 5L), diff.getMissing());
+        assertEquals(List.of(4L, 9L), diff.getUnexpected());
+    }
+
+    @Test
+    void diff_CountsBeyondTheSample() {
+        UserIdDiff diff = SortedIdMerge.diff(List.of(1L, 2L, 3L, 4L).iterator(), List.<Long>of().iterator(), 2);
+
+        assertEquals(4, diff.getMissingCount());
+        assertEquals(List.of(1L, 2L), diff.getMissing());
+    }
+
+    @Test
+    void pagedIdIterator_RequestsEachPageAfterTheLastIdSeen() {
+        List<Long> ids = List.of(3L, 5L, 7L, 9L, 11L, 13L);
+        List<Long> requestedAfter = new ArrayList<>();
+        PagedIdIterator iterator = new PagedIdIterator(4, 2, (afterId, limit) -> {
+            requestedAfter.add(afterId);
+            return ids.stream().filter(id -> id > afterId).limit(limit).toList();
+        });
+
+        List<Long> seen = new ArrayList<>();
+        iterator.forEachRemaining(seen::add);
+
+        assertEquals(List.of(5L, 7L, 9L, 11L, 13L), seen);
+        // The short page of 13 is not the end yet, the empty one after it is
+        assertEquals(List.of(4L, 7L, 11L, 13L), requestedAfter);
+    }
+
+    @Test
+    void pagedIdIterator_KeepsPagingWhenTheSourceCapsTheLimit() {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+        PagedIdIterator iterator = new PagedIdIterator(0, 10, (afterId, limit) ->
+                ids.stream().filter(id -> id > afterId).limit(Math.min(limit, 2)).toList());
+
+        List<Long> seen = new ArrayList<>();
+        iterator.forEachRemaining(seen::add);
+
+        assertEquals(ids, seen);
+    }
+}
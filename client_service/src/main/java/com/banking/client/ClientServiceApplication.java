@@ -4,7 +4,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
-@SpringBootApplication
+// The outbox of messaging-support is not used here, only its listener retries
+@SpringBootApplication(scanBasePackages = {"com.banking.client", "com.banking.messaging.retry"})
 @EnableDiscoveryClient
 public class ClientServiceApplication {
     public static void main(String[] args) {
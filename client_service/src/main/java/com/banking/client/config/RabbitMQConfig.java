@@ -1,11 +1,23 @@
 package com.banking.client.config;
 
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.banking.messaging.retry.RetryTopology;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +25,9 @@ import org.springframework.context.annotation.Configuration;
 @EnableRabbit
 public class RabbitMQConfig {
 
+    public static final String USER_REGISTRATION_QUEUE = "user.registration.client.queue";
+
+    public static final String REGISTRATION_BATCH_FACTORY = "registrationBatchListenerFactory";
 
     @Bean
     public FanoutExchange userRegistrationExchange() {
@@ -21,7 +36,7 @@ public class RabbitMQConfig {
 
     @Bean
     public Queue clientRegistrationQueue() {
-        return new Queue("user.registration.client.queue", true);
+        return new Queue(USER_REGISTRATION_QUEUE, true);
     }
 
     @Bean
@@ -30,9 +45,67 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(clientRegistrationQueue).to(userRegistrationExchange);
     }
 
+    // Reads registration events in the binary encoding and, from producers not yet switched, as JSON
+    @Bean
+    public EventMessageConverter eventMessageConverter(ObjectMapper objectMapper) {
+        return new EventMessageConverter(objectMapper);
+    }
+
+    // Delays grow by tier; a message still failing after the last one is parked in user.registration.client.dlq
+    @Bean
+    public RetryTopology clientRegistrationRetryTopology(
+            @Value("${rabbitmq.retry.delays-ms:1000,5000,25000,125000}") long[] delaysMillis) {
+        return new RetryTopology(USER_REGISTRATION_QUEUE, delaysMillis);
+    }
+
     @Bean
-    public Jackson2JsonMessageConverter jackson2JsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public Declarables clientRegistrationRetryQueues(RetryTopology clientRegistrationRetryTopology) {
+        return clientRegistrationRetryTopology.declarables();
     }
 
+    @Bean
+    public DelayedRetryRecoverer clientRegistrationRecoverer(
+            RetryTopology clientRegistrationRetryTopology,
+            RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.retry.confirm-timeout-ms:5000}") long confirmTimeoutMillis) {
+        return new DelayedRetryRecoverer(clientRegistrationRetryTopology, rabbitTemplate, meterRegistry,
+                confirmTimeoutMillis);
+    }
+
+    // Replaces the default factory: a failed delivery goes to the retry queues instead of being requeued forever
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            DelayedRetryRecoverer clientRegistrationRecoverer) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(clientRegistrationRecoverer)
+                .build());
+        return factory;
+    }
+
+    // Batches close at batch-size messages or after window-ms; the listener acks each message itself after commit
+    @Bean(name = REGISTRATION_BATCH_FACTORY)
+    public SimpleRabbitListenerContainerFactory registrationBatchListenerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${registration.consumer.batch-size:200}") int batchSize,
+            @Value("${registration.consumer.window-ms:1000}") long windowMillis,
+            @Value("${registration.consumer.prefetch:500}") int prefetch,
+            @Value("${registration.consumer.concurrency:2}") int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(windowMillis);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        return factory;
+    }
 }
@@ -25,6 +25,8 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Dead-letter replay republishes parked messages
+                        .requestMatchers("/actuator/deadletters/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**", "/api/clients/health").permitAll()
                         .anyRequest().authenticated()
                 )
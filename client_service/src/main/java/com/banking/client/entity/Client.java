@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Data
 public class Client {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_seq")
+    @SequenceGenerator(name = "clients_seq", sequenceName = "clients_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -1,36 +1,152 @@
 package com.banking.client.messaging;
 
-import com.banking.client.dto.UserRegistrationEvent;
+import com.banking.client.config.RabbitMQConfig;
 import com.banking.client.entity.Client;
 import com.banking.client.repository.ClientRepository;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
+import com.banking.events.UserRegistrationEvent;
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates client profiles for registered users, a batch of messages at a time: one existence query
+ * and one batched insert per batch, in one transaction. Messages are acked only after that commit.
+ * When the batch fails it is retried one user at a time, and the messages of users that still fail
+ * are handed to the delayed retry queues individually; the rest of the batch is acked as usual.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ClientConsumer {
 
     private final ClientRepository clientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EventMessageConverter messageConverter;
+    private final DelayedRetryRecoverer recoverer;
+    private final Counter created;
+
+    public ClientConsumer(ClientRepository clientRepository,
+                          TransactionTemplate transactionTemplate,
+                          EventMessageConverter messageConverter,
+                          DelayedRetryRecoverer recoverer,
+                          MeterRegistry meterRegistry) {
+        this.clientRepository = clientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.messageConverter = messageConverter;
+        this.recoverer = recoverer;
+        this.created = meterRegistry.counter("registration.clients.created");
+    }
 
-    @Transactional
-    @RabbitListener(queues = "user.registration.client.queue")
-    public void handleUserRegistration(UserRegistrationEvent event) {
-        log.info("Received user registration event for userId: {}", event.getUserId());
+    @RabbitListener(queues = RabbitMQConfig.USER_REGISTRATION_QUEUE,
+            containerFactory = RabbitMQConfig.REGISTRATION_BATCH_FACTORY)
+    public void handleUserRegistrations(List<Message> messages, Channel channel) throws IOException {
+        List<Failure> failures = new ArrayList<>();
+
+        // Redelivered or duplicated events for one user share a single row
+        Map<Long, List<Message>> byUser = new LinkedHashMap<>();
+        for (Message message : messages) {
+            try {
+                UserRegistrationEvent event = messageConverter.fromMessage(message, UserRegistrationEvent.class);
+                if (event.getUserId() == null) {
+                    throw new IllegalArgumentException("userId is missing");
+                }
+                byUser.computeIfAbsent(event.getUserId(), userId -> new ArrayList<>()).add(message);
+            } catch (Exception e) {
+                failures.add(new Failure(message, e));
+            }
+        }
 
-        // Idempotent check
-        if (clientRepository.existsByUserId(event.getUserId())) {
-            log.info("Client already exists for userId: {}", event.getUserId());
-            return;
+        Set<Long> settled = new HashSet<>();
+        try {
+            List<Message> provisioned = provision(byUser, failures);
+            for (Message message : provisioned) {
+                ack(channel, message, settled);
+            }
+            for (Failure failure : failures) {
+                recoverer.recover(failure.message(), failure.cause());
+                ack(channel, failure.message(), settled);
+            }
+        } catch (RuntimeException e) {
+            // Whatever is not settled yet goes back to the queue; the existence check makes the redelivery harmless
+            log.error("Registration batch could not be settled, requeueing {} messages: {}",
+                    messages.size() - settled.size(), e.getMessage(), e);
+            for (Message message : messages) {
+                long tag = message.getMessageProperties().getDeliveryTag();
+                if (settled.add(tag)) {
+                    channel.basicNack(tag, false, true);
+                }
+            }
+        }
+    }
+
+    private List<Message> provision(Map<Long, List<Message>> byUser, List<Failure> failures) {
+        if (byUser.isEmpty()) {
+            return List.of();
+        }
+        List<Message> provisioned = new ArrayList<>();
+        try {
+            Integer count = transactionTemplate.execute(status -> createClients(byUser.keySet()));
+            created.increment(count == null ? 0 : count);
+            byUser.values().forEach(provisioned::addAll);
+            log.info("Registration batch: {} users, {} client profiles created", byUser.size(), count);
+            return provisioned;
+        } catch (RuntimeException e) {
+            log.warn("Creating {} client profiles failed, retrying one user at a time: {}", byUser.size(), e.getMessage());
         }
 
-        Client client = new Client();
-        client.setUserId(event.getUserId());
-        clientRepository.save(client);
+        for (Map.Entry<Long, List<Message>> entry : byUser.entrySet()) {
+            try {
+                Integer count = transactionTemplate.execute(status -> createClients(List.of(entry.getKey())));
+                created.increment(count == null ? 0 : count);
+                provisioned.addAll(entry.getValue());
+            } catch (RuntimeException e) {
+                entry.getValue().forEach(message -> failures.add(new Failure(message, e)));
+            }
+        }
+        return provisioned;
+    }
+
+    private int createClients(Collection<Long> userIds) {
+        Set<Long> existing = new HashSet<>(clientRepository.findUserIdsIn(userIds));
+        List<Client> clients = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (!existing.contains(userId)) {
+                Client client = new Client();
+                client.setUserId(userId);
+                clients.add(client);
+            }
+        }
+        // Sequence ids are allocated in blocks, so Hibernate sends the rows as one JDBC batch
+        clientRepository.saveAll(clients);
+        clientRepository.flush();
+        return clients.size();
+    }
+
+    private static void ack(Channel channel, Message message, Set<Long> settled) {
+        long tag = message.getMessageProperties().getDeliveryTag();
+        try {
+            channel.basicAck(tag, false);
+            settled.add(tag);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not ack delivery " + tag, e);
+        }
+    }
 
-        log.info("Created new client profile for userId: {}", event.getUserId());
+    private record Failure(Message message, Exception cause) {
     }
 }
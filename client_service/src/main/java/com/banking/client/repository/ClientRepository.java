@@ -1,8 +1,13 @@
 package com.banking.client.repository;
 
 import com.banking.client.entity.Client;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +18,11 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     boolean existsByUserId(Long userId);
     boolean existsByIdentificationNumber(String identificationNumber);
     boolean existsByPhoneNumber(String phoneNumber);
+
+    @Query("SELECT c.userId FROM Client c WHERE c.userId IN :userIds")
+    List<Long> findUserIdsIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT c.userId FROM Client c WHERE c.userId > :afterUserId AND c.userId <= :toUserId ORDER BY c.userId")
+    List<Long> findUserIdsBetween(@Param("afterUserId") Long afterUserId, @Param("toUserId") Long toUserId,
+                                  Pageable pageable);
 }
\ No newline at end of file
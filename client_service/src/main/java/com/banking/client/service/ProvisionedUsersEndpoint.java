@@ -0,0 +1,34 @@
+package com.banking.client.service;
+
+import com.banking.client.repository.ClientRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The {@code provisionedusers} actuator endpoint: ids of users that have a client profile,
+ * ascending, one keyset page per call. auth-service pages through it to find registrations that
+ * never reached this service.
+ */
+@Component
+@Endpoint(id = "provisionedusers")
+public class ProvisionedUsersEndpoint {
+
+    private static final int MAX_LIMIT = 10_000;
+
+    private final ClientRepository clientRepository;
+
+    public ProvisionedUsersEndpoint(ClientRepository clientRepository) {
+        this.clientRepository = clientRepository;
+    }
+
+    @ReadOperation
+    public List<Long> userIds(long afterId, @Nullable Long toId, @Nullable Integer limit) {
+        return clientRepository.findUserIdsBetween(afterId, toId == null ? Long.MAX_VALUE : toId,
+                PageRequest.of(0, limit == null ? 1000 : Math.min(limit, MAX_LIMIT)));
+    }
+}
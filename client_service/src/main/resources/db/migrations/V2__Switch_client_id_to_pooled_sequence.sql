@@ -0,0 +1,3 @@
+-- Client ids come from clients_id_seq in blocks of 50 (pooled-lo), restarted above the current max id
+ALTER SEQUENCE clients_id_seq INCREMENT BY 50;
+SELECT setval('clients_id_seq', COALESCE((SELECT MAX(id) FROM clients), 0) + 1, false);
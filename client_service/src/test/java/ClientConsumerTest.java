@@ -0,0 +1,151 @@
+import com.banking.client.entity.Client;
+import com.banking.client.messaging.ClientConsumer;
+import com.banking.client.repository.ClientRepository;
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClientConsumerTest {
+
+    private final Set<Long> stored = new HashSet<>();
+    private final List<List<Long>> inserts = new ArrayList<>();
+    private ClientRepository clientRepository;
+    private PlatformTransactionManager transactionManager;
+    private DelayedRetryRecoverer recoverer;
+    private Channel channel;
+    private SimpleMeterRegistry meterRegistry;
+    private ClientConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        when(clientRepository.findUserIdsIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().filter(stored::contains).toList());
+        when(clientRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Client> clients = invocation.getArgument(0);
+            inserts.add(clients.stream().map(Client::getUserId).toList());
+            return clients;
+        });
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        recoverer = mock(DelayedRetryRecoverer.class);
+        channel = mock(Channel.class);
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new ClientConsumer(clientRepository, new TransactionTemplate(transactionManager),
+                new EventMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule())), recoverer,
+                meterRegistry);
+    }
+
+    @Test
+    void handleUserRegistrations_AcksEveryMessageAfterTheBatchCommits() throws Exception {
+        stored.add(3L);
+        List<Message> batch = List.of(event(1, 1L), event(2, 2L), event(3, 2L), event(4, 3L));
+
+        consumer.handleUserRegistrations(batch, channel);
+
+        // One insert for the whole batch; the duplicate and the existing user add nothing
+        assertEquals(List.of(List.of(1L, 2L)), inserts);
+        InOrder inOrder = inOrder(transactionManager, channel);
+        inOrder.verify(transactionManager).commit(any());
+        for (long tag = 1; tag <= 4; tag++) {
+            inOrder.verify(channel).basicAck(tag, false);
+        }
+        verify(transactionManager, never()).rollback(any());
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        verifyNoInteractions(recoverer);
+        assertEquals(2.0, meterRegistry.get("registration.clients.created").counter().count());
+    }
+
+    @Test
+    void handleUserRegistrations_SingleFailingUser_IsRetriedAloneAndTheRestIsAcked() throws Exception {
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("duplicate phone number");
+        doAnswer(invocation -> {
+            List<Client> clients = invocation.getArgument(0);
+            List<Long> userIds = clients.stream().map(Client::getUserId).toList();
+            if (userIds.contains(2L)) {
+                throw failure;
+            }
+            inserts.add(userIds);
+            return clients;
+        }).when(clientRepository).saveAll(anyList());
+        Message failing = event(2, 2L);
+        Message unreadable = message(4, "{\"userId\":");
+
+        consumer.handleUserRegistrations(List.of(event(1, 1L), failing, event(3, 3L), unreadable), channel);
+
+        assertEquals(List.of(List.of(1L), List.of(3L)), inserts);
+        // The batch and the failing user rolled back, the other users committed on their own
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(recoverer).recover(failing, failure);
+        verify(recoverer).recover(same(unreadable), any(Throwable.class));
+        for (long tag = 1; tag <= 4; tag++) {
+            verify(channel).basicAck(tag, false);
+        }
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        assertEquals(2.0, meterRegistry.get("registration.clients.created").counter().count());
+    }
+
+    @Test
+    void handleUserRegistrations_FailedAck_RequeuesOnlyTheUnsettledMessages() throws Exception {
+        doThrow(new IOException("channel closed")).when(channel).basicAck(2L, false);
+
+        consumer.handleUserRegistrations(List.of(event(1, 1L), event(2, 2L), event(3, 3L)), channel);
+
+        verify(transactionManager).commit(any());
+        verify(channel).basicAck(1L, false);
+        verify(channel, never()).basicAck(3L, false);
+        verify(channel, never()).basicNack(eq(1L), anyBoolean(), anyBoolean());
+        verify(channel).basicNack(2L, false, true);
+        verify(channel).basicNack(3L, false, true);
+    }
+
+    @Test
+    void handleUserRegistrations_FailedRetryPublish_RequeuesTheFailedMessage() throws Exception {
+        doThrow(new AmqpException("confirm timed out")).when(recoverer).recover(any(Message.class), any());
+
+        consumer.handleUserRegistrations(List.of(event(1, 1L), message(2, "not json")), channel);
+
+        verify(channel).basicAck(1L, false);
+        verify(channel, never()).basicAck(2L, false);
+        verify(channel).basicNack(2L, false, true);
+        verify(channel, never()).basicNack(eq(1L), anyBoolean(), anyBoolean());
+    }
+
+    private static Message event(long deliveryTag, long userId) {
+        return message(deliveryTag, "{\"userId\":" + userId + ",\"username\":\"user" + userId + "\",\"email\":\"user"
+                + userId + "@example.com\"}");
+    }
+
+    private static Message message(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
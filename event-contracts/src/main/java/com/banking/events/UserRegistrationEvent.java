@@ -1,10 +1,11 @@
-package com.banking.auth.dto;
+package com.banking.events;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+// Published by auth-service when a user registers; account-service and client-service provision from it
 @Data
 @NoArgsConstructor
 public class UserRegistrationEvent {
@@ -19,4 +20,4 @@ public class UserRegistrationEvent {
         this.email = email;
         this.registeredAt = LocalDateTime.now();
     }
-}
\ No newline at end of file
+}
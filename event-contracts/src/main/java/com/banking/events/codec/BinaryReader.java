@@ -0,0 +1,81 @@
+package com.banking.events.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads the fields written by {@link BinaryWriter}, in the same order. Fields that were null, or
+ * that the writer's version did not have yet, read as null; trailing fields of a newer version
+ * are never read.
+ */
+public class BinaryReader {
+
+    private final byte[] bytes;
+    private int position;
+    private long presence;
+    private int fieldIndex;
+
+    BinaryReader(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.position = offset;
+    }
+
+    public Long readLong() {
+        return next() ? unzigzag(readVarLong()) : null;
+    }
+
+    public Integer readInt() {
+        Long value = readLong();
+        return value == null ? null : Math.toIntExact(value);
+    }
+
+    public String readString() {
+        if (!next()) {
+            return null;
+        }
+        int length = Math.toIntExact(readVarLong());
+        if (length > bytes.length - position) {
+            throw new IllegalArgumentException("String field overruns the message");
+        }
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public LocalDateTime readTimestamp() {
+        if (!next()) {
+            return null;
+        }
+        long micros = unzigzag(readVarLong());
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    void readPresence() {
+        presence = readVarLong();
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private boolean next() {
+        return fieldIndex < BinaryWriter.MAX_FIELDS && (presence & (1L << fieldIndex++)) != 0;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.events.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes the fields of one record in order. Null fields take no bytes; a presence mask with one
+ * bit per field, written in front of them, tells the reader which fields follow. Integers are
+ * zigzag varints, strings are length-prefixed UTF-8 and timestamps are epoch microseconds (UTC).
+ */
+public class BinaryWriter {
+
+    public static final int MAX_FIELDS = 63;
+
+    private final ByteArrayOutputStream fields = new ByteArrayOutputStream(64);
+    private long presence;
+    private int fieldIndex;
+
+    public BinaryWriter writeLong(Long value) {
+        if (next(value)) {
+            writeVarLong(fields, zigzag(value));
+        }
+        return this;
+    }
+
+    public BinaryWriter writeInt(Integer value) {
+        return writeLong(value == null ? null : value.longValue());
+    }
+
+    public BinaryWriter writeString(String value) {
+        if (next(value)) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(fields, bytes.length);
+            fields.writeBytes(bytes);
+        }
+        return this;
+    }
+
+    public BinaryWriter writeTimestamp(LocalDateTime value) {
+        if (next(value)) {
+            long micros = value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+            writeVarLong(fields, zigzag(micros));
+        }
+        return this;
+    }
+
+    void writeTo(ByteArrayOutputStream out) {
+        writeVarLong(out, presence);
+        out.writeBytes(fields.toByteArray());
+    }
+
+    private boolean next(Object value) {
+        if (fieldIndex >= MAX_FIELDS) {
+            throw new IllegalStateException("A record holds at most " + MAX_FIELDS + " fields");
+        }
+        boolean present = value != null;
+        if (present) {
+            presence |= 1L << fieldIndex;
+        }
+        fieldIndex++;
+        return present;
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,19 @@
+package com.banking.events.codec;
+
+/**
+ * Binary encoding of one event type. A schema id is assigned once and never reused. A new
+ * version may only append fields, so a reader decodes the fields it knows and ignores the rest,
+ * and a newer reader gets null for fields an older writer did not send.
+ */
+public interface EventCodec<T> {
+
+    int schemaId();
+
+    int version();
+
+    Class<T> type();
+
+    void encode(T event, BinaryWriter out);
+
+    T decode(BinaryReader in, int version);
+}
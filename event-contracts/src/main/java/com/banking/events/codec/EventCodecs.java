@@ -0,0 +1,77 @@
+package com.banking.events.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Registry of the event codecs and the binary frame around them:
+ * <pre>
+ *   0xBE | schema id (varint) | version (varint) | presence mask (varint) | fields
+ * </pre>
+ * JSON bodies never start with 0xBE, so both encodings can share a queue during a migration.
+ */
+public class EventCodecs {
+
+    static final int MAGIC = 0xBE;
+
+    private final Map<Integer, EventCodec<?>> bySchema = new HashMap<>();
+    private final Map<String, EventCodec<?>> byTypeName = new HashMap<>();
+
+    public EventCodecs(List<EventCodec<?>> codecs) {
+        for (EventCodec<?> codec : codecs) {
+            if (bySchema.putIfAbsent(codec.schemaId(), codec) != null) {
+                throw new IllegalArgumentException("Schema id " + codec.schemaId() + " registered twice");
+            }
+            byTypeName.put(codec.type().getName(), codec);
+        }
+    }
+
+    public static EventCodecs standard() {
+        return new EventCodecs(List.of(new UserRegistrationEventCodec()));
+    }
+
+    public Optional<EventCodec<?>> forType(Class<?> type) {
+        return forTypeName(type.getName());
+    }
+
+    public Optional<EventCodec<?>> forTypeName(String typeName) {
+        return Optional.ofNullable(typeName == null ? null : byTypeName.get(typeName));
+    }
+
+    public byte[] encode(Object event) {
+        @SuppressWarnings("unchecked")
+        EventCodec<Object> codec = (EventCodec<Object>) forType(event.getClass())
+                .orElseThrow(() -> new IllegalArgumentException("No codec for " + event.getClass().getName()));
+        BinaryWriter writer = new BinaryWriter();
+        codec.encode(event, writer);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MAGIC);
+        BinaryWriter.writeVarLong(out, codec.schemaId());
+        BinaryWriter.writeVarLong(out, codec.version());
+        writer.writeTo(out);
+        return out.toByteArray();
+    }
+
+    public Object decode(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new IllegalArgumentException("Not a binary event");
+        }
+        BinaryReader in = new BinaryReader(bytes, 1);
+        int schemaId = Math.toIntExact(in.readVarLong());
+        int version = Math.toIntExact(in.readVarLong());
+        EventCodec<?> codec = bySchema.get(schemaId);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown event schema " + schemaId);
+        }
+        in.readPresence();
+        return codec.decode(in, version);
+    }
+
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length > 0 && (bytes[0] & 0xFF) == MAGIC;
+    }
+}
@@ -0,0 +1,145 @@
+package com.banking.events.codec;
+
+import com.banking.events.UserRegistrationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sends events that have a codec in the binary encoding of {@link EventCodecs} and anything else
+ * as JSON. Reads both, so consumers can be upgraded before producers switch encoding; with
+ * {@code binaryEncoding} off a producer keeps sending JSON.
+ */
+public class EventMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-banking-event";
+    public static final String SCHEMA_HEADER = "x-event-schema";
+    public static final String VERSION_HEADER = "x-event-version";
+
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
+    // Type ids of the per-service classes these replaced: read from JSON still in flight, and written on
+    // JSON so consumers that are not upgraded yet keep resolving them
+    private static final Map<String, Class<?>> LEGACY_TYPE_IDS = Map.of(
+            "com.banking.auth.dto.UserRegistrationEvent", UserRegistrationEvent.class);
+
+    private final EventCodecs codecs;
+    private final ObjectMapper objectMapper;
+    private final Jackson2JsonMessageConverter json;
+    private boolean binaryEncoding = true;
+
+    public EventMessageConverter(ObjectMapper objectMapper) {
+        this(EventCodecs.standard(), objectMapper);
+    }
+
+    public EventMessageConverter(EventCodecs codecs, ObjectMapper objectMapper) {
+        this.codecs = codecs;
+        this.objectMapper = objectMapper;
+        this.json = new Jackson2JsonMessageConverter(objectMapper);
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setTrustedPackages(UserRegistrationEvent.class.getPackageName());
+        typeMapper.setIdClassMapping(LEGACY_TYPE_IDS);
+        json.setJavaTypeMapper(typeMapper);
+    }
+
+    public void setBinaryEncoding(boolean binaryEncoding) {
+        this.binaryEncoding = binaryEncoding;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        Optional<EventCodec<?>> codec = codecs.forType(object.getClass());
+        if (binaryEncoding && codec.isPresent()) {
+            return binary(object, codec.get(), messageProperties);
+        }
+        return json.toMessage(object, messageProperties);
+    }
+
+    /**
+     * Builds the message for an event that was recorded as JSON, e.g. in an outbox. Events with a
+     * codec are re-encoded; anything else is sent as the JSON it is.
+     */
+    public Message toMessage(String payload, String typeName, MessageProperties messageProperties) {
+        Optional<EventCodec<?>> codec = codecs.forTypeName(canonicalTypeName(typeName));
+        if (binaryEncoding && codec.isPresent()) {
+            try {
+                return binary(objectMapper.readValue(payload, codec.get().type()), codec.get(), messageProperties);
+            } catch (IOException e) {
+                throw new MessageConversionException("Could not read recorded " + typeName, e);
+            }
+        }
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+        messageProperties.setContentLength(body.length);
+        if (typeName != null) {
+            // What Jackson2JsonMessageConverter would have sent
+            messageProperties.setHeader(TYPE_ID_HEADER, typeName);
+        }
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (isBinary(message)) {
+            return decode(message);
+        }
+        return json.fromMessage(message);
+    }
+
+    /**
+     * For listeners that receive raw messages: reads either encoding as the given type, whatever
+     * type id the message carries.
+     */
+    public <T> T fromMessage(Message message, Class<T> type) {
+        if (isBinary(message)) {
+            Object event = decode(message);
+            if (!type.isInstance(event)) {
+                throw new MessageConversionException("Expected " + type.getSimpleName() + " but got "
+                        + event.getClass().getSimpleName());
+            }
+            return type.cast(event);
+        }
+        try {
+            return objectMapper.readValue(message.getBody(), type);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not read " + type.getSimpleName() + " from JSON", e);
+        }
+    }
+
+    private Message binary(Object event, EventCodec<?> codec, MessageProperties messageProperties) {
+        byte[] body = codecs.encode(event);
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        messageProperties.setHeader(SCHEMA_HEADER, codec.schemaId());
+        messageProperties.setHeader(VERSION_HEADER, codec.version());
+        return new Message(body, messageProperties);
+    }
+
+    private Object decode(Message message) {
+        try {
+            return codecs.decode(message.getBody());
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Could not decode binary event: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isBinary(Message message) {
+        return CONTENT_TYPE.equals(message.getMessageProperties().getContentType())
+                || EventCodecs.isEncoded(message.getBody());
+    }
+
+    private static String canonicalTypeName(String typeName) {
+        Class<?> type = typeName == null ? null : LEGACY_TYPE_IDS.get(typeName);
+        return type != null ? type.getName() : typeName;
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.events.codec;
+
+import com.banking.events.UserRegistrationEvent;
+
+public class UserRegistrationEventCodec implements EventCodec<UserRegistrationEvent> {
+
+    public static final int SCHEMA_ID = 1;
+
+    @Override
+    public int schemaId() {
+        return SCHEMA_ID;
+    }
+
+    // 1: userId, username, email, registeredAt
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public Class<UserRegistrationEvent> type() {
+        return UserRegistrationEvent.class;
+    }
+
+    @Override
+    public void encode(UserRegistrationEvent event, BinaryWriter out) {
+        out.writeLong(event.getUserId())
+                .writeString(event.getUsername())
+                .writeString(event.getEmail())
+                .writeTimestamp(event.getRegisteredAt());
+    }
+
+    @Override
+    public UserRegistrationEvent decode(BinaryReader in, int version) {
+        UserRegistrationEvent event = new UserRegistrationEvent();
+        event.setUserId(in.readLong());
+        event.setUsername(in.readString());
+        event.setEmail(in.readString());
+        event.setRegisteredAt(in.readTimestamp());
+        return event;
+    }
+}
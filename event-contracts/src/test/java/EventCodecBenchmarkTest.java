@@ -0,0 +1,78 @@
+import com.banking.events.UserRegistrationEvent;
+import com.banking.events.codec.EventCodecs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encode/decode throughput and message size of the binary event encoding against the JSON
+ * the services used to send. Run with -Dbenchmark=true; the event count can be overridden with
+ * -Dbenchmark.events.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class EventCodecBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final EventCodecs codecs = EventCodecs.standard();
+
+    @Test
+    void userRegistrationEvent() throws Exception {
+        int events = Integer.getInteger("benchmark.events", 1_000_000);
+        UserRegistrationEvent event = new UserRegistrationEvent(1_234_567L, "new.customer", "new.customer@example.com");
+        event.setRegisteredAt(LocalDateTime.of(2026, 10, 19, 8, 30, 0, 123_456_000));
+
+        byte[] json = objectMapper.writeValueAsBytes(event);
+        byte[] binary = codecs.encode(event);
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            boolean report = round == WARMUP_ROUNDS;
+
+            long started = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                objectMapper.writeValueAsBytes(event);
+            }
+            long jsonEncode = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                objectMapper.readValue(json, UserRegistrationEvent.class);
+            }
+            long jsonDecode = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                codecs.encode(event);
+            }
+            long binaryEncode = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                codecs.decode(binary);
+            }
+            long binaryDecode = System.nanoTime() - started;
+
+            if (report) {
+                print("json", json.length, events, jsonEncode, jsonDecode);
+                print("binary", binary.length, events, binaryEncode, binaryDecode);
+            }
+        }
+
+        assertThat(binary.length).isLessThan(json.length);
+        assertThat(codecs.decode(binary)).isEqualTo(objectMapper.readValue(json, UserRegistrationEvent.class));
+    }
+
+    private static void print(String encoding, int size, int events, long encodeNanos, long decodeNanos) {
+        System.out.printf("%-6s %4d bytes, encode %,10.0f events/s, decode %,10.0f events/s%n", encoding, size,
+                events * 1e9 / Math.max(encodeNanos, 1), events * 1e9 / Math.max(decodeNanos, 1));
+        System.out.printf("%-6s %d events took %d ms to encode and %d ms to decode%n", "", events,
+                TimeUnit.NANOSECONDS.toMillis(encodeNanos), TimeUnit.NANOSECONDS.toMillis(decodeNanos));
+    }
+}
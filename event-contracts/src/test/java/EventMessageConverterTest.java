@@ -0,0 +1,101 @@
+import com.banking.events.UserRegistrationEvent;
+import com.banking.events.codec.EventCodecs;
+import com.banking.events.codec.EventMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final EventMessageConverter converter = new EventMessageConverter(objectMapper);
+
+    @Test
+    void binaryRoundTrip() {
+        UserRegistrationEvent event = event();
+
+        Message message = converter.toMessage(event, new MessageProperties());
+
+        assertEquals(EventMessageConverter.CONTENT_TYPE, message.getMessageProperties().getContentType());
+        assertEquals(1, (Integer) message.getMessageProperties().getHeader(EventMessageConverter.SCHEMA_HEADER));
+        assertEquals(event, converter.fromMessage(message));
+        assertEquals(event, converter.fromMessage(message, UserRegistrationEvent.class));
+    }
+
+    @Test
+    void nullFieldsTakeNoSpaceAndReadBackAsNull() {
+        UserRegistrationEvent event = new UserRegistrationEvent();
+        event.setUserId(7L);
+
+        byte[] body = EventCodecs.standard().encode(event);
+
+        // magic, schema, version, presence mask and one varint
+        assertEquals(5, body.length);
+        assertEquals(event, EventCodecs.standard().decode(body));
+    }
+
+    @Test
+    void trailingFieldsOfANewerVersionAreIgnored() {
+        byte[] body = EventCodecs.standard().encode(event());
+        byte[] newer = Arrays.copyOf(body, body.length + 2);
+        newer[2] = 2;
+        newer[3] = 0x1F;
+        newer[body.length] = 0x02;
+        newer[body.length + 1] = 0x2A;
+
+        assertEquals(event(), EventCodecs.standard().decode(newer));
+    }
+
+    @Test
+    void readsJsonFromProducersNotYetSwitched() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", "com.banking.auth.dto.UserRegistrationEvent");
+        Message legacy = new Message(
+                "{\"userId\":42,\"username\":\"alice\",\"email\":\"alice@example.com\",\"registeredAt\":\"2026-10-19T08:30:00.123456\"}"
+                        .getBytes(StandardCharsets.UTF_8), properties);
+
+        assertEquals(event(), converter.fromMessage(legacy));
+        assertEquals(event(), converter.fromMessage(legacy, UserRegistrationEvent.class));
+    }
+
+    @Test
+    void reencodesRecordedJsonOnlyWhenBinaryIsEnabled() throws Exception {
+        String recorded = objectMapper.writeValueAsString(event());
+
+        Message binary = converter.toMessage(recorded, UserRegistrationEvent.class.getName(), new MessageProperties());
+        converter.setBinaryEncoding(false);
+        Message json = converter.toMessage(recorded, UserRegistrationEvent.class.getName(), new MessageProperties());
+
+        assertTrue(EventCodecs.isEncoded(binary.getBody()));
+        assertEquals(recorded, new String(json.getBody(), StandardCharsets.UTF_8));
+        assertEquals(event(), converter.fromMessage(json));
+    }
+
+    @Test
+    void corruptBinaryIsAConversionFailure() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventMessageConverter.CONTENT_TYPE);
+
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(new Message(new byte[]{(byte) 0xBE, 99, 1, 0}, properties)));
+    }
+
+    private static UserRegistrationEvent event() {
+        UserRegistrationEvent event = new UserRegistrationEvent();
+        event.setUserId(42L);
+        event.setUsername("alice");
+        event.setEmail("alice@example.com");
+        event.setRegisteredAt(LocalDateTime.of(2026, 10, 19, 8, 30, 0, 123_456_000));
+        return event;
+    }
+}
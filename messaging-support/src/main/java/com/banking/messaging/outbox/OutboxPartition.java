@@ -0,0 +1,18 @@
+package com.banking.messaging.outbox;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_partitions")
+@Data
+public class OutboxPartition {
+    @Id
+    @Column(name = "partition_no")
+    private Integer partitionNo;
+
+    @Column(name = "drained_at")
+    private LocalDateTime drainedAt;
+}
@@ -0,0 +1,204 @@
+package com.banking.messaging.outbox;
+
+import com.banking.events.codec.EventMessageConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Publishes outbox rows to RabbitMQ. Each partition is claimed with FOR UPDATE SKIP LOCKED, so
+ * any number of instances can relay at once while a partition, and with it every aggregate
+ * hashed to it, is drained by one relay at a time in id order. A batch is sent on one channel,
+ * confirmed by the broker and only then deleted, in the claiming transaction. A failed batch
+ * stays in place and is retried from its first row, so delivery is at least once and ordered
+ * per aggregate. Rows are recorded as JSON; events with a codec go out in the binary encoding.
+ * The partition table is filled with portable SQL, so the relay runs on PostgreSQL and MySQL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final String PENDING_PARTITIONS_SQL = "SELECT DISTINCT partition_no FROM outbox";
+
+    private static final String CLAIM_SQL =
+            "SELECT partition_no FROM outbox_partitions WHERE partition_no = ? FOR UPDATE SKIP LOCKED";
+
+    private static final String BATCH_SQL = """
+            SELECT id, aggregate_type, aggregate_id, exchange_name, routing_key, payload_type, payload, created_at
+            FROM outbox WHERE partition_no = ? ORDER BY id LIMIT ?
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM outbox WHERE id = ?";
+
+    private static final String DRAINED_SQL = "UPDATE outbox_partitions SET drained_at = ? WHERE partition_no = ?";
+
+    private static final String OLDEST_SQL = "SELECT MIN(created_at) FROM outbox";
+
+    private static final String PARTITIONS_SQL = "SELECT partition_no FROM outbox_partitions";
+
+    private static final String INSERT_PARTITION_SQL = "INSERT INTO outbox_partitions (partition_no) VALUES (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
+    private final EventMessageConverter eventMessageConverter;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private volatile double lagSeconds;
+    private volatile boolean partitionsReady;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize = 200;
+
+    // Bounds the time one busy partition can hold the relay before the others get a turn
+    @Value("${outbox.relay.max-batches-per-partition:10}")
+    private int maxBatchesPerPartition = 10;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMillis = 5000;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       RabbitTemplate rabbitTemplate,
+                       OutboxService outboxService,
+                       EventMessageConverter eventMessageConverter,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rabbitTemplate = rabbitTemplate;
+        this.outboxService = outboxService;
+        this.eventMessageConverter = eventMessageConverter;
+        this.published = meterRegistry.counter("outbox.relay.published");
+        this.failures = meterRegistry.counter("outbox.relay.failures");
+        this.batchTimer = meterRegistry.timer("outbox.relay.batch");
+        Gauge.builder("outbox.relay.lag", this, relay -> relay.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-ms:200}")
+    public void run() {
+        ensurePartitions();
+        updateLag();
+
+        List<Integer> pending = new ArrayList<>(jdbcTemplate.queryForList(PENDING_PARTITIONS_SQL, Integer.class));
+        // Instances start on different partitions instead of all contending for the first
+        Collections.shuffle(pending);
+        for (Integer partition : pending) {
+            for (int batch = 0; batch < maxBatchesPerPartition; batch++) {
+                if (drain(partition) < batchSize) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes and removes up to one batch of the partition. Returns the rows published, zero
+     * when the partition is empty, held by another relay, or the batch failed.
+     */
+    public int drain(int partition) {
+        long started = System.nanoTime();
+        try {
+            Integer count = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.queryForList(CLAIM_SQL, Integer.class, partition).isEmpty()) {
+                    return 0;
+                }
+                List<Row> rows = jdbcTemplate.query(BATCH_SQL, (rs, i) -> new Row(
+                        rs.getLong("id"), rs.getString("aggregate_type"), rs.getString("aggregate_id"),
+                        rs.getString("exchange_name"), rs.getString("routing_key"), rs.getString("payload_type"),
+                        rs.getString("payload"), rs.getTimestamp("created_at")), partition, batchSize);
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+
+                rabbitTemplate.invoke(operations -> {
+                    for (Row row : rows) {
+                        operations.send(row.exchange(), row.routingKey(), message(row));
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+                    return null;
+                });
+
+                jdbcTemplate.batchUpdate(DELETE_SQL, rows, rows.size(), (ps, row) -> ps.setLong(1, row.id()));
+                jdbcTemplate.update(DRAINED_SQL, Timestamp.valueOf(LocalDateTime.now()), partition);
+                return rows.size();
+            });
+            if (count != null && count > 0) {
+                published.increment(count);
+                batchTimer.record(Duration.ofNanos(System.nanoTime() - started));
+            }
+            return count == null ? 0 : count;
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox partition {} not relayed, will retry: {}", partition, e.getMessage());
+            return 0;
+        }
+    }
+
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    private void updateLag() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_SQL, Timestamp.class);
+        lagSeconds = oldest == null ? 0
+                : Math.max(0, Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private void ensurePartitions() {
+        if (partitionsReady) {
+            return;
+        }
+        Set<Integer> existing = new HashSet<>(jdbcTemplate.queryForList(PARTITIONS_SQL, Integer.class));
+        for (int partition = 0; partition < outboxService.partitions(); partition++) {
+            if (existing.contains(partition)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update(INSERT_PARTITION_SQL, partition);
+            } catch (DuplicateKeyException e) {
+                // Inserted concurrently by another instance
+            }
+        }
+        partitionsReady = true;
+    }
+
+    private Message message(Row row) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(row.aggregateType() + "-" + row.id());
+        properties.setTimestamp(new Date(row.createdAt().getTime()));
+        properties.setHeader("aggregate-type", row.aggregateType());
+        properties.setHeader("aggregate-id", row.aggregateId());
+        return eventMessageConverter.toMessage(row.payload(), row.payloadType(), properties);
+    }
+
+    private record Row(long id, String aggregateType, String aggregateId, String exchange, String routingKey,
+                       String payloadType, String payload, Timestamp createdAt) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.banking.messaging.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Appends messages to the outbox table in the caller's transaction, so a message exists exactly
+ * when the change it describes was committed. {@link OutboxRelay} publishes them afterwards.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, partition_no, exchange_name, routing_key,
+                                payload_type, payload, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int partitions;
+
+    public OutboxService(JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper,
+                         @Value("${outbox.partitions:16}") int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.partitions = partitions;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Object aggregateId, String exchange, String routingKey, Object payload) {
+        String aggregate = String.valueOf(aggregateId);
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregate, partitionOf(aggregateType, aggregate),
+                exchange, routingKey, payload.getClass().getName(), serialize(payload),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    // Same aggregate, same partition, on every instance
+    int partitionOf(String aggregateType, String aggregateId) {
+        return Math.floorMod((aggregateType + ":" + aggregateId).hashCode(), partitions);
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.banking.messaging.retry;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code deadletters} actuator endpoint: DLQ depths, and a bulk replay that moves parked
+ * messages back onto their listener queue with the retry count reset. Messages are acked in the
+ * DLQ only after the broker confirmed the republish, so a failed replay can duplicate but never
+ * lose a message.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "deadletters")
+public class DeadLetterReplayer {
+
+    private final List<RetryTopology> topologies;
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rabbitmq.replay.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${rabbitmq.retry.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMillis = 5000;
+
+    public DeadLetterReplayer(List<RetryTopology> topologies, RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.topologies = topologies;
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Long> depths() {
+        Map<String, Long> depths = new LinkedHashMap<>();
+        for (RetryTopology topology : topologies) {
+            depths.put(topology.getDeadLetterQueue(),
+                    rabbitTemplate.execute(channel -> channel.messageCount(topology.getDeadLetterQueue())));
+        }
+        return depths;
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Selector String deadLetterQueue, @Nullable Integer limit) {
+        RetryTopology topology = topologies.stream()
+                .filter(t -> t.getDeadLetterQueue().equals(deadLetterQueue))
+                .findFirst()
+                .orElseThrow(() -> new InvalidEndpointRequestException(
+                        "Unknown dead-letter queue " + deadLetterQueue, "Unknown dead-letter queue"));
+
+        int max = limit == null ? Integer.MAX_VALUE : limit;
+        int replayed = 0;
+        while (replayed < max) {
+            int batch = Math.min(batchSize, max - replayed);
+            Integer moved = rabbitTemplate.execute(channel -> move(channel, topology, batch));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            replayed += moved;
+        }
+
+        meterRegistry.counter("listener.replayed", "queue", topology.getQueue()).increment(replayed);
+        log.info("Replayed {} messages from {} to {}", replayed, deadLetterQueue, topology.getQueue());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queue", topology.getQueue());
+        result.put("replayed", replayed);
+        return result;
+    }
+
+    private int move(Channel channel, RetryTopology topology, int max) throws Exception {
+        channel.confirmSelect();
+        long lastTag = -1;
+        int count = 0;
+        while (count < max) {
+            GetResponse response = channel.basicGet(topology.getDeadLetterQueue(), false);
+            if (response == null) {
+                break;
+            }
+            channel.basicPublish("", topology.getQueue(), withRetriesReset(response.getProps()), response.getBody());
+            lastTag = response.getEnvelope().getDeliveryTag();
+            count++;
+        }
+        if (count > 0) {
+            channel.waitForConfirmsOrDie(confirmTimeoutMillis);
+            channel.basicAck(lastTag, true);
+        }
+        return count;
+    }
+
+    private static AMQP.BasicProperties withRetriesReset(AMQP.BasicProperties properties) {
+        Map<String, Object> headers = properties.getHeaders() == null
+                ? new HashMap<>() : new HashMap<>(properties.getHeaders());
+        headers.remove(DelayedRetryRecoverer.RETRY_COUNT_HEADER);
+        headers.remove(DelayedRetryRecoverer.EXCEPTION_HEADER);
+        headers.remove("x-death");
+        return properties.builder().headers(headers).deliveryMode(2).build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking.messaging.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.List;
+
+/**
+ * Recovers failed deliveries of one listener queue through its {@link RetryTopology}: the message
+ * is republished to the retry queue of its next attempt, or to the DLQ once the tiers are used up
+ * or the payload cannot be read at all. Republishing is confirmed before the container acks the
+ * original; if it fails the exception propagates and the broker redelivers the original instead.
+ */
+@Slf4j
+public class DelayedRetryRecoverer implements MessageBatchRecoverer {
+
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+
+    private final RetryTopology topology;
+    private final RabbitTemplate rabbitTemplate;
+    private final long confirmTimeoutMillis;
+    private final Counter[] retries;
+    private final Counter deadLettered;
+
+    public DelayedRetryRecoverer(RetryTopology topology,
+                                 RabbitTemplate rabbitTemplate,
+                                 MeterRegistry meterRegistry,
+                                 long confirmTimeoutMillis) {
+        this.topology = topology;
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.retries = new Counter[topology.tiers()];
+        for (int tier = 0; tier < topology.tiers(); tier++) {
+            retries[tier] = meterRegistry.counter("listener.retries",
+                    "queue", topology.getQueue(), "tier", String.valueOf(tier + 1));
+        }
+        this.deadLettered = meterRegistry.counter("listener.dead.lettered", "queue", topology.getQueue());
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        recover(List.of(message), cause);
+    }
+
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        boolean poison = isPoison(cause);
+        String reason = String.valueOf(rootCause(cause).getMessage());
+        int[] routedToTier = new int[messages.size()];
+
+        rabbitTemplate.invoke(operations -> {
+            for (int i = 0; i < messages.size(); i++) {
+                Message message = messages.get(i);
+                int attempt = retryCount(message);
+                MessageProperties properties = message.getMessageProperties();
+                properties.setHeader(EXCEPTION_HEADER, reason);
+                properties.setHeader(ORIGINAL_QUEUE_HEADER, topology.getQueue());
+                if (poison || attempt >= topology.tiers()) {
+                    routedToTier[i] = -1;
+                    send(operations, topology.getDeadLetterQueue(), message);
+                } else {
+                    routedToTier[i] = attempt;
+                    properties.setHeader(RETRY_COUNT_HEADER, attempt + 1);
+                    send(operations, topology.retryQueue(attempt), message);
+                }
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+
+        int dead = 0;
+        for (int tier : routedToTier) {
+            if (tier < 0) {
+                dead++;
+            } else {
+                retries[tier].increment();
+            }
+        }
+        deadLettered.increment(dead);
+        if (dead > 0) {
+            log.error("Dead-lettered {} of {} messages from {}: {}", dead, messages.size(), topology.getQueue(), reason);
+        } else {
+            log.warn("Scheduled retry of {} messages from {}: {}", messages.size(), topology.getQueue(), reason);
+        }
+    }
+
+    /**
+     * Parks messages in the DLQ as they are, for listeners that decide per message themselves.
+     */
+    public void deadLetter(List<Message> messages) {
+        rabbitTemplate.invoke(operations -> {
+            for (Message message : messages) {
+                message.getMessageProperties().setHeader(ORIGINAL_QUEUE_HEADER, topology.getQueue());
+                send(operations, topology.getDeadLetterQueue(), message);
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+        deadLettered.increment(messages.size());
+        log.error("Dead-lettered {} messages from {}", messages.size(), topology.getQueue());
+    }
+
+    private static void send(RabbitOperations operations, String queue, Message message) {
+        // Received messages carry the delivery mode only as receivedDeliveryMode
+        message.getMessageProperties().setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        operations.send("", queue, message);
+    }
+
+    private static int retryCount(Message message) {
+        Object count = message.getMessageProperties().getHeaders().get(RETRY_COUNT_HEADER);
+        return count instanceof Number number ? number.intValue() : 0;
+    }
+
+    // Retrying cannot fix a payload that does not deserialize
+    private static boolean isPoison(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof MessageConversionException || t instanceof AmqpRejectAndDontRequeueException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root;
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.messaging.retry;
+
+import lombok.Getter;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.QueueBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delayed retry queues and the dead-letter queue of one listener queue. A failed message waits in
+ * the retry queue of its attempt until the queue TTL expires, and the broker then dead-letters it
+ * back onto the listener queue. After the last tier it is parked in the DLQ until replayed.
+ * Retry queues are named after their delay, so changing a delay declares a new queue instead of
+ * clashing with the arguments of the existing one.
+ */
+@Getter
+public class RetryTopology {
+
+    private final String queue;
+    private final String deadLetterQueue;
+    private final long[] delaysMillis;
+    private final String baseName;
+
+    public RetryTopology(String queue, long... delaysMillis) {
+        this.queue = queue;
+        this.baseName = queue.endsWith(".queue") ? queue.substring(0, queue.length() - ".queue".length()) : queue;
+        this.deadLetterQueue = baseName + ".dlq";
+        this.delaysMillis = delaysMillis.clone();
+    }
+
+    public int tiers() {
+        return delaysMillis.length;
+    }
+
+    public String retryQueue(int tier) {
+        return baseName + ".retry." + delaysMillis[tier] + "ms";
+    }
+
+    public Declarables declarables() {
+        List<Declarable> queues = new ArrayList<>();
+        for (int tier = 0; tier < tiers(); tier++) {
+            queues.add(QueueBuilder.durable(retryQueue(tier))
+                    .ttl(Math.toIntExact(delaysMillis[tier]))
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queue)
+                    .build());
+        }
+        queues.add(QueueBuilder.durable(deadLetterQueue).build());
+        return new Declarables(queues);
+    }
+}
@@ -0,0 +1,124 @@
+import com.banking.messaging.retry.DeadLetterReplayer;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.banking.messaging.retry.RetryTopology;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeadLetterReplayerTest {
+
+    private final RetryTopology topology = new RetryTopology("orders.queue", 1000, 5000);
+    private final Deque<GetResponse> parked = new ArrayDeque<>();
+    private final List<AMQP.BasicProperties> republished = new ArrayList<>();
+    private Channel channel;
+    private SimpleMeterRegistry meterRegistry;
+    private DeadLetterReplayer replayer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        channel = mock(Channel.class);
+        when(channel.basicGet("orders.dlq", false)).thenAnswer(invocation -> parked.poll());
+        doAnswer(invocation -> republished.add(invocation.getArgument(2)))
+                .when(channel).basicPublish(eq(""), eq("orders.queue"), any(AMQP.BasicProperties.class), any(byte[].class));
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+        meterRegistry = new SimpleMeterRegistry();
+        replayer = new DeadLetterReplayer(List.of(topology), rabbitTemplate, meterRegistry);
+        ReflectionTestUtils.setField(replayer, "batchSize", 2);
+    }
+
+    @Test
+    void replay_MovesEveryParkedMessageInConfirmedBatches() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            park(i);
+        }
+
+        Map<String, Object> result = replayer.replay("orders.dlq", null);
+
+        assertEquals(Map.of("queue", "orders.queue", "replayed", 5), result);
+        assertEquals(5, republished.size());
+        // Each batch is acked up to its last message, only after the broker confirmed the republish
+        var inOrder = inOrder(channel);
+        for (long lastTag : new long[]{2, 4, 5}) {
+            inOrder.verify(channel).waitForConfirmsOrDie(anyLong());
+            inOrder.verify(channel).basicAck(lastTag, true);
+        }
+        assertEquals(5.0, meterRegistry.get("listener.replayed").tag("queue", "orders.queue").counter().count());
+    }
+
+    @Test
+    void replay_ResetsTheRetryStateAndKeepsOtherHeaders() throws Exception {
+        park(1);
+
+        replayer.replay("orders.dlq", null);
+
+        AMQP.BasicProperties properties = republished.get(0);
+        assertEquals(Map.of("trace-id", "t-1", DelayedRetryRecoverer.ORIGINAL_QUEUE_HEADER, "orders.queue"),
+                properties.getHeaders());
+        assertEquals(2, properties.getDeliveryMode());
+        assertEquals("application/json", properties.getContentType());
+    }
+
+    @Test
+    void replay_StopsAtTheLimit() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            park(i);
+        }
+
+        Map<String, Object> result = replayer.replay("orders.dlq", 3);
+
+        assertEquals(3, result.get("replayed"));
+        assertEquals(2, parked.size());
+        verify(channel).basicAck(2, true);
+        verify(channel).basicAck(3, true);
+    }
+
+    @Test
+    void replay_UnconfirmedBatchLeavesTheMessagesParked() throws Exception {
+        park(1);
+        doThrow(new IOException("nack")).when(channel).waitForConfirmsOrDie(anyLong());
+
+        assertThrows(IOException.class, () -> replayer.replay("orders.dlq", null));
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void replay_UnknownQueueIsRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> replayer.replay("payments.dlq", null));
+        verifyNoInteractions(channel);
+    }
+
+    private void park(long deliveryTag) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .contentType("application/json")
+                .deliveryMode(1)
+                .headers(Map.of(
+                        "trace-id", "t-" + deliveryTag,
+                        DelayedRetryRecoverer.RETRY_COUNT_HEADER, 2,
+                        DelayedRetryRecoverer.EXCEPTION_HEADER, "database unavailable",
+                        DelayedRetryRecoverer.ORIGINAL_QUEUE_HEADER, "orders.queue",
+                        "x-death", List.of()))
+                .build();
+        parked.add(new GetResponse(new Envelope(deliveryTag, false, "", "orders.dlq"), properties, "{}".getBytes(), 0));
+    }
+}
@@ -0,0 +1,69 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.banking.messaging.retry.DelayedRetryRecoverer;
+import com.banking.messaging.retry.RetryTopology;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DelayedRetryRecovererTest {
+
+    private final RetryTopology topology = new RetryTopology("orders.queue", 1000, 5000);
+    private final List<String> destinations = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private DelayedRetryRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        RabbitOperations channel = mock(RabbitOperations.class);
+        doAnswer(invocation -> destinations.add(invocation.getArgument(1)))
+                .when(channel).send(eq(""), anyString(), any(Message.class));
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(channel));
+        meterRegistry = new SimpleMeterRegistry();
+        recoverer = new DelayedRetryRecoverer(topology, rabbitTemplate, meterRegistry, 5000);
+    }
+
+    @Test
+    void recover_WalksTheTiersThenParksInDlq() {
+        Message message = new Message("{}".getBytes(), new MessageProperties());
+        RuntimeException failure = new IllegalStateException("database unavailable");
+
+        recoverer.recover(message, failure);
+        recoverer.recover(message, failure);
+        recoverer.recover(message, failure);
+
+        assertEquals(List.of("orders.retry.1000ms", "orders.retry.5000ms", "orders.dlq"), destinations);
+        assertEquals(2, (Integer) message.getMessageProperties().getHeader(DelayedRetryRecoverer.RETRY_COUNT_HEADER));
+        assertEquals("database unavailable",
+                message.getMessageProperties().getHeader(DelayedRetryRecoverer.EXCEPTION_HEADER));
+        assertEquals(1.0, meterRegistry.get("listener.retries").tag("tier", "2").counter().count());
+        assertEquals(1.0, meterRegistry.get("listener.dead.lettered").counter().count());
+    }
+
+    @Test
+    void recover_UnreadablePayloadGoesStraightToDlq() {
+        Message message = new Message("not json".getBytes(), new MessageProperties());
+
+        recoverer.recover(List.of(message), new RuntimeException(new MessageConversionException("bad payload")));
+
+        assertEquals(List.of("orders.dlq"), destinations);
+        assertEquals(0.0, meterRegistry.get("listener.retries").tag("tier", "1").counter().count());
+    }
+
+    @Test
+    void declaresOneTtlQueuePerTierAndTheDlq() {
+        assertEquals(3, topology.declarables().getDeclarables().size());
+    }
+}
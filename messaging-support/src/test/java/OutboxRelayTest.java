@@ -0,0 +1,140 @@
+import com.banking.events.UserRegistrationEvent;
+import com.banking.events.codec.EventMessageConverter;
+import com.banking.messaging.outbox.OutboxRelay;
+import com.banking.messaging.outbox.OutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private OutboxService outboxService;
+    private OutboxRelay relay;
+    private RabbitOperations channel;
+    private SimpleMeterRegistry meterRegistry;
+    private EventMessageConverter eventMessageConverter;
+    private final List<Message> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:outbox_relay;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS outbox");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS outbox_partitions");
+        jdbcTemplate.execute("""
+                CREATE TABLE outbox (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    aggregate_type VARCHAR(30) NOT NULL, aggregate_id VARCHAR(64) NOT NULL,
+                    partition_no INTEGER NOT NULL, exchange_name VARCHAR(100) NOT NULL,
+                    routing_key VARCHAR(100) NOT NULL, payload_type VARCHAR(255), payload TEXT NOT NULL,
+                    created_at TIMESTAMP NOT NULL)
+                """);
+        jdbcTemplate.execute("CREATE TABLE outbox_partitions (partition_no INTEGER PRIMARY KEY, drained_at TIMESTAMP)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        outboxService = new OutboxService(jdbcTemplate, objectMapper, 4);
+
+        channel = mock(RabbitOperations.class);
+        doAnswer(invocation -> sent.add(invocation.getArgument(2)))
+                .when(channel).send(anyString(), anyString(), any(Message.class));
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(channel));
+
+        meterRegistry = new SimpleMeterRegistry();
+        eventMessageConverter = new EventMessageConverter(objectMapper);
+        relay = new OutboxRelay(jdbcTemplate, transactionTemplate, rabbitTemplate, outboxService,
+                eventMessageConverter, meterRegistry);
+    }
+
+    @Test
+    void run_PublishesEachAggregateInOrderAndDeletesConfirmedRows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long i = 0; i < 5; i++) {
+                outboxService.append("account", 1L, "account.events", "account.status.changed",
+                        new StatusChanged(1L, i));
+                outboxService.append("account", 2L, "account.events", "account.status.changed",
+                        new StatusChanged(2L, i));
+            }
+        });
+
+        relay.run();
+
+        assertEquals(10, sent.size());
+        assertEquals(List.of("0", "1", "2", "3", "4"), userIdsOf("1"));
+        assertEquals(List.of("0", "1", "2", "3", "4"), userIdsOf("2"));
+        assertEquals(StatusChanged.class.getName(),
+                sent.get(0).getMessageProperties().getHeaders().get("__TypeId__"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+        assertEquals(10.0, meterRegistry.get("outbox.relay.published").counter().count());
+        verify(channel, atLeastOnce()).waitForConfirmsOrDie(anyLong());
+    }
+
+    @Test
+    void run_UnconfirmedBatchStaysInOutbox() {
+        doThrow(new AmqpException("nack")).when(channel).waitForConfirmsOrDie(anyLong());
+        transactionTemplate.executeWithoutResult(status -> outboxService.append("account", 7L,
+                "account.events", "account.status.changed", new StatusChanged(7L, 1L)));
+
+        relay.run();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failures").counter().count());
+    }
+
+    @Test
+    void run_EventWithACodec_GoesOutInTheBinaryEncoding() {
+        UserRegistrationEvent event = new UserRegistrationEvent(3L, "user3", "user3@example.com");
+        transactionTemplate.executeWithoutResult(status -> outboxService.append("user", 3L,
+                "user.exchange", "user.registered", event));
+
+        relay.run();
+
+        assertEquals(1, sent.size());
+        assertEquals(EventMessageConverter.CONTENT_TYPE, sent.get(0).getMessageProperties().getContentType());
+        UserRegistrationEvent received = eventMessageConverter.fromMessage(sent.get(0), UserRegistrationEvent.class);
+        assertEquals(3L, received.getUserId());
+        assertEquals("user3@example.com", received.getEmail());
+    }
+
+    @Test
+    void run_CreatesEachPartitionRowOnce() {
+        jdbcTemplate.update("INSERT INTO outbox_partitions (partition_no) VALUES (2)");
+
+        relay.run();
+        relay.run();
+
+        assertEquals(List.of(0, 1, 2, 3), jdbcTemplate.queryForList(
+                "SELECT partition_no FROM outbox_partitions ORDER BY partition_no", Integer.class));
+    }
+
+    private List<String> userIdsOf(String aggregateId) {
+        return sent.stream()
+                .filter(message -> aggregateId.equals(message.getMessageProperties().getHeaders().get("aggregate-id")))
+                .map(message -> new String(message.getBody()).replaceAll(".*\"userId\":(\\d+).*", "$1"))
+                .toList();
+    }
+
+    record StatusChanged(Long accountId, Long userId) {
+    }
+}